@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.openpisces;
+
+import com.sun.javafx.geom.PathConsumer2D;
+
+/**
+ * Shapes and consumers shared by the OpenPisces benchmarks.
+ */
+final class BenchmarkShapes {
+
+    private BenchmarkShapes() {
+    }
+
+    // The distance of the control points of a cubic approximating a
+    // quarter circle of unit radius
+    private static final float CV = 0.5522848f;
+
+    static void circle(PathConsumer2D pc, float cx, float cy, float r) {
+        float c = CV * r;
+        pc.moveTo(cx + r, cy);
+        pc.curveTo(cx + r, cy + c, cx + c, cy + r, cx, cy + r);
+        pc.curveTo(cx - c, cy + r, cx - r, cy + c, cx - r, cy);
+        pc.curveTo(cx - r, cy - c, cx - c, cy - r, cx, cy - r);
+        pc.curveTo(cx + c, cy - r, cx + r, cy - c, cx + r, cy);
+        pc.closePath();
+    }
+
+    /**
+     * A self-intersecting star with the given number of points, inscribed
+     * in a square of the given size.
+     */
+    static void star(PathConsumer2D pc, int points, float size) {
+        float r = size / 2;
+        pc.moveTo(r + r, r);
+        for (int i = 1; i < points; i++) {
+            double a = Math.PI * 2 * ((i * (points / 2)) % points) / points;
+            pc.lineTo((float) (r + r * Math.cos(a)), (float) (r + r * Math.sin(a)));
+        }
+        pc.closePath();
+    }
+
+    /**
+     * An open polyline zig-zagging across a square of the given size.
+     */
+    static void zigzag(PathConsumer2D pc, int segments, float size) {
+        float step = size / segments;
+        pc.moveTo(0, 0);
+        for (int i = 1; i <= segments; i++) {
+            pc.lineTo(i * step, (i & 1) == 0 ? 0 : size);
+        }
+    }
+
+    /**
+     * An open path of quadratic and cubic curves across a square of the
+     * given size.
+     */
+    static void curves(PathConsumer2D pc, int segments, float size) {
+        float step = size / segments;
+        pc.moveTo(0, size / 2);
+        for (int i = 0; i < segments; i++) {
+            float x0 = i * step;
+            if ((i & 1) == 0) {
+                pc.quadTo(x0 + step / 2, 0, x0 + step, size / 2);
+            } else {
+                pc.curveTo(x0 + step / 3, size, x0 + step * 2 / 3, 0,
+                           x0 + step, size / 2);
+            }
+        }
+    }
+
+    /**
+     * Discards the path, only counting the segments so that the work of
+     * the producer cannot be optimized away.
+     */
+    static final class CountingConsumer implements PathConsumer2D {
+        int count;
+
+        @Override public void moveTo(float x0, float y0) { count++; }
+        @Override public void lineTo(float x1, float y1) { count++; }
+        @Override public void quadTo(float xc, float yc, float x1, float y1) { count++; }
+        @Override public void curveTo(float xc0, float yc0, float xc1, float yc1,
+                                      float x1, float y1) { count++; }
+        @Override public void closePath() { count++; }
+        @Override public void pathDone() { }
+    }
+
+    /**
+     * Accumulates the coverage of each row into a single sum, so that
+     * the cost of the consumer is small compared to the rasterization.
+     */
+    static final class SummingAlphaConsumer implements AlphaConsumer {
+        private final int x, y, w, h;
+        int sum;
+
+        SummingAlphaConsumer(int x, int y, int w, int h) {
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+        }
+
+        @Override public int getOriginX() { return x; }
+        @Override public int getOriginY() { return y; }
+        @Override public int getWidth() { return w; }
+        @Override public int getHeight() { return h; }
+        @Override public void setMaxAlpha(int maxalpha) { }
+
+        @Override
+        public void setAndClearRelativeAlphas(int[] alphaDeltas, int pix_y,
+                                              int firstdelta, int lastdelta)
+        {
+            int a = 0;
+            for (int i = 0; i < w; i++) {
+                a += alphaDeltas[i];
+                alphaDeltas[i] = 0;
+                sum += a;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.openpisces;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures breaking paths up into dashes with the {@link Dasher}, and
+ * dashing followed by stroking.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DasherBenchmark {
+
+    @Param({"64", "512"})
+    public int size;
+
+    @Param({"2", "20"})
+    public float dashLength;
+
+    private float[] dash;
+    private Dasher dasher;
+    private Dasher strokingDasher;
+    private Stroker stroker;
+    private BenchmarkShapes.CountingConsumer counter;
+
+    @Setup
+    public void setup() {
+        dash = new float[] { dashLength, dashLength / 2 };
+        counter = new BenchmarkShapes.CountingConsumer();
+        dasher = new Dasher(counter);
+        stroker = new Stroker(counter);
+        strokingDasher = new Dasher(stroker);
+    }
+
+    @Benchmark
+    public int dashZigzag() {
+        dasher.reset(dash, 0f);
+        BenchmarkShapes.zigzag(dasher, 32, size);
+        dasher.pathDone();
+        return counter.count;
+    }
+
+    @Benchmark
+    public int dashCurves() {
+        dasher.reset(dash, 0f);
+        BenchmarkShapes.curves(dasher, 16, size);
+        dasher.pathDone();
+        return counter.count;
+    }
+
+    @Benchmark
+    public int dashAndStrokeCircle() {
+        stroker.reset(2f, Stroker.CAP_BUTT, Stroker.JOIN_MITER, 10f);
+        strokingDasher.reset(dash, 0f);
+        BenchmarkShapes.circle(strokingDasher, size / 2f, size / 2f, size / 2f);
+        strokingDasher.pathDone();
+        return counter.count;
+    }
+}
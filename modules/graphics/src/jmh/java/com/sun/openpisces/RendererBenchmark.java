@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.openpisces;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures filling paths with the OpenPisces {@link Renderer}, from the
+ * path segments to the coverage of each row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RendererBenchmark {
+
+    @Param({"32", "256", "1024"})
+    public int size;
+
+    private Renderer renderer;
+    private BenchmarkShapes.SummingAlphaConsumer consumer;
+
+    @Setup
+    public void setup() {
+        renderer = new Renderer(3, 3);
+        consumer = new BenchmarkShapes.SummingAlphaConsumer(0, 0, size, size);
+    }
+
+    private int produce() {
+        renderer.pathDone();
+        renderer.produceAlphas(consumer);
+        return consumer.sum;
+    }
+
+    @Benchmark
+    public int fillCircle() {
+        renderer.reset(0, 0, size, size, Renderer.WIND_NON_ZERO);
+        BenchmarkShapes.circle(renderer, size / 2f, size / 2f, size / 2f - 1);
+        return produce();
+    }
+
+    @Benchmark
+    public int fillStarEvenOdd() {
+        renderer.reset(0, 0, size, size, Renderer.WIND_EVEN_ODD);
+        BenchmarkShapes.star(renderer, 11, size);
+        return produce();
+    }
+
+    @Benchmark
+    public int fillStarNonZero() {
+        renderer.reset(0, 0, size, size, Renderer.WIND_NON_ZERO);
+        BenchmarkShapes.star(renderer, 11, size);
+        return produce();
+    }
+
+    @Benchmark
+    public int fillCurves() {
+        renderer.reset(0, 0, size, size, Renderer.WIND_NON_ZERO);
+        BenchmarkShapes.curves(renderer, 16, size);
+        renderer.closePath();
+        return produce();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.openpisces;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures widening paths with the {@link Stroker}, both on its own and
+ * followed by rasterization of the outline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrokerBenchmark {
+
+    @Param({"64", "512"})
+    public int size;
+
+    @Param({"1", "10"})
+    public float lineWidth;
+
+    @Param({"MITER", "ROUND", "BEVEL"})
+    public String join;
+
+    private Stroker stroker;
+    private BenchmarkShapes.CountingConsumer counter;
+    private Renderer renderer;
+    private BenchmarkShapes.SummingAlphaConsumer alphas;
+    private int joinStyle;
+
+    @Setup
+    public void setup() {
+        joinStyle = "MITER".equals(join) ? Stroker.JOIN_MITER
+                  : "ROUND".equals(join) ? Stroker.JOIN_ROUND
+                  : Stroker.JOIN_BEVEL;
+        counter = new BenchmarkShapes.CountingConsumer();
+        stroker = new Stroker(counter);
+        renderer = new Renderer(3, 3);
+        int pad = (int) Math.ceil(lineWidth * 10);
+        alphas = new BenchmarkShapes.SummingAlphaConsumer(-pad, -pad,
+                                                          size + pad * 2,
+                                                          size + pad * 2);
+    }
+
+    private void resetStroker() {
+        stroker.reset(lineWidth, Stroker.CAP_ROUND, joinStyle, 10f);
+    }
+
+    @Benchmark
+    public int strokeZigzag() {
+        stroker.setConsumer(counter);
+        resetStroker();
+        BenchmarkShapes.zigzag(stroker, 32, size);
+        stroker.pathDone();
+        return counter.count;
+    }
+
+    @Benchmark
+    public int strokeCurves() {
+        stroker.setConsumer(counter);
+        resetStroker();
+        BenchmarkShapes.curves(stroker, 16, size);
+        stroker.pathDone();
+        return counter.count;
+    }
+
+    @Benchmark
+    public int strokeAndFillCircle() {
+        renderer.reset(alphas.getOriginX(), alphas.getOriginY(),
+                       alphas.getWidth(), alphas.getHeight(),
+                       Renderer.WIND_NON_ZERO);
+        stroker.setConsumer(renderer);
+        resetStroker();
+        BenchmarkShapes.circle(stroker, size / 2f, size / 2f, size / 2f);
+        stroker.pathDone();
+        renderer.produceAlphas(alphas);
+        return alphas.sum;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.pisces;
+
+import com.sun.glass.utils.NativeLibLoader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the native {@link PiscesRenderer} span fill loops for each kind
+ * of paint, both for whole rectangles and for anti-aliasing masks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PiscesRendererBenchmark {
+
+    static {
+        NativeLibLoader.loadLibrary("prism_sw");
+    }
+
+    @Param({"64", "512"})
+    public int size;
+
+    @Param({"solid", "linear", "radial", "texture"})
+    public String paint;
+
+    private PiscesRenderer pr;
+    private byte[] mask;
+
+    @Setup
+    public void setup() {
+        final JavaSurface surface = new JavaSurface(new int[size * size], RendererBase.TYPE_INT_ARGB_PRE, size, size);
+        pr = new PiscesRenderer(surface);
+
+        final int fsize = size << 16;
+        if ("solid".equals(paint)) {
+            pr.setColor(0x20, 0x80, 0xE0, 0xC0);
+        } else if ("linear".equals(paint)) {
+            pr.setLinearGradient(0, 0, 0xFF2080E0, fsize, fsize, 0x80E08020, GradientColorMap.CYCLE_NONE);
+        } else if ("radial".equals(paint)) {
+            pr.setRadialGradient(fsize / 2, fsize / 2, fsize / 3, fsize / 3, fsize / 2,
+                                 new int[] { 0, 0x8000, 0x10000 },
+                                 new int[] { 0xFF2080E0, 0xC0E08020, 0x8020E080 },
+                                 GradientColorMap.CYCLE_REFLECT, null);
+        } else if ("texture".equals(paint)) {
+            final int tsize = 32;
+            final int[] texels = new int[tsize * tsize];
+            for (int i = 0; i < texels.length; i++) {
+                // Premultiplied checkerboard with a translucent half
+                texels[i] = (((i / tsize) ^ i) & 8) == 0 ? 0xFF2080E0 : 0x80704010;
+            }
+            pr.setTexture(RendererBase.TYPE_INT_ARGB_PRE, texels, tsize, tsize, tsize,
+                          new Transform6(), true, true);
+        } else {
+            throw new IllegalArgumentException("Unknown paint: " + paint);
+        }
+
+        mask = new byte[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                mask[y * size + x] = (byte) ((x + y) * 255 / (2 * size));
+            }
+        }
+    }
+
+    @Benchmark
+    public void fillRect() {
+        pr.fillRect(0, 0, size << 16, size << 16);
+    }
+
+    @Benchmark
+    public void fillFractionalRect() {
+        pr.fillRect(0x8000, 0x8000, (size - 1) << 16, (size - 1) << 16);
+    }
+
+    @Benchmark
+    public void fillAlphaMask() {
+        pr.fillAlphaMask(mask, 0, 0, size, size, 0, size);
+    }
+}
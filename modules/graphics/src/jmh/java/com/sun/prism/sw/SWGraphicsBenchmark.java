@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.sw;
+
+import com.sun.glass.utils.NativeLibLoader;
+import com.sun.javafx.geom.transform.Affine2D;
+import com.sun.prism.Graphics;
+import com.sun.prism.PixelFormat;
+import com.sun.prism.RTTexture;
+import com.sun.prism.Texture;
+import com.sun.prism.Texture.Usage;
+import com.sun.prism.Texture.WrapMode;
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link SWGraphics} drawTexture paths: the pixel-aligned copy,
+ * scaling, sub-rectangles and arbitrary transforms. The resource factory is
+ * created without a screen, so no windowing toolkit is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SWGraphicsBenchmark {
+
+    static {
+        NativeLibLoader.loadLibrary("prism_sw");
+    }
+
+    @Param({"64", "512"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean linear;
+
+    private RTTexture target;
+    private Texture texture;
+    private Graphics g;
+    private Affine2D rotation;
+
+    @Setup
+    public void setup() {
+        final SWResourceFactory factory = new SWResourceFactory(null);
+        target = factory.createRTTexture(size * 2, size * 2, WrapMode.CLAMP_NOT_NEEDED);
+        target.makePermanent();
+        texture = factory.createTexture(PixelFormat.INT_ARGB_PRE, Usage.DEFAULT,
+                                        WrapMode.CLAMP_TO_EDGE, size, size);
+        texture.makePermanent();
+
+        final int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                // Opaque gradient with a translucent diagonal band
+                final int a = ((x + y) & 32) == 0 ? 0xFF : 0x80;
+                final int r = x * a / size;
+                final int b = y * a / size;
+                pixels[y * size + x] = (a << 24) | (r << 16) | ((a / 2) << 8) | b;
+            }
+        }
+        texture.update(IntBuffer.wrap(pixels), PixelFormat.INT_ARGB_PRE,
+                       0, 0, 0, 0, size, size, size * 4, false);
+        texture.setLinearFiltering(linear);
+        g = target.createGraphics();
+
+        rotation = new Affine2D();
+        rotation.translate(size, size);
+        rotation.rotate(Math.PI / 6);
+    }
+
+    @TearDown
+    public void tearDown() {
+        texture.dispose();
+        target.dispose();
+    }
+
+    @Benchmark
+    public void drawIdentity() {
+        g.drawTexture(texture, 0, 0, size, size);
+    }
+
+    @Benchmark
+    public void drawFractionalTranslate() {
+        g.drawTexture(texture, 0.5f, 0.25f, size + 0.5f, size + 0.25f, 0, 0, size, size);
+    }
+
+    @Benchmark
+    public void drawScaledUp() {
+        g.drawTexture(texture, 0, 0, size * 2, size * 2, 0, 0, size, size);
+    }
+
+    @Benchmark
+    public void drawScaledDown() {
+        g.drawTexture(texture, 0, 0, size / 2, size / 2, 0, 0, size, size);
+    }
+
+    @Benchmark
+    public void drawSubRect() {
+        g.drawTexture(texture, 0, 0, size / 2, size / 2, size / 4, size / 4, size * 3 / 4, size * 3 / 4);
+    }
+
+    @Benchmark
+    public void drawRotated() {
+        g.setTransform(rotation);
+        g.drawTexture(texture, -size / 2, -size / 2, size / 2, size / 2);
+        g.setTransform(null);
+    }
+}
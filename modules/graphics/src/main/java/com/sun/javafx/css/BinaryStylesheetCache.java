@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.css;
+
+import com.sun.javafx.css.parser.CSSParser;
+import com.sun.javafx.runtime.VersionInfo;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import sun.util.logging.PlatformLogger;
+
+/**
+ * A cache of parsed stylesheets, kept in binary format in a directory on
+ * disk so that a stylesheet is only parsed again when its contents change,
+ * or when the runtime does. The cache is enabled by setting the
+ * {@code javafx.css.cache.dir} system property to the directory to use.
+ * <p>
+ * There is one file in the directory for each stylesheet url. The file
+ * starts with the runtime version, the url and a digest of the contents of
+ * the stylesheet it was written for, followed by the stylesheet in the
+ * format of a .bss file.
+ */
+final class BinaryStylesheetCache {
+
+    private static final BinaryStylesheetCache instance = AccessController.doPrivileged(
+            new PrivilegedAction<BinaryStylesheetCache>() {
+
+        public BinaryStylesheetCache run() {
+            final String dir = System.getProperty("javafx.css.cache.dir");
+            if (dir == null || dir.trim().isEmpty()) return null;
+            return new BinaryStylesheetCache(new File(dir),
+                    VersionInfo.getRuntimeVersion() + "/" + Stylesheet.BINARY_CSS_VERSION);
+        }
+
+    });
+
+    /**
+     * Returns the cache in the directory given by the
+     * {@code javafx.css.cache.dir} system property, or null if the property
+     * is not set.
+     */
+    static BinaryStylesheetCache getInstance() {
+        return instance;
+    }
+
+    private final File directory;
+    private final String version;
+
+    /**
+     * @param directory the directory holding the cached stylesheets
+     * @param version identifies the runtime that wrote a cached stylesheet,
+     * which is only read by a runtime with the same version.
+     */
+    BinaryStylesheetCache(File directory, String version) {
+        this.directory = directory;
+        this.version = version;
+    }
+
+    /**
+     * Parse the stylesheet at the url, or read it from the cache if it was
+     * cached for the same contents. A stylesheet that is parsed is added
+     * to the cache.
+     */
+    Stylesheet parse(URL url) throws IOException {
+
+        final String path = url.toExternalForm();
+
+        // The contents are read with the permissions of the caller, just as
+        // the parser would read them.
+        final byte[] contents = readContents(url);
+        final byte[] digest = digest(contents);
+
+        Stylesheet stylesheet = read(path, digest);
+        if (stylesheet != null) {
+            return stylesheet;
+        }
+
+        // CSSParser.parse(URL) reads the stylesheet with the default charset
+        stylesheet = CSSParser.getInstance().parse(path, new String(contents));
+        write(path, digest, stylesheet);
+        return stylesheet;
+    }
+
+    /**
+     * Returns the file which caches the stylesheet at the url.
+     */
+    File getCacheFile(String url) {
+        final StringBuilder name = new StringBuilder();
+        for (byte b : digest(url.getBytes(StandardCharsets.UTF_8))) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16));
+            name.append(Character.forDigit(b & 0xF, 16));
+        }
+        return new File(directory, name.append(".bss").toString());
+    }
+
+    /**
+     * Read the stylesheet at the url from the cache. Returns null if it is
+     * not cached, or if it was cached by another runtime or for contents
+     * with another digest.
+     */
+    Stylesheet read(final String url, final byte[] digest) {
+
+        return AccessController.doPrivileged(new PrivilegedAction<Stylesheet>() {
+            @Override public Stylesheet run() {
+
+                final File file = getCacheFile(url);
+                if (file.isFile() == false) return null;
+
+                InputStream inputStream = null;
+                try {
+                    inputStream = new FileInputStream(file);
+                    final DataInputStream dataInputStream = new DataInputStream(inputStream);
+
+                    if (version.equals(dataInputStream.readUTF()) == false
+                            || url.equals(dataInputStream.readUTF()) == false) {
+                        return null;
+                    }
+                    final byte[] cachedDigest = new byte[dataInputStream.readUnsignedShort()];
+                    dataInputStream.readFully(cachedDigest);
+                    if (Arrays.equals(digest, cachedDigest) == false) {
+                        return null;
+                    }
+
+                    return Stylesheet.loadBinary(url, dataInputStream);
+
+                } catch (IOException | RuntimeException e) {
+                    // A truncated or otherwise bad file is parsed again and rewritten
+                    final PlatformLogger logger = com.sun.javafx.Logging.getCSSLogger();
+                    if (logger.isLoggable(PlatformLogger.INFO)) {
+                        logger.info("Could not read cached stylesheet " + file + " for " + url + ": " + e);
+                    }
+                    return null;
+                } finally {
+                    try {
+                        if (inputStream != null) inputStream.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Write the stylesheet at the url to the cache, replacing whatever was
+     * cached for it before. The file is written under another name and then
+     * renamed so that a reader never sees a partially written file.
+     */
+    void write(final String url, final byte[] digest, final Stylesheet stylesheet) {
+
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override public Void run() {
+
+                final File file = getCacheFile(url);
+                File tmpFile = null;
+                try {
+                    if (directory.isDirectory() == false && directory.mkdirs() == false) {
+                        throw new IOException("cannot create directory " + directory);
+                    }
+
+                    tmpFile = File.createTempFile(file.getName(), ".tmp", directory);
+                    final DataOutputStream os = new DataOutputStream(
+                            new BufferedOutputStream(new FileOutputStream(tmpFile)));
+                    try {
+                        os.writeUTF(version);
+                        os.writeUTF(url);
+                        os.writeShort(digest.length);
+                        os.write(digest);
+                        stylesheet.writeBinary(os);
+                    } finally {
+                        os.close();
+                    }
+
+                    // File.renameTo will not replace an existing file on all platforms
+                    if (tmpFile.renameTo(file) == false
+                            && (file.delete() == false || tmpFile.renameTo(file) == false)) {
+                        throw new IOException("cannot rename " + tmpFile + " to " + file);
+                    }
+                    tmpFile = null;
+
+                } catch (IOException | RuntimeException e) {
+                    final PlatformLogger logger = com.sun.javafx.Logging.getCSSLogger();
+                    if (logger.isLoggable(PlatformLogger.INFO)) {
+                        logger.info("Could not cache stylesheet " + url + " in " + file + ": " + e);
+                    }
+                } finally {
+                    if (tmpFile != null) tmpFile.delete();
+                }
+                return null;
+            }
+        });
+    }
+
+    private static byte[] readContents(URL url) throws IOException {
+        final InputStream inputStream = url.openStream();
+        try {
+            final ByteArrayOutputStream contents = new ByteArrayOutputStream(16 * 1024);
+            final byte[] buffer = new byte[8 * 1024];
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                contents.write(buffer, 0, n);
+            }
+            return contents.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    static byte[] digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(bytes);
+        } catch (NoSuchAlgorithmException nsae) {
+            // every implementation of the Java platform is required to support SHA-1
+            throw new InternalError(nsae.toString());
+        }
+    }
+}
@@ -68,6 +68,11 @@ public class CascadingStyle implements Comparable<CascadingStyle> {
         this.skinProp = "-fx-skin".equals(style.getDeclaration().getProperty());
     }
         
+    // The pseudo-classes of the selector, from any of its simple selectors
+    Set<PseudoClass> getPseudoClasses() {
+        return pseudoClasses;
+    }
+
     // Wrapper to make StyleHelper's life a little easier
     public String getProperty() {
         return style.getDeclaration().getProperty();
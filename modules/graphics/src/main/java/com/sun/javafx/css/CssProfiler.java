@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.css;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.util.logging.PlatformLogger;
+
+/**
+ * Records where the time goes when css is applied: how often each selector
+ * is tested and how long that takes, how well the caches of StyleManager
+ * and of the style helpers do, how long each property takes to look up and
+ * how deep the chains of looked-up values are.
+ * <p>
+ * Nothing is recorded unless profiling is enabled, either by setting the
+ * {@code javafx.css.profile} system property to true or through JMX.
+ * If the {@code javafx.css.profile.file} system property is set, the
+ * statistics are written to that file when the VM exits.
+ * <p>
+ * The record methods may be called from any thread, since selectors may be
+ * matched in parallel.
+ */
+public final class CssProfiler implements CssProfilerMBean {
+
+    private static final int TOP_COUNT = 10;
+
+    private static volatile boolean profiling;
+
+    static {
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override public Void run() {
+                profiling = Boolean.getBoolean("javafx.css.profile");
+                final String fileName = System.getProperty("javafx.css.profile.file");
+                if (fileName != null && !fileName.trim().isEmpty()) {
+                    Runtime.getRuntime().addShutdownHook(new Thread("CSS Profiler Dump") {
+                        @Override public void run() {
+                            try {
+                                getDefaultBean().dump(fileName);
+                            } catch (IOException ioe) {
+                                final PlatformLogger logger = com.sun.javafx.Logging.getCSSLogger();
+                                logger.info("Could not write css profile to "
+                                        + fileName + ": " + ioe);
+                            }
+                        }
+                    });
+                }
+                return null;
+            }
+        });
+    }
+
+    public static CssProfiler getDefaultBean() {
+        return CssProfilerHolder.holder;
+    }
+    private static class CssProfilerHolder {
+        private static final CssProfiler holder = new CssProfiler();
+    }
+
+    private CssProfiler() {
+    }
+
+    /**
+     * Callers check this before gathering anything to record, so that
+     * nothing is timed when profiling is off.
+     */
+    public static boolean isProfiling() {
+        return profiling;
+    }
+
+    private static final class Stats {
+        final String name;
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong nanos = new AtomicLong();
+
+        Stats(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final Comparator<Stats> SLOWEST_FIRST = new Comparator<Stats>() {
+        @Override public int compare(Stats s1, Stats s2) {
+            final long n1 = s1.nanos.get();
+            final long n2 = s2.nanos.get();
+            return n1 < n2 ? 1 : (n1 > n2 ? -1 : 0);
+        }
+    };
+
+    // Selectors are kept by identity since equal selectors from different
+    // rules, or different stylesheets, are profiled separately.
+    private static final Map<Selector, Stats> selectorStats = new IdentityHashMap<>();
+    private static final Map<String, Stats> propertyStats = new HashMap<>();
+
+    private static final AtomicLong selectorMatches = new AtomicLong();
+    private static final AtomicLong selectorsApplied = new AtomicLong();
+    private static final AtomicLong selectorMatchTime = new AtomicLong();
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+    private static final AtomicLong styleMapHits = new AtomicLong();
+    private static final AtomicLong styleMapMisses = new AtomicLong();
+    private static final AtomicLong styleCacheHits = new AtomicLong();
+    private static final AtomicLong styleCacheMisses = new AtomicLong();
+    private static final AtomicLong propertyLookupTime = new AtomicLong();
+    private static final AtomicLong lookupsResolved = new AtomicLong();
+    private static final AtomicLong lookupDepthTotal = new AtomicLong();
+    private static final AtomicInteger maxLookupDepth = new AtomicInteger();
+
+    /**
+     * Record that the selector was tested against a node.
+     * @param applied whether the selector applies to the node
+     * @param nanos how long the test took
+     */
+    public static void selectorMatched(Selector selector, boolean applied, long nanos) {
+        selectorMatches.incrementAndGet();
+        selectorMatchTime.addAndGet(nanos);
+        if (applied) selectorsApplied.incrementAndGet();
+
+        Stats stats;
+        synchronized (selectorStats) {
+            stats = selectorStats.get(selector);
+            if (stats == null) {
+                stats = new Stats(describe(selector));
+                selectorStats.put(selector, stats);
+            }
+        }
+        stats.count.incrementAndGet();
+        stats.nanos.addAndGet(nanos);
+        if (applied) stats.hits.incrementAndGet();
+    }
+
+    /**
+     * Record whether the selectors for a node were found in the cache
+     * of a {@code StyleManager.CacheContainer}.
+     */
+    public static void cacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).incrementAndGet();
+    }
+
+    /**
+     * Record whether the StyleMap for the selectors that matched a node
+     * had already been created.
+     */
+    public static void styleMapLookup(boolean hit) {
+        (hit ? styleMapHits : styleMapMisses).incrementAndGet();
+    }
+
+    /**
+     * Record whether the calculated value of a property was found in the
+     * StyleCache.
+     */
+    public static void styleCacheLookup(boolean hit) {
+        (hit ? styleCacheHits : styleCacheMisses).incrementAndGet();
+    }
+
+    /**
+     * Record how long it took to look up and calculate the value of the
+     * property, which was not in the StyleCache.
+     */
+    public static void propertyLookedUp(String property, long nanos) {
+        propertyLookupTime.addAndGet(nanos);
+
+        Stats stats;
+        synchronized (propertyStats) {
+            stats = propertyStats.get(property);
+            if (stats == null) {
+                stats = new Stats(property);
+                propertyStats.put(property, stats);
+            }
+        }
+        stats.count.incrementAndGet();
+        stats.nanos.addAndGet(nanos);
+    }
+
+    /**
+     * Record that a chain of lookups was resolved. This is called once
+     * for the whole chain, not for each lookup in it.
+     * @param depth the number of lookups in the chain
+     */
+    public static void lookupResolved(int depth) {
+        lookupsResolved.incrementAndGet();
+        lookupDepthTotal.addAndGet(depth);
+        int max;
+        do {
+            max = maxLookupDepth.get();
+        } while (depth > max && !maxLookupDepth.compareAndSet(max, depth));
+    }
+
+    private static String describe(Selector selector) {
+        final Rule rule = selector.getRule();
+        final Stylesheet stylesheet = rule != null ? rule.getStylesheet() : null;
+        final String url = stylesheet != null ? stylesheet.getUrl() : null;
+        return url != null ? selector + " (" + url + ")" : selector.toString();
+    }
+
+    private static List<Stats> slowestFirst(Map<?, Stats> map) {
+        final List<Stats> list;
+        synchronized (map) {
+            list = new ArrayList<>(map.values());
+        }
+        Collections.sort(list, SLOWEST_FIRST);
+        return list;
+    }
+
+    private static String[] top(Map<?, Stats> map) {
+        final List<Stats> list = slowestFirst(map);
+        final String[] top = new String[Math.min(TOP_COUNT, list.size())];
+        for (int n = 0; n < top.length; n++) {
+            final Stats stats = list.get(n);
+            top[n] = stats.name + " " + stats.nanos.get() + "ns/" + stats.count.get();
+        }
+        return top;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return profiling;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        profiling = enabled;
+    }
+
+    @Override
+    public long getSelectorMatches() {
+        return selectorMatches.get();
+    }
+
+    @Override
+    public long getSelectorsApplied() {
+        return selectorsApplied.get();
+    }
+
+    @Override
+    public long getSelectorMatchTime() {
+        return selectorMatchTime.get();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    @Override
+    public long getStyleMapHits() {
+        return styleMapHits.get();
+    }
+
+    @Override
+    public long getStyleMapMisses() {
+        return styleMapMisses.get();
+    }
+
+    @Override
+    public long getStyleCacheHits() {
+        return styleCacheHits.get();
+    }
+
+    @Override
+    public long getStyleCacheMisses() {
+        return styleCacheMisses.get();
+    }
+
+    @Override
+    public long getPropertyLookupTime() {
+        return propertyLookupTime.get();
+    }
+
+    @Override
+    public long getLookupsResolved() {
+        return lookupsResolved.get();
+    }
+
+    @Override
+    public int getMaxLookupDepth() {
+        return maxLookupDepth.get();
+    }
+
+    @Override
+    public double getAverageLookupDepth() {
+        final long count = lookupsResolved.get();
+        return count > 0 ? (double) lookupDepthTotal.get() / count : 0;
+    }
+
+    @Override
+    public String[] getSlowestSelectors() {
+        return top(selectorStats);
+    }
+
+    @Override
+    public String[] getSlowestProperties() {
+        return top(propertyStats);
+    }
+
+    @Override
+    public void reset() {
+        synchronized (selectorStats) {
+            selectorStats.clear();
+        }
+        synchronized (propertyStats) {
+            propertyStats.clear();
+        }
+        selectorMatches.set(0);
+        selectorsApplied.set(0);
+        selectorMatchTime.set(0);
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        styleMapHits.set(0);
+        styleMapMisses.set(0);
+        styleCacheHits.set(0);
+        styleCacheMisses.set(0);
+        propertyLookupTime.set(0);
+        lookupsResolved.set(0);
+        lookupDepthTotal.set(0);
+        maxLookupDepth.set(0);
+    }
+
+    @Override
+    public void dump(final String fileName) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(new File(fileName)))) {
+            writer.println("selector matches: " + getSelectorMatches()
+                    + ", applied: " + getSelectorsApplied()
+                    + ", time: " + getSelectorMatchTime() + "ns");
+            writer.println("selector cache hits: " + getCacheHits()
+                    + ", misses: " + getCacheMisses());
+            writer.println("style map hits: " + getStyleMapHits()
+                    + ", misses: " + getStyleMapMisses());
+            writer.println("style cache hits: " + getStyleCacheHits()
+                    + ", misses: " + getStyleCacheMisses()
+                    + ", lookup time: " + getPropertyLookupTime() + "ns");
+            writer.println("lookups resolved: " + getLookupsResolved()
+                    + ", max depth: " + getMaxLookupDepth()
+                    + ", average depth: " + getAverageLookupDepth());
+
+            writer.println();
+            writer.println("selectors (time in ns, matches, applied):");
+            for (Stats stats : slowestFirst(selectorStats)) {
+                writer.println(stats.nanos.get() + "\t" + stats.count.get()
+                        + "\t" + stats.hits.get() + "\t" + stats.name);
+            }
+
+            writer.println();
+            writer.println("properties (time in ns, lookups):");
+            for (Stats stats : slowestFirst(propertyStats)) {
+                writer.println(stats.nanos.get() + "\t" + stats.count.get()
+                        + "\t" + stats.name);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.css;
+
+import java.io.IOException;
+
+/**
+ * The statistics gathered by the {@link CssProfiler}, as seen through JMX.
+ * Times are in nanoseconds.
+ */
+public interface CssProfilerMBean {
+
+    public boolean isEnabled();
+
+    public void setEnabled(boolean enabled);
+
+    // times a selector was tested against a node
+    public long getSelectorMatches();
+
+    // times a selector tested against a node applied to it
+    public long getSelectorsApplied();
+
+    public long getSelectorMatchTime();
+
+    // nodes whose selectors were found in StyleManager's cache
+    public long getCacheHits();
+
+    public long getCacheMisses();
+
+    // nodes whose matching selectors were already combined into a StyleMap
+    public long getStyleMapHits();
+
+    public long getStyleMapMisses();
+
+    // property values found in the StyleCache of the shared style helper
+    public long getStyleCacheHits();
+
+    // property values that had to be looked up and calculated
+    public long getStyleCacheMisses();
+
+    public long getPropertyLookupTime();
+
+    // looked-up colors (and other lookups) that were resolved
+    public long getLookupsResolved();
+
+    public int getMaxLookupDepth();
+
+    public double getAverageLookupDepth();
+
+    // the selectors which took the most time to match, slowest first
+    public String[] getSlowestSelectors();
+
+    // the properties which took the most time to look up, slowest first
+    public String[] getSlowestProperties();
+
+    public void reset();
+
+    // write everything gathered so far to the file, as text
+    public void dump(String fileName) throws IOException;
+}
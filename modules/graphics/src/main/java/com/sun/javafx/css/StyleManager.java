@@ -48,7 +48,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.jar.JarEntry;
@@ -62,9 +64,11 @@ import javafx.scene.Scene;
 import javafx.scene.text.Font;
 import javafx.stage.Window;
 import com.sun.javafx.css.parser.CSSParser;
+import com.sun.javafx.runtime.async.BackgroundExecutor;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.RecursiveAction;
 import java.util.regex.Pattern;
 
 import javafx.css.CssMetaData;
@@ -974,7 +978,10 @@ final public class StyleManager {
             // either we failed to load the .bss file, or parse
             // was set to true.
             if ((url != null) && parse) {
-                stylesheet = CSSParser.getInstance().parse(url);
+                final BinaryStylesheetCache cache = BinaryStylesheetCache.getInstance();
+                stylesheet = (cache != null)
+                        ? cache.parse(url)
+                        : CSSParser.getInstance().parse(url);
             }
 
             if (stylesheet == null) {
@@ -1380,15 +1387,57 @@ final public class StyleManager {
      */
     public StyleMap findMatchingStyles(Node node, Set<PseudoClass>[] triggerStates) {
 
+        final SelectorMatch match = prepareMatch(node, triggerStates);
+        if (match == null) {
+            return StyleMap.EMPTY_MAP;
+        }
+
+        match.matchSelectors();
+        return findMatchingStyles(match);
+    }
+
+    /**
+     * Finds matching styles for the Node of a match whose selectors have
+     * been matched by {@link #matchSelectors(List)}.
+     */
+    public StyleMap findMatchingStyles(SelectorMatch match) {
+
+        assert match.key != null : match.node.toString();
+
+        // The cache was cleared since the match was prepared
+        if (match.generation != match.cacheContainer.generation) {
+            Arrays.fill(match.triggerStates, null);
+            return findMatchingStyles(match.node, match.triggerStates);
+        }
+
+        final String inlineStyle = match.node.getStyle();
+        final boolean hasInlineStyles = inlineStyle != null && inlineStyle.trim().isEmpty() == false;
+
+        //
+        // Create a style helper for this node from the styles that match.
+        //
+        StyleMap smap = match.cache.getStyleMap(match.cacheContainer, match.node, match.key, hasInlineStyles);
+
+        return smap;
+    }
+
+    /**
+     * Finds the selectors that might apply to this Node, without matching
+     * them against the Node. This updates the caches of the StyleManager, so
+     * it must be called on the FX application thread. Returns null if there
+     * are no styles to match.
+     */
+    public SelectorMatch prepareMatch(Node node, Set<PseudoClass>[] triggerStates) {
+
         final Scene scene = node.getScene();
         if (scene == null) {
-            return StyleMap.EMPTY_MAP;
+            return null;
         }
 
         CacheContainer cacheContainer = getCacheContainer(node);
         if (cacheContainer == null) {
             assert false : node.toString();
-            return StyleMap.EMPTY_MAP;
+            return null;
         }
 
         final Parent parent =
@@ -1416,7 +1465,7 @@ final public class StyleManager {
                 && hasParentStylesheets == false
                 && hasSceneStylesheets == false
                 && userAgentStylesheets.isEmpty()) {
-            return StyleMap.EMPTY_MAP;
+            return null;
         }
 
         final String name = node.getClass().getName();
@@ -1442,6 +1491,10 @@ final public class StyleManager {
         Map<Key, Cache> cacheMap = cacheContainer.getCacheMap(parentStylesheets);
         Cache cache = cacheMap.get(key);
 
+        if (CssProfiler.isProfiling()) {
+            CssProfiler.cacheLookup(cache != null);
+        }
+
         if (cache != null) {
             // key will be reused, so clear the styleClasses for next use
             key.styleClasses.clear();
@@ -1503,12 +1556,151 @@ final public class StyleManager {
             key = null;
         }
 
-        //
-        // Create a style helper for this node from the styles that match.
-        //
-        StyleMap smap = cache.getStyleMap(cacheContainer, node, triggerStates, hasInlineStyles);
+        return new SelectorMatch(cacheContainer, cache, node, triggerStates);
+    }
 
-        return smap;
+    /**
+     * Matches the selectors of each of the given matches against its Node.
+     * Matching only reads the Nodes and the stylesheets, so if there are
+     * enough matches they are split up across the fork-join pool. The
+     * matches of Nodes whose styleable parents are not all Nodes are done on
+     * the calling thread, which must be the FX application thread, since the
+     * thread safety of other Styleables is unknown. Returns when all of the
+     * matches are done.
+     */
+    public void matchSelectors(List<SelectorMatch> matches) {
+
+        final int nMatches = matches.size();
+        if (nMatches < 2 * PARALLEL_MIN_MATCHES) {
+            for (int n=0; n<nMatches; n++) {
+                matches.get(n).matchSelectors();
+            }
+            return;
+        }
+
+        final Map<Styleable, Boolean> concurrentStyleables = new IdentityHashMap<>();
+        final List<SelectorMatch> concurrentMatches = new ArrayList<>(nMatches);
+        for (int n=0; n<nMatches; n++) {
+            final SelectorMatch match = matches.get(n);
+            if (canMatchConcurrently(match.node, concurrentStyleables)) {
+                concurrentMatches.add(match);
+            } else {
+                match.matchSelectors();
+            }
+        }
+
+        BackgroundExecutor.getForkJoinPool().invoke(
+                new MatchTask(concurrentMatches, 0, concurrentMatches.size()));
+    }
+
+    // No task matches the selectors of fewer Nodes than this, unless there
+    // are fewer than twice as many to match in all.
+    static final int PARALLEL_MIN_MATCHES = 64;
+
+    //
+    // Returns true if the styleable and all of its styleable parents are Nodes.
+    // The style classes of those Nodes are added to StyleClassSet along the way,
+    // and the effective orientation of their Scene is resolved, so that matching
+    // selectors against them does not modify any shared state.
+    //
+    private static boolean canMatchConcurrently(Styleable styleable, Map<Styleable, Boolean> known) {
+
+        final List<Styleable> chain = new ArrayList<>();
+        Boolean canMatch = Boolean.TRUE;
+        while (styleable != null) {
+            final Boolean knownCanMatch = known.get(styleable);
+            if (knownCanMatch != null) {
+                canMatch = knownCanMatch;
+                break;
+            }
+            chain.add(styleable);
+            styleable = styleable.getStyleableParent();
+        }
+
+        // walk back down from the root so that each Styleable is visited once
+        for (int n=chain.size()-1; n>=0; n--) {
+            final Styleable s = chain.get(n);
+            if (canMatch && s instanceof Node) {
+                final List<String> styleClasses = s.getStyleClass();
+                for (int c=0, cMax=styleClasses.size(); c<cMax; c++) {
+                    final String styleClass = styleClasses.get(c);
+                    if (styleClass == null || styleClass.isEmpty()) continue;
+                    StyleClassSet.getStyleClass(styleClass);
+                }
+                final Scene scene = ((Node)s).getScene();
+                if (scene != null) scene.getEffectiveNodeOrientation();
+            } else {
+                canMatch = Boolean.FALSE;
+            }
+            known.put(s, canMatch);
+        }
+
+        return canMatch;
+    }
+
+    private static class MatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<SelectorMatch> matches;
+        private final int from, to;
+
+        MatchTask(List<SelectorMatch> matches, int from, int to) {
+            this.matches = matches;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 * PARALLEL_MIN_MATCHES) {
+                for (int n=from; n<to; n++) {
+                    matches.get(n).matchSelectors();
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MatchTask(matches, from, mid),
+                          new MatchTask(matches, mid, to));
+            }
+        }
+    }
+
+    /**
+     * The selectors that might apply to a Node, as found by
+     * {@link #prepareMatch(Node, Set[])}, and which of them do apply once
+     * they have been matched. Matching fills in the trigger states that were
+     * given to prepareMatch.
+     */
+    public static final class SelectorMatch {
+
+        private final CacheContainer cacheContainer;
+        private final Cache cache;
+        private final Node node;
+        private final Set<PseudoClass>[] triggerStates;
+        private final int generation;
+
+        // bit n is set if the n-th selector of the cache applies to the node,
+        // null until the selectors have been matched
+        private long[] key;
+
+        private SelectorMatch(CacheContainer cacheContainer, Cache cache, Node node, Set<PseudoClass>[] triggerStates) {
+            this.cacheContainer = cacheContainer;
+            this.cache = cache;
+            this.node = node;
+            this.triggerStates = triggerStates;
+            this.generation = cacheContainer.generation;
+        }
+
+        public Node getNode() {
+            return node;
+        }
+
+        public Set<PseudoClass>[] getTriggerStates() {
+            return triggerStates;
+        }
+
+        private void matchSelectors() {
+            key = cache.matchSelectors(node, triggerStates);
+        }
     }
 
     ////////////////////////////////////////////////////////////////////////////
@@ -1553,6 +1745,9 @@ final public class StyleManager {
     // Each Scene has its own cache
     private static class CacheContainer {
 
+        // The number of parsed inline styles kept in the inlineStylesCache
+        private static final int INLINE_STYLES_CACHE_SIZE = 1000;
+
         private Map<StyleCache.Key,StyleCache> getStyleCache() {
             if (styleCache == null) styleCache = new HashMap<StyleCache.Key, StyleCache>();
             return styleCache;
@@ -1628,6 +1823,8 @@ final public class StyleManager {
 
         private void clearCache() {
 
+            generation++;
+
             if (cacheMap != null) cacheMap.clear();
             if (styleCache != null) styleCache.clear();
             if (styleMapList != null) styleMapList.clear();
@@ -1641,8 +1838,11 @@ final public class StyleManager {
 
         /**
          * Get the mapping of property to style from Node.style for this node.
+         * Inline styles with the same declarations get InlineStyles that are
+         * equal, even if Node.style differs in formatting, so that the nodes
+         * share a StyleMap.
          */
-        private Selector getInlineStyleSelector(String inlineStyle) {
+        private InlineStyle getInlineStyle(String inlineStyle) {
 
             // If there are no styles for this property then we can just bail
             if ((inlineStyle == null) || inlineStyle.trim().isEmpty()) return null;
@@ -1657,7 +1857,15 @@ final public class StyleManager {
             //
 
             if (inlineStylesCache == null) {
-                inlineStylesCache = new HashMap<>();
+                // access-order, so the least recently used style is evicted
+                inlineStylesCache = new LinkedHashMap<String,InlineStyle>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String,InlineStyle> eldest) {
+                        return size() > INLINE_STYLES_CACHE_SIZE;
+                    }
+                };
             }
 
             final Stylesheet inlineStylesheet =
@@ -1677,8 +1885,9 @@ final public class StyleManager {
                 if (selector != null) {
                     selector.setOrdinal(-1);
 
-                    inlineStylesCache.put(inlineStyle, selector);
-                    return selector;
+                    final InlineStyle style = new InlineStyle(inlineStyle, selector);
+                    inlineStylesCache.put(inlineStyle, style);
+                    return style;
                 }
                 // if selector is null, fall through
 
@@ -1699,9 +1908,11 @@ final public class StyleManager {
 
         /**
          * Cache of parsed, inline styles. The key is Node.style.
-         * The value is the Selector from the inline stylesheet.
+         * The value is the InlineStyle for the Selector from the inline
+         * stylesheet. Holds at most INLINE_STYLES_CACHE_SIZE entries, evicting
+         * the least recently used.
          */
-        private Map<String,Selector> inlineStylesCache;
+        private Map<String,InlineStyle> inlineStylesCache;
 
         /*
          * A simple counter used to generate a unique id for a StyleMap.
@@ -1716,7 +1927,65 @@ final public class StyleManager {
         // cache and is no longer valid.
         private int baseStyleMapId = 0;
 
+        // Incremented each time the cache is cleared. A SelectorMatch prepared
+        // before the cache was cleared refers to Caches that are no longer used.
+        private int generation = 0;
+
+            }
+
+    /**
+     * A parsed inline style. InlineStyles are equal if their declarations
+     * are, so that nodes whose Node.style differ only in formatting, such as
+     * "-fx-fill:red" and "-fx-fill: red;", share a StyleMap, and with it the
+     * calculated values in the StyleCache.
+     */
+    private static final class InlineStyle {
+
+        // Node.style that was parsed
+        private final String style;
+        // the Selector from the inline stylesheet
+        private final Selector selector;
+        // property, value and importance of each declaration
+        private final List<Object> declarations;
+        private final int hash;
+
+        private InlineStyle(String style, Selector selector) {
+            this.style = style;
+            this.selector = selector;
+
+            final List<Declaration> decls = selector.getRule().getUnobservedDeclarationList();
+            final int nDecls = decls != null ? decls.size() : 0;
+            this.declarations = new ArrayList<>(3 * nDecls);
+            for (int n=0; n<nDecls; n++) {
+                final Declaration decl = decls.get(n);
+                declarations.add(decl.getProperty());
+                declarations.add(decl.getParsedValue());
+                declarations.add(decl.isImportant());
+            }
+            this.hash = declarations.hashCode();
+        }
+
+        @Override public String toString() {
+            return style;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
             }
+            final InlineStyle other = (InlineStyle) obj;
+            return hash == other.hash && declarations.equals(other.declarations);
+        }
+    }
 
     /**
      * Creates and caches maps of styles, reusing them as often as practical.
@@ -1725,12 +1994,11 @@ final public class StyleManager {
 
         private static class Key {
             final long[] key;
-            final String inlineStyle;
+            final InlineStyle inlineStyle;
 
-            Key(long[] key, String inlineStyle) {
+            Key(long[] key, InlineStyle inlineStyle) {
                 this.key = key;
-                // let inlineStyle be null if it is empty
-                this.inlineStyle =  (inlineStyle != null && inlineStyle.trim().isEmpty() ? null : inlineStyle);
+                this.inlineStyle = inlineStyle;
             }
 
             @Override public String toString() {
@@ -1778,13 +2046,14 @@ final public class StyleManager {
             this.cache = new HashMap<Key, Integer>();
         }
 
-        private StyleMap getStyleMap(CacheContainer cacheContainer, Node node, Set<PseudoClass>[] triggerStates, boolean hasInlineStyle) {
-
-            if ((selectors == null || selectors.isEmpty()) && !hasInlineStyle) {
-                return StyleMap.EMPTY_MAP;
-            }
+        //
+        // Returns the selectors that apply to the node, as bits on a long[].
+        // This only reads the node, its parents and the selectors, apart from
+        // filling in triggerStates.
+        //
+        private long[] matchSelectors(Node node, Set<PseudoClass>[] triggerStates) {
 
-            final int selectorDataSize = selectors.size();
+            final int selectorDataSize = selectors != null ? selectors.size() : 0;
 
             //
             // Since the list of selectors is found by matching only the
@@ -1798,7 +2067,8 @@ final public class StyleManager {
             // represented by bits on the long[].
             //
             long key[] = new long[selectorDataSize/Long.SIZE + 1];
-            boolean nothingMatched = true;
+
+            final boolean profiling = CssProfiler.isProfiling();
 
             for (int s = 0; s < selectorDataSize; s++) {
 
@@ -1822,23 +2092,55 @@ final public class StyleManager {
                 // is unchanged.
                 //
 
-                if (sel.applies(node, triggerStates, 0)) {
+                final long t0 = profiling ? System.nanoTime() : 0;
+                final boolean applies = sel.applies(node, triggerStates, 0);
+                if (profiling) {
+                    CssProfiler.selectorMatched(sel, applies, System.nanoTime() - t0);
+                }
+
+                if (applies) {
                     final int index = s / Long.SIZE;
                     final long mask = key[index] | 1l << s;
                     key[index] = mask;
+                }
+            }
+
+            return key;
+        }
+
+        private StyleMap getStyleMap(CacheContainer cacheContainer, Node node, long[] key, boolean hasInlineStyle) {
+
+            if ((selectors == null || selectors.isEmpty()) && !hasInlineStyle) {
+                return StyleMap.EMPTY_MAP;
+            }
+
+            // null if the inline style could not be parsed
+            final InlineStyle inlineStyle = hasInlineStyle
+                    ? cacheContainer.getInlineStyle(node.getStyle())
+                    : null;
+
+            boolean nothingMatched = true;
+            for (int k = 0; k<key.length; k++) {
+                if (key[k] != 0) {
                     nothingMatched = false;
+                    break;
                 }
             }
 
             // nothing matched!
-            if (nothingMatched && hasInlineStyle == false) {
+            if (nothingMatched && inlineStyle == null) {
                 return StyleMap.EMPTY_MAP;
             }
 
-            final String inlineStyle = node.getStyle();
             final Key keyObj = new Key(key, inlineStyle);
 
-            if (cache.containsKey(keyObj)) {
+            final boolean cached = cache.containsKey(keyObj);
+
+            if (CssProfiler.isProfiling()) {
+                CssProfiler.styleMapLookup(cached);
+            }
+
+            if (cached) {
                 Integer styleMapId = cache.get(keyObj);
                 final StyleMap styleMap = styleMapId != null
                         ? cacheContainer.getStyleMap(styleMapId.intValue())
@@ -1848,9 +2150,8 @@ final public class StyleManager {
 
             final List<Selector> selectors = new ArrayList<>();
 
-            if (hasInlineStyle) {
-                Selector selector = cacheContainer.getInlineStyleSelector(inlineStyle);
-                if (selector != null) selectors.add(selector);
+            if (inlineStyle != null) {
+                selectors.add(inlineStyle.selector);
             }
 
             for (int k = 0; k<key.length; k++) {
@@ -29,8 +29,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import javafx.css.PseudoClass;
 
 /**
  * A map of property name to the cascading styles that match a node.
@@ -152,6 +155,63 @@ public final class StyleMap {
         return cascadingStyles;
     }
 
+    /**
+     * Returns the properties with a cascading style whose selector has the
+     * pseudo-class. When only that pseudo-class changes, the value of any
+     * other property stays the same, unless the value has a lookup.
+     */
+    public Set<String> getPropertiesWithPseudoClass(PseudoClass pseudoClass) {
+        if (propertiesByPseudoClass == null) createPseudoClassTable();
+        final Set<String> properties = propertiesByPseudoClass.get(pseudoClass);
+        return properties != null ? properties : Collections.<String>emptySet();
+    }
+
+    /**
+     * Returns the properties with a cascading style whose value has a lookup
+     * or is inherit. The value of such a property depends on the styles of
+     * other properties, or of the parent, so it might change when any
+     * pseudo-class changes.
+     */
+    public Set<String> getPropertiesWithLookups() {
+        if (propertiesWithLookups == null) createPseudoClassTable();
+        return propertiesWithLookups;
+    }
+
+    private void createPseudoClassTable() {
+
+        propertiesByPseudoClass = new HashMap<>();
+        propertiesWithLookups = new HashSet<>();
+
+        for (Map.Entry<String, List<CascadingStyle>> entry : getCascadingStyles().entrySet()) {
+
+            final String property = entry.getKey();
+            final List<CascadingStyle> styles = entry.getValue();
+
+            for (int n=0, nMax=styles.size(); n<nMax; n++) {
+
+                final CascadingStyle style = styles.get(n);
+
+                final ParsedValueImpl<?,?> value = style.getParsedValueImpl();
+                if (value != null && (value.isContainsLookups() || value.isLookup()
+                        || "inherit".equals(value.getValue()))) {
+                    propertiesWithLookups.add(property);
+                }
+
+                final Set<PseudoClass> pseudoClasses = style.getPseudoClasses();
+                if (pseudoClasses == null) continue;
+
+                for (PseudoClass pseudoClass : pseudoClasses) {
+                    Set<String> properties = propertiesByPseudoClass.get(pseudoClass);
+                    if (properties == null) {
+                        properties = new HashSet<>();
+                        propertiesByPseudoClass.put(pseudoClass, properties);
+                    }
+                    properties.add(property);
+                }
+            }
+        }
+    }
+
     private static final Comparator<CascadingStyle> cascadingStyleComparator =
             new Comparator<CascadingStyle>() {
 
@@ -180,4 +240,6 @@ public final class StyleMap {
     private final int id; // unique per container
     private List<Selector> selectors;
     private Map<String, List<CascadingStyle>> cascadingStyles;
+    private Map<PseudoClass, Set<String>> propertiesByPseudoClass;
+    private Set<String> propertiesWithLookups;
 }
@@ -243,52 +243,16 @@ public class Stylesheet {
 
         Stylesheet stylesheet = null;
         InputStream inputStream = null;
-        BufferedInputStream bufferedInputStream = null;
-        DataInputStream dataInputStream = null;
         try {
             inputStream = url.openStream();
-            // current bss file is 33k so this leaves a little scope at 40k
-            bufferedInputStream = new BufferedInputStream(inputStream, 40 * 1024);
-
-            dataInputStream = new DataInputStream(bufferedInputStream);
-            // read file version
-            final int bssVersion = dataInputStream.readShort();
-            if (bssVersion > Stylesheet.BINARY_CSS_VERSION) {
-                throw new IOException(url.toString() + " wrong binary CSS version: "
-                        + bssVersion + ". Expected version less than or equal to" +
-                        Stylesheet.BINARY_CSS_VERSION);
-            }
-            // read strings
-            final String[] strings = StringStore.readBinary(dataInputStream);
-            // read binary data
-            stylesheet = new Stylesheet(url.toExternalForm());
-
-            boolean retry = false;
-            try {
-
-                dataInputStream.mark(Integer.MAX_VALUE);
-                stylesheet.readBinary(bssVersion, dataInputStream, strings);
-
-            } catch (Exception e) {
-
-                stylesheet = new Stylesheet(url.toExternalForm());
-
-                dataInputStream.reset();
-
-                if (bssVersion == 2) {
-                    // RT-31022
-                    stylesheet.readBinary(3, dataInputStream, strings);
-                } else {
-                    stylesheet.readBinary(Stylesheet.BINARY_CSS_VERSION, dataInputStream, strings);
-                }
-            }
+            stylesheet = loadBinary(url.toExternalForm(), inputStream);
 
         } catch (FileNotFoundException fnfe) {
             // This comes from url.openStream() and is expected.
             // It just means that the .bss file doesn't exist.
         } finally {
             try {
-                if (dataInputStream != null) dataInputStream.close();
+                if (inputStream != null) inputStream.close();
             } catch (IOException ignored) {
             }
         }
@@ -297,6 +261,80 @@ public class Stylesheet {
         return stylesheet;
     }
 
+    /**
+     * Read a binary stylesheet, as written by {@link #writeBinary(OutputStream)},
+     * from the input stream. The url is the url of the stylesheet, against
+     * which relative urls in the stylesheet are resolved. The caller is
+     * responsible for closing the stream.
+     */
+    static Stylesheet loadBinary(String url, InputStream inputStream) throws IOException {
+
+        // current bss file is 33k so this leaves a little scope at 40k
+        final BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream, 40 * 1024);
+
+        final DataInputStream dataInputStream = new DataInputStream(bufferedInputStream);
+        // read file version
+        final int bssVersion = dataInputStream.readShort();
+        if (bssVersion > Stylesheet.BINARY_CSS_VERSION) {
+            throw new IOException(url + " wrong binary CSS version: "
+                    + bssVersion + ". Expected version less than or equal to" +
+                    Stylesheet.BINARY_CSS_VERSION);
+        }
+        // read strings
+        final String[] strings = StringStore.readBinary(dataInputStream);
+        // read binary data
+        Stylesheet stylesheet = new Stylesheet(url);
+
+        try {
+
+            dataInputStream.mark(Integer.MAX_VALUE);
+            stylesheet.readBinary(bssVersion, dataInputStream, strings);
+
+        } catch (Exception e) {
+
+            stylesheet = new Stylesheet(url);
+
+            dataInputStream.reset();
+
+            if (bssVersion == 2) {
+                // RT-31022
+                stylesheet.readBinary(3, dataInputStream, strings);
+            } else {
+                stylesheet.readBinary(Stylesheet.BINARY_CSS_VERSION, dataInputStream, strings);
+            }
+        }
+
+        return stylesheet;
+    }
+
+    /**
+     * Write this stylesheet in binary format, as read by
+     * {@link #loadBinary(URL)}, to the output stream. The caller is
+     * responsible for closing the stream.
+     */
+    final void writeBinary(final OutputStream outputStream) throws IOException {
+
+        // first write all the css binary data into the buffer and collect strings on way
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        StringStore stringStore = new StringStore();
+        writeBinary(dos, stringStore);
+        dos.flush();
+        dos.close();
+
+        DataOutputStream os = new DataOutputStream(outputStream);
+
+        // write file version
+        os.writeShort(BINARY_CSS_VERSION);
+
+        // write strings
+        stringStore.writeBinary(os);
+
+        // write binary css
+        os.write(baos.toByteArray());
+        os.flush();
+    }
+
     /**
      * Convert the .css file referenced by urlIn to binary format and write to urlOut.
      * @param source is the JavaFX .css file to convert
@@ -333,27 +371,9 @@ public class Stylesheet {
         URI sourceURI = source.toURI();
         Stylesheet stylesheet = CSSParser.getInstance().parse(sourceURI.toURL());
 
-        // first write all the css binary data into the buffer and collect strings on way
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        DataOutputStream dos = new DataOutputStream(baos);
-        StringStore stringStore = new StringStore();
-        stylesheet.writeBinary(dos, stringStore);
-        dos.flush();
-        dos.close();
-
         FileOutputStream fos = new FileOutputStream(destination);
-        DataOutputStream os = new DataOutputStream(fos);
-
-        // write file version
-        os.writeShort(BINARY_CSS_VERSION);
-
-        // write strings
-        stringStore.writeBinary(os);
-
-        // write binary css
-        os.write(baos.toByteArray());
-        os.flush();
-        os.close();
+        stylesheet.writeBinary(fos);
+        fos.close();
     }
 
 }
@@ -32,14 +32,18 @@ import com.sun.javafx.iio.common.ImageTools;
 import com.sun.javafx.iio.gif.GIFImageLoaderFactory;
 import com.sun.javafx.iio.ios.IosImageLoaderFactory;
 import com.sun.javafx.iio.jpeg.JPEGImageLoaderFactory;
+import com.sun.javafx.iio.jpeg.JPEGImageWriterFactory;
 import com.sun.javafx.iio.png.PNGImageLoaderFactory;
+import com.sun.javafx.iio.png.PNGImageWriterFactory;
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map.Entry;
 
 /**
@@ -118,6 +122,11 @@ public class ImageStorage {
      */
     private static final HashMap<Signature, ImageLoaderFactory> loaderFactoriesBySignature;
     private static final ImageLoaderFactory[] loaderFactories;
+    /**
+     * A mapping of lower case format names and file extensions to writer
+     * factories.
+     */
+    private static final HashMap<String, ImageWriterFactory> writerFactoriesByName;
     private static final boolean isIOS = PlatformUtil.isIOS();
 
     private static int maxSignatureLength;
@@ -145,6 +154,13 @@ public class ImageStorage {
         for (int i = 0; i < loaderFactories.length; i++) {
             addImageLoaderFactory(loaderFactories[i]);
         }
+
+        writerFactoriesByName = new HashMap<String, ImageWriterFactory>();
+        addImageWriterFactory(PNGImageWriterFactory.getInstance());
+        if (!isIOS) {
+            // the JPEG writer uses the libjpeg of the native loader
+            addImageWriterFactory(JPEGImageWriterFactory.getInstance());
+        }
     }
 
     public static ImageFormatDescription[] getSupportedDescriptions() {
@@ -155,6 +171,17 @@ public class ImageStorage {
         return (formats);
     }
 
+    public static ImageFormatDescription[] getSupportedWriterDescriptions() {
+        LinkedHashSet<ImageFormatDescription> formats =
+            new LinkedHashSet<ImageFormatDescription>();
+        synchronized (writerFactoriesByName) {
+            for (ImageWriterFactory factory : writerFactoriesByName.values()) {
+                formats.add(factory.getFormatDescription());
+            }
+        }
+        return formats.toArray(new ImageFormatDescription[formats.size()]);
+    }
+
     /**
      * Returns the number of bands for a raw image of the specified type.
      *
@@ -212,6 +239,56 @@ public class ImageStorage {
         }
     }
 
+    /**
+     * Registers an image writer factory. The factory replaces any other writer
+     * factory previously registered for the format name or the file extensions
+     * (converted to lower case) indicated by the format description.
+     *
+     * @param factory the factory to register.
+     */
+    public static void addImageWriterFactory(ImageWriterFactory factory) {
+        ImageFormatDescription desc = factory.getFormatDescription();
+        synchronized (writerFactoriesByName) {
+            writerFactoriesByName.put(desc.getFormatName().toLowerCase(), factory);
+            for (String extension : desc.getExtensions()) {
+                writerFactoriesByName.put(extension.toLowerCase(), factory);
+            }
+        }
+    }
+
+    /**
+     * Writes an image to the specified stream, which is not closed.
+     *
+     * @param image the image to write; see {@link ImageWriter#write}.
+     * @param format the name or a file extension of the image format,
+     * in any case.
+     * @param quality the compression quality from 0 to 1.
+     * @param output the stream to write the image to.
+     * @throws ImageStorageException if there is no writer for the format
+     * or if the image cannot be written.
+     */
+    public static void writeImage(ImageFrame image, String format, float quality,
+            OutputStream output) throws ImageStorageException {
+        ImageWriterFactory factory;
+        synchronized (writerFactoriesByName) {
+            factory = writerFactoriesByName.get(format.toLowerCase());
+        }
+        if (factory == null) {
+            throw new ImageStorageException("No writer for image format " + format);
+        }
+        ImageWriter writer = null;
+        try {
+            writer = factory.createImageWriter(output);
+            writer.write(image, quality);
+        } catch (IOException e) {
+            throw new ImageStorageException(e.getMessage(), e);
+        } finally {
+            if (writer != null) {
+                writer.dispose();
+            }
+        }
+    }
+
     /**
      * Load all images present in the specified stream. The image will be
      * rescaled according to this algorithm:
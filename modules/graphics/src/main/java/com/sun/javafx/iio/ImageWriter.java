@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.iio;
+
+import java.io.IOException;
+
+/**
+ * A writer for images stored in a given format.
+ */
+public interface ImageWriter {
+    /**
+     * Gets a description of the image format supported by this writer.
+     *
+     * @return a description of the image format handled by this writer.
+     */
+    ImageFormatDescription getFormatDescription();
+
+    /**
+     * Disposes of any resources held by this writer. Any further invocation
+     * of any methods on this object are undefined.
+     */
+    void dispose();
+
+    /**
+     * Encodes an image and writes it to the stream of this writer. Formats
+     * which cannot store an alpha channel write the image as if it had been
+     * composited over black.
+     *
+     * @param image the image to write; palette images are not supported.
+     * @param quality the compression quality from 0 to 1. Lossy formats
+     * trade image quality against size; lossless formats trade speed
+     * against size.
+     * @throws IllegalArgumentException if the image type is not supported.
+     * @throws IOException if there is an error writing to the stream.
+     */
+    void write(ImageFrame image, float quality) throws IOException;
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.iio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A factory which creates a writer for images stored in a given format.
+ */
+public interface ImageWriterFactory {
+    /**
+     * Gets a description of the image format for which this factory can create
+     * writers.
+     *
+     * @return a description of the image format handled by this factory.
+     */
+    ImageFormatDescription getFormatDescription();
+
+    /**
+     * Creates a writer for the specified stream. The writer does not close
+     * the stream.
+     *
+     * @param output the stream to which the image is to be written.
+     * @return a writer capable of encoding an image into the supplied stream.
+     * @throws <IOException> if there is an error creating the writer.
+     */
+    ImageWriter createImageWriter(OutputStream output) throws IOException;
+}
@@ -221,6 +221,35 @@ public class GIFImageLoader2 extends ImageLoaderImpl {
         return imgGIF;
     }
 
+    // the size of the logical screen the frames are composed on
+    public int getScreenWidth() {
+        return screenW;
+    }
+
+    public int getScreenHeight() {
+        return screenH;
+    }
+
+    // skips the next image frame without decoding it
+    // returns its delay time in milliseconds or -1 if no more
+    public int skipImage() throws IOException {
+        int imageControlCode = waitForImageFrame();
+
+        if (imageControlCode < 0) {
+            return -1;
+        }
+
+        skipBytes(8); // left, top, w, h
+        int imgCtrl = readByte();
+        if ((imgCtrl & 0x80) != 0) {
+            skipBytes((2 << (imgCtrl & 7)) * 3);
+        }
+        readByte(); // LZW code size
+        consumeAnExtension(); // image data sub-blocks
+
+        return frameDelay(imageControlCode & 0xFFFF);
+    }
+
     // IO helpers
     private int readByte() throws IOException {
         int ch = stream.read();
@@ -329,10 +358,15 @@ public class GIFImageLoader2 extends ImageLoaderImpl {
                 rWidth, rHeight, rWidth * bpp, null, imgPNG.getMetadata());
     }
 
+    // delay time in milliseconds
+    private static int frameDelay(int delayTime) {
+        return delayTime != 0 ? delayTime*10 : 1000/DEFAULT_FPS;
+    }
+
     // fill metadata
     private ImageMetadata updateMetadata(int w, int h, int delayTime) {
         ImageMetadata metaData = new ImageMetadata(null, true, null, null, null,
-                delayTime != 0 ? delayTime*10 : 1000/DEFAULT_FPS, w, h, null, null, null);
+                frameDelay(delayTime), w, h, null, null, null);
         updateImageMetadata(metaData);
         return metaData;
     }
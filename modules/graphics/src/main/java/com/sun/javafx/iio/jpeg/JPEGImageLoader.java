@@ -96,11 +96,14 @@ public class JPEGImageLoader extends ImageLoaderImpl {
     private native long initDecompressor(InputStream stream) throws IOException;
 
     /** Sets output color space and scale factor.
+     *  The native decoder picks the smallest IDCT scale factor N/8
+     *  which still yields at least destWidth x destHeight pixels and
+     *  reports the resulting size through setOutputAttributes.
      *  Returns number of components which native decoder
      *  will produce for requested output color space.
      */
     private native int startDecompression(long structPointer,
-            int outColorSpaceCode, int scaleNum, int scaleDenom);
+            int outColorSpaceCode, int destWidth, int destHeight);
 
     private native boolean decompressIndirect(long structPointer, boolean reportProgress, byte[] array) throws IOException;
     // Uncomment next line for direct ByteBuffers.
@@ -257,10 +260,10 @@ public class JPEGImageLoader extends ImageLoaderImpl {
         ImageFrame frame = null;
 
         // Check whether the decompressed image has been scaled to the correct
-        // dimensions. If not, downscalte it here. Note outData, outHeight, and
+        // dimensions. If not, downscale it here. Note outData, outHeight, and
         // outWidth refer to the image as returned by the decompressor. This
         // image might have been downscaled from the original source by a factor
-        // of N/8 where 1 <= N <=8.
+        // of N/8 where 1 <= N <=8, and is never smaller than the destination.
         if (outWidth != width || outHeight != height) {
             // Get the decompressed data array. Note that the code really should
             // be moidified to use direct buffers if and only if this post-
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.iio.jpeg;
+
+import com.sun.glass.utils.NativeLibLoader;
+import com.sun.javafx.iio.ImageFormatDescription;
+import com.sun.javafx.iio.ImageFrame;
+import com.sun.javafx.iio.ImageStorage;
+import com.sun.javafx.iio.ImageStorage.ImageType;
+import com.sun.javafx.iio.ImageWriter;
+import com.sun.javafx.image.PixelUtils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+public class JPEGImageWriter implements ImageWriter {
+
+    private OutputStream stream;
+
+    private static native void initJPEGWriterMethodIDs(Class<?> outputStreamClass);
+
+    private static native void compress(OutputStream stream, byte pixels[],
+                                        int width, int height,
+                                        int numComponents, int quality)
+        throws IOException;
+
+    static {
+        AccessController.doPrivileged(new PrivilegedAction<Object>() {
+
+            public Object run() {
+                NativeLibLoader.loadLibrary("javafx_iio");
+                return null;
+            }
+        });
+        initJPEGWriterMethodIDs(OutputStream.class);
+    }
+
+    JPEGImageWriter(OutputStream output) {
+        this.stream = output;
+    }
+
+    public ImageFormatDescription getFormatDescription() {
+        return JPEGDescriptor.getInstance();
+    }
+
+    public void dispose() {
+        stream = null;
+    }
+
+    public void write(ImageFrame image, float quality) throws IOException {
+        ImageType type = image.getImageType();
+        int srcBands = ImageStorage.getNumBands(type);
+        int dstBands;
+        boolean premultiply = false;
+        switch (type) {
+            case GRAY:
+            case GRAY_ALPHA_PRE:
+                dstBands = 1;
+                break;
+            case GRAY_ALPHA:
+                dstBands = 1;
+                premultiply = true;
+                break;
+            case RGB:
+            case RGBA_PRE:
+                dstBands = 3;
+                break;
+            case RGBA:
+                dstBands = 3;
+                premultiply = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported image type " + type);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image has no pixels");
+        }
+
+        // libjpeg reads tightly packed rows of gray or RGB samples, so the
+        // pixels are repacked unless the image already has that layout
+        int rowBytes = width * dstBands;
+        ByteBuffer data = (ByteBuffer) image.getImageData();
+        byte pixels[];
+        if (srcBands == dstBands && image.getStride() == rowBytes &&
+            data.hasArray() && data.arrayOffset() == 0 &&
+            data.array().length == rowBytes * height)
+        {
+            pixels = data.array();
+        } else {
+            pixels = new byte[rowBytes * height];
+            data = data.duplicate();
+            byte row[] = new byte[width * srcBands];
+            int dst = 0;
+            for (int y = 0; y < height; y++) {
+                data.position(y * image.getStride());
+                data.get(row);
+                for (int src = 0; src < row.length; src += srcBands) {
+                    int a = row[src + srcBands - 1] & 0xff;
+                    for (int b = 0; b < dstBands; b++) {
+                        int v = row[src + b] & 0xff;
+                        pixels[dst++] = (byte) (premultiply ? PixelUtils.NonPretoPre(v, a) : v);
+                    }
+                }
+            }
+        }
+
+        int q = Math.round(Math.max(0f, Math.min(quality, 1f)) * 100f);
+        compress(stream, pixels, width, height, dstBands, q);
+        stream.flush();
+    }
+}
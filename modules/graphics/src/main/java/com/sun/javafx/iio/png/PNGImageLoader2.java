@@ -322,69 +322,89 @@ public final class PNGImageLoader2 extends ImageLoaderImpl {
         }
     }
 
-    private void doSubFilter(byte line[], int bpp) {
-        int l = line.length;
-        for (int i = bpp; i != l; ++i) {
+    private static void doSubFilter(byte line[], int l, int bpp) {
+        for (int i = bpp; i < l; ++i) {
             line[i] = (byte) (line[i] + line[i - bpp]);
         }
     }
 
-    private void doUpFilter(byte line[], byte pline[]) {
-        int l = line.length;
+    private static void doUpFilter(byte line[], byte pline[], int l) {
         for (int i = 0; i != l; ++i) {
             line[i] = (byte) (line[i] + pline[i]);
         }
     }
 
-    private void doAvrgFilter(byte line[], byte pline[], int bpp) {
-        int l = line.length;
-        for (int i = 0; i != bpp; ++i) {
-            line[i] = (byte) (line[i] + (pline[i] & 0xFF) / 2);
-        }
-        for (int i = bpp; i != l; ++i) {
-            line[i] = (byte) (line[i]
-                    + (((line[i - bpp] & 0xFF) + (pline[i] & 0xFF))) / 2);
+    // first row of a pass: the prior row is all zeros
+    private static void doAvrgFilterFirst(byte line[], int l, int bpp) {
+        for (int i = bpp; i < l; ++i) {
+            line[i] = (byte) (line[i] + ((line[i - bpp] & 0xFF) >> 1));
         }
     }
 
-    private static int paethPr(int a, int b, int c) {
-        // int p = a + b - c
-        int pa = Math.abs(b - c);      // p-a
-        int pb = Math.abs(a - c);      // p-b
-        int pc = Math.abs(b - c + a - c);  // p-c
-        return (pa <= pb && pa <= pc) ? a : (pb <= pc) ? b : c;
+    private static void doAvrgFilter(byte line[], byte pline[], int l, int bpp) {
+        int i = 0;
+        for (; i < bpp && i < l; ++i) {
+            line[i] = (byte) (line[i] + ((pline[i] & 0xFF) >> 1));
+        }
+        for (; i < l; ++i) {
+            line[i] = (byte) (line[i]
+                    + (((line[i - bpp] & 0xFF) + (pline[i] & 0xFF)) >> 1));
+        }
     }
 
-    private void doPaethFilter(byte line[], byte pline[], int bpp) {
-        int l = line.length;
-        for (int i = 0; i != bpp; ++i) {
+    private static void doPaethFilter(byte line[], byte pline[], int l, int bpp) {
+        int i = 0;
+        for (; i < bpp && i < l; ++i) {
             line[i] = (byte) (line[i] + pline[i]);
         }
-        for (int i = bpp; i != l; ++i) {
-            line[i] = (byte) (line[i]
-                    + paethPr(line[i - bpp] & 0xFF, pline[i] & 0xFF, pline[i - bpp] & 0xFF));
+        for (; i < l; ++i) {
+            int a = line[i - bpp] & 0xFF;
+            int b = pline[i] & 0xFF;
+            int c = pline[i - bpp] & 0xFF;
+            // p = a + b - c
+            int pa = b - c;            // p-a
+            int pb = a - c;            // p-b
+            int pc = pa + pb;          // p-c
+            if (pa < 0) pa = -pa;
+            if (pb < 0) pb = -pb;
+            if (pc < 0) pc = -pc;
+            int pr = (pa <= pb && pa <= pc) ? a : (pb <= pc) ? b : c;
+            line[i] = (byte) (line[i] + pr);
         }
     }
 
-    private void doFilter(byte line[], byte pline[], int fType, int bpp) {
+    private static void doFilter(byte line[], byte pline[], int l,
+            boolean firstRow, int fType, int bpp) {
         switch (fType) {
             case PNG_FILTER_SUB:
-                doSubFilter(line, bpp);
+                doSubFilter(line, l, bpp);
                 break;
             case PNG_FILTER_UP:
-                doUpFilter(line, pline);
+                // Up on the first row adds zero
+                if (!firstRow) {
+                    doUpFilter(line, pline, l);
+                }
                 break;
             case PNG_FILTER_AVERAGE:
-                doAvrgFilter(line, pline, bpp);
+                if (firstRow) {
+                    doAvrgFilterFirst(line, l, bpp);
+                } else {
+                    doAvrgFilter(line, pline, l, bpp);
+                }
                 break;
             case PNG_FILTER_PAETH:
-                doPaethFilter(line, pline, bpp);
+                // with a zero prior row the Paeth predictor always picks a
+                if (firstRow) {
+                    doSubFilter(line, l, bpp);
+                } else {
+                    doPaethFilter(line, pline, l, bpp);
+                }
                 break;
         }
     }
 
-    private void downsample16to8trns_gray(byte line[], byte image[], int pos, int step) {
-        int l = line.length / 2;
+    private void downsample16to8trns_gray(byte line[], int lineLen, byte image[], int pos, int step) {
+        int l = lineLen / 2;
         for (int i = 0, oPos = pos; i < l; oPos += step * 2, ++i) {
             int gray16 = (short) ((line[i * 2] & 0xFF) * 256 + (line[i * 2 + 1] & 0xFF));
             image[oPos + 0] = line[i * 2];
@@ -392,8 +412,8 @@ public final class PNGImageLoader2 extends ImageLoaderImpl {
         }
     }
 
-    private void downsample16to8trns_rgb(byte line[], byte image[], int pos, int step) {
-        int l = line.length / 2 / 3;
+    private void downsample16to8trns_rgb(byte line[], int lineLen, byte image[], int pos, int step) {
+        int l = lineLen / 2 / 3;
         for (int i = 0, oPos = pos; i < l; oPos += step * 4, ++i) {
             int iPos = i * 6;
             int r16 = (short) ((line[iPos + 0] & 0xFF) * 256 + (line[iPos + 1] & 0xFF));
@@ -407,8 +427,8 @@ public final class PNGImageLoader2 extends ImageLoaderImpl {
         }
     }
 
-    private void downsample16to8_plain(byte line[], byte image[], int pos, int step, int bpp) {
-        int l = (line.length / 2 / bpp) * bpp, stepBpp = step * bpp;
+    private void downsample16to8_plain(byte line[], int lineLen, byte image[], int pos, int step, int bpp) {
+        int l = (lineLen / 2 / bpp) * bpp, stepBpp = step * bpp;
         for (int i = 0, oPos = pos; i != l; oPos += stepBpp, i += bpp) {
             for (int b = 0; b != bpp; ++b) {
                 image[oPos + b] = line[(i + b) * 2];
@@ -416,28 +436,28 @@ public final class PNGImageLoader2 extends ImageLoaderImpl {
         }
     }
 
-    private void downsample16to8(byte line[], byte image[], int pos, int step, int bpp) {
+    private void downsample16to8(byte line[], int lineLen, byte image[], int pos, int step, int bpp) {
         if (!tRNS_GRAY_RGB) {
-            downsample16to8_plain(line, image, pos, step, bpp);
+            downsample16to8_plain(line, lineLen, image, pos, step, bpp);
         } else if (colorType == PNG_COLOR_GRAY) {
-            downsample16to8trns_gray(line, image, pos, step);
+            downsample16to8trns_gray(line, lineLen, image, pos, step);
         } else if (colorType == PNG_COLOR_RGB) {
-            downsample16to8trns_rgb(line, image, pos, step);
+            downsample16to8trns_rgb(line, lineLen, image, pos, step);
         }
     }
 
-    private void copyTrns_gray(byte line[], byte image[], int pos, int step) {
+    private void copyTrns_gray(byte line[], int lineLen, byte image[], int pos, int step) {
         byte tG = (byte) trnsG;
-        for (int i = 0, oPos = pos, l = line.length; i < l; oPos += 2 * step, ++i) {
+        for (int i = 0, oPos = pos, l = lineLen; i < l; oPos += 2 * step, ++i) {
             byte gray = line[i];
             image[oPos] = gray;
             image[oPos + 1] = (gray == tG) ? 0 : (byte) 255;
         }
     }
 
-    private void copyTrns_rgb(byte line[], byte image[], int pos, int step) {
+    private void copyTrns_rgb(byte line[], int lineLen, byte image[], int pos, int step) {
         byte tR = (byte) trnsR, tG = (byte) trnsG, tB = (byte) trnsB;
-        int l = line.length / 3;
+        int l = lineLen / 3;
         for (int i = 0, oPos = pos; i < l; oPos += step * 4, ++i) {
             byte r = line[i * 3], g = line[i * 3 + 1], b = line[i * 3 + 2];
             image[oPos + 0] = r;
@@ -447,8 +467,8 @@ public final class PNGImageLoader2 extends ImageLoaderImpl {
         }
     }
 
-    private void copy_plain(byte line[], byte image[], int pos, int step, int bpp) {
-        int l = line.length, stepBpp = step * bpp;
+    private void copy_plain(byte line[], int lineLen, byte image[], int pos, int step, int bpp) {
+        int l = lineLen, stepBpp = step * bpp;
         for (int i = 0, oPos = pos; i != l; oPos += stepBpp, i += bpp) {
             for (int b = 0; b != bpp; ++b) {
                 image[oPos + b] = line[i + b];
@@ -456,17 +476,17 @@ public final class PNGImageLoader2 extends ImageLoaderImpl {
         }
     }
 
-    private void copy(byte line[], byte image[], int pos, int step, int resultBpp) {
+    private void copy(byte line[], int lineLen, byte image[], int pos, int step, int resultBpp) {
         if (!tRNS_GRAY_RGB) {
             if (step == 1) {
-                System.arraycopy(line, 0, image, pos, line.length);
+                System.arraycopy(line, 0, image, pos, lineLen);
             } else {
-                copy_plain(line, image, pos, step, resultBpp);
+                copy_plain(line, lineLen, image, pos, step, resultBpp);
             }
         } else if (colorType == PNG_COLOR_GRAY) {
-            copyTrns_gray(line, image, pos, step); // resultBpp==2
+            copyTrns_gray(line, lineLen, image, pos, step); // resultBpp==2
         } else if (colorType == PNG_COLOR_RGB) {
-            copyTrns_rgb(line, image, pos, step); // resultBpp==4
+            copyTrns_rgb(line, lineLen, image, pos, step); // resultBpp==4
         }
     }
 
@@ -535,14 +555,30 @@ public final class PNGImageLoader2 extends ImageLoaderImpl {
         return start[mip] + pos * increment[mip];
     }
 
-    private void loadMip(byte image[], InputStream data, int mip) throws IOException {
+    private int scanLineSize(int w) {
+        return (w * bitDepth * numBandsPerColorType[colorType] + 7) / 8;
+    }
+
+    private static void readFully(InputStream data, byte b[], int len) throws IOException {
+        // the inflater may return short reads at IDAT chunk boundaries
+        for (int n = 0; n < len; ) {
+            int count = data.read(b, n, len - n);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            n += count;
+        }
+    }
+
+    // returns the number of rows decoded so far, for progress reporting
+    private int loadMip(byte image[], InputStream data, int mip,
+            byte scanLine0[], byte scanLine1[], int rowsDone, int rowsTotal)
+            throws IOException {
 
         int mipWidth = mipSize(width, mip, starting_x, increment_x);
         int mipHeight = mipSize(height, mip, starting_y, increment_y);
 
-        int scanLineSize = (mipWidth * bitDepth * numBandsPerColorType[colorType] + 7) / 8;
-        byte scanLine0[] = new byte[scanLineSize];
-        byte scanLine1[] = new byte[scanLineSize];
+        int scanLineSize = scanLineSize(mipWidth);
 
         // numBands might be more than numBandsPerColorType[colorType]
         // to support tRNS
@@ -554,38 +590,53 @@ public final class PNGImageLoader2 extends ImageLoaderImpl {
                 throw new EOFException();
             }
 
-            if (data.read(scanLine0) != scanLineSize) {
-                throw new EOFException();
-            }
+            readFully(data, scanLine0, scanLineSize);
 
-            doFilter(scanLine0, scanLine1, filterByte, srcBpp);
+            doFilter(scanLine0, scanLine1, scanLineSize, y == 0, filterByte, srcBpp);
 
             int pos = (mipPos(y, mip, starting_y, increment_y) * width + starting_x[mip]) * resultBpp;
             int step = increment_x[mip];
 
             if (bitDepth == 16) {
-                downsample16to8(scanLine0, image, pos, step, resultBpp);
+                downsample16to8(scanLine0, scanLineSize, image, pos, step, resultBpp);
             } else if (bitDepth < 8) {
                 upsampleTo8(scanLine0, image, pos, mipWidth, step, resultBpp);
             } else {
-                copy(scanLine0, image, pos, step, resultBpp);
+                copy(scanLine0, scanLineSize, image, pos, step, resultBpp);
             }
 
             byte scanLineSwp[] = scanLine0;
             scanLine0 = scanLine1;
             scanLine1 = scanLineSwp;
+
+            updateImageProgress(100.0F * ++rowsDone / rowsTotal);
         }
+        return rowsDone;
     }
 
     private void load(byte image[], InputStream data) throws IOException {
+        // Both row buffers are sized for the widest pass and shared by all
+        // passes; the first row of each pass never reads the prior row.
+        int scanLineSize = scanLineSize(width);
+        byte scanLine0[] = new byte[scanLineSize];
+        byte scanLine1[] = new byte[scanLineSize];
+
         if (isInterlaced) {
+            int rowsTotal = 0;
+            for (int mip = 0; mip != 7; ++mip) {
+                if (width > starting_x[mip] && height > starting_y[mip]) {
+                    rowsTotal += mipSize(height, mip, starting_y, increment_y);
+                }
+            }
+            int rowsDone = 0;
             for (int mip = 0; mip != 7; ++mip) {
                 if (width > starting_x[mip] && height > starting_y[mip]) {
-                    loadMip(image, data, mip);
+                    rowsDone = loadMip(image, data, mip, scanLine0, scanLine1,
+                                       rowsDone, rowsTotal);
                 }
             }
         } else {
-            loadMip(image, data, 7);
+            loadMip(image, data, 7, scanLine0, scanLine1, 0, height);
         }
     }
 
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * writer implementation for PNG file format
+ * specification http://www.w3.org/TR/PNG/
+ */
+package com.sun.javafx.iio.png;
+
+import com.sun.javafx.iio.*;
+import com.sun.javafx.iio.ImageStorage.ImageType;
+import com.sun.javafx.image.PixelUtils;
+import com.sun.javafx.runtime.async.BackgroundExecutor;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.*;
+
+public final class PNGImageWriter implements ImageWriter {
+
+    // The image data is filtered and compressed in strips of whole rows
+    // of about this many bytes each.  Each strip is compressed on its own
+    // and ends on a byte boundary, so that the strips of large images can
+    // be compressed in parallel and simply be written one after the other.
+    static final int STRIP_BYTES = 256 * 1024;
+
+    private final DataOutputStream stream;
+
+    PNGImageWriter(OutputStream output) {
+        stream = new DataOutputStream(output);
+    }
+
+    public ImageFormatDescription getFormatDescription() {
+        return PNGDescriptor.getInstance();
+    }
+
+    public void dispose() {
+    }
+
+    public void write(ImageFrame image, float quality) throws IOException {
+        ImageType type = image.getImageType();
+        int colorType;
+        switch (type) {
+            case GRAY:
+                colorType = PNGImageLoader2.PNG_COLOR_GRAY;
+                break;
+            case GRAY_ALPHA:
+            case GRAY_ALPHA_PRE:
+                colorType = PNGImageLoader2.PNG_COLOR_GRAY_ALPHA;
+                break;
+            case RGB:
+                colorType = PNGImageLoader2.PNG_COLOR_RGB;
+                break;
+            case RGBA:
+            case RGBA_PRE:
+                colorType = PNGImageLoader2.PNG_COLOR_RGB_ALPHA;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported image type " + type);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image has no pixels");
+        }
+        int level = Math.round(Math.max(0f, Math.min(quality, 1f)) *
+                               Deflater.BEST_COMPRESSION);
+        int bpp = PNGImageLoader2.numBandsPerColorType[colorType];
+        int rowsPerStrip = Math.max(1, STRIP_BYTES / (width * bpp + 1));
+        int numStrips = (height + rowsPerStrip - 1) / rowsPerStrip;
+
+        stream.write(PNGImageLoader2.FILE_SIG);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+        DataOutputStream hdr = new DataOutputStream(header);
+        hdr.writeInt(width);
+        hdr.writeInt(height);
+        hdr.writeByte(8);
+        hdr.writeByte(colorType);
+        hdr.writeByte(0);   // deflate
+        hdr.writeByte(0);   // adaptive filtering
+        hdr.writeByte(0);   // no interlace
+        writeChunk(PNGImageLoader2.IHDR_TYPE, header.toByteArray(), header.size());
+
+        // the zlib stream header
+        int cmf = 0x78;
+        int flg = (level < 2 ? 0 : level < 6 ? 1 : level == 6 ? 2 : 3) << 6;
+        flg += 31 - ((cmf << 8) | flg) % 31;
+        writeChunk(PNGImageLoader2.IDAT_TYPE, new byte[] { (byte) cmf, (byte) flg }, 2);
+
+        ForkJoinPool pool = (numStrips > 1) ? BackgroundExecutor.getForkJoinPool() : null;
+        int batchSize = (pool != null) ? pool.getParallelism() : 1;
+        int adler = 1;
+        for (int first = 0; first < numStrips; first += batchSize) {
+            List<Strip> strips = new ArrayList<Strip>(batchSize);
+            for (int i = first; i < numStrips && i < first + batchSize; i++) {
+                strips.add(new Strip(image, bpp, level, i * rowsPerStrip,
+                                     Math.min(height, (i + 1) * rowsPerStrip)));
+            }
+            if (strips.size() > 1) {
+                for (Future<Strip> f : pool.invokeAll(strips)) {
+                    try {
+                        f.get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof IOException) {
+                            throw (IOException) cause;
+                        }
+                        if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        }
+                        throw new IOException(cause);
+                    }
+                }
+            } else {
+                strips.get(0).call();
+            }
+            for (Strip s : strips) {
+                adler = adler32Combine(adler, s.adler, s.rawLength);
+                writeChunk(PNGImageLoader2.IDAT_TYPE, s.compressed, s.compressedLength);
+            }
+        }
+
+        // the zlib stream trailer
+        byte trailer[] = {
+            (byte) (adler >>> 24), (byte) (adler >>> 16),
+            (byte) (adler >>> 8), (byte) adler
+        };
+        writeChunk(PNGImageLoader2.IDAT_TYPE, trailer, 4);
+        writeChunk(PNGImageLoader2.IEND_TYPE, null, 0);
+        stream.flush();
+    }
+
+    private void writeChunk(int type, byte data[], int length) throws IOException {
+        CRC32 crc = new CRC32();
+        byte typeBytes[] = {
+            (byte) (type >>> 24), (byte) (type >>> 16),
+            (byte) (type >>> 8), (byte) type
+        };
+        crc.update(typeBytes);
+        stream.writeInt(length);
+        stream.write(typeBytes);
+        if (length > 0) {
+            crc.update(data, 0, length);
+            stream.write(data, 0, length);
+        }
+        stream.writeInt((int) crc.getValue());
+    }
+
+    /*
+     * Returns the Adler-32 checksum of two sequences of bytes given the
+     * checksums of each of them and the length of the second one, as
+     * adler32_combine() in zlib does.
+     */
+    static int adler32Combine(int adler1, int adler2, long len2) {
+        final long BASE = 65521;
+        long rem = len2 % BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (rem * sum1) % BASE;
+        sum1 += (adler2 & 0xffff) + BASE - 1;
+        sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff) + BASE - rem;
+        if (sum1 >= BASE) sum1 -= BASE;
+        if (sum1 >= BASE) sum1 -= BASE;
+        if (sum2 >= (BASE << 1)) sum2 -= (BASE << 1);
+        if (sum2 >= BASE) sum2 -= BASE;
+        return (int) (sum1 | (sum2 << 16));
+    }
+
+    /*
+     * The rows from y0 (inclusive) to y1 (exclusive) of an image, filtered
+     * and compressed into a sequence of deflate blocks.
+     */
+    private static final class Strip implements Callable<Strip> {
+        private final ImageFrame image;
+        private final int bpp;
+        private final int level;
+        private final int y0, y1;
+        byte compressed[];
+        int compressedLength;
+        int adler;
+        long rawLength;
+
+        Strip(ImageFrame image, int bpp, int level, int y0, int y1) {
+            this.image = image;
+            this.bpp = bpp;
+            this.level = level;
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+
+        public Strip call() {
+            int rowBytes = image.getWidth() * bpp;
+            boolean premultiplied = (image.getImageType() == ImageType.RGBA_PRE ||
+                                     image.getImageType() == ImageType.GRAY_ALPHA_PRE);
+            ByteBuffer data = ((ByteBuffer) image.getImageData()).duplicate();
+            int stride = image.getStride();
+
+            byte filtered[] = new byte[(y1 - y0) * (rowBytes + 1)];
+            byte prev[] = new byte[rowBytes];
+            byte cur[] = new byte[rowBytes];
+            byte scratch[][] = new byte[5][rowBytes];
+            if (y0 > 0) {
+                getRow(data, (y0 - 1) * stride, prev, premultiplied);
+            }
+            int off = 0;
+            for (int y = y0; y < y1; y++) {
+                getRow(data, y * stride, cur, premultiplied);
+                int filter = (level == 0) ? PNGImageLoader2.PNG_FILTER_NONE
+                                          : filterRow(cur, prev, bpp, scratch);
+                filtered[off++] = (byte) filter;
+                System.arraycopy(filter == PNGImageLoader2.PNG_FILTER_NONE ? cur : scratch[filter],
+                                 0, filtered, off, rowBytes);
+                off += rowBytes;
+                byte tmp[] = prev;
+                prev = cur;
+                cur = tmp;
+            }
+
+            Adler32 checksum = new Adler32();
+            checksum.update(filtered, 0, off);
+            adler = (int) checksum.getValue();
+            rawLength = off;
+
+            boolean last = (y1 == image.getHeight());
+            Deflater deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(filtered, 0, off);
+                if (last) {
+                    deflater.finish();
+                }
+                compressed = new byte[Math.max(1024, off / 2)];
+                while (true) {
+                    if (compressedLength == compressed.length) {
+                        byte bigger[] = new byte[compressed.length * 2];
+                        System.arraycopy(compressed, 0, bigger, 0, compressedLength);
+                        compressed = bigger;
+                    }
+                    int space = compressed.length - compressedLength;
+                    int n = last
+                            ? deflater.deflate(compressed, compressedLength, space)
+                            : deflater.deflate(compressed, compressedLength, space,
+                                               Deflater.SYNC_FLUSH);
+                    compressedLength += n;
+                    // a sync flush is complete when the output is not full
+                    if (last ? deflater.finished() : n < space) {
+                        break;
+                    }
+                }
+            } finally {
+                deflater.end();
+            }
+            return this;
+        }
+
+        private void getRow(ByteBuffer data, int offset, byte row[],
+                            boolean premultiplied)
+        {
+            data.position(offset);
+            data.get(row);
+            if (premultiplied) {
+                for (int p = 0; p < row.length; p += bpp) {
+                    int a = row[p + bpp - 1] & 0xff;
+                    for (int c = 0; c < bpp - 1; c++) {
+                        row[p + c] = (byte) PixelUtils.PreToNonPre(row[p + c] & 0xff, a);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Applies each of the filters to a row and returns the one whose
+     * output has the smallest sum of absolute values, which is the
+     * heuristic suggested by the PNG specification.  The output of the
+     * filter types other than None is left in scratch[type].
+     */
+    static int filterRow(byte cur[], byte prev[], int bpp, byte scratch[][]) {
+        int len = cur.length;
+        byte sub[] = scratch[PNGImageLoader2.PNG_FILTER_SUB];
+        byte up[] = scratch[PNGImageLoader2.PNG_FILTER_UP];
+        byte avg[] = scratch[PNGImageLoader2.PNG_FILTER_AVERAGE];
+        byte paeth[] = scratch[PNGImageLoader2.PNG_FILTER_PAETH];
+        int sumNone = 0, sumSub = 0, sumUp = 0, sumAvg = 0, sumPaeth = 0;
+        for (int i = 0; i < len; i++) {
+            int x = cur[i] & 0xff;
+            int a = (i >= bpp) ? cur[i - bpp] & 0xff : 0;
+            int b = prev[i] & 0xff;
+            int c = (i >= bpp) ? prev[i - bpp] & 0xff : 0;
+
+            int p = a + b - c;
+            int pa = Math.abs(p - a);
+            int pb = Math.abs(p - b);
+            int pc = Math.abs(p - c);
+            int pred = (pa <= pb && pa <= pc) ? a : (pb <= pc) ? b : c;
+
+            sub[i] = (byte) (x - a);
+            up[i] = (byte) (x - b);
+            avg[i] = (byte) (x - ((a + b) >> 1));
+            paeth[i] = (byte) (x - pred);
+
+            sumNone += Math.abs((byte) x);
+            sumSub += Math.abs(sub[i]);
+            sumUp += Math.abs(up[i]);
+            sumAvg += Math.abs(avg[i]);
+            sumPaeth += Math.abs(paeth[i]);
+        }
+        int best = PNGImageLoader2.PNG_FILTER_NONE;
+        int bestSum = sumNone;
+        if (sumSub < bestSum) { best = PNGImageLoader2.PNG_FILTER_SUB; bestSum = sumSub; }
+        if (sumUp < bestSum) { best = PNGImageLoader2.PNG_FILTER_UP; bestSum = sumUp; }
+        if (sumAvg < bestSum) { best = PNGImageLoader2.PNG_FILTER_AVERAGE; bestSum = sumAvg; }
+        if (sumPaeth < bestSum) { best = PNGImageLoader2.PNG_FILTER_PAETH; }
+        return best;
+    }
+}
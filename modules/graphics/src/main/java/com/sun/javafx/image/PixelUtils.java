@@ -51,40 +51,57 @@ public class PixelUtils {
                          (xrgb      ) & 0xff);
     }
 
+    // The premultiplied and non-premultiplied values of every component
+    // value for every alpha value, indexed by (alpha << 8) | component, so
+    // that converting a component costs a table lookup instead of a divide
+    private static final byte NONPRE_TO_PRE[] = new byte[256 * 256];
+    private static final byte PRE_TO_NONPRE[] = new byte[256 * 256];
+    static {
+        for (int a = 0; a < 256; a++) {
+            int halfa = a >> 1;
+            for (int c = 0; c < 256; c++) {
+                int pre, nonpre;
+                if (a == 0xff) {
+                    pre = nonpre = c;
+                } else if (a == 0x00) {
+                    pre = 0;
+                    nonpre = c;
+                } else {
+                    pre = (c * a + 0x7f) / 0xff;
+                    nonpre = (c >= a) ? 0xff : (c * 0xff + halfa) / a;
+                }
+                NONPRE_TO_PRE[(a << 8) | c] = (byte) pre;
+                PRE_TO_NONPRE[(a << 8) | c] = (byte) nonpre;
+            }
+        }
+    }
+
     public static int NonPretoPre(int nonpre, int alpha) {
-        if (alpha == 0xff) return nonpre;
-        if (alpha == 0x00) return 0;
-        return (nonpre * alpha + 0x7f) / 0xff;
+        return NONPRE_TO_PRE[(alpha << 8) | nonpre] & 0xff;
     }
 
     public static int PreToNonPre(int pre, int alpha) {
-        if (alpha == 0xff || alpha == 0x00) return pre;
-        return (pre >= alpha) ? 0xff : (pre * 0xff + (alpha >> 1)) / alpha;
+        return PRE_TO_NONPRE[(alpha << 8) | pre] & 0xff;
     }
 
     public static int NonPretoPre(int nonpre) {
         int a = nonpre >>> 24;
         if (a == 0xff) return nonpre;
         if (a == 0x00) return 0;
-        int r = (nonpre >> 16) & 0xff;
-        int g = (nonpre >>  8) & 0xff;
-        int b = (nonpre      ) & 0xff;
-        r = (r * a + 0x7f) / 0xff;
-        g = (g * a + 0x7f) / 0xff;
-        b = (b * a + 0x7f) / 0xff;
+        int base = a << 8;
+        int r = NONPRE_TO_PRE[base | ((nonpre >> 16) & 0xff)] & 0xff;
+        int g = NONPRE_TO_PRE[base | ((nonpre >>  8) & 0xff)] & 0xff;
+        int b = NONPRE_TO_PRE[base | ((nonpre      ) & 0xff)] & 0xff;
         return (a << 24) | (r << 16) | (g << 8) | b;
     }
 
     public static int PretoNonPre(int pre) {
         int a = pre >>> 24;
         if (a == 0xff || a == 0x00) return pre;
-        int r = (pre >> 16) & 0xff;
-        int g = (pre >>  8) & 0xff;
-        int b = (pre      ) & 0xff;
-        int halfa = a >> 1;
-        r = (r >= a) ? 0xff : (r * 0xff + halfa) / a;
-        g = (g >= a) ? 0xff : (g * 0xff + halfa) / a;
-        b = (b >= a) ? 0xff : (b * 0xff + halfa) / a;
+        int base = a << 8;
+        int r = PRE_TO_NONPRE[base | ((pre >> 16) & 0xff)] & 0xff;
+        int g = PRE_TO_NONPRE[base | ((pre >>  8) & 0xff)] & 0xff;
+        int b = PRE_TO_NONPRE[base | ((pre      ) & 0xff)] & 0xff;
         return (a << 24) | (r << 16) | (g << 8) | b;
     }
 
@@ -64,6 +64,28 @@ abstract class BaseByteToByteConverter
                             ByteBuffer dstbuf, int dstoff, int dstscanbytes,
                             int w, int h);
 
+    private void convertArrays(final byte srcarr[], int srcoff, final int srcscanbytes,
+                               final byte dstarr[], int dstoff, final int dstscanbytes,
+                               int w, int h)
+    {
+        if (!ParallelConversion.shouldSplit(w, h)) {
+            doConvert(srcarr, srcoff, srcscanbytes,
+                      dstarr, dstoff, dstscanbytes,
+                      w, h);
+            return;
+        }
+        ParallelConversion.convert(srcoff, srcscanbytes, nSrcElems,
+                                   dstoff, dstscanbytes, nDstElems,
+                                   w, h, new ParallelConversion.Part() {
+            @Override
+            public void convert(int srcoff, int dstoff, int w, int h) {
+                doConvert(srcarr, srcoff, srcscanbytes,
+                          dstarr, dstoff, dstscanbytes,
+                          w, h);
+            }
+        });
+    }
+
     @Override
     public final void convert(byte srcarr[], int srcoff, int srcscanbytes,
                               byte dstarr[], int dstoff, int dstscanbytes,
@@ -76,9 +98,9 @@ abstract class BaseByteToByteConverter
             w *= h;
             h = 1;
         }
-        doConvert(srcarr, srcoff, srcscanbytes,
-                  dstarr, dstoff, dstscanbytes,
-                  w, h);
+        convertArrays(srcarr, srcoff, srcscanbytes,
+                      dstarr, dstoff, dstscanbytes,
+                      w, h);
     }
 
     @Override
@@ -96,9 +118,9 @@ abstract class BaseByteToByteConverter
         if (srcbuf.hasArray() && dstbuf.hasArray()) {
             srcoff += srcbuf.arrayOffset();
             dstoff += dstbuf.arrayOffset();
-            doConvert(srcbuf.array(), srcoff, srcscanbytes,
-                      dstbuf.array(), dstoff, dstscanbytes,
-                      w, h);
+            convertArrays(srcbuf.array(), srcoff, srcscanbytes,
+                          dstbuf.array(), dstoff, dstscanbytes,
+                          w, h);
         } else {
             doConvert(srcbuf, srcoff, srcscanbytes,
                       dstbuf, dstoff, dstscanbytes,
@@ -121,9 +143,9 @@ abstract class BaseByteToByteConverter
         if (srcbuf.hasArray()) {
             byte srcarr[] = srcbuf.array();
             srcoff += srcbuf.arrayOffset();
-            doConvert(srcarr, srcoff, srcscanbytes,
-                      dstarr, dstoff, dstscanbytes,
-                      w, h);
+            convertArrays(srcarr, srcoff, srcscanbytes,
+                          dstarr, dstoff, dstscanbytes,
+                          w, h);
         } else {
             ByteBuffer dstbuf = ByteBuffer.wrap(dstarr);
             doConvert(srcbuf, srcoff, srcscanbytes,
@@ -147,9 +169,9 @@ abstract class BaseByteToByteConverter
         if (dstbuf.hasArray()) {
             byte dstarr[] = dstbuf.array();
             dstoff += dstbuf.arrayOffset();
-            doConvert(srcarr, srcoff, srcscanbytes,
-                      dstarr, dstoff, dstscanbytes,
-                      w, h);
+            convertArrays(srcarr, srcoff, srcscanbytes,
+                          dstarr, dstoff, dstscanbytes,
+                          w, h);
         } else {
             ByteBuffer srcbuf = ByteBuffer.wrap(srcarr);
             doConvert(srcbuf, srcoff, srcscanbytes,
@@ -62,6 +62,28 @@ public abstract class BaseByteToIntConverter
                             IntBuffer  dstbuf, int dstoff, int dstscanints,
                             int w, int h);
 
+    private void convertArrays(final byte srcarr[], int srcoff, final int srcscanbytes,
+                               final int  dstarr[], int dstoff, final int dstscanints,
+                               int w, int h)
+    {
+        if (!ParallelConversion.shouldSplit(w, h)) {
+            doConvert(srcarr, srcoff, srcscanbytes,
+                      dstarr, dstoff, dstscanints,
+                      w, h);
+            return;
+        }
+        ParallelConversion.convert(srcoff, srcscanbytes, nSrcElems,
+                                   dstoff, dstscanints, 1,
+                                   w, h, new ParallelConversion.Part() {
+            @Override
+            public void convert(int srcoff, int dstoff, int w, int h) {
+                doConvert(srcarr, srcoff, srcscanbytes,
+                          dstarr, dstoff, dstscanints,
+                          w, h);
+            }
+        });
+    }
+
     @Override
     public final void convert(byte srcarr[], int srcoff, int srcscanbytes,
                               int  dstarr[], int dstoff, int dstscanints,
@@ -74,9 +96,9 @@ public abstract class BaseByteToIntConverter
             w *= h;
             h = 1;
         }
-        doConvert(srcarr, srcoff, srcscanbytes,
-                  dstarr, dstoff, dstscanints,
-                  w, h);
+        convertArrays(srcarr, srcoff, srcscanbytes,
+                      dstarr, dstoff, dstscanints,
+                      w, h);
     }
 
     @Override
@@ -94,9 +116,9 @@ public abstract class BaseByteToIntConverter
         if (srcbuf.hasArray() && dstbuf.hasArray()) {
             srcoff += srcbuf.arrayOffset();
             dstoff += dstbuf.arrayOffset();
-            doConvert(srcbuf.array(), srcoff, srcscanbytes,
-                      dstbuf.array(), dstoff, dstscanints,
-                      w, h);
+            convertArrays(srcbuf.array(), srcoff, srcscanbytes,
+                          dstbuf.array(), dstoff, dstscanints,
+                          w, h);
         } else {
             doConvert(srcbuf, srcoff, srcscanbytes,
                       dstbuf, dstoff, dstscanints,
@@ -119,9 +141,9 @@ public abstract class BaseByteToIntConverter
         if (srcbuf.hasArray()) {
             byte srcarr[] = srcbuf.array();
             srcoff += srcbuf.arrayOffset();
-            doConvert(srcarr, srcoff, srcscanbytes,
-                      dstarr, dstoff, dstscanints,
-                      w, h);
+            convertArrays(srcarr, srcoff, srcscanbytes,
+                          dstarr, dstoff, dstscanints,
+                          w, h);
         } else {
             IntBuffer dstbuf = IntBuffer.wrap(dstarr);
             doConvert(srcbuf, srcoff, srcscanbytes,
@@ -145,9 +167,9 @@ public abstract class BaseByteToIntConverter
         if (dstbuf.hasArray()) {
             int dstarr[] = dstbuf.array();
             dstoff += dstbuf.arrayOffset();
-            doConvert(srcarr, srcoff, srcscanbytes,
-                      dstarr, dstoff, dstscanints,
-                      w, h);
+            convertArrays(srcarr, srcoff, srcscanbytes,
+                          dstarr, dstoff, dstscanints,
+                          w, h);
         } else {
             ByteBuffer srcbuf = ByteBuffer.wrap(srcarr);
             doConvert(srcbuf, srcoff, srcscanbytes,
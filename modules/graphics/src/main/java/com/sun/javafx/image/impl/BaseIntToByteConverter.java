@@ -62,6 +62,28 @@ public abstract class BaseIntToByteConverter
                             ByteBuffer dstbuf, int dstoff, int dstscanbytes,
                             int w, int h);
 
+    private void convertArrays(final int  srcarr[], int srcoff, final int srcscanints,
+                               final byte dstarr[], int dstoff, final int dstscanbytes,
+                               int w, int h)
+    {
+        if (!ParallelConversion.shouldSplit(w, h)) {
+            doConvert(srcarr, srcoff, srcscanints,
+                      dstarr, dstoff, dstscanbytes,
+                      w, h);
+            return;
+        }
+        ParallelConversion.convert(srcoff, srcscanints, 1,
+                                   dstoff, dstscanbytes, nDstElems,
+                                   w, h, new ParallelConversion.Part() {
+            @Override
+            public void convert(int srcoff, int dstoff, int w, int h) {
+                doConvert(srcarr, srcoff, srcscanints,
+                          dstarr, dstoff, dstscanbytes,
+                          w, h);
+            }
+        });
+    }
+
     @Override
     public final void convert(int  srcarr[], int srcoff, int srcscanints,
                               byte dstarr[], int dstoff, int dstscanbytes,
@@ -74,9 +96,9 @@ public abstract class BaseIntToByteConverter
             w *= h;
             h = 1;
         }
-        doConvert(srcarr, srcoff, srcscanints,
-                  dstarr, dstoff, dstscanbytes,
-                  w, h);
+        convertArrays(srcarr, srcoff, srcscanints,
+                      dstarr, dstoff, dstscanbytes,
+                      w, h);
     }
 
     @Override
@@ -94,9 +116,9 @@ public abstract class BaseIntToByteConverter
         if (srcbuf.hasArray() && dstbuf.hasArray()) {
             srcoff += srcbuf.arrayOffset();
             dstoff += dstbuf.arrayOffset();
-            doConvert(srcbuf.array(), srcoff, srcscanints,
-                      dstbuf.array(), dstoff, dstscanbytes,
-                      w, h);
+            convertArrays(srcbuf.array(), srcoff, srcscanints,
+                          dstbuf.array(), dstoff, dstscanbytes,
+                          w, h);
         } else {
             doConvert(srcbuf, srcoff, srcscanints,
                       dstbuf, dstoff, dstscanbytes,
@@ -119,9 +141,9 @@ public abstract class BaseIntToByteConverter
         if (srcbuf.hasArray()) {
             int srcarr[] = srcbuf.array();
             srcoff += srcbuf.arrayOffset();
-            doConvert(srcarr, srcoff, srcscanints,
-                      dstarr, dstoff, dstscanbytes,
-                      w, h);
+            convertArrays(srcarr, srcoff, srcscanints,
+                          dstarr, dstoff, dstscanbytes,
+                          w, h);
         } else {
             ByteBuffer dstbuf = ByteBuffer.wrap(dstarr);
             doConvert(srcbuf, srcoff, srcscanints,
@@ -145,9 +167,9 @@ public abstract class BaseIntToByteConverter
         if (dstbuf.hasArray()) {
             byte dstarr[] = dstbuf.array();
             dstoff += dstbuf.arrayOffset();
-            doConvert(srcarr, srcoff, srcscanints,
-                      dstarr, dstoff, dstscanbytes,
-                      w, h);
+            convertArrays(srcarr, srcoff, srcscanints,
+                          dstarr, dstoff, dstscanbytes,
+                          w, h);
         } else {
             IntBuffer srcbuf = IntBuffer.wrap(srcarr);
             doConvert(srcbuf, srcoff, srcscanints,
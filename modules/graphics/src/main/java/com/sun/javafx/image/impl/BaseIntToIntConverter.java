@@ -60,6 +60,28 @@ public abstract class BaseIntToIntConverter
                             IntBuffer dstbuf, int dstoff, int dstscanints,
                             int w, int h);
 
+    private void convertArrays(final int srcarr[], int srcoff, final int srcscanints,
+                               final int dstarr[], int dstoff, final int dstscanints,
+                               int w, int h)
+    {
+        if (!ParallelConversion.shouldSplit(w, h)) {
+            doConvert(srcarr, srcoff, srcscanints,
+                      dstarr, dstoff, dstscanints,
+                      w, h);
+            return;
+        }
+        ParallelConversion.convert(srcoff, srcscanints, 1,
+                                   dstoff, dstscanints, 1,
+                                   w, h, new ParallelConversion.Part() {
+            @Override
+            public void convert(int srcoff, int dstoff, int w, int h) {
+                doConvert(srcarr, srcoff, srcscanints,
+                          dstarr, dstoff, dstscanints,
+                          w, h);
+            }
+        });
+    }
+
     @Override
     public final void convert(int srcarr[], int srcoff, int srcscanints,
                               int dstarr[], int dstoff, int dstscanints,
@@ -72,9 +94,9 @@ public abstract class BaseIntToIntConverter
             w *= h;
             h = 1;
         }
-        doConvert(srcarr, srcoff, srcscanints,
-                  dstarr, dstoff, dstscanints,
-                  w, h);
+        convertArrays(srcarr, srcoff, srcscanints,
+                      dstarr, dstoff, dstscanints,
+                      w, h);
     }
 
     @Override
@@ -92,9 +114,9 @@ public abstract class BaseIntToIntConverter
         if (srcbuf.hasArray() && dstbuf.hasArray()) {
             srcoff += srcbuf.arrayOffset();
             dstoff += dstbuf.arrayOffset();
-            doConvert(srcbuf.array(), srcoff, srcscanints,
-                      dstbuf.array(), dstoff, dstscanints,
-                      w, h);
+            convertArrays(srcbuf.array(), srcoff, srcscanints,
+                          dstbuf.array(), dstoff, dstscanints,
+                          w, h);
         } else {
             doConvert(srcbuf, srcoff, srcscanints,
                       dstbuf, dstoff, dstscanints,
@@ -117,9 +139,9 @@ public abstract class BaseIntToIntConverter
         if (srcbuf.hasArray()) {
             int srcarr[] = srcbuf.array();
             srcoff += srcbuf.arrayOffset();
-            doConvert(srcarr, srcoff, srcscanints,
-                      dstarr, dstoff, dstscanints,
-                      w, h);
+            convertArrays(srcarr, srcoff, srcscanints,
+                          dstarr, dstoff, dstscanints,
+                          w, h);
         } else {
             IntBuffer dstbuf = IntBuffer.wrap(dstarr);
             doConvert(srcbuf, srcoff, srcscanints,
@@ -143,9 +165,9 @@ public abstract class BaseIntToIntConverter
         if (dstbuf.hasArray()) {
             int dstarr[] = dstbuf.array();
             dstoff += dstbuf.arrayOffset();
-            doConvert(srcarr, srcoff, srcscanints,
-                      dstarr, dstoff, dstscanints,
-                      w, h);
+            convertArrays(srcarr, srcoff, srcscanints,
+                          dstarr, dstoff, dstscanints,
+                          w, h);
         } else {
             IntBuffer srcbuf = IntBuffer.wrap(srcarr);
             doConvert(srcbuf, srcoff, srcscanints,
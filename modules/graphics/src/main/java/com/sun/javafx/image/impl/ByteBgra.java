@@ -141,9 +141,9 @@ public class ByteBgra {
                         if (a == 0) {
                             b = g = r = 0;
                         } else {
-                            b = (byte) (((b & 0xff) * a + 0x7f) / 0xff);
-                            g = (byte) (((g & 0xff) * a + 0x7f) / 0xff);
-                            r = (byte) (((r & 0xff) * a + 0x7f) / 0xff);
+                            b = (byte) PixelUtils.NonPretoPre(b & 0xff, a);
+                            g = (byte) PixelUtils.NonPretoPre(g & 0xff, a);
+                            r = (byte) PixelUtils.NonPretoPre(r & 0xff, a);
                         }
                     }
                     dstarr[dstoff++] = b;
@@ -174,9 +174,9 @@ public class ByteBgra {
                         if (a == 0) {
                             b = g = r = 0;
                         } else {
-                            b = (byte) (((b & 0xff) * a + 0x7f) / 0xff);
-                            g = (byte) (((g & 0xff) * a + 0x7f) / 0xff);
-                            r = (byte) (((r & 0xff) * a + 0x7f) / 0xff);
+                            b = (byte) PixelUtils.NonPretoPre(b & 0xff, a);
+                            g = (byte) PixelUtils.NonPretoPre(g & 0xff, a);
+                            r = (byte) PixelUtils.NonPretoPre(r & 0xff, a);
                         }
                     }
                     dstbuf.put(dstoff    , b);
@@ -266,9 +266,9 @@ public class ByteBgra {
                         if (a == 0) {
                             b = g = r = 0;
                         } else {
-                            b = (b * a + 0x7f) / 0xff;
-                            g = (g * a + 0x7f) / 0xff;
-                            r = (r * a + 0x7f) / 0xff;
+                            b = PixelUtils.NonPretoPre(b, a);
+                            g = PixelUtils.NonPretoPre(g, a);
+                            r = PixelUtils.NonPretoPre(r, a);
                         }
                     }
                     dstarr[dstoff++] =
@@ -296,9 +296,9 @@ public class ByteBgra {
                         if (a == 0) {
                             b = g = r = 0;
                         } else {
-                            b = (b * a + 0x7f) / 0xff;
-                            g = (g * a + 0x7f) / 0xff;
-                            r = (r * a + 0x7f) / 0xff;
+                            b = PixelUtils.NonPretoPre(b, a);
+                            g = PixelUtils.NonPretoPre(g, a);
+                            r = PixelUtils.NonPretoPre(r, a);
                         }
                     }
                     dstbuf.put(dstoff + x, (a << 24) | (r << 16) | (g << 8) | b);
@@ -138,10 +138,9 @@ public class ByteBgraPre {
                     byte r = srcarr[srcoff++];
                     int  a = srcarr[srcoff++] & 0xff;
                     if (a > 0 && a < 0xff) {
-                        int halfa = a >> 1;
-                        b = (byte) (((b & 0xff) * 0xff + halfa) / a);
-                        g = (byte) (((g & 0xff) * 0xff + halfa) / a);
-                        r = (byte) (((r & 0xff) * 0xff + halfa) / a);
+                        b = (byte) PixelUtils.PreToNonPre(b & 0xff, a);
+                        g = (byte) PixelUtils.PreToNonPre(g & 0xff, a);
+                        r = (byte) PixelUtils.PreToNonPre(r & 0xff, a);
                     }
                     dstarr[dstoff++] = b;
                     dstarr[dstoff++] = g;
@@ -168,10 +167,9 @@ public class ByteBgraPre {
                     int  a = srcbuf.get(srcoff + 3) & 0xff;
                     srcoff += 4;
                     if (a > 0 && a < 0xff) {
-                        int halfa = a >> 1;
-                        b = (byte) (((b & 0xff) * 0xff + halfa) / a);
-                        g = (byte) (((g & 0xff) * 0xff + halfa) / a);
-                        r = (byte) (((r & 0xff) * 0xff + halfa) / a);
+                        b = (byte) PixelUtils.PreToNonPre(b & 0xff, a);
+                        g = (byte) PixelUtils.PreToNonPre(g & 0xff, a);
+                        r = (byte) PixelUtils.PreToNonPre(r & 0xff, a);
                     }
                     dstbuf.put(dstoff    , b);
                     dstbuf.put(dstoff + 1, g);
@@ -207,10 +205,9 @@ public class ByteBgraPre {
                     int r = srcarr[srcoff++] & 0xff;
                     int a = srcarr[srcoff++] & 0xff;
                     if (a > 0 && a < 0xff) {
-                        int halfa = a >> 1;
-                        r = (r * 0xff + halfa) / a;
-                        g = (g * 0xff + halfa) / a;
-                        b = (b * 0xff + halfa) / a;
+                        r = PixelUtils.PreToNonPre(r, a);
+                        g = PixelUtils.PreToNonPre(g, a);
+                        b = PixelUtils.PreToNonPre(b, a);
                     }
                     dstarr[dstoff++] =
                         (a << 24) | (r << 16) | (g << 8) | b;
@@ -234,10 +231,9 @@ public class ByteBgraPre {
                     int a = srcbuf.get(srcoff + 3) & 0xff;
                     srcoff += 4;
                     if (a > 0 && a < 0xff) {
-                        int halfa = a >> 1;
-                        r = (r * 0xff + halfa) / a;
-                        g = (g * 0xff + halfa) / a;
-                        b = (b * 0xff + halfa) / a;
+                        r = PixelUtils.PreToNonPre(r, a);
+                        g = PixelUtils.PreToNonPre(g, a);
+                        b = PixelUtils.PreToNonPre(b, a);
                     }
                     dstbuf.put(dstoff + x, (a << 24) | (r << 16) | (g << 8) | b);
                 }
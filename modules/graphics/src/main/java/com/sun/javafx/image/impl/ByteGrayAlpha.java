@@ -154,7 +154,7 @@ public class ByteGrayAlpha {
                         if (a == 0) {
                             g = 0;
                         } else {
-                            g = (g * (a & 0xff) + 0x7f) / 0xff;
+                            g = PixelUtils.NonPretoPre(g, a & 0xff);
                         }
                     }
                     dstarr[dstoff++] = (byte) g;
@@ -180,7 +180,7 @@ public class ByteGrayAlpha {
                         if (a == 0) {
                             g = 0;
                         } else {
-                            g = (g * (a & 0xff) + 0x7f) / 0xff;
+                            g = PixelUtils.NonPretoPre(g, a & 0xff);
                         }
                     }
                     dstbuf.put(dstoff++, (byte) g);
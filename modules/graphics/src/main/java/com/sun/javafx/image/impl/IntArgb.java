@@ -127,9 +127,9 @@ public class IntArgb {
                         if (a == 0) {
                             pixel = 0;
                         } else {
-                            int r = (((pixel >> 16) & 0xff) * a + 0x7f) / 0xff;
-                            int g = (((pixel >>  8) & 0xff) * a + 0x7f) / 0xff;
-                            int b = (((pixel      ) & 0xff) * a + 0x7f) / 0xff;
+                            int r = PixelUtils.NonPretoPre((pixel >> 16) & 0xff, a);
+                            int g = PixelUtils.NonPretoPre((pixel >>  8) & 0xff, a);
+                            int b = PixelUtils.NonPretoPre((pixel      ) & 0xff, a);
                             pixel = (a << 24) | (r << 16) | (g << 8) | b;
                         }
                     }
@@ -153,9 +153,9 @@ public class IntArgb {
                         if (a == 0) {
                             pixel = 0;
                         } else {
-                            int r = (((pixel >> 16) & 0xff) * a + 0x7f) / 0xff;
-                            int g = (((pixel >>  8) & 0xff) * a + 0x7f) / 0xff;
-                            int b = (((pixel      ) & 0xff) * a + 0x7f) / 0xff;
+                            int r = PixelUtils.NonPretoPre((pixel >> 16) & 0xff, a);
+                            int g = PixelUtils.NonPretoPre((pixel >>  8) & 0xff, a);
+                            int b = PixelUtils.NonPretoPre((pixel      ) & 0xff, a);
                             pixel = (a << 24) | (r << 16) | (g << 8) | b;
                         }
                     }
@@ -193,9 +193,9 @@ public class IntArgb {
                         if (a == 0) {
                             b = g = r = 0;
                         } else {
-                            b = ((b & 0xff) * a + 0x7f) / 0xff;
-                            g = ((g & 0xff) * a + 0x7f) / 0xff;
-                            r = ((r & 0xff) * a + 0x7f) / 0xff;
+                            b = PixelUtils.NonPretoPre(b & 0xff, a);
+                            g = PixelUtils.NonPretoPre(g & 0xff, a);
+                            r = PixelUtils.NonPretoPre(r & 0xff, a);
                         }
                     }
                     dstarr[dstoff++] = (byte) b;
@@ -225,9 +225,9 @@ public class IntArgb {
                         if (a == 0) {
                             b = g = r = 0;
                         } else {
-                            b = ((b & 0xff) * a + 0x7f) / 0xff;
-                            g = ((g & 0xff) * a + 0x7f) / 0xff;
-                            r = ((r & 0xff) * a + 0x7f) / 0xff;
+                            b = PixelUtils.NonPretoPre(b & 0xff, a);
+                            g = PixelUtils.NonPretoPre(g & 0xff, a);
+                            r = PixelUtils.NonPretoPre(r & 0xff, a);
                         }
                     }
                     dstbuf.put(dstoff    , (byte) b);
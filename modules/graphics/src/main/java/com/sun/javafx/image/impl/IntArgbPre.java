@@ -124,10 +124,9 @@ public class IntArgbPre {
                     int pixel = srcarr[srcoff++];
                     int a = pixel >>> 24;
                     if (a > 0 && a < 0xff) {
-                        int halfa = a >> 1;
-                        int r = (((pixel >> 16) & 0xff) * 0xff + halfa) / a;
-                        int g = (((pixel >>  8) & 0xff) * 0xff + halfa) / a;
-                        int b = (((pixel      ) & 0xff) * 0xff + halfa) / a;
+                        int r = PixelUtils.PreToNonPre((pixel >> 16) & 0xff, a);
+                        int g = PixelUtils.PreToNonPre((pixel >>  8) & 0xff, a);
+                        int b = PixelUtils.PreToNonPre((pixel      ) & 0xff, a);
                         pixel = (a << 24) | (r << 16) | (g << 8) | b;
                     }
                     dstarr[dstoff++] = pixel;
@@ -147,10 +146,9 @@ public class IntArgbPre {
                     int pixel = srcbuf.get(srcoff + x);
                     int a = pixel >>> 24;
                     if (a > 0 && a < 0xff) {
-                        int halfa = a >> 1;
-                        int r = (((pixel >> 16) & 0xff) * 0xff + halfa) / a;
-                        int g = (((pixel >>  8) & 0xff) * 0xff + halfa) / a;
-                        int b = (((pixel      ) & 0xff) * 0xff + halfa) / a;
+                        int r = PixelUtils.PreToNonPre((pixel >> 16) & 0xff, a);
+                        int g = PixelUtils.PreToNonPre((pixel >>  8) & 0xff, a);
+                        int b = PixelUtils.PreToNonPre((pixel      ) & 0xff, a);
                         pixel = (a << 24) | (r << 16) | (g << 8) | b;
                     }
                     dstbuf.put(dstoff + x, pixel);
@@ -184,10 +182,9 @@ public class IntArgbPre {
                     int g = (pixel >>  8) & 0xff;
                     int b = (pixel      ) & 0xff;
                     if (a > 0 && a < 0xff) {
-                        int halfa = a >> 1;
-                        r = (r * 0xff + halfa) / a;
-                        g = (g * 0xff + halfa) / a;
-                        b = (b * 0xff + halfa) / a;
+                        r = PixelUtils.PreToNonPre(r, a);
+                        g = PixelUtils.PreToNonPre(g, a);
+                        b = PixelUtils.PreToNonPre(b, a);
                     }
                     dstarr[dstoff++] = (byte) b;
                     dstarr[dstoff++] = (byte) g;
@@ -213,10 +210,9 @@ public class IntArgbPre {
                     int g = (pixel >>  8) & 0xff;
                     int b = (pixel      ) & 0xff;
                     if (a > 0 && a < 0xff) {
-                        int halfa = a >> 1;
-                        r = (r * 0xff + halfa) / a;
-                        g = (g * 0xff + halfa) / a;
-                        b = (b * 0xff + halfa) / a;
+                        r = PixelUtils.PreToNonPre(r, a);
+                        g = PixelUtils.PreToNonPre(g, a);
+                        b = PixelUtils.PreToNonPre(b, a);
                     }
                     dstbuf.put(dstoff    , (byte) b);
                     dstbuf.put(dstoff + 1, (byte) g);
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.image.impl;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.RecursiveAction;
+import com.sun.javafx.runtime.async.BackgroundExecutor;
+
+/**
+ * Splits the conversion of large, array backed images into ranges of
+ * pixels that are converted concurrently on the fork-join pool.
+ */
+final class ParallelConversion {
+    private ParallelConversion() {}
+
+    /**
+     * If true, conversions between arrays of at least
+     * {@code PARALLEL_MIN_PIXELS} pixels are split across the fork-join pool.
+     */
+    static final boolean parallel = AccessController.doPrivileged(
+            new PrivilegedAction<Boolean>() {
+
+        public Boolean run() {
+            return Boolean.getBoolean("javafx.image.parallel");
+        }
+
+    });
+
+    // Conversions of fewer pixels than this are not worth splitting up,
+    // and no part of a split conversion is smaller than half of it.
+    static final int PARALLEL_MIN_PIXELS = 128 * 1024;
+
+    /**
+     * A part of a conversion which converts the {@code w} by {@code h}
+     * pixels at the given offsets, using the scan strides of the whole
+     * conversion.
+     */
+    interface Part {
+        public void convert(int srcoff, int dstoff, int w, int h);
+    }
+
+    static boolean shouldSplit(int w, int h) {
+        return parallel && (long) w * h >= PARALLEL_MIN_PIXELS;
+    }
+
+    /**
+     * Converts all of the pixels in ranges on the fork-join pool and
+     * returns when all of them are done.  If {@code h} is greater than 1
+     * the ranges are made of whole rows, otherwise the single row is
+     * split into runs of pixels.
+     *
+     * @param srcoff the offset of the first source pixel
+     * @param srcscan the distance between source rows, in elements
+     * @param srcelems the number of elements in a source pixel
+     * @param dstoff the offset of the first destination pixel
+     * @param dstscan the distance between destination rows, in elements
+     * @param dstelems the number of elements in a destination pixel
+     * @param w the number of pixels in each row
+     * @param h the number of rows
+     * @param part the conversion to apply to each range
+     */
+    static void convert(int srcoff, int srcscan, int srcelems,
+                        int dstoff, int dstscan, int dstelems,
+                        int w, int h, Part part)
+    {
+        BackgroundExecutor.getForkJoinPool().invoke(h > 1
+            ? new PartTask(part, srcoff, srcscan, dstoff, dstscan, w, true,
+                           Math.max(1, PARALLEL_MIN_PIXELS / 2 / w), 0, h)
+            : new PartTask(part, srcoff, srcelems, dstoff, dstelems, 1, false,
+                           PARALLEL_MIN_PIXELS / 2, 0, w));
+    }
+
+    private static class PartTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Part part;
+        private final int srcoff, srcstep;
+        private final int dstoff, dststep;
+        private final int length;
+        private final boolean rows;
+        private final int minLines;
+        private final int from, to;
+
+        PartTask(Part part,
+                 int srcoff, int srcstep, int dstoff, int dststep,
+                 int length, boolean rows, int minLines, int from, int to)
+        {
+            this.part = part;
+            this.srcoff = srcoff;
+            this.srcstep = srcstep;
+            this.dstoff = dstoff;
+            this.dststep = dststep;
+            this.length = length;
+            this.rows = rows;
+            this.minLines = minLines;
+            this.from = from;
+            this.to = to;
+        }
+
+        private PartTask split(int from, int to) {
+            return new PartTask(part, srcoff, srcstep, dstoff, dststep,
+                                length, rows, minLines, from, to);
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 * minLines) {
+                int soff = srcoff + from * srcstep;
+                int doff = dstoff + from * dststep;
+                if (rows) {
+                    part.convert(soff, doff, length, to - from);
+                } else {
+                    part.convert(soff, doff, to - from, 1);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(split(from, mid), split(mid, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.runtime.async;
+
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Throttles the number of {@link AsyncOperation}s running at the same time.
+ * Operations submitted while the limit is reached are queued and started,
+ * in either submission (FIFO) or reverse submission (LIFO) order, as running
+ * operations call {@link #finished}.
+ *
+ * <p>The queue only holds weak references to the waiting operations, so an
+ * operation which is no longer referenced by its owner, for example the
+ * loader of an {@code Image} which has been garbage collected, is dropped
+ * without ever being started.</p>
+ *
+ * <p>The scheduler used for background image loading is configured with the
+ * {@code javafx.image.loadThreads} (default 4) and
+ * {@code javafx.image.loadOrder} ({@code fifo}, the default, or
+ * {@code lifo}) system properties.</p>
+ */
+public final class AsyncOperationScheduler
+        implements AsyncOperationSchedulerMBean {
+
+    private static final int DEFAULT_MAX_RUNNING = 4;
+
+    public static AsyncOperationScheduler getImageLoadingScheduler() {
+        return ImageLoadingSchedulerHolder.holder;
+    }
+
+    private static class ImageLoadingSchedulerHolder {
+        private static final AsyncOperationScheduler holder =
+                AccessController.doPrivileged(
+                    new PrivilegedAction<AsyncOperationScheduler>() {
+                        @Override
+                        public AsyncOperationScheduler run() {
+                            int maxRunning = Integer.getInteger(
+                                    "javafx.image.loadThreads",
+                                    DEFAULT_MAX_RUNNING);
+                            boolean lifo = "lifo".equalsIgnoreCase(
+                                    System.getProperty("javafx.image.loadOrder"));
+                            return new AsyncOperationScheduler(maxRunning, lifo);
+                        }
+                    });
+    }
+
+    private final int maxRunning;
+    private final boolean lifo;
+    private final Deque<WeakReference<AsyncOperation>> pending =
+            new ArrayDeque<WeakReference<AsyncOperation>>();
+    private final Map<AsyncOperation, Boolean> running =
+            new IdentityHashMap<AsyncOperation, Boolean>();
+
+    private int maxQueueDepth;
+    private long numStarted;
+    private long numDropped;
+    private long numCancelled;
+
+    public AsyncOperationScheduler(int maxRunning, boolean lifo) {
+        this.maxRunning = maxRunning < 1 ? 1 : maxRunning;
+        this.lifo = lifo;
+    }
+
+    /**
+     * Starts the operation if fewer than the maximum number of operations are
+     * running, or queues it otherwise.  The caller must keep a reference to
+     * the operation for as long as it wants it to run, and must call
+     * {@link #finished} once it completes.
+     */
+    public synchronized void submit(AsyncOperation operation) {
+        if (running.size() < maxRunning) {
+            start(operation);
+        } else {
+            pending.addLast(new WeakReference<AsyncOperation>(operation));
+            if (pending.size() > maxQueueDepth) {
+                maxQueueDepth = pending.size();
+            }
+        }
+    }
+
+    /**
+     * Removes the operation from the queue if it has not been started yet.
+     * The caller is still responsible for cancelling the operation itself.
+     *
+     * @return true if the operation was waiting in the queue
+     */
+    public synchronized boolean remove(AsyncOperation operation) {
+        Iterator<WeakReference<AsyncOperation>> it = pending.iterator();
+        while (it.hasNext()) {
+            AsyncOperation op = it.next().get();
+            if (op == null) {
+                it.remove();
+                numDropped++;
+            } else if (op == operation) {
+                it.remove();
+                numCancelled++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Frees the slot of a completed (or cancelled) operation and starts the
+     * next queued one.  Has no effect for operations which never started.
+     */
+    public synchronized void finished(AsyncOperation operation) {
+        if (running.remove(operation) == null) {
+            return;
+        }
+        while (running.size() < maxRunning && !pending.isEmpty()) {
+            AsyncOperation next = (lifo ? pending.pollLast()
+                                        : pending.pollFirst()).get();
+            if (next == null) {
+                numDropped++;
+            } else if (next.isCancelled()) {
+                numCancelled++;
+            } else {
+                start(next);
+            }
+        }
+    }
+
+    private void start(AsyncOperation operation) {
+        running.put(operation, Boolean.TRUE);
+        numStarted++;
+        operation.start();
+    }
+
+    @Override
+    public int getMaxRunning() {
+        return maxRunning;
+    }
+
+    @Override
+    public boolean isLifo() {
+        return lifo;
+    }
+
+    @Override
+    public synchronized int getRunning() {
+        return running.size();
+    }
+
+    @Override
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    @Override
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    @Override
+    public synchronized long getStarted() {
+        return numStarted;
+    }
+
+    @Override
+    public synchronized long getDropped() {
+        return numDropped;
+    }
+
+    @Override
+    public synchronized long getCancelled() {
+        return numCancelled;
+    }
+}
@@ -27,6 +27,7 @@ package com.sun.javafx.runtime.async;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
@@ -40,6 +41,7 @@ import java.util.concurrent.TimeUnit;
 public class BackgroundExecutor {
     private static ExecutorService instance;
     private static ScheduledExecutorService timerInstance;
+    private static ForkJoinPool forkJoinInstance;
 
     private BackgroundExecutor() {
         // not instantiable        
@@ -76,6 +78,20 @@ public class BackgroundExecutor {
         return timerInstance;
     }
 
+    /**
+     * Returns a pool, with one worker per available processor, for splitting
+     * CPU bound work such as rasterization or pixel processing across cores.
+     * The worker threads are daemon threads.
+     */
+    public static synchronized ForkJoinPool getForkJoinPool() {
+        if (forkJoinInstance == null) {
+            forkJoinInstance =
+                    new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+
+        return forkJoinInstance;
+    }
+
     private static synchronized void shutdown() {
         if (instance != null) {
             instance.shutdown();
@@ -85,5 +101,9 @@ public class BackgroundExecutor {
             timerInstance.shutdown();
             timerInstance= null;
         }
+        if (forkJoinInstance != null) {
+            forkJoinInstance.shutdown();
+            forkJoinInstance = null;
+        }
     }
 }
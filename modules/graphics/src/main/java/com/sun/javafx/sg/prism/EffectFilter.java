@@ -29,13 +29,14 @@ import com.sun.javafx.geom.BaseBounds;
 import com.sun.javafx.geom.transform.BaseTransform;
 import com.sun.prism.Graphics;
 import com.sun.scenario.effect.Effect;
-import com.sun.scenario.effect.impl.prism.PrEffectHelper;
+import com.sun.scenario.effect.impl.prism.PrEffectCache;
 
 /**
  */
 public class EffectFilter {
     private Effect effect;
     private NodeEffectInput nodeInput;
+    PrEffectCache cache = new PrEffectCache();
 
     EffectFilter(Effect effect, NGNode node) {
         this.effect = effect;
@@ -45,7 +46,15 @@ public class EffectFilter {
     Effect getEffect() { return effect; }
     NodeEffectInput getNodeInput() { return nodeInput; }
 
+    /**
+     * Called whenever the content of the node, or the effect, changes.
+     */
+    void invalidate() {
+        cache.invalidate();
+    }
+
     void dispose() {
+        cache.invalidate();
         effect = null;
         nodeInput.setNode(null);
         nodeInput = null;
@@ -58,7 +67,7 @@ public class EffectFilter {
 
     void render(Graphics g) {
         NodeEffectInput nodeInput = getNodeInput();
-        PrEffectHelper.render(getEffect(), g, 0, 0, nodeInput);
+        cache.render(getEffect(), g, nodeInput);
         nodeInput.flush();
     }
 }
@@ -1388,10 +1388,22 @@ public class NGCanvas extends NGNode {
     // detects a full-canvas clear command even if it looks like it
     // is superfluous.
     public boolean updateRendering(GrowableDataBuffer buf) {
+        return updateRendering(buf, null);
+    }
+
+    // The bounds, if not null, are those of all of the rendering operations
+    // in the buffer, in canvas coordinates.  Since the canvas texture keeps
+    // what was rendered before, only that part of the canvas then needs to
+    // be repainted.  If the previous buffer has not been rendered yet (its
+    // region may have been outside of the dirty region of the scene, or it
+    // may not have drawn anything) then the whole canvas is repainted so
+    // that the buffers do not pile up.
+    public boolean updateRendering(GrowableDataBuffer buf, RectBounds bounds) {
         if (buf.isEmpty()) {
             GrowableDataBuffer.returnBuffer(buf);
             return (this.thebuf != null);
         }
+        boolean pending = (this.thebuf != null);
         boolean reset = (buf.peekByte(0) == RESET);
         GrowableDataBuffer retbuf;
         if (reset || this.thebuf == null) {
@@ -1401,7 +1413,12 @@ public class NGCanvas extends NGNode {
             this.thebuf.append(buf);
             retbuf = buf;
         }
-        geometryChanged();
+        if (reset || pending || bounds == null) {
+            geometryChanged();
+        } else if (!bounds.isEmpty()) {
+            invalidateCache();
+            markDirtyRegion(bounds);
+        }
         if (retbuf != null) {
             GrowableDataBuffer.returnBuffer(retbuf);
             return true;
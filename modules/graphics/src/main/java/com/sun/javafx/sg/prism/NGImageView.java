@@ -28,8 +28,10 @@ package com.sun.javafx.sg.prism;
 import com.sun.javafx.geom.RectBounds;
 import com.sun.prism.Graphics;
 import com.sun.prism.Image;
+import com.sun.prism.Mipmaps;
 import com.sun.prism.ResourceFactory;
 import com.sun.prism.Texture;
+import com.sun.prism.impl.PrismSettings;
 import com.sun.prism.image.CachingCompoundImage;
 import com.sun.prism.image.CompoundCoords;
 import com.sun.prism.image.Coords;
@@ -110,6 +112,16 @@ public class NGImageView extends NGNode {
         return MAX_SIZE_OVERRIDE > 0 ? MAX_SIZE_OVERRIDE : factory.getMaximumTextureSize();
     }
     
+    private boolean isMinified(Graphics g, int imgW, int imgH) {
+        float srcW = imgW, srcH = imgH;
+        if (imgviewport != null) {
+            srcW = imgviewport.u1 - imgviewport.u0;
+            srcH = imgviewport.v1 - imgviewport.v0;
+        }
+        return Mipmaps.getLevel(g.getTransformNoClone(),
+                                0, 0, w, h, 0, 0, srcW, srcH) > 0;
+    }
+
     @Override
     protected void renderContent(Graphics g) {
         int imgW = image.getWidth();
@@ -118,7 +130,8 @@ public class NGImageView extends NGNode {
         ResourceFactory factory = g.getResourceFactory();
         int maxSize = maxSizeWrapper(factory);
         if (imgW <= maxSize && imgH <= maxSize) {
-            Texture texture = factory.getCachedTexture(image, Texture.WrapMode.CLAMP_TO_EDGE);
+            boolean mipmaps = PrismSettings.mipmaps && isMinified(g, imgW, imgH);
+            Texture texture = factory.getCachedTexture(image, Texture.WrapMode.CLAMP_TO_EDGE, mipmaps);
             if (coords == null) {
                 g.drawTexture(texture, x, y, x + w, y + h, 0, 0, imgW, imgH);
             } else {
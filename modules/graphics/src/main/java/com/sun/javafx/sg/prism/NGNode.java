@@ -163,6 +163,13 @@ public abstract class NGNode {
      */
     private BaseBounds dirtyBounds = new RectBounds();
 
+    /**
+     * Indicates that the dirtyBounds only hold the regions passed to
+     * markDirtyRegion rather than the whole bounds of this node. Any other
+     * change which makes the node dirty widens them to the full bounds.
+     */
+    private boolean dirtyBoundsPartial = false;
+
     /**
      * Whether the node is visible. We need to know about the visibility of
      * the node so that we can determine whether to cull it out, and perform
@@ -344,6 +351,11 @@ public abstract class NGNode {
             // TODO I think this is vestigial from Scenario and will never
             // actually occur in real life... (RT-23956)
             dirtyBounds = dirtyBounds.deriveWithUnion(transformedBounds);
+            if (dirtyBoundsPartial) {
+                // the dirty regions of a node marked by markDirtyRegion
+                dirtyBounds = dirtyBounds.deriveWithUnion(bounds);
+                dirtyBoundsPartial = false;
+            }
         }
         transformedBounds = transformedBounds.deriveWithNewBounds(bounds);
         if (hasVisuals() && !byTransformChangeOnly) {
@@ -804,6 +816,34 @@ public abstract class NGNode {
         if (dirty != DirtyFlag.DIRTY) {
             dirty = DirtyFlag.DIRTY;
             markTreeDirty();
+        } else if (dirtyBoundsPartial) {
+            dirtyBounds = dirtyBounds.deriveWithUnion(transformedBounds);
+        }
+        dirtyBoundsPartial = false;
+    }
+
+    /**
+     * Makes only a part of this node dirty, for nodes whose content can
+     * change in place, such as a canvas which has a few more primitives drawn
+     * into it. The region is in the local coordinates of this node. If the
+     * whole node is, or becomes, dirty for any other reason then its full
+     * bounds are repainted as usual.
+     */
+    protected void markDirtyRegion(BaseBounds region) {
+        if (dirty == DirtyFlag.CLEAN && effectFilter == null) {
+            markDirty();
+            BaseBounds r = transform.transform(region, new RectBounds());
+            if (dirtyBounds.isEmpty()) {
+                dirtyBounds = dirtyBounds.deriveWithNewBounds(r);
+            } else {
+                dirtyBounds = dirtyBounds.deriveWithUnion(r);
+            }
+            dirtyBoundsPartial = true;
+        } else if (dirtyBoundsPartial) {
+            dirtyBounds = dirtyBounds.deriveWithUnion(
+                    transform.transform(region, new RectBounds()));
+        } else {
+            markDirty();
         }
     }
 
@@ -894,6 +934,7 @@ public abstract class NGNode {
         dirty = DirtyFlag.CLEAN;
         childDirty = false;
         dirtyBounds.makeEmpty();
+        dirtyBoundsPartial = false;
         dirtyChildrenAccumulated = 0;
     }
 
@@ -931,12 +972,16 @@ public abstract class NGNode {
      * Invalidates the cache, if it is in use. There are several operations
      * which need to cause the cached raster to become invalid so that a
      * subsequent render operation will result in the cached image being
-     * reconstructed.
+     * reconstructed. The cached result of the effect, if there is one, is
+     * invalidated as well.
      */
     protected final void invalidateCache() {
         if (cacheFilter != null) {
             cacheFilter.invalidate();
         }
+        if (effectFilter != null) {
+            effectFilter.invalidate();
+        }
     }
 
     /**
@@ -947,6 +992,9 @@ public abstract class NGNode {
         if (cacheFilter != null) {
             cacheFilter.invalidateByTranslation(hint.translateXDelta, hint.translateYDelta);
         }
+        if (effectFilter != null) {
+            effectFilter.invalidate();
+        }
     }
 
     /***************************************************************************
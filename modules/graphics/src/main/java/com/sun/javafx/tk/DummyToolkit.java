@@ -27,6 +27,7 @@ package com.sun.javafx.tk;
 
 import javafx.geometry.Dimension2D;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.input.Dragboard;
 import javafx.scene.input.InputMethodRequests;
 import javafx.scene.input.KeyCode;
@@ -48,6 +49,7 @@ import javafx.stage.StageStyle;
 import javafx.stage.Window;
 import java.io.File;
 import java.io.InputStream;
+import java.nio.Buffer;
 import java.security.AccessControlContext;
 import java.util.List;
 import java.util.Map;
@@ -146,6 +148,14 @@ final public class DummyToolkit extends Toolkit {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    @Override
+    public PlatformImage createPlatformImage(int w, int h,
+                                             PixelFormat<?> format,
+                                             Buffer pixels, int scanlineStride)
+    {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     @Override
     public void startup(Runnable runnable) {
         throw new UnsupportedOperationException("Not supported yet.");
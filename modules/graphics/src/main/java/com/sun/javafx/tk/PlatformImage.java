@@ -97,4 +97,11 @@ public interface PlatformImage {
 
     public void setPixels(int dstx, int dsty, int w, int h,
                           PixelReader reader, int srcx, int srcy);
+
+    /**
+     * Indicates that the pixels in the given region have been changed
+     * directly in the storage of the image rather than through one of the
+     * methods above.
+     */
+    public void markDirty(int x, int y, int w, int h);
 }
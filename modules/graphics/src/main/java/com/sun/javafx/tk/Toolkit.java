@@ -57,6 +57,7 @@ import javafx.stage.Window;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.security.AccessControlContext;
 import java.security.AccessController;
@@ -497,6 +498,17 @@ public abstract class Toolkit {
 
     public abstract PlatformImage createPlatformImage(int w, int h);
 
+    /*
+     * Creates a platform image which stores its pixels in the given buffer
+     * rather than in a copy of them. The format is either INT_ARGB_PRE with
+     * an IntBuffer or BYTE_BGRA_PRE with a ByteBuffer, and the stride is in
+     * elements of the buffer.
+     */
+    public abstract PlatformImage createPlatformImage(int w, int h,
+                                                      PixelFormat<?> format,
+                                                      Buffer pixels,
+                                                      int scanlineStride);
+
     // Indicates the default state of smooth for ImageView and MediaView
     // Subclasses may override this to provide a platform-specific default
     public boolean getDefaultImageSmooth() { return true; }
@@ -767,6 +779,28 @@ public abstract class Toolkit {
 
     public abstract Object renderToImage(ImageRenderingContext context);
 
+    /*
+     * This method renders each of the given contexts as the
+     * renderToImage method would and returns the resulting platform
+     * images in the same order.
+     * None of the contexts may share a camera or a platformImage
+     * with another one, since they may all be set up before any of
+     * them is rendered.
+     * Toolkits which render on a separate thread can override this
+     * method to hand the whole batch over to that thread at once.
+     *
+     * @param contexts the ImageRenderingContext instances to render
+     * @return the platform specific image objects
+     * @see #renderToImage
+     */
+    public Object[] renderToImages(ImageRenderingContext contexts[]) {
+        Object images[] = new Object[contexts.length];
+        for (int i = 0; i < contexts.length; i++) {
+            images[i] = renderToImage(contexts[i]);
+        }
+        return images;
+    }
+
     /**
      * Returns the key code for the key which is commonly used on the
      * corresponding platform as a modifier key in shortcuts. For example
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.tk.quantum;
+
+import com.sun.javafx.iio.ImageFrame;
+import com.sun.javafx.iio.gif.GIFImageLoader2;
+import com.sun.javafx.runtime.async.BackgroundExecutor;
+import com.sun.prism.Image;
+import com.sun.prism.impl.PrismSettings;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The frames of an animated GIF image which are decoded on demand from the
+ * compressed image data rather than all at once.  Only the first frame and a
+ * small ring of composed frames ahead of the most recently requested one are
+ * kept in memory.  Frames are decoded in order, so going back to an earlier
+ * frame which is no longer in the ring, as happens when the animation loops,
+ * decodes the data again from the start.  Each image playing the frames
+ * needs a stream of its own, see {@link #copy()}.
+ */
+final class GIFFrameStream {
+
+    // number of composed frames kept, including the current one
+    private static final int RING_SIZE = 4;
+
+    private final byte[] data;
+    private final int width, height;
+    private final boolean preserveRatio, smooth;
+    private final int[] delays;
+    private final Image firstFrame;
+
+    private final Image[] ring = new Image[RING_SIZE];
+    private final int[] ringIndex = new int[RING_SIZE];
+    private GIFImageLoader2 decoder;
+    // index of the frame the decoder produces next
+    private int nextIndex;
+    private boolean prefetching;
+
+    private GIFFrameStream(byte[] data, int width, int height,
+                           boolean preserveRatio, boolean smooth,
+                           int[] delays, Image firstFrame)
+    {
+        this.data = data;
+        this.width = width;
+        this.height = height;
+        this.preserveRatio = preserveRatio;
+        this.smooth = smooth;
+        this.delays = delays;
+        this.firstFrame = firstFrame;
+        Arrays.fill(ringIndex, -1);
+    }
+
+    /**
+     * Returns a stream over the frames of the given GIF data, or null if it
+     * holds no frames.  The frames are counted from the GIF headers, without
+     * decoding them.  The first frame is decoded unless it is given.
+     */
+    static GIFFrameStream create(byte[] data, int width, int height,
+                                 boolean preserveRatio, boolean smooth,
+                                 ImageFrame firstFrame) throws IOException
+    {
+        GIFImageLoader2 loader =
+            new GIFImageLoader2(new ByteArrayInputStream(data));
+        List<Integer> delays = new ArrayList<Integer>();
+        for (int d = loader.skipImage(); d >= 0; d = loader.skipImage()) {
+            delays.add(d);
+        }
+        if (delays.isEmpty()) {
+            return null;
+        }
+
+        GIFImageLoader2 decoder = null;
+        if (firstFrame == null) {
+            decoder = new GIFImageLoader2(new ByteArrayInputStream(data));
+            firstFrame = decoder.load(0, width, height, preserveRatio, smooth);
+            if (firstFrame == null) {
+                return null;
+            }
+        }
+
+        int[] delayTimes = new int[delays.size()];
+        for (int i = 0; i < delayTimes.length; i++) {
+            delayTimes[i] = delays.get(i);
+        }
+        GIFFrameStream frames =
+            new GIFFrameStream(data, width, height, preserveRatio, smooth,
+                               delayTimes, Image.convertImageFrame(firstFrame));
+        if (decoder != null) {
+            // continue after the first frame
+            frames.decoder = decoder;
+            frames.nextIndex = 1;
+        }
+        return frames;
+    }
+
+    /**
+     * Returns a stream over the same frames with a decoder of its own, so
+     * that another image can play them without disturbing this one.
+     */
+    GIFFrameStream copy() {
+        return new GIFFrameStream(data, width, height, preserveRatio, smooth,
+                                  delays, firstFrame);
+    }
+
+    int getFrameCount() {
+        return delays.length;
+    }
+
+    int getFrameDelay(int index) {
+        return delays[index];
+    }
+
+    Image getFirstFrame() {
+        return firstFrame;
+    }
+
+    synchronized Image getFrame(int index) {
+        Image img = index == 0 ? firstFrame : decode(index);
+        prefetch(index);
+        return img;
+    }
+
+    private Image cached(int index) {
+        int slot = index % RING_SIZE;
+        return ringIndex[slot] == index ? ring[slot] : null;
+    }
+
+    // must be called with the lock held
+    private Image decode(int index) {
+        Image img = cached(index);
+        if (img != null) {
+            return img;
+        }
+        try {
+            if (decoder == null || index < nextIndex) {
+                decoder = new GIFImageLoader2(new ByteArrayInputStream(data));
+                nextIndex = 0;
+            }
+            while (nextIndex <= index) {
+                ImageFrame frame =
+                    decoder.load(nextIndex, width, height, preserveRatio, smooth);
+                if (frame == null) {
+                    break;
+                }
+                int slot = nextIndex % RING_SIZE;
+                ring[slot] = Image.convertImageFrame(frame);
+                ringIndex[slot] = nextIndex;
+                nextIndex++;
+            }
+        } catch (IOException e) {
+            // the data was read successfully once, so it is truncated or
+            // corrupt past the frames we could count; show the first frame
+            decoder = null;
+            if (PrismSettings.verbose) {
+                e.printStackTrace(System.err);
+            }
+        }
+        img = cached(index);
+        return img != null ? img : firstFrame;
+    }
+
+    // decodes the frames following the given one on a background thread,
+    // one at a time so that the animation is never blocked for long
+    private void prefetch(final int index) {
+        if (prefetching) {
+            return;
+        }
+        prefetching = true;
+        BackgroundExecutor.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int k = 1; k < RING_SIZE; k++) {
+                        int next = (index + k) % delays.length;
+                        if (next != 0) {
+                            synchronized (GIFFrameStream.this) {
+                                decode(next);
+                            }
+                        }
+                    }
+                } finally {
+                    synchronized (GIFFrameStream.this) {
+                        prefetching = false;
+                    }
+                }
+            }
+        });
+    }
+}
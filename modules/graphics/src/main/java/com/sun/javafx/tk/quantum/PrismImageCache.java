@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.tk.quantum;
+
+import com.sun.javafx.tk.PlatformImage;
+import com.sun.prism.Image;
+import com.sun.prism.impl.PrismSettings;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process-wide cache of the images decoded from URLs, so that images which
+ * are loaded repeatedly from the same URL at the same size are only decoded
+ * once.  The cache is bounded by the number of bytes of pixels which it
+ * holds, evicting the least recently used images first, and its images are
+ * softly referenced so that it gives way under memory pressure.
+ * Concurrent requests for an image which is being decoded wait for that
+ * decode rather than starting another one.
+ * Only images which were decoded without an error are kept.
+ * The cache is enabled by setting prism.imagecachesize to the number of
+ * bytes it may hold.
+ */
+final class PrismImageCache {
+
+    // updated under the cache lock, and read by ImageCacheStats without it
+    static final AtomicLong numHits = new AtomicLong();
+    static final AtomicLong numMisses = new AtomicLong();
+    static final AtomicLong numCoalesced = new AtomicLong();
+    static final AtomicLong numEvicted = new AtomicLong();
+    static final AtomicLong bytesCached = new AtomicLong();
+
+    // for testing, counted down when a request waits for a pending decode
+    static volatile CountDownLatch coalescedLatch;
+
+    private static long maxBytes = PrismSettings.imageCacheSize;
+
+    private static final Map<Key, Entry> cache =
+        new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    private static final Map<Key, FutureTask<PrismImageLoader2>> pending =
+        new HashMap<Key, FutureTask<PrismImageLoader2>>();
+
+    private PrismImageCache() {
+    }
+
+    // Images cached for one caller would bypass the permission checks for
+    // reading their URLs for another, so the cache is not used at all when
+    // there is a security manager
+    static boolean isEnabled() {
+        return maxBytes > 0 && System.getSecurityManager() == null;
+    }
+
+    static final class Key {
+        final String url;
+        final int width;
+        final int height;
+        final boolean preserveRatio;
+        final boolean smooth;
+        final float pixelScale;
+        private final int hash;
+
+        Key(String url, int width, int height,
+            boolean preserveRatio, boolean smooth, float pixelScale)
+        {
+            this.url = url;
+            this.width = width;
+            this.height = height;
+            this.preserveRatio = preserveRatio;
+            this.smooth = smooth;
+            this.pixelScale = pixelScale;
+            int h = url.hashCode();
+            h = 31 * h + width;
+            h = 31 * h + height;
+            h = 31 * h + (preserveRatio ? 1 : 0);
+            h = 31 * h + (smooth ? 1 : 0);
+            h = 31 * h + Float.floatToIntBits(pixelScale);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) obj;
+            return (hash == k.hash &&
+                    width == k.width && height == k.height &&
+                    preserveRatio == k.preserveRatio && smooth == k.smooth &&
+                    pixelScale == k.pixelScale && url.equals(k.url));
+        }
+    }
+
+    private static final class Entry extends SoftReference<PrismImageLoader2> {
+        final long size;
+
+        Entry(PrismImageLoader2 loader, long size) {
+            super(loader);
+            this.size = size;
+        }
+    }
+
+    /**
+     * Returns the images decoded for the given key, either from the cache,
+     * from a decode of the same key already in progress on another thread,
+     * or by running the given decoder on this thread.
+     */
+    static PrismImageLoader2 load(final Key key,
+                                  final Callable<PrismImageLoader2> decoder)
+        throws Exception
+    {
+        FutureTask<PrismImageLoader2> task;
+        boolean decoding = false;
+        synchronized (cache) {
+            Entry e = cache.get(key);
+            if (e != null) {
+                PrismImageLoader2 loader = e.get();
+                if (loader != null) {
+                    numHits.incrementAndGet();
+                    return loader;
+                }
+                cache.remove(key);
+                bytesCached.addAndGet(-e.size);
+            }
+            task = pending.get(key);
+            if (task == null) {
+                task = new FutureTask<PrismImageLoader2>(
+                    new Callable<PrismImageLoader2>() {
+                        @Override
+                        public PrismImageLoader2 call() throws Exception {
+                            PrismImageLoader2 loader = decoder.call();
+                            // cached before the decode stops being pending
+                            // so that no request can miss both
+                            put(key, loader);
+                            return loader;
+                        }
+                    });
+                pending.put(key, task);
+                decoding = true;
+                numMisses.incrementAndGet();
+            } else {
+                numCoalesced.incrementAndGet();
+            }
+        }
+        if (!decoding && coalescedLatch != null) {
+            coalescedLatch.countDown();
+        }
+        if (decoding) {
+            task.run();
+            synchronized (cache) {
+                pending.remove(key);
+            }
+        }
+        try {
+            PrismImageLoader2 loader = task.get();
+            return decoding || loader == null ?
+                loader : loader.forAnotherImage();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void put(Key key, PrismImageLoader2 loader) {
+        // a streaming loader decodes its frames for one animation at a time
+        if (loader == null || loader.getException() != null ||
+                loader.isStreaming()) {
+            return;
+        }
+        long size = 0;
+        for (int i = 0; i < loader.getFrameCount(); i++) {
+            PlatformImage frame = loader.getFrame(i);
+            if (frame instanceof Image) {
+                Image img = (Image) frame;
+                size += (long) img.getWidth() * img.getHeight() *
+                        img.getBytesPerPixelUnit();
+            }
+        }
+        synchronized (cache) {
+            if (size > maxBytes) {
+                return;
+            }
+            Entry old = cache.put(key, new Entry(loader, size));
+            if (old != null) {
+                bytesCached.addAndGet(-old.size);
+            }
+            bytesCached.addAndGet(size);
+            Iterator<Entry> it = cache.values().iterator();
+            while (bytesCached.get() > maxBytes && it.hasNext()) {
+                Entry e = it.next();
+                it.remove();
+                bytesCached.addAndGet(-e.size);
+                numEvicted.incrementAndGet();
+            }
+        }
+    }
+
+    // for testing
+    static void reset(long newMaxBytes) {
+        synchronized (cache) {
+            cache.clear();
+            maxBytes = newMaxBytes;
+            numHits.set(0);
+            numMisses.set(0);
+            numCoalesced.set(0);
+            numEvicted.set(0);
+            bytesCached.set(0);
+        }
+    }
+}
@@ -25,15 +25,22 @@
 
 package com.sun.javafx.tk.quantum;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 
+import com.sun.javafx.PlatformUtil;
 import com.sun.javafx.iio.ImageFrame;
 import com.sun.javafx.iio.ImageLoadListener;
 import com.sun.javafx.iio.ImageLoader;
 import com.sun.javafx.iio.ImageMetadata;
 import com.sun.javafx.iio.ImageStorage;
 import com.sun.javafx.iio.ImageStorageException;
+import com.sun.javafx.iio.common.ImageTools;
+import com.sun.javafx.iio.gif.GIFImageLoader2;
 import com.sun.javafx.runtime.async.AbstractRemoteResource;
 import com.sun.javafx.runtime.async.AsyncOperationListener;
 import com.sun.javafx.tk.PlatformImage;
@@ -45,6 +52,9 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -58,6 +68,8 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
 
     private Image[] images;
     private int[] delayTimes;
+    // set instead of images for animated GIFs too large to decode up front
+    private GIFFrameStream frameStream;
     private int width;
     private int height;
     private float pixelScale;
@@ -70,10 +82,72 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
         loadAll(url, width, height, preserveRatio, pixelScale, smooth);
     }
 
+    /**
+     * Loads the images from the given URL, sharing them with other loads of
+     * the same URL at the same size through the {@link PrismImageCache} when
+     * it is enabled.
+     */
+    static PrismImageLoader2 load(final String url,
+                                  final int width, final int height,
+                                  final boolean preserveRatio,
+                                  final float pixelScale,
+                                  final boolean smooth)
+    {
+        if (PrismImageCache.isEnabled()) {
+            PrismImageCache.Key key =
+                new PrismImageCache.Key(url, width, height,
+                                        preserveRatio, smooth, pixelScale);
+            try {
+                return PrismImageCache.load(key, new Callable<PrismImageLoader2>() {
+                    @Override
+                    public PrismImageLoader2 call() {
+                        return new PrismImageLoader2(url, width, height,
+                                                     preserveRatio, pixelScale,
+                                                     smooth);
+                    }
+                });
+            } catch (InterruptedException e) {
+                // decode it here rather than wait for another thread
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // the decoder reports its errors through getException()
+            }
+        }
+        return new PrismImageLoader2(url, width, height,
+                                     preserveRatio, pixelScale, smooth);
+    }
+
     public PrismImageLoader2(InputStream stream, int width, int height,
                              boolean preserveRatio, boolean smooth)
     {
-        loadAll(stream, width, height, preserveRatio, smooth);
+        this(stream, width, height, preserveRatio, smooth,
+             PrismSettings.animStreamThreshold);
+    }
+
+    // for testing, animated GIFs above threshold bytes are streamed
+    PrismImageLoader2(InputStream stream, int width, int height,
+                      boolean preserveRatio, boolean smooth, long threshold)
+    {
+        loadAll(stream, null, width, height, preserveRatio, smooth, threshold);
+    }
+
+    /**
+     * Returns a loader for another image of the same URL.  The images share
+     * the decoded frames, except for streamed ones, which each image decodes
+     * on its own as it plays them.
+     */
+    PrismImageLoader2 forAnotherImage() {
+        if (frameStream == null) {
+            return this;
+        }
+        PrismImageLoader2 loader = new PrismImageLoader2();
+        loader.frameStream = frameStream.copy();
+        loader.width = width;
+        loader.height = height;
+        return loader;
+    }
+
+    private PrismImageLoader2() {
     }
 
     public int getWidth() {
@@ -85,6 +159,9 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
     }
 
     public int getFrameCount() {
+        if (frameStream != null) {
+            return frameStream.getFrameCount();
+        }
         if (images == null) {
             return 0;
         }
@@ -92,6 +169,9 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
     }
 
     public PlatformImage getFrame(int index) {
+        if (frameStream != null) {
+            return frameStream.getFrame(index);
+        }
         if (images == null) {
             return null;
         }
@@ -99,12 +179,23 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
     }
 
     public int getFrameDelay(int index) {
+        if (frameStream != null) {
+            return frameStream.getFrameDelay(index);
+        }
         if (images == null) {
             return 0;
         }
         return delayTimes[index];
     }
 
+    /**
+     * Returns true if the frames are decoded as they are requested rather
+     * than held in memory.
+     */
+    boolean isStreaming() {
+        return frameStream != null;
+    }
+
     public Exception getException() {
         return exception;
     }
@@ -113,6 +204,30 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
                          boolean preserveRatio, float pixelScale,
                          boolean smooth)
     {
+        // Scales above 1.9 look for an @2x image first, which only
+        // ImageStorage knows how to do
+        if (PrismSettings.animStreamThreshold > 0 && pixelScale <= 1.9f
+                && url != null && !url.isEmpty())
+        {
+            InputStream stream;
+            try {
+                stream = ImageTools.createInputStream(url);
+            } catch (Exception e) {
+                handleException(e);
+                return;
+            }
+            try {
+                loadAll(stream, url, w, h, preserveRatio, smooth,
+                        PrismSettings.animStreamThreshold);
+            } finally {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                }
+            }
+            return;
+        }
+
         ImageLoadListener listener = new PrismLoadListener();
         try {
             ImageFrame[] imgFrames =
@@ -125,11 +240,21 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
         }
     }
 
-    private void loadAll(InputStream stream, int w, int h,
-                         boolean preserveRatio, boolean smooth)
+    private void loadAll(InputStream stream, String url, int w, int h,
+                         boolean preserveRatio, boolean smooth, long threshold)
     {
         ImageLoadListener listener = new PrismLoadListener();
         try {
+            if (threshold > 0 && !PlatformUtil.isIOS()) {
+                if (!stream.markSupported()) {
+                    stream = new BufferedInputStream(stream);
+                }
+                if (isGIF(stream)) {
+                    loadGIF(stream, url, listener, w, h, preserveRatio, smooth,
+                            threshold);
+                    return;
+                }
+            }
             ImageFrame[] imgFrames =
                 ImageStorage.loadAll(stream, listener, w, h, preserveRatio, 1.0f, smooth);
             convertAll(imgFrames);
@@ -140,6 +265,137 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
         }
     }
 
+    // Decodes the frames of a GIF image as they are read.  Once the frames
+    // no longer fit in threshold bytes the rest are left to a GIFFrameStream
+    // over the compressed data, which is read again from the URL, or, when
+    // there is no URL, kept as the stream is read.
+    private void loadGIF(InputStream stream, String url,
+                         ImageLoadListener listener, int w, int h,
+                         boolean preserveRatio, boolean smooth, long threshold)
+        throws IOException
+    {
+        RecordingInputStream recording = null;
+        if (url == null) {
+            stream = recording = new RecordingInputStream(stream);
+        }
+        GIFImageLoader2 loader = new GIFImageLoader2(stream);
+        loader.addListener(listener);
+
+        List<ImageFrame> frames = new ArrayList<ImageFrame>();
+        long frameBytes = 0;
+        for (ImageFrame frame = loader.load(0, w, h, preserveRatio, smooth);
+             frame != null;
+             frame = loader.load(frames.size(), w, h, preserveRatio, smooth))
+        {
+            frames.add(frame);
+            frameBytes += (long) frame.getStride() * frame.getHeight();
+            if (frames.size() > 1 && frameBytes > threshold) {
+                byte[] data;
+                if (recording != null) {
+                    data = recording.readAll();
+                } else {
+                    InputStream in = ImageTools.createInputStream(url);
+                    try {
+                        data = readAll(in);
+                    } finally {
+                        in.close();
+                    }
+                }
+                ImageFrame first = frames.get(0);
+                frameStream = GIFFrameStream.create(data, w, h,
+                        preserveRatio, smooth, first);
+                if (frameStream != null) {
+                    width = first.getWidth();
+                    height = first.getHeight();
+                    return;
+                }
+                // the data changed under us, keep decoding what we have
+                threshold = Long.MAX_VALUE;
+            }
+        }
+        convertAll(frames.toArray(new ImageFrame[frames.size()]));
+    }
+
+    private static boolean isGIF(InputStream stream) throws IOException {
+        byte[] sig = new byte[4];
+        stream.mark(sig.length);
+        int n = 0;
+        while (n < sig.length) {
+            int count = stream.read(sig, n, sig.length - n);
+            if (count < 0) {
+                break;
+            }
+            n += count;
+        }
+        stream.reset();
+        return n == sig.length &&
+               sig[0] == 'G' && sig[1] == 'I' && sig[2] == 'F' && sig[3] == '8';
+    }
+
+    private static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        for (int n = stream.read(buf); n >= 0; n = stream.read(buf)) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    // keeps a copy of the data read through it
+    private static final class RecordingInputStream extends FilterInputStream {
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        RecordingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                data.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                data.write(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buf = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int count = read(buf, 0, (int) Math.min(n - skipped, buf.length));
+                if (count < 0) {
+                    break;
+                }
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        // returns the data read so far followed by the rest of the stream
+        byte[] readAll() throws IOException {
+            byte[] buf = new byte[8192];
+            while (read(buf, 0, buf.length) >= 0) {
+                // recorded by read
+            }
+            return data.toByteArray();
+        }
+    }
+
     private void handleException(final ImageStorageException isException) {
         // unwrap ImageStorageException if possible
         final Throwable exceptionCause = isException.getCause();
@@ -242,6 +498,31 @@ class PrismImageLoader2 implements com.sun.javafx.tk.ImageLoader {
 
         @Override
         public PrismImageLoader2 call() throws IOException {
+            if (!PrismImageCache.isEnabled()) {
+                return loadPrivileged();
+            }
+            PrismImageCache.Key key =
+                new PrismImageCache.Key(url, width, height,
+                                        preserveRatio, smooth, 1.0f);
+            try {
+                return PrismImageCache.load(key, new Callable<PrismImageLoader2>() {
+                    @Override
+                    public PrismImageLoader2 call() throws IOException {
+                        return loadPrivileged();
+                    }
+                });
+            } catch (IOException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            } catch (Exception e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        private PrismImageLoader2 loadPrivileged() throws IOException {
             try {
                 return AccessController.doPrivileged(
                         new PrivilegedExceptionAction<PrismImageLoader2>() {
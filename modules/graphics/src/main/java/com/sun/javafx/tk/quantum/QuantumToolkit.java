@@ -56,6 +56,7 @@ import javafx.stage.StageStyle;
 import javafx.stage.Window;
 import java.io.File;
 import java.io.InputStream;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.security.AccessControlContext;
@@ -656,7 +657,7 @@ public final class QuantumToolkit extends Toolkit {
     }
 
     @Override public ImageLoader loadImage(String url, int width, int height, boolean preserveRatio, boolean smooth) {
-        return new PrismImageLoader2(url, width, height, preserveRatio, getMaxPixelScale(), smooth);
+        return PrismImageLoader2.load(url, width, height, preserveRatio, getMaxPixelScale(), smooth);
     }
 
     @Override public ImageLoader loadImage(InputStream stream, int width, int height,
@@ -1268,141 +1269,191 @@ public final class QuantumToolkit extends Toolkit {
         return com.sun.prism.Image.fromByteBgraPreData(bytebuf, w, h);
     }
 
+    @Override
+    public PlatformImage createPlatformImage(int w, int h,
+                                             javafx.scene.image.PixelFormat<?> format,
+                                             Buffer pixels, int scanlineStride)
+    {
+        switch (format.getType()) {
+            case INT_ARGB_PRE:
+                return com.sun.prism.Image.fromIntArgbPreData((IntBuffer) pixels,
+                                                              w, h, scanlineStride * 4);
+            case BYTE_BGRA_PRE:
+                return com.sun.prism.Image.fromByteBgraPreData((ByteBuffer) pixels,
+                                                               w, h, scanlineStride);
+            default:
+                throw new IllegalArgumentException("Unsupported format: " + format.getType());
+        }
+    }
+
     @Override
     public Object renderToImage(ImageRenderingContext p) {
-        Object saveImage = p.platformImage;
-        final ImageRenderingContext params = p;
-        final com.sun.prism.paint.Paint currentPaint = p.platformPaint instanceof com.sun.prism.paint.Paint ?
-                (com.sun.prism.paint.Paint)p.platformPaint : null;
+        return renderToImages(new ImageRenderingContext[] { p })[0];
+    }
 
-        RenderJob re = new RenderJob(new Runnable() {
+    /*
+     * All of the contexts are rendered by a single render job, so that
+     * a batch of snapshots costs one hand-off to the render thread.
+     */
+    @Override
+    public Object[] renderToImages(final ImageRenderingContext contexts[]) {
+        Object saveImages[] = new Object[contexts.length];
+        for (int i = 0; i < contexts.length; i++) {
+            saveImages[i] = contexts[i].platformImage;
+        }
 
-            private com.sun.prism.paint.Color getClearColor() {
-                if (currentPaint == null) {
-                    return com.sun.prism.paint.Color.WHITE;
-                } else if (currentPaint.getType() == com.sun.prism.paint.Paint.Type.COLOR) {
-                    return (com.sun.prism.paint.Color) currentPaint;
-                } else if (currentPaint.isOpaque()) {
-                    return com.sun.prism.paint.Color.TRANSPARENT;
-                } else {
-                    return com.sun.prism.paint.Color.WHITE;
+        RenderJob re = new RenderJob(new Runnable() {
+            @Override
+            public void run() {
+                for (ImageRenderingContext params : contexts) {
+                    new ImageRenderer(params).run();
                 }
             }
+        });
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        re.setCompletionListener(new CompletionListener() {
+            @Override public void done(final RenderJob job) {
+                latch.countDown();
+            }
+        });
+        addRenderJob(re);
 
-            private void draw(Graphics g, int x, int y, int w, int h) {
-                g.setLights(params.lights);
-                g.setDepthBuffer(params.depthBuffer);
+        do {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException ex) {
+                ex.printStackTrace();
+            }
+        } while (true);
 
-                g.clear(getClearColor());
-                if (currentPaint != null &&
-                        currentPaint.getType() != com.sun.prism.paint.Paint.Type.COLOR) {
-                    g.getRenderTarget().setOpaque(currentPaint.isOpaque());
-                    g.setPaint(currentPaint);
-                    g.fillQuad(0, 0, w, h);
-                }
+        Object images[] = new Object[contexts.length];
+        for (int i = 0; i < contexts.length; i++) {
+            images[i] = contexts[i].platformImage;
+            contexts[i].platformImage = saveImages[i];
+        }
 
-                // Set up transform
-                if (x != 0 || y != 0) {
-                    g.translate(-x, -y);
-                }
-                if (params.transform != null) {
-                    g.transform(params.transform);
-                }
+        return images;
+    }
 
-                if (params.root != null) {
-                    if (params.camera != null) {
-                        g.setCamera(params.camera);
-                    }
-                    NGNode ngNode = params.root;
-                    ngNode.render(g);
-                }
+    /*
+     * Renders one ImageRenderingContext on the render thread and stores
+     * the resulting image, or null, into its platformImage.
+     */
+    private static class ImageRenderer implements Runnable {
+        private final ImageRenderingContext params;
+        private final com.sun.prism.paint.Paint currentPaint;
+
+        ImageRenderer(ImageRenderingContext params) {
+            this.params = params;
+            this.currentPaint = params.platformPaint instanceof com.sun.prism.paint.Paint ?
+                    (com.sun.prism.paint.Paint)params.platformPaint : null;
+        }
 
+        private com.sun.prism.paint.Color getClearColor() {
+            if (currentPaint == null) {
+                return com.sun.prism.paint.Color.WHITE;
+            } else if (currentPaint.getType() == com.sun.prism.paint.Paint.Type.COLOR) {
+                return (com.sun.prism.paint.Color) currentPaint;
+            } else if (currentPaint.isOpaque()) {
+                return com.sun.prism.paint.Color.TRANSPARENT;
+            } else {
+                return com.sun.prism.paint.Color.WHITE;
             }
+        }
 
-            @Override
-            public void run() {
+        private void draw(Graphics g, int x, int y, int w, int h) {
+            g.setLights(params.lights);
+            g.setDepthBuffer(params.depthBuffer);
 
-                ResourceFactory rf = GraphicsPipeline.getDefaultResourceFactory();
+            g.clear(getClearColor());
+            if (currentPaint != null &&
+                    currentPaint.getType() != com.sun.prism.paint.Paint.Type.COLOR) {
+                g.getRenderTarget().setOpaque(currentPaint.isOpaque());
+                g.setPaint(currentPaint);
+                g.fillQuad(0, 0, w, h);
+            }
 
-                if (!rf.isDeviceReady()) {
-                    return;
+            // Set up transform
+            if (x != 0 || y != 0) {
+                g.translate(-x, -y);
+            }
+            if (params.transform != null) {
+                g.transform(params.transform);
+            }
+
+            if (params.root != null) {
+                if (params.camera != null) {
+                    g.setCamera(params.camera);
                 }
+                NGNode ngNode = params.root;
+                ngNode.render(g);
+            }
 
-                int x = params.x;
-                int y = params.y;
-                int w = params.width;
-                int h = params.height;
+        }
 
-                if (w <= 0 || h <= 0) {
-                    return;
-                }
+        @Override
+        public void run() {
 
-                boolean errored = false;
-                try {
-                    QuantumImage pImage = (params.platformImage instanceof QuantumImage) ?
-                            (QuantumImage)params.platformImage : new QuantumImage(null);
+            ResourceFactory rf = GraphicsPipeline.getDefaultResourceFactory();
 
-                    com.sun.prism.RTTexture rt = pImage.getRT(w, h, rf);
+            if (!rf.isDeviceReady()) {
+                return;
+            }
 
-                    if (rt == null) {
-                        return;
-                    }
+            int x = params.x;
+            int y = params.y;
+            int w = params.width;
+            int h = params.height;
 
-                    Graphics g = rt.createGraphics();
+            if (w <= 0 || h <= 0) {
+                return;
+            }
 
-                    draw(g, x, y, w, h);
+            boolean errored = false;
+            try {
+                QuantumImage pImage = (params.platformImage instanceof QuantumImage) ?
+                        (QuantumImage)params.platformImage : new QuantumImage(null);
 
-                    int[] pixels = pImage.rt.getPixels();
+                com.sun.prism.RTTexture rt = pImage.getRT(w, h, rf);
 
-                    if (pixels != null) {
-                        pImage.setImage(com.sun.prism.Image.fromIntArgbPreData(pixels, w, h));
-                    } else {
-                        IntBuffer ib = IntBuffer.allocate(w*h);
-                        if (pImage.rt.readPixels(ib, pImage.rt.getContentX(),
-                                pImage.rt.getContentY(), w, h))
-                        {
-                            pImage.setImage(com.sun.prism.Image.fromIntArgbPreData(ib, w, h));
-                        } else {
-                            pImage.dispose();
-                            pImage = null;
-                        }
-                    }
+                if (rt == null) {
+                    return;
+                }
 
-                    rt.unlock();
+                Graphics g = rt.createGraphics();
 
-                    params.platformImage = pImage;
+                draw(g, x, y, w, h);
 
-                } catch (Throwable t) {
-                    errored = true;
-                    t.printStackTrace(System.err);
-                } finally {
-                    Disposer.cleanUp();            
-                    ManagedResource.freeDisposalRequestedAndCheckResources(errored);
-                }
-            }
-        });
+                int[] pixels = pImage.rt.getPixels();
 
-        final CountDownLatch latch = new CountDownLatch(1);
-        re.setCompletionListener(new CompletionListener() {
-            @Override public void done(final RenderJob job) {
-                latch.countDown();
-            }
-        });
-        addRenderJob(re);
+                if (pixels != null) {
+                    pImage.setImage(com.sun.prism.Image.fromIntArgbPreData(pixels, w, h));
+                } else {
+                    IntBuffer ib = IntBuffer.allocate(w*h);
+                    if (pImage.rt.readPixels(ib, pImage.rt.getContentX(),
+                            pImage.rt.getContentY(), w, h))
+                    {
+                        pImage.setImage(com.sun.prism.Image.fromIntArgbPreData(ib, w, h));
+                    } else {
+                        pImage.dispose();
+                        pImage = null;
+                    }
+                }
 
-        do {
-            try {
-                latch.await();
-                break;
-            } catch (InterruptedException ex) {
-                ex.printStackTrace();
-            }
-        } while (true);
+                rt.unlock();
 
-        Object image = params.platformImage;
-        params.platformImage = saveImage;
+                params.platformImage = pImage;
 
-        return image;
+            } catch (Throwable t) {
+                errored = true;
+                t.printStackTrace(System.err);
+            } finally {
+                Disposer.cleanUp();            
+                ManagedResource.freeDisposalRequestedAndCheckResources(errored);
+            }
+        }
     }
 
     @Override
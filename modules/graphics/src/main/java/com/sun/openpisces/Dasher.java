@@ -173,6 +173,32 @@ public final class Dasher implements PathConsumer2D {
         this.y0 = y;
     }
 
+    // Same as goTo(pts, off, 4) for the end point (x, y) of a line. Lines
+    // are by far the most common input (dashed polylines, grid lines), so
+    // they are emitted directly instead of going through curCurvepts.
+    private void lineGoTo(float x, float y) {
+        if (dashOn) {
+            if (starting) {
+                firstSegmentsBuffer =
+                    Helpers.widenArray(firstSegmentsBuffer, firstSegidx, 3);
+                firstSegmentsBuffer[firstSegidx++] = 4;
+                firstSegmentsBuffer[firstSegidx++] = x;
+                firstSegmentsBuffer[firstSegidx++] = y;
+            } else {
+                if (needsMoveTo) {
+                    out.moveTo(x0, y0);
+                    needsMoveTo = false;
+                }
+                out.lineTo(x, y);
+            }
+        } else {
+            starting = false;
+            needsMoveTo = true;
+        }
+        this.x0 = x;
+        this.y0 = y;
+    }
+
     public void lineTo(float x1, float y1) {
         float dx = x1 - x0;
         float dy = y1 - y0;
@@ -188,40 +214,30 @@ public final class Dasher implements PathConsumer2D {
         float cx = dx / len;
         float cy = dy / len;
 
-        while (true) {
-            float leftInThisDashSegment = dash[idx] - phase;
-            if (len <= leftInThisDashSegment) {
-                curCurvepts[0] = x1;
-                curCurvepts[1] = y1;
-                goTo(curCurvepts, 0, 4);
-                // Advance phase within current dash segment
-                phase += len;
-                if (len == leftInThisDashSegment) {
-                    phase = 0f;
-                    idx = (idx + 1) % dash.length;
-                    dashOn = !dashOn;
-                }
-                return;
-            }
-
-            float dashdx = dash[idx] * cx;
-            float dashdy = dash[idx] * cy;
-            if (phase == 0) {
-                curCurvepts[0] = x0 + dashdx;
-                curCurvepts[1] = y0 + dashdy;
-            } else {
-                float p = leftInThisDashSegment / dash[idx];
-                curCurvepts[0] = x0 + p * dashdx;
-                curCurvepts[1] = y0 + p * dashdy;
-            }
-
-            goTo(curCurvepts, 0, 4);
+        final float[] dash = this.dash;
+        final int dashLen = dash.length;
+        float leftInThisDashSegment = dash[idx] - phase;
+        while (len > leftInThisDashSegment) {
+            lineGoTo(x0 + leftInThisDashSegment * cx,
+                     y0 + leftInThisDashSegment * cy);
 
             len -= leftInThisDashSegment;
             // Advance to next dash segment
-            idx = (idx + 1) % dash.length;
+            if (++idx == dashLen) {
+                idx = 0;
+            }
             dashOn = !dashOn;
             phase = 0;
+            leftInThisDashSegment = dash[idx];
+        }
+
+        lineGoTo(x1, y1);
+        // Advance phase within current dash segment
+        phase += len;
+        if (len == leftInThisDashSegment) {
+            phase = 0f;
+            idx = (idx + 1) % dashLen;
+            dashOn = !dashOn;
         }
     }
 
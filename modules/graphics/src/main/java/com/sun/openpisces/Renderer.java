@@ -36,27 +36,65 @@ public final class Renderer implements PathConsumer2D {
 
         private int[] crossings;
         private int[] edgePtrs;
+        // the current x crossing of each active edge, kept in parallel
+        // with edgePtrs. The edge list itself is never modified while
+        // iterating so that several iterators can walk disjoint bands of
+        // scan lines at the same time.
+        private float[] edgeCurX;
         private int edgeCount;
 
         // crossing bounds. The bounds are not necessarily tight (the scan line
         // at minY, for example, might have no crossings). The x bounds will
         // be accumulated as crossings are computed.
         private int nextY;
+        private int endY;
 
         private static final int INIT_CROSSINGS_SIZE = 10;
 
         private ScanlineIterator() {
             crossings = new int[INIT_CROSSINGS_SIZE];
             edgePtrs = new int[INIT_CROSSINGS_SIZE];
-            reset();
+            edgeCurX = new float[INIT_CROSSINGS_SIZE];
         }
 
-        public void reset() {
+        public void reset(int startY, int endY) {
             // We don't care if we clip some of the line off with ceil, since
             // no scan line crossings will be eliminated (in fact, the ceil is
             // the y of the first scan line crossing).
-            nextY = sampleRowMin;
+            nextY = startY;
+            this.endY = endY;
             edgeCount = 0;
+            if (startY > sampleRowMin) {
+                addActiveEdges(startY);
+            }
+        }
+
+        // Collects the edges that started on an earlier scan line and are
+        // still active at startY, advancing their crossings to startY.
+        private void addActiveEdges(int startY) {
+            int count = 0;
+            int ptrs[] = this.edgePtrs;
+            float curxs[] = this.edgeCurX;
+            float edges[] = Renderer.this.edges;
+            for (int y = sampleRowMin; y < startY; y++) {
+                int bucket = y - boundsMinY;
+                for (int ecur = edgeBuckets[bucket*2];
+                     ecur != 0;
+                     ecur = (int)edges[ecur+NEXT])
+                {
+                    ecur--;
+                    if (edges[ecur+YMAX] > startY) {
+                        ptrs = Helpers.widenArray(ptrs, count, 1);
+                        curxs = Helpers.widenArray(curxs, count, 1);
+                        curxs[count] = edges[ecur+CURX] +
+                                       (startY - y) * edges[ecur+SLOPE];
+                        ptrs[count++] = ecur;
+                    }
+                }
+            }
+            this.edgePtrs = ptrs;
+            this.edgeCurX = curxs;
+            this.edgeCount = count;
         }
 
         private int next() {
@@ -66,6 +104,7 @@ public final class Renderer implements PathConsumer2D {
             int bucket = cury - boundsMinY;
             int count = this.edgeCount;
             int ptrs[] = this.edgePtrs;
+            float curxs[] = this.edgeCurX;
             float edges[] = Renderer.this.edges;
             int bucketcount = edgeBuckets[bucket*2 + 1];
             if ((bucketcount & 0x1) != 0) {
@@ -73,20 +112,25 @@ public final class Renderer implements PathConsumer2D {
                 for (int i = 0; i < count; i++) {
                     int ecur = ptrs[i];
                     if (edges[ecur+YMAX] > cury) {
+                        curxs[newCount] = curxs[i];
                         ptrs[newCount++] = ecur;
                     }
                 }
                 count = newCount;
             }
             ptrs = Helpers.widenArray(ptrs, count, bucketcount >> 1);
+            curxs = Helpers.widenArray(curxs, count, bucketcount >> 1);
             for (int ecur = edgeBuckets[bucket*2];
                  ecur != 0;
                  ecur = (int)edges[ecur+NEXT])
             {
-                ptrs[count++] = --ecur;
+                ecur--;
+                curxs[count] = edges[ecur+CURX];
+                ptrs[count++] = ecur;
                 // REMIND: Adjust start Y if necessary
             }
             this.edgePtrs = ptrs;
+            this.edgeCurX = curxs;
             this.edgeCount = count;
 //            if ((count & 0x1) != 0) {
 //                System.out.println("ODD NUMBER OF EDGES!!!!");
@@ -97,9 +141,9 @@ public final class Renderer implements PathConsumer2D {
             }
             for (int i = 0; i < count; i++) {
                 int ecur = ptrs[i];
-                float curx = edges[ecur+CURX];
+                float curx = curxs[i];
                 int cross = ((int) curx) << 1;
-                edges[ecur+CURX] = curx + edges[ecur+SLOPE];
+                float nextx = curx + edges[ecur+SLOPE];
                 if (edges[ecur+OR] > 0) {
                     cross |= 1;
                 }
@@ -111,15 +155,17 @@ public final class Renderer implements PathConsumer2D {
                     }
                     xings[j+1] = jcross;
                     ptrs[j+1] = ptrs[j];
+                    curxs[j+1] = curxs[j];
                 }
                 xings[j+1] = cross;
                 ptrs[j+1] = ecur;
+                curxs[j+1] = nextx;
             }
             return count;
         }
 
         private boolean hasNext() {
-            return nextY < sampleRowMax;
+            return nextY < endY;
         }
 
         private int curY() {
@@ -448,10 +494,6 @@ public final class Renderer implements PathConsumer2D {
     public void produceAlphas(AlphaConsumer ac) {
         ac.setMaxAlpha(MAX_AA_ALPHA);
 
-        // Mask to determine the relevant bit of the crossing sum
-        // 0x1 if EVEN_ODD, all bits if NON_ZERO
-        int mask = (windingRule == WIND_EVEN_ODD) ? 0x1 : ~0x0;
-
         // add 2 to better deal with the last pixel in a pixel row.
         int width = ac.getWidth();
         int alpha[] = savedAlpha;
@@ -461,6 +503,49 @@ public final class Renderer implements PathConsumer2D {
             Arrays.fill(alpha, 0, width+2, 0);
         }
 
+        ScanlineIterator it = savedIterator;
+        if (it == null) {
+            savedIterator = it = new ScanlineIterator();
+        }
+        it.reset(sampleRowMin, sampleRowMax);
+
+        // needs to start here so we emit the last row properly.
+        produceAlphas(ac, it, alpha, boundsMinY);
+    }
+
+    /**
+     * Produces the alphas for the pixel rows from pix_y0 (inclusive) to
+     * pix_y1 (exclusive) only.
+     * <p>
+     * The edge list is only read by this method and all of the scratch
+     * state it needs is local to the call, so once the path has been
+     * completely fed to this renderer, disjoint bands of rows may be
+     * produced concurrently by several threads into an {@code AlphaConsumer}
+     * which can accept rows from more than one thread.
+     * Unlike {@link #produceAlphas(AlphaConsumer)}, this method does not
+     * call {@code setMaxAlpha} on the consumer; that should be done once,
+     * with the value returned from {@link #getMaxAlpha()}, before any of
+     * the bands are produced.
+     */
+    public void produceAlphas(AlphaConsumer ac, int pix_y0, int pix_y1) {
+        int startY = Math.max(pix_y0 << SUBPIXEL_LG_POSITIONS_Y, sampleRowMin);
+        int endY = Math.min(pix_y1 << SUBPIXEL_LG_POSITIONS_Y, sampleRowMax);
+        if (startY >= endY) {
+            return;
+        }
+        ScanlineIterator it = new ScanlineIterator();
+        it.reset(startY, endY);
+        produceAlphas(ac, it, new int[ac.getWidth()+2], startY);
+    }
+
+    private void produceAlphas(AlphaConsumer ac, ScanlineIterator it,
+                               int alpha[], int y)
+    {
+        // Mask to determine the relevant bit of the crossing sum
+        // 0x1 if EVEN_ODD, all bits if NON_ZERO
+        int mask = (windingRule == WIND_EVEN_ODD) ? 0x1 : ~0x0;
+
+        int width = ac.getWidth();
         int bboxx0 = ac.getOriginX() << SUBPIXEL_LG_POSITIONS_X;
         int bboxx1 = bboxx0 + (width << SUBPIXEL_LG_POSITIONS_X);
 
@@ -473,13 +558,6 @@ public final class Renderer implements PathConsumer2D {
         int pix_maxX = bboxx1 >> SUBPIXEL_LG_POSITIONS_X;
         int pix_minX = bboxx0 >> SUBPIXEL_LG_POSITIONS_Y;
 
-        int y = boundsMinY; // needs to be declared here so we emit the last row properly.
-        ScanlineIterator it = savedIterator;
-        if (it == null) {
-            savedIterator = it = new ScanlineIterator();
-        } else {
-            it.reset();
-        }
         for ( ; it.hasNext(); ) {
             int numCrossings = it.next();
             int[] crossings = it.crossings;
@@ -547,6 +625,10 @@ public final class Renderer implements PathConsumer2D {
         }
     }
 
+    public int getMaxAlpha() {
+        return MAX_AA_ALPHA;
+    }
+
     public int getSubpixMinX() {
         int sampleColMin = (int) Math.ceil(edgeMinX);
         if (sampleColMin < boundsMinX) sampleColMin = boundsMinX;
@@ -31,6 +31,7 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import com.sun.javafx.geom.Rectangle;
 import com.sun.javafx.iio.ImageFrame;
 import com.sun.javafx.iio.ImageStorage;
 import com.sun.javafx.image.BytePixelGetter;
@@ -72,6 +73,10 @@ public class Image implements PlatformImage {
     private final PixelFormat pixelFormat;
     private final float pixelScale;
     int serial[] = new int[1];
+    // The bounds of the pixels modified since the serial number in
+    // dirty[0], as {serial, x0, y0, x1, y1} relative to the pixel buffer.
+    // Like the serial number, it is shared with any subimages.
+    int dirty[] = new int[5];
 
     public static Image fromIntArgbPreData(int[] pixels, int width, int height) {
         return new Image(PixelFormat.INT_ARGB_PRE, pixels, width, height);
@@ -394,6 +399,7 @@ public class Image implements PlatformImage {
         Image subimg = new Image(pixelFormat, pixelBuffer, w, h,
                                  minX+x, minY+y, scanlineStride);
         subimg.serial = this.serial;
+        subimg.dirty = this.dirty;
         return subimg;
     }
 
@@ -576,6 +582,70 @@ public class Image implements PlatformImage {
         return serial[0];
     }
 
+    /**
+     * Records that the pixels in the given region of this image have been
+     * changed by some means other than the pixel setter methods, such as by
+     * writing directly to the pixel buffer, and increments the serial number.
+     */
+    @Override
+    public void markDirty(int x, int y, int w, int h) {
+        if (pixelScale != 1.0f) {
+            x = y = 0;
+            w = width;
+            h = height;
+        }
+        int x0 = minX + Math.max(x, 0);
+        int y0 = minY + Math.max(y, 0);
+        int x1 = minX + Math.min(x + w, width);
+        int y1 = minY + Math.min(y + h, height);
+        int d[] = dirty;
+        if (x0 < x1 && y0 < y1) {
+            if (d[1] >= d[3] || d[2] >= d[4]) {
+                d[1] = x0; d[2] = y0;
+                d[3] = x1; d[4] = y1;
+            } else {
+                d[1] = Math.min(d[1], x0); d[2] = Math.min(d[2], y0);
+                d[3] = Math.max(d[3], x1); d[4] = Math.max(d[4], y1);
+            }
+        }
+        serial[0]++;
+    }
+
+    /**
+     * Returns the region of this image which has been modified since it had
+     * the given serial number, or null if it is not known and the whole
+     * image must be assumed to have changed.  The region may be empty.
+     *
+     * @param sinceSerial a serial number previously returned by getSerial()
+     * @return the modified region, or null
+     */
+    public Rectangle getDirtyRegion(int sinceSerial) {
+        int d[] = dirty;
+        if (sinceSerial != d[0]) {
+            return null;
+        }
+        int x0 = Math.max(d[1], minX);
+        int y0 = Math.max(d[2], minY);
+        int x1 = Math.min(d[3], minX + width);
+        int y1 = Math.min(d[4], minY + height);
+        if (x0 >= x1 || y0 >= y1) {
+            return new Rectangle();
+        }
+        return new Rectangle(x0 - minX, y0 - minY, x1 - x0, y1 - y0);
+    }
+
+    /**
+     * Starts recording the modified region of this image afresh from its
+     * current serial number.  This is called once a consumer of the pixels,
+     * such as a texture, is up to date.  Consumers which were not up to date
+     * will find that the region is no longer known for their serial number.
+     */
+    public void resetDirtyRegion() {
+        int d[] = dirty;
+        d[0] = serial[0];
+        d[1] = d[2] = d[3] = d[4] = 0;
+    }
+
     public Image promoteByteRgbToByteBgra() {
         ByteBuffer oldbuf = (ByteBuffer) pixelBuffer;
         ByteBuffer newbuf = ByteBuffer.allocate(width * height * 4);
@@ -645,7 +715,7 @@ public class Image implements PlatformImage {
     @Override
     public void setArgb(int x, int y, int argb) {
         getPixelAccessor().setArgb(x, y, argb);
-        serial[0]++;
+        markDirty(x, y, 1, 1);
     }
 
     @Override
@@ -684,7 +754,7 @@ public class Image implements PlatformImage {
     {
         getPixelAccessor().setPixels(x, y, w, h, pixelformat,
                                      pixels, scanlineBytes);
-        serial[0]++;
+        markDirty(x, y, w, h);
     }
 
     @Override
@@ -694,7 +764,7 @@ public class Image implements PlatformImage {
     {
         getPixelAccessor().setPixels(x, y, w, h, pixelformat,
                                      pixels, offset, scanlineBytes);
-        serial[0]++;
+        markDirty(x, y, w, h);
     }
 
     @Override
@@ -704,7 +774,7 @@ public class Image implements PlatformImage {
     {
         getPixelAccessor().setPixels(x, y, w, h, pixelformat,
                                      pixels, offset, scanlineInts);
-        serial[0]++;
+        markDirty(x, y, w, h);
     }
 
     @Override
@@ -712,7 +782,7 @@ public class Image implements PlatformImage {
                           PixelReader reader, int srcx, int srcy)
     {
         getPixelAccessor().setPixels(dstx, dsty, w, h, reader, srcx, srcy);
-        serial[0]++;
+        markDirty(dstx, dsty, w, h);
     }
 
     public boolean isOpaque() {
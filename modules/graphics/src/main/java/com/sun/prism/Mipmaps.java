@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism;
+
+import com.sun.javafx.geom.transform.BaseTransform;
+import javafx.scene.image.PixelFormat;
+
+/**
+ * A chain of successively halved copies of a texture created from an
+ * {@code Image}, sampled instead of the full size texture when it is drawn
+ * minified. Level 0 is the original texture itself and is not held by the
+ * chain; level {@code n} is the texture scaled down by a factor of
+ * {@code 2^n}, rounded down, but not below 1 pixel.
+ * <p>
+ * The level textures are not locked while they are not being drawn and
+ * may be reclaimed by their resource pool, in which case {@link #isValid}
+ * returns false and the chain should be recreated from the image.
+ */
+public final class Mipmaps {
+
+    /**
+     * The maximum number of levels in addition to the original texture.
+     */
+    public static final int MAX_LEVELS = 12;
+
+    private final Texture levels[];
+    private final int width;
+    private final int height;
+
+    private Mipmaps(Texture levels[], int width, int height) {
+        this.levels = levels;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Creates the mipmaps of the texture created from the given image.
+     * The pixels of each level are the average of the corresponding 2x2
+     * pixels of the level above it, with the last row and column repeated
+     * for odd sizes.
+     *
+     * @param factory the factory used to create the level textures
+     * @param image the image the texture was created from
+     * @param wrapMode the wrap mode of the texture
+     * @return the mipmaps, or null if the image format is not supported or
+     *     the image is only one pixel in size
+     */
+    public static Mipmaps create(ResourceFactory factory, Image image,
+                                 Texture.WrapMode wrapMode)
+    {
+        switch (image.getPixelFormat()) {
+            case BYTE_BGRA_PRE:
+            case BYTE_RGB:
+            case BYTE_GRAY:
+            case INT_ARGB_PRE:
+                break;
+            default:
+                return null;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        if (w <= 1 && h <= 1) {
+            return null;
+        }
+        byte pixels[] = new byte[w * h * 4];
+        image.getPixels(0, 0, w, h, PixelFormat.getByteBgraPreInstance(),
+                        pixels, 0, w * 4);
+
+        Texture levels[] = new Texture[MAX_LEVELS];
+        int count = 0;
+        while ((w > 1 || h > 1) && count < MAX_LEVELS) {
+            int lw = Math.max(1, w / 2);
+            int lh = Math.max(1, h / 2);
+            pixels = downsample(pixels, w, h, lw, lh);
+            w = lw;
+            h = lh;
+            Texture tex = factory.createTexture(Image.fromByteBgraPreData(pixels, w, h),
+                                                Texture.Usage.STATIC, wrapMode);
+            if (tex == null) {
+                break;
+            }
+            // created textures are locked, the chain only locks them to draw
+            tex.unlock();
+            levels[count++] = tex;
+        }
+        if (count == 0) {
+            return null;
+        }
+        Texture chain[] = new Texture[count];
+        System.arraycopy(levels, 0, chain, 0, count);
+        return new Mipmaps(chain, image.getWidth(), image.getHeight());
+    }
+
+    static byte[] downsample(byte src[], int sw, int sh, int dw, int dh) {
+        byte dst[] = new byte[dw * dh * 4];
+        int sscan = sw * 4;
+        int dstoff = 0;
+        for (int y = 0; y < dh; y++) {
+            int row0 = Math.min(y * 2, sh - 1) * sscan;
+            int row1 = Math.min(y * 2 + 1, sh - 1) * sscan;
+            for (int x = 0; x < dw; x++) {
+                int col0 = Math.min(x * 2, sw - 1) * 4;
+                int col1 = Math.min(x * 2 + 1, sw - 1) * 4;
+                for (int c = 0; c < 4; c++) {
+                    int sum = (src[row0 + col0 + c] & 0xff) +
+                              (src[row0 + col1 + c] & 0xff) +
+                              (src[row1 + col0 + c] & 0xff) +
+                              (src[row1 + col1 + c] & 0xff);
+                    dst[dstoff++] = (byte) ((sum + 2) >> 2);
+                }
+            }
+        }
+        return dst;
+    }
+
+    /**
+     * Returns the level to draw when the region from (sx1, sy1) to
+     * (sx2, sy2) of a texture is drawn to the region from (dx1, dy1) to
+     * (dx2, dy2) with the given transform, ignoring the number of levels
+     * actually available. The level is the largest one whose scale factor
+     * is not smaller than the scale of either axis of the drawing, so that
+     * the result is never blurrier than the bilinear filtering of the level
+     * above it.
+     */
+    public static int getLevel(BaseTransform tx,
+                               float dx1, float dy1, float dx2, float dy2,
+                               float sx1, float sy1, float sx2, float sy2)
+    {
+        float sw = Math.abs(sx2 - sx1);
+        float sh = Math.abs(sy2 - sy1);
+        if (sw == 0f || sh == 0f) {
+            return 0;
+        }
+        double scaleX = Math.abs(dx2 - dx1) / sw;
+        double scaleY = Math.abs(dy2 - dy1) / sh;
+        if (tx != null && !tx.isTranslateOrIdentity()) {
+            scaleX *= Math.hypot(tx.getMxx(), tx.getMyx());
+            scaleY *= Math.hypot(tx.getMxy(), tx.getMyy());
+        }
+        double scale = Math.max(scaleX, scaleY);
+        if (!(scale > 0.0) || scale > 0.5) {
+            return 0;
+        }
+        return Math.min(MAX_LEVELS, (int) Math.floor(-Math.log(scale) / Math.log(2.0)));
+    }
+
+    /**
+     * Returns the number of levels in the chain, not counting the original
+     * texture.
+     */
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    /**
+     * Returns whether the width and height of the original texture match
+     * the given dimensions and none of the level textures was reclaimed.
+     */
+    public boolean isValid(int w, int h) {
+        if (w != width || h != height) {
+            return false;
+        }
+        for (Texture tex : levels) {
+            if (tex.isSurfaceLost()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Locks and returns the texture for the given level, or the nearest
+     * smaller level that exists, or null if its surface was lost.
+     * The caller must unlock the returned texture when done drawing it.
+     *
+     * @param level a level greater than 0
+     */
+    public Texture lockLevel(int level) {
+        Texture tex = levels[Math.min(level, levels.length) - 1];
+        tex.lock();
+        if (tex.isSurfaceLost()) {
+            tex.unlock();
+            return null;
+        }
+        return tex;
+    }
+
+    /**
+     * Returns the horizontal coordinate in the given level texture
+     * corresponding to the given one in the original texture.
+     */
+    public float toLevelX(Texture level, float x) {
+        return x * level.getContentWidth() / width;
+    }
+
+    /**
+     * Returns the vertical coordinate in the given level texture
+     * corresponding to the given one in the original texture.
+     */
+    public float toLevelY(Texture level, float y) {
+        return y * level.getContentHeight() / height;
+    }
+
+    public void dispose() {
+        for (Texture tex : levels) {
+            tex.dispose();
+        }
+    }
+}
@@ -40,6 +40,7 @@ public final class MultiTexture implements Texture {
     private boolean linearFiltering = true;
     private final ArrayList<Texture> textures;
     private int lastImageSerial;
+    private Mipmaps mipmaps;
 
     public MultiTexture(PixelFormat format, WrapMode wrapMode, int width, int height) {
         this.width = width;
@@ -157,6 +158,16 @@ public final class MultiTexture implements Texture {
         return height;
     }
 
+    @Override
+    public Mipmaps getMipmaps() {
+        return mipmaps;
+    }
+
+    @Override
+    public void setMipmaps(Mipmaps mipmaps) {
+        this.mipmaps = mipmaps;
+    }
+
     @Override
     public int getLastImageSerial() {
         return lastImageSerial;
@@ -117,6 +117,24 @@ public interface ResourceFactory extends GraphicsResource {
      */
     public Texture getCachedTexture(Image image, Texture.WrapMode wrapMode);
 
+    /**
+     * Returns a {@code Texture} for the given image as in
+     * {@link #getCachedTexture(Image, Texture.WrapMode)}, optionally with
+     * its {@link Texture#getMipmaps() mipmaps} created from the image.
+     * The mipmaps are created once and kept with the cached texture until
+     * the image changes or one of their levels is reclaimed.
+     *
+     * @param image the pixel data to be uploaded if the texture is new or
+     *     needs new fringe pixels to simulate a new wrap mode
+     * @param wrapMode the mode that describes the behavior for samples
+     *     outside the content area
+     * @param mipmaps whether the texture will be drawn minified and
+     *     should have mipmaps
+     * @return a cached texture
+     */
+    public Texture getCachedTexture(Image image, Texture.WrapMode wrapMode,
+                                    boolean mipmaps);
+
     /**
      * Returns true if the given {@code PixelFormat} is supported; otherwise
      * returns false.
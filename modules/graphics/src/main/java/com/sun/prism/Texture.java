@@ -470,6 +470,24 @@ public interface Texture extends GraphicsResource {
      */
     public void setLinearFiltering(boolean linear);
 
+    /**
+     * Returns the mipmaps used in place of this texture when it is drawn
+     * minified, or null if it has none.
+     *
+     * @return the mipmaps of this texture, or null
+     */
+    public Mipmaps getMipmaps();
+
+    /**
+     * Sets the mipmaps used in place of this texture when it is drawn
+     * minified. Textures sharing the same underlying resource do not
+     * share their mipmaps.
+     *
+     * @param mipmaps the mipmaps created from the same image as this
+     * texture, or null to draw this texture at all scales
+     */
+    public void setMipmaps(Mipmaps mipmaps);
+
     public void lock();
     public void unlock();
     public boolean isLocked();
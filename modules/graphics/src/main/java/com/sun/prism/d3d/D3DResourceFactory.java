@@ -501,18 +501,20 @@ class D3DResourceFactory extends BaseShaderFactory {
                                     long length,
                                     Buffer pixels, byte[] arr,
                                     int contentWidth, int contentHeight);
+    // The pixels are read from the direct buffer, or from the array
+    // starting at element arrayOffset when the array is not null
     static native int nUpdateTextureI(long contextHandle, long pResource,
-                                      IntBuffer buf, int[] pixels,
+                                      IntBuffer buf, int[] pixels, int arrayOffset,
                                       int dstx, int dsty,
                                       int srcx, int srcy,
                                       int srcw, int srch, int srcscan);
     static native int nUpdateTextureF(long contextHandle, long pResource,
-                                      FloatBuffer buf, float[] pixels,
+                                      FloatBuffer buf, float[] pixels, int arrayOffset,
                                       int dstx, int dsty,
                                       int srcx, int srcy,
                                       int srcw, int srch, int srcscan);
     static native int nUpdateTextureB(long contextHandle, long pResource,
-                                      ByteBuffer buf, byte[] pixels,
+                                      ByteBuffer buf, byte[] pixels, int arrayOffset,
                                       int formatHint,
                                       int dstx, int dsty,
                                       int srcx, int srcy,
@@ -120,7 +120,7 @@ class D3DTexture extends BaseTexture<D3DTextureResource>
             result = D3DResourceFactory.nUpdateTextureI(
                     ctx.getContextHandle(),
                     getNativeSourceHandle(),
-                    pixels.slice().asIntBuffer(), null,
+                    pixels.slice().asIntBuffer(), null, 0,
                     0, 0, 0, 0, frame.getEncodedWidth(), frame.getEncodedHeight(),
                     frame.strideForPlane(0));
         } else {
@@ -129,7 +129,7 @@ class D3DTexture extends BaseTexture<D3DTextureResource>
             result = D3DResourceFactory.nUpdateTextureB(
                     ctx.getContextHandle(),
                     getNativeSourceHandle(),
-                    pixels.slice(), null,
+                    pixels.slice(), null, 0,
                     targetFormat.ordinal(),
                     0, 0,
                     0, 0, frame.getEncodedWidth(), frame.getEncodedHeight(),
@@ -221,24 +221,27 @@ class D3DTexture extends BaseTexture<D3DTextureResource>
         if (format.getDataType() == PixelFormat.DataType.INT) {
             IntBuffer buf = (IntBuffer)pixels;
             int[] arr = buf.hasArray() ? buf.array() : null;
+            int off = buf.hasArray() ? buf.arrayOffset() : 0;
             res = D3DResourceFactory.nUpdateTextureI(ctx.getContextHandle(),
                                                      getNativeSourceHandle(),
-                                                     buf, arr, dstx, dsty,
+                                                     buf, arr, off, dstx, dsty,
                                                      srcx, srcy, srcw, srch, srcscan);
         } else if (format.getDataType() == PixelFormat.DataType.FLOAT) {
             FloatBuffer buf = (FloatBuffer)pixels;
             float[] arr = buf.hasArray() ? buf.array() : null;
+            int off = buf.hasArray() ? buf.arrayOffset() : 0;
             res = D3DResourceFactory.nUpdateTextureF(ctx.getContextHandle(),
                                                      getNativeSourceHandle(),
-                                                     buf, arr, dstx, dsty,
+                                                     buf, arr, off, dstx, dsty,
                                                      srcx, srcy, srcw, srch, srcscan);
         } else {
             ByteBuffer buf = (ByteBuffer)pixels;
             buf.rewind();
             byte[] arr = buf.hasArray() ? buf.array() : null;
+            int off = buf.hasArray() ? buf.arrayOffset() : 0;
             res = D3DResourceFactory.nUpdateTextureB(ctx.getContextHandle(),
                                                      getNativeSourceHandle(),
-                                                     buf, arr, format.ordinal(),
+                                                     buf, arr, off, format.ordinal(),
                                                      dstx, dsty,
                                                      srcx, srcy, srcw, srch, srcscan);
         }
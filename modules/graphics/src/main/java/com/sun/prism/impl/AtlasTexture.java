@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl;
+
+import com.sun.prism.Image;
+import com.sun.prism.MediaFrame;
+import com.sun.prism.Mipmaps;
+import com.sun.prism.PixelFormat;
+import com.sun.prism.Texture;
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * A texture for an image stored in a page of a {@link TextureAtlas}.
+ * Its content area is the part of the page holding the image, so it can
+ * be drawn like any other {@code CLAMP_TO_EDGE} texture, but the shader
+ * contexts bind the {@link #getAtlasTexture() page} itself so that the
+ * images of a page are drawn in one batch.
+ */
+public final class AtlasTexture implements Texture {
+
+    private final TextureAtlas.Page page;
+    // the space is released when the image is collected
+    private final WeakReference<Image> image;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private int contentWidth;
+    private int contentHeight;
+    private boolean evicted;
+    private boolean permanent;
+    private boolean notUseful;
+    private boolean linearFiltering = true;
+    private int lastImageSerial;
+    private Mipmaps mipmaps;
+    private int lockcount;
+
+    AtlasTexture(TextureAtlas.Page page, Image image,
+                 int x, int y, int width, int height)
+    {
+        this.page = page;
+        this.image = new WeakReference<Image>(image);
+        this.x = x;
+        this.y = y;
+        this.width = this.contentWidth = width;
+        this.height = this.contentHeight = height;
+        lock();
+    }
+
+    /**
+     * Returns the texture of the atlas page holding this image.
+     */
+    public Texture getAtlasTexture() {
+        return page.texture;
+    }
+
+    void evict() {
+        evicted = true;
+    }
+
+    boolean isPermanent() {
+        return permanent;
+    }
+
+    /**
+     * Returns whether the space of this image in the page may be reused.
+     * @param notUseful whether images whose contents were marked as not
+     * useful may be released
+     */
+    boolean isReclaimable(boolean notUseful) {
+        if (isLocked() || permanent) {
+            return false;
+        }
+        return evicted || image.get() == null || (notUseful && this.notUseful);
+    }
+
+    @Override
+    public PixelFormat getPixelFormat() {
+        return page.texture.getPixelFormat();
+    }
+
+    @Override
+    public int getPhysicalWidth() {
+        return page.texture.getPhysicalWidth();
+    }
+
+    @Override
+    public int getPhysicalHeight() {
+        return page.texture.getPhysicalHeight();
+    }
+
+    @Override
+    public int getContentX() {
+        return page.texture.getContentX() + x;
+    }
+
+    @Override
+    public int getContentY() {
+        return page.texture.getContentY() + y;
+    }
+
+    @Override
+    public int getContentWidth() {
+        return contentWidth;
+    }
+
+    @Override
+    public int getContentHeight() {
+        return contentHeight;
+    }
+
+    @Override
+    public int getMaxContentWidth() {
+        return width;
+    }
+
+    @Override
+    public int getMaxContentHeight() {
+        return height;
+    }
+
+    @Override
+    public void setContentWidth(int contentWidth) {
+        if (contentWidth > width) {
+            throw new IllegalArgumentException("contentWidth cannot exceed maxContentWidth");
+        }
+        this.contentWidth = contentWidth;
+    }
+
+    @Override
+    public void setContentHeight(int contentHeight) {
+        if (contentHeight > height) {
+            throw new IllegalArgumentException("contentHeight cannot exceed maxContentHeight");
+        }
+        this.contentHeight = contentHeight;
+    }
+
+    @Override
+    public int getLastImageSerial() {
+        return lastImageSerial;
+    }
+
+    @Override
+    public void setLastImageSerial(int serial) {
+        lastImageSerial = serial;
+    }
+
+    @Override
+    public void update(Image img) {
+        update(img, 0, 0);
+    }
+
+    @Override
+    public void update(Image img, int dstx, int dsty) {
+        update(img, dstx, dsty, img.getWidth(), img.getHeight());
+    }
+
+    @Override
+    public void update(Image img, int dstx, int dsty, int srcw, int srch) {
+        update(img, dstx, dsty, srcw, srch, false);
+    }
+
+    @Override
+    public void update(Image img, int dstx, int dsty, int srcw, int srch,
+                       boolean skipFlush)
+    {
+        Buffer pbuffer = img.getPixelBuffer();
+        int pos = pbuffer.position();
+        update(pbuffer, img.getPixelFormat(),
+               dstx, dsty, img.getMinX(), img.getMinY(),
+               srcw, srch, img.getScanlineStride(),
+               skipFlush);
+        pbuffer.position(pos);
+    }
+
+    @Override
+    public void update(Buffer buffer, PixelFormat format,
+                       int dstx, int dsty,
+                       int srcx, int srcy,
+                       int srcw, int srch, int srcscan,
+                       boolean skipFlush)
+    {
+        if (dstx < 0 || dsty < 0 || dstx + srcw > width || dsty + srch > height) {
+            throw new IllegalArgumentException("Update region outside of the texture");
+        }
+        Texture tex = page.texture;
+        tex.update(buffer, format, x + dstx, y + dsty,
+                   srcx, srcy, srcw, srch, srcscan, skipFlush);
+
+        // Repeat the modified edge pixels in the border around the image,
+        // which is sampled instead of the neighbouring images on the page
+        // when the image is drawn with linear filtering
+        boolean top = (dsty == 0);
+        boolean left = (dstx == 0);
+        boolean bottom = (dsty + srch == height);
+        boolean right = (dstx + srcw == width);
+        int lastx = srcx + srcw - 1;
+        int lasty = srcy + srch - 1;
+        if (top) {
+            tex.update(buffer, format, x + dstx, y - 1,
+                       srcx, srcy, srcw, 1, srcscan, true);
+        }
+        if (bottom) {
+            tex.update(buffer, format, x + dstx, y + height,
+                       srcx, lasty, srcw, 1, srcscan, true);
+        }
+        if (left) {
+            tex.update(buffer, format, x - 1, y + dsty,
+                       srcx, srcy, 1, srch, srcscan, true);
+            if (top) {
+                tex.update(buffer, format, x - 1, y - 1,
+                           srcx, srcy, 1, 1, srcscan, true);
+            }
+            if (bottom) {
+                tex.update(buffer, format, x - 1, y + height,
+                           srcx, lasty, 1, 1, srcscan, true);
+            }
+        }
+        if (right) {
+            tex.update(buffer, format, x + width, y + dsty,
+                       lastx, srcy, 1, srch, srcscan, true);
+            if (top) {
+                tex.update(buffer, format, x + width, y - 1,
+                           lastx, srcy, 1, 1, srcscan, true);
+            }
+            if (bottom) {
+                tex.update(buffer, format, x + width, y + height,
+                           lastx, lasty, 1, 1, srcscan, true);
+            }
+        }
+    }
+
+    @Override
+    public void update(MediaFrame frame, boolean skipFlush) {
+        PixelFormat format = getPixelFormat();
+        frame.holdFrame();
+        if (frame.getPixelFormat() != format) {
+            MediaFrame f = frame.convertToFormat(format);
+            frame.releaseFrame();
+            if (f == null) {
+                throw new IllegalArgumentException("Unsupported format "+frame.getPixelFormat());
+            }
+            frame = f;
+        }
+
+        // packed formats only use plane 0
+        ByteBuffer pixels = frame.getBuffer();
+        pixels.position(frame.offsetForPlane(0));
+        Buffer buffer = (format.getDataType() == PixelFormat.DataType.INT)
+                        ? pixels.slice().asIntBuffer() : pixels.slice();
+        update(buffer, format, 0, 0, 0, 0,
+               Math.min(width, frame.getWidth()),
+               Math.min(height, frame.getHeight()),
+               frame.strideForPlane(0), skipFlush);
+        frame.releaseFrame();
+    }
+
+    @Override
+    public WrapMode getWrapMode() {
+        return WrapMode.CLAMP_TO_EDGE;
+    }
+
+    @Override
+    public Texture getSharedTexture(WrapMode altMode) {
+        assertLocked();
+        if (altMode == WrapMode.CLAMP_TO_EDGE) {
+            lock();
+            return this;
+        }
+        // the other images on the page are in the way of any other mode
+        return null;
+    }
+
+    @Override
+    public boolean getLinearFiltering() {
+        return linearFiltering;
+    }
+
+    @Override
+    public void setLinearFiltering(boolean linear) {
+        this.linearFiltering = linear;
+    }
+
+    @Override
+    public Mipmaps getMipmaps() {
+        return mipmaps;
+    }
+
+    @Override
+    public void setMipmaps(Mipmaps mipmaps) {
+        this.mipmaps = mipmaps;
+    }
+
+    @Override
+    public void lock() {
+        lockcount++;
+        page.touch();
+    }
+
+    @Override
+    public void unlock() {
+        assertLocked();
+        lockcount--;
+    }
+
+    @Override
+    public boolean isLocked() {
+        return lockcount > 0;
+    }
+
+    @Override
+    public int getLockCount() {
+        return lockcount;
+    }
+
+    @Override
+    public void assertLocked() {
+        if (lockcount <= 0) {
+            throw new IllegalStateException("texture not locked");
+        }
+    }
+
+    @Override
+    public void makePermanent() {
+        permanent = true;
+    }
+
+    @Override
+    public void contentsUseful() {
+        notUseful = false;
+    }
+
+    @Override
+    public void contentsNotUseful() {
+        // the space may be released once it is needed
+        notUseful = true;
+    }
+
+    @Override
+    public boolean isSurfaceLost() {
+        return evicted || page.texture.isSurfaceLost();
+    }
+
+    @Override
+    public void dispose() {
+        evicted = true;
+        page.release(this);
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() +
+            " [page="+page.texture+
+            " x="+x+" y="+y+
+            " width="+width+" height="+height+"]";
+    }
+}
@@ -25,7 +25,9 @@
 
 package com.sun.prism.impl;
 
+import com.sun.javafx.geom.Rectangle;
 import com.sun.prism.Image;
+import com.sun.prism.Mipmaps;
 import com.sun.prism.PixelFormat;
 import com.sun.prism.ResourceFactory;
 import com.sun.prism.ResourceFactoryListener;
@@ -51,6 +53,7 @@ public abstract class BaseResourceFactory implements ResourceFactory {
     private Texture regionTexture;
     private Texture glyphTexture;
     private boolean superShaderAllowed;
+    private TextureAtlas textureAtlas;
 
     @Override public void addFactoryListener(ResourceFactoryListener l) {
         listenerMap.put(l, Boolean.TRUE);
@@ -69,6 +72,7 @@ public abstract class BaseResourceFactory implements ResourceFactory {
     protected void clearTextureCache() {
         clearTextureCache(clampTexCache);
         clearTextureCache(repeatTexCache);
+        disposeTextureAtlas();
     }
 
     protected void clearTextureCache(Map<Image,Texture> texCache) {
@@ -79,6 +83,38 @@ public abstract class BaseResourceFactory implements ResourceFactory {
         texCache.clear();
     }
 
+    /**
+     * Returns whether small images drawn with {@code CLAMP_TO_EDGE} may be
+     * packed into shared textures and cached as {@link AtlasTexture}s. The
+     * graphics of the factory must honor the content origin of the textures
+     * they draw and bind the {@link AtlasTexture#getAtlasTexture() page} of
+     * an atlas texture instead of the atlas texture itself.
+     *
+     * @return true if the factory supports a texture atlas
+     */
+    protected boolean isTextureAtlasSupported() {
+        return false;
+    }
+
+    private TextureAtlas getTextureAtlas() {
+        if (textureAtlas == null && PrismSettings.atlasImageSize > 0 &&
+            isTextureAtlasSupported())
+        {
+            int pageSize = Math.min(TextureAtlas.PAGE_SIZE, getMaximumTextureSize());
+            textureAtlas = new TextureAtlas(this, pageSize,
+                                            PrismSettings.atlasImageSize,
+                                            PrismSettings.atlasPages);
+        }
+        return textureAtlas;
+    }
+
+    private void disposeTextureAtlas() {
+        if (textureAtlas != null) {
+            textureAtlas.dispose();
+            textureAtlas = null;
+        }
+    }
+
     protected ResourceFactoryListener[] getFactoryListeners() {
         return listenerMap.keySet().toArray(new ResourceFactoryListener[0]);
     }
@@ -90,6 +126,7 @@ public abstract class BaseResourceFactory implements ResourceFactory {
     protected void notifyReset() {
         clampTexCache.clear();
         repeatTexCache.clear();
+        disposeTextureAtlas();
 
         // Iterate over a *copy* of the key set because listeners may remove
         // themselves during the callback
@@ -107,6 +144,7 @@ public abstract class BaseResourceFactory implements ResourceFactory {
     protected void notifyReleased() {
         clampTexCache.clear();
         repeatTexCache.clear();
+        disposeTextureAtlas();
 
         // Iterate over a *copy* of the key set because listeners may remove
         // themselves during the callback
@@ -120,6 +158,13 @@ public abstract class BaseResourceFactory implements ResourceFactory {
 
     @Override
     public Texture getCachedTexture(Image image, WrapMode wrapMode) {
+        return getCachedTexture(image, wrapMode, false);
+    }
+
+    @Override
+    public Texture getCachedTexture(Image image, WrapMode wrapMode,
+                                    boolean mipmaps)
+    {
         if (image == null) {
             throw new IllegalArgumentException("Image must be non-null");
         }
@@ -163,21 +208,57 @@ public abstract class BaseResourceFactory implements ResourceFactory {
             }
         }
         if (tex == null) {
-            int w = image.getWidth();
-            int h = image.getHeight();
-            TextureResourcePool pool = getTextureResourcePool();
-            long size = pool.estimateTextureSize(w, h, image.getPixelFormat());
-            if (!pool.prepareForAllocation(size)) {
-                return null;
+            // Small images share the pages of the atlas when possible
+            TextureAtlas atlas = (wrapMode == WrapMode.CLAMP_TO_EDGE)
+                                 ? getTextureAtlas() : null;
+            if (atlas != null && atlas.accepts(image)) {
+                tex = atlas.allocate(image);
+            }
+            if (tex == null) {
+                int w = image.getWidth();
+                int h = image.getHeight();
+                TextureResourcePool pool = getTextureResourcePool();
+                long size = pool.estimateTextureSize(w, h, image.getPixelFormat());
+                if (!pool.prepareForAllocation(size)) {
+                    return null;
+                }
+                tex = createTexture(image, Usage.DEFAULT, wrapMode);
             }
-            tex = createTexture(image, Usage.DEFAULT, wrapMode);
             if (tex != null) {
                 tex.setLastImageSerial(serial);
                 texCache.put(image, tex);
+                image.resetDirtyRegion();
             }
         } else if (tex.getLastImageSerial() != serial) {
-            tex.update(image, 0, 0, image.getWidth(), image.getHeight(), false);
+            // Upload only the pixels which changed since the texture was
+            // last updated, if the image knows which ones they were
+            Rectangle dirty = image.getDirtyRegion(tex.getLastImageSerial());
+            if (dirty == null) {
+                tex.update(image, 0, 0, image.getWidth(), image.getHeight(), false);
+            } else if (!dirty.isEmpty()) {
+                tex.update(image.createSubImage(dirty.x, dirty.y,
+                                                dirty.width, dirty.height),
+                           dirty.x, dirty.y, dirty.width, dirty.height, false);
+            }
             tex.setLastImageSerial(serial);
+            image.resetDirtyRegion();
+            // the mipmaps no longer match the contents of the texture
+            Mipmaps oldMipmaps = tex.getMipmaps();
+            if (oldMipmaps != null) {
+                oldMipmaps.dispose();
+                tex.setMipmaps(null);
+            }
+        }
+        if (mipmaps && tex != null) {
+            Mipmaps texMipmaps = tex.getMipmaps();
+            if (texMipmaps == null ||
+                !texMipmaps.isValid(image.getWidth(), image.getHeight()))
+            {
+                if (texMipmaps != null) {
+                    texMipmaps.dispose();
+                }
+                tex.setMipmaps(Mipmaps.create(this, image, wrapMode));
+            }
         }
         return tex;
     }
@@ -26,6 +26,7 @@
 package com.sun.prism.impl;
 
 import com.sun.prism.Image;
+import com.sun.prism.Mipmaps;
 import com.sun.prism.PixelFormat;
 import com.sun.prism.Texture;
 import java.nio.Buffer;
@@ -52,6 +53,7 @@ public abstract class BaseTexture<T extends ManagedResource> implements Texture
     private final WrapMode wrapMode;
     private boolean linearFiltering = true;
     private int lastImageSerial;
+    private Mipmaps mipmaps;
 
     protected BaseTexture(BaseTexture<T> sharedTex, WrapMode newMode) {
         this.resource = sharedTex.resource;
@@ -228,6 +230,16 @@ public abstract class BaseTexture<T extends ManagedResource> implements Texture
         this.linearFiltering = linear;
     }
 
+    @Override
+    public final Mipmaps getMipmaps() {
+        return mipmaps;
+    }
+
+    @Override
+    public final void setMipmaps(Mipmaps mipmaps) {
+        this.mipmaps = mipmaps;
+    }
+
     @Override
     public final int getLastImageSerial() {
         return lastImageSerial;
@@ -50,12 +50,19 @@ public final class PrismSettings {
     public static final boolean threadCheck;
     public static final boolean cacheSimpleShapes;
     public static final boolean cacheComplexShapes;
+    public static final long shapeMaskCacheSize;
+    public static final long strokeOutlineCacheSize;
+    public static final long imageCacheSize;
+    public static final long animStreamThreshold;
     public static final boolean useNewImageLoader;
     public static final List<String> tryOrder;
     public static final int prismStatFrequency;
     public static final boolean doPiscesText;
     public static final boolean doOpenPiscesText;
     public static final boolean doNativePisces;
+    public static final boolean parallelRaster;
+    public static final int parallelRasterThreshold;
+    public static final int parallelRasterBandHeight;
     public static final String refType;
     public static final boolean forceRepaint;
     public static final boolean noFallback;
@@ -71,6 +78,9 @@ public final class PrismSettings {
     public static final int maxTextureSize;
     public static final int primTextureSize;
     public static final boolean disableRegionCaching;
+    public static final boolean mipmaps;
+    public static final int atlasImageSize;
+    public static final int atlasPages;
     public static final boolean forcePow2;
     public static final boolean noClampToZero;
     public static final boolean disableD3D9Ex;
@@ -164,6 +174,38 @@ public final class PrismSettings {
             cacheComplexShapes = false;
         }
 
+        /* Maximum total size of the cached shape masks, one byte per pixel */
+        shapeMaskCacheSize = getLong(systemProperties, "prism.shapecachesize",
+                                     4 * 1024 * 1024,
+                                     "Try -Dprism.shapecachesize=<number>[k|m]");
+
+        /*
+         * Maximum number of coordinates kept for the dashed and stroked
+         * outlines of paths rendered by the java-based Pisces rasterizer,
+         * 0 disables the cache
+         */
+        strokeOutlineCacheSize = getLong(systemProperties, "prism.outlinecachesize",
+                                         256 * 1024,
+                                         "Try -Dprism.outlinecachesize=<number>[k|m]");
+
+        /*
+         * Maximum number of bytes of decoded images kept so that images
+         * loaded again from the same URL at the same size need not be
+         * decoded again, 0 (the default) disables the cache
+         */
+        imageCacheSize = getLong(systemProperties, "prism.imagecachesize",
+                                 0,
+                                 "Try -Dprism.imagecachesize=<number>[k|m]");
+
+        /*
+         * Animated GIF images whose decoded frames would take more than this
+         * number of bytes keep only their compressed data and decode a few
+         * frames at a time while they play, 0 disables streaming
+         */
+        animStreamThreshold = getLong(systemProperties, "prism.animstreamthreshold",
+                                      64 * 1024 * 1024,
+                                      "Try -Dprism.animstreamthreshold=<number>[k|m]");
+
         /* New javafx-iio image loader */
         useNewImageLoader = getBoolean(systemProperties, "prism.newiio", true);
 
@@ -221,6 +263,20 @@ public final class PrismSettings {
             doNativePisces = Boolean.parseBoolean(npprop);
         }
 
+        /*
+         * Rasterize large shapes in horizontal bands on several threads
+         * when using the java-based Pisces rasterizer.  Shapes covering
+         * fewer pixels than the threshold are always rasterized on the
+         * render thread.
+         */
+        parallelRaster = getBoolean(systemProperties, "prism.parallelraster", false);
+        parallelRasterThreshold =
+                getInt(systemProperties, "prism.parallelraster.threshold",
+                       256 * 256, "Try -Dprism.parallelraster.threshold=<number>");
+        parallelRasterBandHeight =
+                Math.max(1, getInt(systemProperties, "prism.parallelraster.bandheight",
+                                   32, "Try -Dprism.parallelraster.bandheight=<number>"));
+
         /* Setting for text.
          */
         String text = systemProperties.getProperty("prism.text", "");
@@ -270,6 +326,9 @@ public final class PrismSettings {
             }
             String piscestype = (doNativePisces ? "native" : "java");
             System.out.println("Using " + piscestype + "-based Pisces rasterizer");
+            if (!doNativePisces) {
+                printBooleanOption(parallelRaster, "Using parallel rasterization for large shapes");
+            }
             printBooleanOption(dirtyOptsEnabled, "Using dirty region optimizations");
             if (primTextureSize == 0) {
                 System.out.println("Not using texture mask for primitives");
@@ -340,6 +399,15 @@ public final class PrismSettings {
         perfLogFirstPaintExit = getBoolean(systemProperties, "sun.perflog.fx.firstpaintexit", false, true);
 
         superShader = getBoolean(systemProperties, "prism.supershader", true);
+
+        // Create mipmaps for images drawn at less than half their size
+        mipmaps = getBoolean(systemProperties, "prism.mipmaps", false);
+
+        // Pack images up to this size into shared textures, 0 disables
+        atlasImageSize = Math.max(0, getInt(systemProperties, "prism.atlasimagesize", 64,
+                "Try -Dprism.atlasimagesize=<number>"));
+        atlasPages = Math.max(1, getInt(systemProperties, "prism.atlaspages", 4,
+                "Try -Dprism.atlaspages=<number>"));
     }
 
     private static int parseInt(String s, int dflt, int trueDflt,
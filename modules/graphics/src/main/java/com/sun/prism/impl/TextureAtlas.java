@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl;
+
+import com.sun.javafx.geom.Rectangle;
+import com.sun.prism.Image;
+import com.sun.prism.PixelFormat;
+import com.sun.prism.ResourceFactory;
+import com.sun.prism.Texture;
+import com.sun.prism.Texture.Usage;
+import com.sun.prism.Texture.WrapMode;
+import com.sun.prism.impl.packrect.RectanglePacker;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Packs small images into a few shared textures, so that drawing many of
+ * them does not switch textures between every draw. Each image is placed
+ * in a page with a one pixel border which repeats its edge pixels, and
+ * is represented by an {@link AtlasTexture} which maps its content area
+ * onto that part of the page.
+ * <p>
+ * An image's place in its page is released when its texture is disposed
+ * or its image is collected, and, when space runs out, once its contents
+ * were marked as not useful, as is done for the short-lived images of a
+ * canvas. The pixels of a page are only reused once all of its images are
+ * released, since the pages are filled like the glyph cache. When no page
+ * of the image format has room for a new image and no new page may be
+ * created, the least recently used page of that format holding no locked
+ * image is cleared, and its images report a lost surface so that the
+ * texture cache recreates them. Images which still do not fit get their
+ * own texture.
+ */
+class TextureAtlas {
+
+    static final class Page {
+        final Texture texture;
+        final RectanglePacker packer;
+        final ArrayList<AtlasTexture> regions = new ArrayList<AtlasTexture>();
+        private final TextureAtlas atlas;
+        int lastUse;
+
+        Page(TextureAtlas atlas, Texture texture) {
+            this.atlas = atlas;
+            this.texture = texture;
+            this.packer = new RectanglePacker(texture, texture.getContentWidth(),
+                                              texture.getContentHeight());
+        }
+
+        void touch() {
+            lastUse = ++atlas.useCount;
+        }
+
+        boolean isInUse() {
+            for (AtlasTexture region : regions) {
+                if (region.isLocked() || region.isPermanent()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Releases the regions which are no longer needed, and the whole
+         * page if none are left.
+         * @param notUseful whether to release the regions whose contents
+         * were marked as not useful
+         */
+        void purge(boolean notUseful) {
+            for (Iterator<AtlasTexture> it = regions.iterator(); it.hasNext(); ) {
+                AtlasTexture region = it.next();
+                if (region.isReclaimable(notUseful)) {
+                    region.evict();
+                    it.remove();
+                }
+            }
+            if (regions.isEmpty()) {
+                packer.clear();
+            }
+        }
+
+        void release(AtlasTexture region) {
+            if (regions.remove(region) && regions.isEmpty()) {
+                packer.clear();
+            }
+        }
+
+        void evictAll() {
+            for (AtlasTexture region : regions) {
+                region.evict();
+            }
+            regions.clear();
+            packer.clear();
+        }
+    }
+
+    static final int PAGE_SIZE = 1024;
+
+    private final ResourceFactory factory;
+    private final int maxImageSize;
+    private final int maxPages;
+    private final int pageSize;
+    private final ArrayList<Page> pages = new ArrayList<Page>();
+    private int useCount;
+
+    TextureAtlas(ResourceFactory factory, int pageSize,
+                 int maxImageSize, int maxPages)
+    {
+        this.factory = factory;
+        this.pageSize = pageSize;
+        this.maxImageSize = maxImageSize;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Returns whether the given image is small enough and of a format
+     * which can be drawn from a page.
+     */
+    boolean accepts(Image image) {
+        if (image.getWidth() > maxImageSize || image.getHeight() > maxImageSize ||
+            image.getWidth() + 2 > pageSize || image.getHeight() + 2 > pageSize)
+        {
+            return false;
+        }
+        switch (image.getPixelFormat()) {
+            case BYTE_BGRA_PRE:
+            case BYTE_RGB:
+            case BYTE_GRAY:
+            case INT_ARGB_PRE:
+                return isFormatSupported(image.getPixelFormat());
+            default:
+                // alpha masks are drawn as paint and the other formats
+                // need dedicated textures
+                return false;
+        }
+    }
+
+    /**
+     * Places the image in a page and returns its locked texture, or null
+     * if no space could be found for it.
+     */
+    AtlasTexture allocate(Image image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        PixelFormat format = image.getPixelFormat();
+        Rectangle rect = new Rectangle(0, 0, w + 2, h + 2);
+        Page page = findPage(format, rect);
+        if (page == null) {
+            // make room from the images which are gone or not needed
+            for (Page p : pages) {
+                if (p.texture.getPixelFormat() == format) {
+                    p.purge(true);
+                }
+            }
+            page = findPage(format, rect);
+        }
+        if (page == null) {
+            page = (pages.size() < maxPages) ? createPage(format) : reusePage(format);
+            if (page == null || !page.packer.add(rect)) {
+                return null;
+            }
+        }
+        AtlasTexture region = new AtlasTexture(page, image, rect.x + 1, rect.y + 1, w, h);
+        page.regions.add(region);
+        // the pixels may be replacing those of evicted images which are
+        // still referenced by pending vertices, so let the update flush them
+        region.update(image, 0, 0, w, h, false);
+        return region;
+    }
+
+    private Page findPage(PixelFormat format, Rectangle rect) {
+        for (int i = pages.size() - 1; i >= 0; i--) {
+            Page p = pages.get(i);
+            if (p.texture.isSurfaceLost()) {
+                p.evictAll();
+                pages.remove(i);
+            } else if (p.texture.getPixelFormat() == format) {
+                p.purge(false);
+                if (p.packer.add(rect)) {
+                    return p;
+                }
+            }
+        }
+        return null;
+    }
+
+    boolean isFormatSupported(PixelFormat format) {
+        return factory.isFormatSupported(format);
+    }
+
+    Texture createPageTexture(PixelFormat format, int size) {
+        return factory.createTexture(format, Usage.DEFAULT,
+                                     WrapMode.CLAMP_NOT_NEEDED, size, size);
+    }
+
+    private Page createPage(PixelFormat format) {
+        Texture tex = createPageTexture(format, pageSize);
+        if (tex == null) {
+            return null;
+        }
+        tex.contentsUseful();
+        tex.makePermanent();
+        Page page = new Page(this, tex);
+        pages.add(page);
+        return page;
+    }
+
+    private Page reusePage(PixelFormat format) {
+        // pages of other formats are not disposed, since pending vertices
+        // may still refer to them
+        Page victim = null;
+        for (Page p : pages) {
+            if (p.texture.getPixelFormat() == format && !p.isInUse() &&
+                (victim == null || p.lastUse < victim.lastUse))
+            {
+                victim = p;
+            }
+        }
+        if (victim != null) {
+            victim.evictAll();
+        }
+        return victim;
+    }
+
+    void dispose() {
+        for (Page p : pages) {
+            p.evictAll();
+            p.texture.dispose();
+        }
+        pages.clear();
+    }
+}
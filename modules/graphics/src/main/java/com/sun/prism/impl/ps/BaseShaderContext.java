@@ -36,6 +36,7 @@ import com.sun.prism.RTTexture;
 import com.sun.prism.RenderTarget;
 import com.sun.prism.ResourceFactory;
 import com.sun.prism.Texture;
+import com.sun.prism.impl.AtlasTexture;
 import com.sun.prism.impl.BaseContext;
 import com.sun.prism.impl.BaseGraphics;
 import com.sun.prism.impl.VertexBuffer;
@@ -720,6 +721,16 @@ public abstract class BaseShaderContext extends BaseContext {
 
     private void setTexture(int texUnit, Texture tex) {
         if (tex != null) tex.assertLocked();
+        if (tex instanceof AtlasTexture) {
+            // Bind the atlas page, so that consecutive images of the same
+            // page are drawn in one batch unless their filtering differs
+            AtlasTexture atlasTex = (AtlasTexture) tex;
+            tex = atlasTex.getAtlasTexture();
+            if (tex.getLinearFiltering() != atlasTex.getLinearFiltering()) {
+                tex.setLinearFiltering(atlasTex.getLinearFiltering());
+                state.lastTextures[texUnit] = null;
+            }
+        }
         if (tex != state.lastTextures[texUnit]) {
             flushVertexBuffer();
             updateTexture(texUnit, tex);
@@ -36,6 +36,11 @@ import com.sun.prism.impl.PrismSettings;
 public abstract class BaseShaderFactory extends BaseResourceFactory
     implements ShaderFactory
 {
+    @Override
+    protected boolean isTextureAtlasSupported() {
+        return true;
+    }
+
     public ShapeRep createPathRep() {
         return PrismSettings.cacheComplexShapes ?
                 new CachingShapeRep() : new BasicShapeRep();
@@ -46,6 +46,7 @@ import com.sun.javafx.sg.prism.NGLightBase;
 import com.sun.prism.BasicStroke;
 import com.sun.prism.CompositeMode;
 import com.sun.prism.MaskTextureGraphics;
+import com.sun.prism.Mipmaps;
 import com.sun.prism.MultiTexture;
 import com.sun.prism.PixelFormat;
 import com.sun.prism.RTTexture;
@@ -135,11 +136,42 @@ public abstract class BaseShaderGraphics
         //        renderers can use MultiTexture too
         if (tex instanceof MultiTexture) {
             drawMultiTexture((MultiTexture)tex, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2);
-        } else {
+        } else if (!drawMipmap(tex, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2)) {
             super.drawTexture(tex, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2);
         }
     }
 
+    /**
+     * Draws the level of the mipmaps of the texture matching the scale
+     * of the drawing, if the texture has mipmaps and is minified enough.
+     *
+     * @return true if a mipmap level was drawn
+     */
+    private boolean drawMipmap(Texture tex,
+                               float dx1, float dy1, float dx2, float dy2,
+                               float sx1, float sy1, float sx2, float sy2)
+    {
+        Mipmaps mipmaps = tex.getMipmaps();
+        if (mipmaps == null) {
+            return false;
+        }
+        int level = Mipmaps.getLevel(getTransformNoClone(),
+                                     dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2);
+        if (level == 0) {
+            return false;
+        }
+        Texture mip = mipmaps.lockLevel(level);
+        if (mip == null) {
+            return false;
+        }
+        mip.setLinearFiltering(tex.getLinearFiltering());
+        super.drawTexture(mip, dx1, dy1, dx2, dy2,
+                          mipmaps.toLevelX(mip, sx1), mipmaps.toLevelY(mip, sy1),
+                          mipmaps.toLevelX(mip, sx2), mipmaps.toLevelY(mip, sy2));
+        mip.unlock();
+        return true;
+    }
+
     @Override
     public void drawTexture3SliceH(Texture tex,
                                    float dx1, float dy1, float dx2, float dy2,
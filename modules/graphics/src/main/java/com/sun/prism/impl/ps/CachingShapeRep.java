@@ -31,6 +31,7 @@ import com.sun.javafx.geom.Shape;
 import com.sun.javafx.geom.transform.BaseTransform;
 import com.sun.prism.BasicStroke;
 import com.sun.prism.Graphics;
+import com.sun.prism.ResourceFactory;
 import com.sun.prism.Texture;
 import com.sun.prism.Texture.WrapMode;
 import com.sun.prism.paint.Paint;
@@ -42,8 +43,8 @@ import com.sun.prism.impl.ps.BaseShaderContext.MaskType;
 import com.sun.prism.impl.shape.ShapeUtil;
 import com.sun.prism.impl.shape.MaskData;
 import com.sun.prism.ps.Shader;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 /**
  * An implementation of ShapeRep that attempts to cache and reuse the
@@ -69,8 +70,11 @@ import java.util.Comparator;
  * too noticeable.)
  *
  * The current implementation limits the size of the cache (512 pixels in
- * each dimension, and 4 MB in total) so that it doesn't grow without bound.
- * Space is granted on a first come first served basis.
+ * each dimension, and 4 MB in total by default, see the
+ * {@code prism.shapecachesize} property) so that it doesn't grow without
+ * bound.  Masks which are no longer used by any shape stay in the cache
+ * until the room is needed for a new mask, and are then evicted in least
+ * recently used order.
  */
 public class CachingShapeRep implements ShapeRep {
 
@@ -84,6 +88,29 @@ public class CachingShapeRep implements ShapeRep {
         return new CachingShapeRepState();
     }
 
+    /**
+     * Returns the number of times a shape found a matching mask in the cache.
+     */
+    public static long getMaskCacheHits() {
+        return CachingShapeRepState.maskCache.getHits();
+    }
+
+    /**
+     * Returns the number of times a shape had to be rasterized into a new
+     * mask for the cache.
+     */
+    public static long getMaskCacheMisses() {
+        return CachingShapeRepState.maskCache.getMisses();
+    }
+
+    /**
+     * Returns the number of bytes used by the masks in the cache, including
+     * the masks which are not currently used by any shape.
+     */
+    public static long getMaskCacheBytes() {
+        return CachingShapeRepState.maskCache.getTotalPixels();
+    }
+
     public boolean is3DCapable() {
         return false;
     }
@@ -127,13 +154,13 @@ public class CachingShapeRep implements ShapeRep {
 
 class CachingShapeRepState {
 
-    private static class MaskTexData {
-        private CacheEntry cacheEntry;
-        private Texture maskTex;
-        private float maskX;
-        private float maskY;
-        private int maskW;
-        private int maskH;
+    static class MaskTexData {
+        CacheEntry cacheEntry;
+        Texture maskTex;
+        float maskX;
+        float maskY;
+        int maskW;
+        int maskH;
 
         void adjustOrigin(BaseTransform xform) {
             float dx = (float)(xform.getMxt()-cacheEntry.xform.getMxt());
@@ -166,81 +193,98 @@ class CachingShapeRepState {
         }
     }
 
-    private static class CacheEntry {
+    static class CacheEntry {
         Shape shape;
         BasicStroke stroke;
         BaseTransform xform;
         RectBounds xformBounds;
         MaskTexData texData;
         int refCount;
-    }
+        boolean cached;
+        int hash;
+
+        void setKey(Shape shape, BasicStroke stroke, BaseTransform xform) {
+            this.shape = shape;
+            this.stroke = stroke;
+            this.xform = xform;
+            // only the non-translation components of the transform take
+            // part in the key, see equalsIgnoreTranslation()
+            int h = shape.hashCode();
+            h = 31 * h + (stroke == null ? 0 : stroke.hashCode());
+            h = 31 * h + hashDouble(xform.getMxx());
+            h = 31 * h + hashDouble(xform.getMxy());
+            h = 31 * h + hashDouble(xform.getMyx());
+            h = 31 * h + hashDouble(xform.getMyy());
+            this.hash = h;
+        }
 
-    private static class MaskCache {
-        private static final int MAX_MASK_DIM = 512;
-        private static final int MAX_SIZE_IN_PIXELS = 4194304; // 4 MB
-        private static Comparator<CacheEntry> comparator = new Comparator<CacheEntry>() {
+        private static int hashDouble(double d) {
+            long bits = Double.doubleToLongBits(d);
+            return (int) (bits ^ (bits >>> 32));
+        }
 
-            public int compare(CacheEntry o1, CacheEntry o2) {
-                int widthCompare = Float.compare(o1.xformBounds.getWidth(), o2.xformBounds.getWidth());
-                if (widthCompare != 0) {
-                    return widthCompare;
-                }
-                return Float.compare(o1.xformBounds.getHeight(), o2.xformBounds.getHeight());
+        int getPixels() {
+            return texData.maskW * texData.maskH;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
             }
+            if (!(obj instanceof CacheEntry)) {
+                return false;
+            }
+            CacheEntry other = (CacheEntry) obj;
+            return hash == other.hash &&
+                   equalsIgnoreTranslation(xform, other.xform) &&
+                   shape.equals(other.shape) &&
+                   (stroke == null ? other.stroke == null : stroke.equals(other.stroke));
+        }
+    }
 
-        };
+    /**
+     * A cache of mask textures, keyed on the shape geometry, the stroke
+     * and the transform ignoring its translation components.
+     * Masks which are no longer used by any shape are kept in the cache
+     * (in least recently used order) until room is needed for a new mask,
+     * so that a shape which comes back with the same geometry, for example
+     * in a recycled cell, does not need to be rasterized again.
+     * The size of the cache is measured in mask pixels (that is, bytes).
+     */
+    static class MaskCache {
+        private static final int MAX_MASK_DIM = 512;
 
-        private CacheEntry[] entries = new CacheEntry[8];
-        private int entriesSize = 0;
-        private int totalPixels;
+        private final long maxSizeInPixels;
+        private final LinkedHashMap<CacheEntry, CacheEntry> entries =
+            new LinkedHashMap<CacheEntry, CacheEntry>(16, 0.75f, true);
+        // only updated on the render thread, but also read through JMX
+        private volatile long totalPixels;
+        private long unusedPixels;
+        private volatile long hits;
+        private volatile long misses;
 
-        private CacheEntry tmpKey = new CacheEntry();
-        {
-            tmpKey.xformBounds = new RectBounds();
+        private final CacheEntry tmpKey = new CacheEntry();
+
+        MaskCache(long maxSizeInPixels) {
+            this.maxSizeInPixels = maxSizeInPixels;
         }
 
-        private void ensureSize(int size) {
-            if (entries.length < size) {
-                CacheEntry[] newEntries = new CacheEntry[size * 3 / 2];
-                System.arraycopy(entries, 0, newEntries, 0, entries.length);
-                entries = newEntries;
-            }
+        long getHits() {
+            return hits;
         }
 
-        private void addEntry(CacheEntry entry) {
-            ensureSize(entriesSize + 1);
-            int pos = Arrays.binarySearch(entries, 0, entriesSize, entry, comparator);
-            if (pos < 0) {
-                pos = ~pos;
-            }
-            System.arraycopy(entries, pos, entries, pos + 1, entriesSize - pos);
-            entries[pos] = entry;
-            ++entriesSize;
+        long getMisses() {
+            return misses;
         }
 
-        private void removeEntry(CacheEntry entry) {
-            int pos = Arrays.binarySearch(entries, 0, entriesSize, entry, comparator);
-            if (pos < 0) {
-                throw new IllegalStateException("Trying to remove a cached item that's not in the cache");
-            }
-            if (entries[pos] != entry) {
-                tmpKey.xformBounds.deriveWithNewBounds(0, 0, 0, entry.xformBounds.getWidth(), Math.nextAfter(entry.xformBounds.getHeight(), Float.NEGATIVE_INFINITY), 0);
-                pos = Arrays.binarySearch(entries, 0, entriesSize, tmpKey, comparator);
-                if (pos < 0) {
-                    pos = ~pos;
-                }
-                tmpKey.xformBounds.deriveWithNewBounds(0, 0, 0, entry.xformBounds.getWidth(), Math.nextAfter(entry.xformBounds.getHeight(), Float.POSITIVE_INFINITY), 0);
-                int toPos = Arrays.binarySearch(entries, 0, entriesSize, tmpKey, comparator);
-                if (toPos < 0) {
-                    toPos = ~toPos;
-                }
-                while (entries[pos] != entry && pos < toPos) { ++pos; };
-                if (pos >= toPos) {
-                    throw new IllegalStateException("Trying to remove a cached item that's not in the cache");
-                }
-            }
-            System.arraycopy(entries, pos + 1, entries, pos, entriesSize - pos - 1);
-            --entriesSize;
+        long getTotalPixels() {
+            return totalPixels;
         }
 
         boolean hasRoom(RectBounds xformBounds) {
@@ -250,16 +294,10 @@ class CachingShapeRepState {
             return
                 w <= MAX_MASK_DIM &&
                 h <= MAX_MASK_DIM &&
-                totalPixels + size <= MAX_SIZE_IN_PIXELS;
+                totalPixels - unusedPixels + size <= maxSizeInPixels;
         }
 
-        boolean entryMatches(CacheEntry entry, Shape shape, BasicStroke stroke, BaseTransform xform) {
-            return equalsIgnoreTranslation(xform, entry.xform) && entry.shape.equals(shape) &&
-                   (stroke == null ? entry.stroke == null : stroke.equals(entry.stroke));
-
-        }
-
-        void get(BaseShaderContext context,
+        void get(ResourceFactory factory,
                  MaskTexData texData,
                  Shape shape, BasicStroke stroke, BaseTransform xform,
                  RectBounds xformBounds,
@@ -272,51 +310,49 @@ class CachingShapeRepState {
                 throw new InternalError("CacheEntry should already be null");
             }
 
-            tmpKey.xformBounds.deriveWithNewBounds(0, 0, 0, xformBounds.getWidth(), Math.nextAfter(xformBounds.getHeight(), Float.NEGATIVE_INFINITY), 0);
-            int i = Arrays.binarySearch(entries, 0, entriesSize, tmpKey, comparator);
-            if (i < 0) {
-                i = ~i;
-            }
-
-            tmpKey.xformBounds.deriveWithNewBounds(0, 0, 0, xformBounds.getWidth(), Math.nextAfter(xformBounds.getHeight(), Float.POSITIVE_INFINITY), 0);
-            int toPos = Arrays.binarySearch(entries, 0, entriesSize, tmpKey, comparator);
-            if (toPos < 0) {
-                toPos = ~toPos;
-            }
-            for (;i < toPos; i++) {
-                CacheEntry entry = entries[i];
-
-                if (entryMatches(entry, shape, stroke, xform))
-                {
-                    entry.texData.maskTex.lock();
-                    if (entry.texData.maskTex.isSurfaceLost()) {
-                        // Eventually refcount will go to zero and entry will be freed
-                        entry.texData.maskTex.unlock();
-                        continue;
-                    }
+            tmpKey.setKey(shape, stroke, xform);
+            CacheEntry entry = entries.get(tmpKey);
+            // don't hold on to the caller's (mutable) geometry
+            tmpKey.shape = null;
+            tmpKey.stroke = null;
+            tmpKey.xform = null;
+            if (entry != null) {
+                entry.texData.maskTex.lock();
+                if (entry.texData.maskTex.isSurfaceLost()) {
+                    // Drop the entry from the cache; it will be freed now
+                    // if it is unused, or otherwise when its last user
+                    // lets go of it
+                    entry.texData.maskTex.unlock();
+                    remove(entry);
+                } else {
                     // increment ref count for the chosen entry and
                     // link the given texData to it
-                    entry.refCount++;
+                    if (entry.refCount++ == 0) {
+                        unusedPixels -= entry.getPixels();
+                    }
                     entry.texData.copyInto(texData);
                     texData.cacheEntry = entry;
                     // adjust the maskX/maskY by the delta between the
                     // cached transform and the current transform
                     texData.adjustOrigin(xform);
+                    hits++;
                     return;
                 }
             }
+            misses++;
 
             // did not find an existing mask; create a new one here
             MaskData maskData =
                 ShapeUtil.rasterizeShape(shape, stroke, xformBounds, xform, true);
             int mw = maskData.getWidth();
             int mh = maskData.getHeight();
+            makeRoom(mw * mh);
             texData.maskX = maskData.getOriginX();
             texData.maskY = maskData.getOriginY();
             texData.maskW = mw;
             texData.maskH = mh;
             texData.maskTex =
-                context.getResourceFactory().createMaskTexture(mw, mh, WrapMode.CLAMP_TO_ZERO);
+                createMaskTexture(factory, mw, mh);
             maskData.uploadToTexture(texData.maskTex, 0, 0, false);
             texData.maskTex.contentsUseful();
 
@@ -324,18 +360,23 @@ class CachingShapeRepState {
             // shape and transform so that dependents are not affected
             // if the original geometry is mutated (since NGPath will reuse
             // and mutate a single Path2D instance, for example)
-            CacheEntry entry = new CacheEntry();
-            entry.shape = shape.copy();
-            if (stroke != null) entry.stroke = stroke.copy();
-            entry.xform = xform.copy();
+            entry = new CacheEntry();
+            entry.setKey(shape.copy(),
+                         stroke == null ? null : stroke.copy(),
+                         xform.copy());
             entry.xformBounds = xformBoundsIsACopy ? xformBounds : (RectBounds)xformBounds.copy();
             entry.texData = texData.copy();
             entry.refCount = 1;
+            entry.cached = true;
             texData.cacheEntry = entry;
-            addEntry(entry);
+            entries.put(entry, entry);
             totalPixels += mw*mh;
         }
 
+        Texture createMaskTexture(ResourceFactory factory, int w, int h) {
+            return factory.createMaskTexture(w, h, WrapMode.CLAMP_TO_ZERO);
+        }
+
         void unref(MaskTexData texData) {
             if (texData == null) {
                 throw new InternalError("MaskTexData must be non-null");
@@ -348,16 +389,49 @@ class CachingShapeRepState {
             texData.maskTex = null;
             entry.refCount--;
             if (entry.refCount <= 0) {
-                removeEntry(entry);
-                entry.shape = null;
-                entry.stroke = null;
-                entry.xform = null;
-                entry.xformBounds = null;
-                entry.texData.maskTex.dispose();
-                entry.texData = null;
-                totalPixels -= (texData.maskW * texData.maskH);
+                if (entry.cached) {
+                    // keep the mask around for reuse until we need the room
+                    unusedPixels += entry.getPixels();
+                } else {
+                    free(entry);
+                }
+            }
+        }
+
+        // Evicts least recently used masks which are not referenced by any
+        // shape until there is room for a new mask of the given size.
+        private void makeRoom(int size) {
+            Iterator<CacheEntry> it = entries.keySet().iterator();
+            while (it.hasNext() && totalPixels + size > maxSizeInPixels) {
+                CacheEntry entry = it.next();
+                if (entry.refCount <= 0) {
+                    it.remove();
+                    entry.cached = false;
+                    totalPixels -= entry.getPixels();
+                    unusedPixels -= entry.getPixels();
+                    free(entry);
+                }
+            }
+        }
+
+        private void remove(CacheEntry entry) {
+            entries.remove(entry);
+            entry.cached = false;
+            totalPixels -= entry.getPixels();
+            if (entry.refCount <= 0) {
+                unusedPixels -= entry.getPixels();
+                free(entry);
             }
         }
+
+        private void free(CacheEntry entry) {
+            entry.shape = null;
+            entry.stroke = null;
+            entry.xform = null;
+            entry.xformBounds = null;
+            entry.texData.maskTex.dispose();
+            entry.texData = null;
+        }
     }
 
     /**
@@ -380,7 +454,7 @@ class CachingShapeRepState {
 
     private static final BaseTransform IDENT = BaseTransform.IDENTITY_TRANSFORM;
     // NOTE: need separate MaskCache per context?
-    private static final MaskCache maskCache = new MaskCache();
+    static final MaskCache maskCache = new MaskCache(PrismSettings.shapeMaskCacheSize);
 
     private int renderCount;
     private Boolean tryCache;
@@ -510,7 +584,8 @@ class CachingShapeRepState {
                 // the following will locate an existing cached mask that
                 // matches the given parameters, or failing that, will create
                 // a new mask and put it in the cache
-                maskCache.get(context, texData, shape, stroke, xform, xformBounds, boundsCopy);
+                maskCache.get(context.getResourceFactory(), texData,
+                              shape, stroke, xform, xformBounds, boundsCopy);
             }
 
             if (lastXform == null) {
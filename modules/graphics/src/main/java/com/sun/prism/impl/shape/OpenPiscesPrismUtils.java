@@ -37,6 +37,7 @@ import com.sun.openpisces.Renderer;
 import com.sun.openpisces.Stroker;
 import com.sun.openpisces.TransformingPathConsumer2D;
 import com.sun.prism.BasicStroke;
+import com.sun.prism.impl.PrismSettings;
 
 public class OpenPiscesPrismUtils {
     private static final Renderer savedRenderer = new Renderer(3, 3);
@@ -46,6 +47,14 @@ public class OpenPiscesPrismUtils {
     private static TransformingPathConsumer2D.FilterSet transformer =
         new TransformingPathConsumer2D.FilterSet();
 
+    // The dashed and stroked outlines of recently rendered paths, so that
+    // a path drawn again with the same geometry and stroke (dashed chart
+    // grid lines, for instance) skips the Dasher and Stroker stages
+    private static final StrokeOutlineCache outlineCache =
+        PrismSettings.strokeOutlineCacheSize > 0
+            ? new StrokeOutlineCache(PrismSettings.strokeOutlineCacheSize)
+            : null;
+
     private static PathConsumer2D initRenderer(BasicStroke stroke,
                                                BaseTransform tx,
                                                Rectangle clip,
@@ -56,15 +65,22 @@ public class OpenPiscesPrismUtils {
         savedRenderer.reset(clip.x, clip.y, clip.width, clip.height, oprule);
         PathConsumer2D ret = transformer.getConsumer(savedRenderer, tx);
         if (stroke != null) {
-            savedStroker.reset(stroke.getLineWidth(), stroke.getEndCap(),
-                               stroke.getLineJoin(), stroke.getMiterLimit());
-            savedStroker.setConsumer(ret);
-            ret = savedStroker;
-            float dashes[] = stroke.getDashArray();
-            if (dashes != null) {
-                savedDasher.reset(dashes, stroke.getDashPhase());
-                ret = savedDasher;
-            }
+            ret = initStroker(stroke, ret);
+        }
+        return ret;
+    }
+
+    private static PathConsumer2D initStroker(BasicStroke stroke,
+                                              PathConsumer2D out)
+    {
+        savedStroker.reset(stroke.getLineWidth(), stroke.getEndCap(),
+                           stroke.getLineJoin(), stroke.getMiterLimit());
+        savedStroker.setConsumer(out);
+        PathConsumer2D ret = savedStroker;
+        float dashes[] = stroke.getDashArray();
+        if (dashes != null) {
+            savedDasher.reset(dashes, stroke.getDashPhase());
+            ret = savedDasher;
         }
         return ret;
     }
@@ -103,6 +119,9 @@ public class OpenPiscesPrismUtils {
                                   BaseTransform xform,
                                   Rectangle rclip)
     {
+        if (shape instanceof Path2D) {
+            return setupRenderer((Path2D) shape, stroke, xform, rclip);
+        }
         PathIterator pi = shape.getPathIterator(null);
         feedConsumer(pi, initRenderer(stroke, xform, rclip, pi.getWindingRule()));
         return savedRenderer;
@@ -113,8 +132,23 @@ public class OpenPiscesPrismUtils {
                                   BaseTransform xform,
                                   Rectangle rclip)
     {
-        PathConsumer2D pc2d = initRenderer(stroke, xform, rclip, p2d.getWindingRule());
+        if (stroke != null && outlineCache != null) {
+            Path2D outline = outlineCache.get(p2d, stroke);
+            if (outline == null && outlineCache.isWanted()) {
+                outline = new Path2D(Path2D.WIND_NON_ZERO);
+                feedConsumer(p2d, initStroker(stroke, outline));
+                outlineCache.put(outline);
+            }
+            if (outline != null) {
+                feedConsumer(outline, initRenderer(null, xform, rclip, Path2D.WIND_NON_ZERO));
+                return savedRenderer;
+            }
+        }
+        feedConsumer(p2d, initRenderer(stroke, xform, rclip, p2d.getWindingRule()));
+        return savedRenderer;
+    }
 
+    private static void feedConsumer(Path2D p2d, PathConsumer2D pc2d) {
         float coords[] = p2d.getFloatCoordsNoClone();
         byte types[] = p2d.getCommandsNoClone();
         int nsegs = p2d.getNumCommands();
@@ -146,6 +180,5 @@ public class OpenPiscesPrismUtils {
             }
         }
         pc2d.pathDone();
-        return savedRenderer;
     }
 }
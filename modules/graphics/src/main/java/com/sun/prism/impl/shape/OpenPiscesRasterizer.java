@@ -30,11 +30,13 @@ import com.sun.javafx.geom.Path2D;
 import com.sun.javafx.geom.Rectangle;
 import com.sun.javafx.geom.Shape;
 import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.javafx.runtime.async.BackgroundExecutor;
 import com.sun.openpisces.AlphaConsumer;
 import com.sun.openpisces.Renderer;
 import com.sun.prism.BasicStroke;
 import com.sun.prism.impl.PrismSettings;
 import java.nio.ByteBuffer;
+import java.util.concurrent.RecursiveAction;
 
 public class OpenPiscesRasterizer implements ShapeRasterizer {
     private static MaskData emptyData = MaskData.create(new byte[1], 0, 0, 1, 1);
@@ -101,10 +103,52 @@ public class OpenPiscesRasterizer implements ShapeRasterizer {
             }
         }
         consumer.setBoundsNoClone(outpix_xmin, outpix_ymin, w, h);
-        renderer.produceAlphas(consumer);
+        if (PrismSettings.parallelRaster &&
+            w * h >= PrismSettings.parallelRasterThreshold &&
+            h > PrismSettings.parallelRasterBandHeight)
+        {
+            consumer.setMaxAlpha(renderer.getMaxAlpha());
+            BackgroundExecutor.getForkJoinPool().invoke(
+                    new BandTask(renderer, consumer, outpix_ymin, outpix_ymax));
+        } else {
+            renderer.produceAlphas(consumer);
+        }
         return consumer.getMaskData();
     }
 
+    /**
+     * Splits the rows of a shape into bands no taller than
+     * {@code PrismSettings.parallelRasterBandHeight} and produces the alphas
+     * of each band into the shared consumer.  Each band writes a disjoint
+     * set of rows of the consumer's alpha array.
+     */
+    private static class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Renderer renderer;
+        private final Consumer consumer;
+        private final int pix_y0, pix_y1;
+
+        BandTask(Renderer renderer, Consumer consumer, int pix_y0, int pix_y1) {
+            this.renderer = renderer;
+            this.consumer = consumer;
+            this.pix_y0 = pix_y0;
+            this.pix_y1 = pix_y1;
+        }
+
+        @Override
+        protected void compute() {
+            int h = pix_y1 - pix_y0;
+            if (h <= PrismSettings.parallelRasterBandHeight) {
+                renderer.produceAlphas(consumer, pix_y0, pix_y1);
+            } else {
+                int pix_ymid = pix_y0 + h / 2;
+                invokeAll(new BandTask(renderer, consumer, pix_y0, pix_ymid),
+                          new BandTask(renderer, consumer, pix_ymid, pix_y1));
+            }
+        }
+    }
+
     private static class Consumer implements AlphaConsumer {
         static byte savedAlphaMap[];
         int x, y, width, height;
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl.shape;
+
+import com.sun.javafx.geom.Path2D;
+import com.sun.prism.BasicStroke;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the outlines produced by the Pisces Dasher and Stroker.
+ *
+ * Both stages work in user space (the transform is applied to their
+ * output), so the outline of a stroked path only depends on the geometry
+ * of the path and on the stroke.  Outlines are keyed on a copy of both,
+ * which means that a path whose geometry has changed simply no longer
+ * matches its old entry.  Entries are evicted in least recently used order
+ * once the total number of coordinates of the cached outlines exceeds the
+ * limit given to the constructor.
+ *
+ * A path is only stroked into an outline for the cache the second time it
+ * is seen with the same geometry and stroke, so that paths which change on
+ * every frame do not pay for the extra copy.  The first time only the hash
+ * of the path and stroke is recorded, among a bounded number of others.
+ */
+final class StrokeOutlineCache {
+
+    private static final class Key {
+        final Path2D path;
+        final BasicStroke stroke;
+        final int hash;
+
+        Key(Path2D path, BasicStroke stroke) {
+            this.path = path;
+            this.stroke = stroke;
+            this.hash = 31 * path.hashCode() + stroke.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash &&
+                   stroke.equals(other.stroke) &&
+                   path.equals(other.path);
+        }
+    }
+
+    private static final class Entry {
+        final Path2D outline;
+        final int size;
+
+        Entry(Path2D outline, int size) {
+            this.outline = outline;
+            this.size = size;
+        }
+    }
+
+    // number of hashes of the paths seen once which are remembered
+    private static final int MAX_SEEN = 256;
+
+    private final long maxSize;
+    private final LinkedHashMap<Key, Entry> entries =
+        new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    private final LinkedHashMap<Integer, Boolean> seen =
+        new LinkedHashMap<Integer, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+                return size() > MAX_SEEN;
+            }
+        };
+    private long totalSize;
+    private Key pending;
+
+    StrokeOutlineCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached outline for the given path and stroke, or null.
+     * When null is returned and {@link #isWanted()} returns true, the caller
+     * should stroke the path into a new {@code Path2D} and hand it to
+     * {@link #put(Path2D)}.
+     */
+    Path2D get(Path2D path, BasicStroke stroke) {
+        pending = null;
+        if (path.getFloatCoordsNoClone().length > maxSize) {
+            return null;
+        }
+        // The key is made of the live path and stroke, they are only
+        // copied once they are seen a second time.
+        Key key = new Key(path, stroke);
+        Entry e = entries.get(key);
+        if (e != null) {
+            return e.outline;
+        }
+        if (seen.remove(key.hash) == null) {
+            seen.put(key.hash, Boolean.TRUE);
+            return null;
+        }
+        // another path may have the same hash, in which case an outline
+        // is cached for a path seen only once
+        pending = new Key(new Path2D(path), stroke.copy());
+        return null;
+    }
+
+    /**
+     * Returns true if the path passed to the last call to
+     * {@link #get(Path2D, BasicStroke)} should have its outline cached.
+     */
+    boolean isWanted() {
+        return pending != null;
+    }
+
+    void put(Path2D outline) {
+        if (pending != null) {
+            int size = pending.path.getFloatCoordsNoClone().length +
+                       outline.getFloatCoordsNoClone().length;
+            if (size <= maxSize) {
+                add(pending, new Entry(outline, size));
+            }
+        }
+        pending = null;
+    }
+
+    private void add(Key key, Entry e) {
+        Entry old = entries.put(key, e);
+        if (old != null) {
+            totalSize -= old.size;
+        }
+        totalSize += e.size;
+        Iterator<Entry> it = entries.values().iterator();
+        while (totalSize > maxSize && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest == e) {
+                break;
+            }
+            totalSize -= eldest.size;
+            it.remove();
+        }
+    }
+}
@@ -111,9 +111,12 @@ class SWArgbPreTexture extends SWTexture {
                 throw new UnsupportedOperationException("!!! UNSUPPORTED PIXEL FORMAT: " + format);
         }
 
+        // srcx is in pixels, but the offset is in elements of the buffer
+        int srcxelems = (format.getDataType() == PixelFormat.DataType.INT)
+                        ? srcx : srcx * format.getBytesPerPixelUnit();
         PixelConverter converter = PixelUtils.getConverter(getter, IntArgbPre.setter);
         buffer.position(0);
-        converter.convert(buffer, (srcy * srcscan) + srcx, srcscan,
+        converter.convert(buffer, (srcy * srcscan) + srcxelems, srcscan,
                           IntBuffer.wrap(this.data), (dsty * physicalWidth) + dstx, physicalWidth, srcw, srch);
     }
 
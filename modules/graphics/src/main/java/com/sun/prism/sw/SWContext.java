@@ -25,6 +25,7 @@
 
 package com.sun.prism.sw;
 
+import com.sun.javafx.geom.RectBounds;
 import com.sun.javafx.geom.Rectangle;
 import com.sun.javafx.geom.Shape;
 import com.sun.javafx.geom.transform.BaseTransform;
@@ -101,14 +102,43 @@ final class SWContext {
 
     class JavaShapeRenderer implements ShapeRenderer {
         private final DirectRTPiscesAlphaConsumer alphaConsumer = new DirectRTPiscesAlphaConsumer();
+        // Large shapes are rasterized into a mask first, which lets the
+        // rasterizer split them into bands on several threads (the rows
+        // are otherwise streamed straight into the single PiscesRenderer).
+        private NativeShapeRenderer maskRenderer;
+        private RectBounds tmpBounds = new RectBounds();
 
         public void renderShape(PiscesRenderer pr, Shape shape, BasicStroke stroke, BaseTransform tr, Rectangle clip) {
+            if (PrismSettings.parallelRaster && isLargeShape(shape, stroke, tr, clip)) {
+                if (maskRenderer == null) {
+                    maskRenderer = new NativeShapeRenderer();
+                }
+                maskRenderer.renderShape(pr, shape, stroke, tr, clip);
+                return;
+            }
             final Renderer r = OpenPiscesPrismUtils.setupRenderer(shape, stroke, tr, clip);
             alphaConsumer.initConsumer(r, pr);
             r.produceAlphas(alphaConsumer);
         }
 
-        public void dispose() { }
+        boolean isLargeShape(Shape shape, BasicStroke stroke, BaseTransform tr, Rectangle clip) {
+            RectBounds bounds = shape.getBounds();
+            if (stroke != null) {
+                float pad = stroke.getLineWidth();
+                bounds.grow(pad, pad);
+            }
+            tmpBounds = (RectBounds) tr.transform(bounds, tmpBounds);
+            tmpBounds.intersectWith(clip);
+            return !tmpBounds.isEmpty() &&
+                   tmpBounds.getWidth() * tmpBounds.getHeight() >= PrismSettings.parallelRasterThreshold;
+        }
+
+        public void dispose() {
+            if (maskRenderer != null) {
+                maskRenderer.dispose();
+                maskRenderer = null;
+            }
+        }
     }
 
     SWContext(ResourceFactory factory) {
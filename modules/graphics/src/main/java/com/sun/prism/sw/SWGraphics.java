@@ -51,6 +51,7 @@ import com.sun.pisces.RendererBase;
 import com.sun.pisces.Transform6;
 import com.sun.prism.BasicStroke;
 import com.sun.prism.CompositeMode;
+import com.sun.prism.Mipmaps;
 import com.sun.prism.PixelFormat;
 import com.sun.prism.RTTexture;
 import com.sun.prism.ReadbackGraphics;
@@ -645,6 +646,21 @@ final class SWGraphics implements ReadbackGraphics {
                             float dx1, float dy1, float dx2, float dy2,
                             float sx1, float sy1, float sx2, float sy2)
     {
+        // sample a smaller copy of the texture when it is minified
+        final Mipmaps mipmaps = tex.getMipmaps();
+        if (mipmaps != null) {
+            final int level = Mipmaps.getLevel(tx, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2);
+            final Texture mip = (level > 0) ? mipmaps.lockLevel(level) : null;
+            if (mip != null) {
+                this.drawTexture(mip, dx1, dy1, dx2, dy2,
+                        mipmaps.toLevelX(mip, sx1), mipmaps.toLevelY(mip, sy1),
+                        mipmaps.toLevelX(mip, sx2), mipmaps.toLevelY(mip, sy2),
+                        RendererBase.IMAGE_FRAC_EDGE_KEEP, RendererBase.IMAGE_FRAC_EDGE_KEEP,
+                        RendererBase.IMAGE_FRAC_EDGE_KEEP, RendererBase.IMAGE_FRAC_EDGE_KEEP);
+                mip.unlock();
+                return;
+            }
+        }
         this.drawTexture(tex, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2,
                 RendererBase.IMAGE_FRAC_EDGE_KEEP, RendererBase.IMAGE_FRAC_EDGE_KEEP,
                 RendererBase.IMAGE_FRAC_EDGE_KEEP, RendererBase.IMAGE_FRAC_EDGE_KEEP);
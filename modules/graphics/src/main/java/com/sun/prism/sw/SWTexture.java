@@ -26,6 +26,7 @@
 package com.sun.prism.sw;
 
 import com.sun.prism.Image;
+import com.sun.prism.Mipmaps;
 import com.sun.prism.PixelFormat;
 import com.sun.prism.Texture;
 import com.sun.prism.impl.PrismSettings;
@@ -45,6 +46,7 @@ abstract class SWTexture implements Texture {
     int physicalWidth, physicalHeight, contentWidth, contentHeight;
     private SWResourceFactory factory;
     private int lastImageSerial;
+    private Mipmaps mipmaps;
     private final WrapMode wrapMode;
 
     SWTexture(SWResourceFactory factory, WrapMode wrapMode, int w, int h) {
@@ -183,6 +185,14 @@ abstract class SWTexture implements Texture {
         return getPhysicalHeight();
     }
 
+    public Mipmaps getMipmaps() {
+        return mipmaps;
+    }
+
+    public void setMipmaps(Mipmaps mipmaps) {
+        this.mipmaps = mipmaps;
+    }
+
     public int getLastImageSerial() {
         return lastImageSerial;
     }
@@ -29,8 +29,13 @@ import java.lang.ref.SoftReference;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import com.sun.scenario.effect.Filterable;
 
 /**
@@ -38,16 +43,47 @@ import com.sun.scenario.effect.Filterable;
  * various {@code EffectPeer} implementations.  Image allocation can be
  * a fairly expensive operation (in terms of footprint and performance),
  * especially for the GPU backends, so image reuse is critical.
+ * <p>
+ * Images are allocated in a fixed set of size classes (see
+ * {@link #sizeClass(int)}) and the unused images are kept in a bucket per
+ * size class.  A request is satisfied only by an image of its own size
+ * class.  When the unused images take up more than
+ * {@code decora.poolsize} bytes, the least recently used ones are flushed.
  */
 public class ImagePool {
 
     public static long numEffects;
-    static long numCreated;
-    static long pixelsCreated;
-    static long numAccessed;
-    static long pixelsAccessed;
+    // updated by every pool, from whichever thread uses it
+    static final AtomicLong numCreated = new AtomicLong();
+    static final AtomicLong pixelsCreated = new AtomicLong();
+    static final AtomicLong numAccessed = new AtomicLong();
+    static final AtomicLong pixelsAccessed = new AtomicLong();
+    static final AtomicLong numHits = new AtomicLong();
+    static final AtomicLong numMisses = new AtomicLong();
+    static final AtomicLong numEvicted = new AtomicLong();
+    static final AtomicLong bytesPooled = new AtomicLong();
+    static final AtomicLong numInPurgatory = new AtomicLong();
+    // guarded by the ImagePool class, see retain() and release()
+    static volatile long pixelsRetained;
+
+    // The number of bytes that the unused images in each pool may take up
+    private static final long maxPoolBytes;
+
+    // The number of pixels that may be held on to, outside of the pool,
+    // by caches of effect results (see retain() and release()).
+    private static final long retainBudget;
 
     static {
+        maxPoolBytes = AccessController.doPrivileged(new PrivilegedAction<Long>() {
+            public Long run() {
+                return Long.getLong("decora.poolsize", 64L * 1024 * 1024);
+            }
+        });
+        retainBudget = AccessController.doPrivileged(new PrivilegedAction<Long>() {
+            public Long run() {
+                return Long.getLong("decora.retainpixels", 4L * 1024 * 1024);
+            }
+        });
         AccessController.doPrivileged(new PrivilegedAction() {
             public Object run() {
                 if (System.getProperty("decora.showstats") != null) {
@@ -68,20 +104,85 @@ public class ImagePool {
         System.out.println("pixels created:    " + pixelsCreated);
         System.out.println("images accessed:   " + numAccessed);
         System.out.println("pixels accessed:   " + pixelsAccessed);
+        System.out.println("pixels retained:   " + pixelsRetained);
+        System.out.println("pool hits:         " + numHits);
+        System.out.println("pool misses:       " + numMisses);
+        System.out.println("images evicted:    " + numEvicted);
+        System.out.println("bytes pooled:      " + bytesPooled);
         if (numEffects != 0) { 
-            double avgImgs = ((double) numAccessed) / numEffects;
-            double avgPxls = ((double) pixelsAccessed) / numEffects;
+            double avgImgs = ((double) numAccessed.get()) / numEffects;
+            double avgPxls = ((double) pixelsAccessed.get()) / numEffects;
             System.out.println("images per effect: " + avgImgs);
             System.out.println("pixels per effect: " + avgPxls);
         }
     }
 
+    /**
+     * Reserves room in the retained pixel budget for a cache which wants
+     * to hold on to an image with the given number of pixels, rather than
+     * returning it to the pool after use.  If this method returns true,
+     * the caller must call {@link #release(long)} with the same number of
+     * pixels when it lets go of the image.
+     *
+     * @param pixels the number of pixels to be retained
+     * @return true if the pixels fit within the budget
+     */
+    public static synchronized boolean retain(long pixels) {
+        if (pixelsRetained + pixels > retainBudget) {
+            return false;
+        }
+        pixelsRetained += pixels;
+        return true;
+    }
+
+    /**
+     * Returns pixels reserved by an earlier call to {@link #retain(long)}
+     * to the retained pixel budget.
+     *
+     * @param pixels the number of pixels that were retained
+     */
+    public static synchronized void release(long pixels) {
+        pixelsRetained -= pixels;
+    }
+
     static final int QUANT = 32;
 
-    private final List<SoftReference<Filterable>> unlocked =
-        new ArrayList<SoftReference<Filterable>>();
-    private final List<SoftReference<Filterable>> locked =
-        new ArrayList<SoftReference<Filterable>>();
+    /**
+     * Rounds the given image dimension up to its size class.  Dimensions
+     * are rounded up to a multiple of {@code QUANT}, and above
+     * {@code 4 * QUANT} to one of four steps per power of two, so that
+     * no more than a quarter of each dimension is wasted.
+     */
+    static int sizeClass(int v) {
+        int step = Math.max(QUANT, Integer.highestOneBit(v - 1) / 4);
+        return ((v + step - 1) / step) * step;
+    }
+
+    /**
+     * A pooled image, along with the size class under which it is filed.
+     */
+    private static final class Entry extends SoftReference<Filterable> {
+        final Long key;
+        final long bytes;
+        final Integer id;
+
+        Entry(Filterable img, Long key, int w, int h) {
+            super(img);
+            this.key = key;
+            this.bytes = ((long) w) * h * 4;
+            this.id = System.identityHashCode(img);
+        }
+    }
+
+    // unused images, by size class
+    private final Map<Long, List<Entry>> unlocked =
+        new HashMap<Long, List<Entry>>();
+    // unused images, least recently used first
+    private final LinkedHashSet<Entry> lru = new LinkedHashSet<Entry>();
+    private long unlockedBytes;
+    // images in use, by identity hash code
+    private final Map<Integer, List<Entry>> locked =
+        new HashMap<Integer, List<Entry>>();
 
     // On Canmore with the PowerVR SGX chip, there is a driver issue
     // that causes incorrect rendering if one tries to reuse an FBO
@@ -99,8 +200,7 @@ public class ImagePool {
     // (where there would normally be reuse).
     private final boolean usePurgatory = Boolean.getBoolean("decora.purgatory");
     private final List<Filterable> hardPurgatory = new ArrayList<Filterable>();
-    private final List<SoftReference<Filterable>> softPurgatory =
-        new ArrayList<SoftReference<Filterable>>();
+    private final List<Entry> softPurgatory = new ArrayList<Entry>();
 
     /**
      * Package-private constructor.
@@ -113,69 +213,49 @@ public class ImagePool {
             // if image is empty in any way, return a small non-empty image.
             w = h = 1;
         }
-        // Allocate images rounded up to the nearest quantum size threshold.
-        w = ((w + QUANT - 1) / QUANT) * QUANT;
-        h = ((h + QUANT - 1) / QUANT) * QUANT;
+        // Allocate images rounded up to the nearest size class.
+        w = sizeClass(w);
+        h = sizeClass(h);
 
         // Adjust allocation sizes for platform requirements (pow2 etc.)
         w = renderer.getCompatibleWidth(w);
         h = renderer.getCompatibleHeight(h);
 
-        numAccessed++;
-        pixelsAccessed += ((long) w) * h;
-        // first look for an already cached image of sufficient size,
-        // choosing the one that is closest in size to the requested dimensions
-        SoftReference<Filterable> chosenEntry = null;
-        Filterable chosenImage = null;
-        int mindiff = Integer.MAX_VALUE;
-        Iterator<SoftReference<Filterable>> entries = unlocked.iterator();
-        while (entries.hasNext()) {
-            SoftReference<Filterable> entry = entries.next();
+        numAccessed.incrementAndGet();
+        pixelsAccessed.addAndGet(((long) w) * h);
+        // first look for an unused image of the same size class
+        Long key = Long.valueOf((((long) w) << 32) | h);
+        List<Entry> bucket = unlocked.get(key);
+        while (bucket != null && !bucket.isEmpty()) {
+            Entry entry = bucket.remove(bucket.size() - 1);
+            removeUnlocked(entry);
             Filterable eimg = entry.get();
             if (eimg == null) {
-                entries.remove();
                 continue;
             }
-            int ew = eimg.getMaxContentWidth();
-            int eh = eimg.getMaxContentHeight();
-            if (ew >= w && eh >= h && ew * eh / 2 <= w * h) {
-                int diff = (ew-w) * (eh-h);
-                if (chosenEntry == null || diff < mindiff) {
-                    eimg.lock();
-                    if (eimg.isLost()) {
-                        entries.remove();
-                        continue;
-                    }
-                    if (chosenImage != null) {
-                        chosenImage.unlock();
-                    }
-                    chosenEntry = entry;
-                    // The following calls to setContentWidth / setContentHeight
-                    // should be uncommented only after the rest of the imagepool
-                    // is fixed to handle a change in content size, and when both the
-                    // SW pipeline and J2D pipeline are able to handle the change.
-//                    eimg.setContentWidth(w);
-//                    eimg.setContentHeight(h);
-                    chosenImage = eimg;
-                    mindiff = diff;
-                }
+            eimg.lock();
+            if (eimg.isLost()) {
+                continue;
             }
+            addLocked(entry);
+            numHits.incrementAndGet();
+            renderer.clearImage(eimg);
+            return eimg;
         }
-
-        if (chosenEntry != null) {
-            unlocked.remove(chosenEntry);
-            locked.add(chosenEntry);
-            renderer.clearImage(chosenImage);
-            return chosenImage;
-        }
+        numMisses.incrementAndGet();
 
         // get rid of expired entries from locked list
-        entries = locked.iterator();
-        while (entries.hasNext()) {
-            SoftReference<Filterable> entry = entries.next();
-            Filterable eimg = entry.get();
-            if (eimg == null) {
-                entries.remove();
+        Iterator<List<Entry>> buckets = locked.values().iterator();
+        while (buckets.hasNext()) {
+            List<Entry> ids = buckets.next();
+            Iterator<Entry> entries = ids.iterator();
+            while (entries.hasNext()) {
+                if (entries.next().get() == null) {
+                    entries.remove();
+                }
+            }
+            if (ids.isEmpty()) {
+                buckets.remove();
             }
         }
 
@@ -193,32 +273,38 @@ public class ImagePool {
             } catch (OutOfMemoryError e) {}
         }
         if (img != null) {
-            locked.add(new SoftReference<Filterable>(img));
-            numCreated++;
-            pixelsCreated += ((long) w) * h;
+            addLocked(new Entry(img, key, w, h));
+            numCreated.incrementAndGet();
+            pixelsCreated.addAndGet(((long) w) * h);
         }
         return img;
     }
 
     public synchronized void checkIn(Filterable img) {
-        SoftReference<Filterable> chosenEntry = null;
+        Entry chosenEntry = null;
         Filterable chosenImage = null;
-        Iterator<SoftReference<Filterable>> entries = locked.iterator();
+        Integer id = System.identityHashCode(img);
+        List<Entry> ids = locked.get(id);
+        Iterator<Entry> entries =
+            ids != null ? ids.iterator() : Collections.<Entry>emptyIterator();
         while (entries.hasNext()) {
-            SoftReference<Filterable> entry = entries.next();
+            Entry entry = entries.next();
             Filterable eimg = entry.get();
             if (eimg == null) {
                 entries.remove();
             } else if (eimg == img) {
+                entries.remove();
                 chosenEntry = entry;
                 chosenImage = eimg;
                 img.unlock();
                 break;
             }
         }
+        if (ids != null && ids.isEmpty()) {
+            locked.remove(id);
+        }
 
         if (chosenEntry != null) {
-            locked.remove(chosenEntry);
             if (usePurgatory) {
                 // hold the entry in purgatory instead of releasing it back
                 // to the unlocked pool immediately; it will be released
@@ -228,8 +314,9 @@ public class ImagePool {
 //                    chosenImage.getPhysicalHeight());
                 hardPurgatory.add(chosenImage);
                 softPurgatory.add(chosenEntry);
+                numInPurgatory.incrementAndGet();
             } else {
-                unlocked.add(chosenEntry);
+                addUnlocked(chosenEntry);
             }
         }
     }
@@ -238,21 +325,72 @@ public class ImagePool {
         if (usePurgatory && !softPurgatory.isEmpty()) {
 //            System.err.println("==> Releasing " + softPurgatory.size() + " entries from purgatory!");
             // release images kept in purgatory back into the unlocked pool
-            unlocked.addAll(softPurgatory);
+            numInPurgatory.addAndGet(-softPurgatory.size());
+            for (Entry entry : softPurgatory) {
+                addUnlocked(entry);
+            }
             softPurgatory.clear();
             hardPurgatory.clear();
         }
     }
 
-    private void pruneCache() {
-        // flush all unlocked images
-        for (SoftReference<Filterable> r : unlocked) {
-            Filterable image = r.get();
+    private void addLocked(Entry entry) {
+        List<Entry> ids = locked.get(entry.id);
+        if (ids == null) {
+            ids = new ArrayList<Entry>(1);
+            locked.put(entry.id, ids);
+        }
+        ids.add(entry);
+    }
+
+    private void addUnlocked(Entry entry) {
+        List<Entry> bucket = unlocked.get(entry.key);
+        if (bucket == null) {
+            bucket = new ArrayList<Entry>();
+            unlocked.put(entry.key, bucket);
+        }
+        bucket.add(entry);
+        lru.add(entry);
+        unlockedBytes += entry.bytes;
+        bytesPooled.addAndGet(entry.bytes);
+        // flush the least recently used images if we are over the limit
+        Iterator<Entry> entries = lru.iterator();
+        while (unlockedBytes > maxPoolBytes && entries.hasNext()) {
+            Entry oldest = entries.next();
+            entries.remove();
+            unlocked.get(oldest.key).remove(oldest);
+            unlockedBytes -= oldest.bytes;
+            bytesPooled.addAndGet(-oldest.bytes);
+            Filterable image = oldest.get();
+            if (image != null) {
+                image.flush();
+                numEvicted.incrementAndGet();
+            }
+        }
+    }
+
+    private void removeUnlocked(Entry entry) {
+        lru.remove(entry);
+        unlockedBytes -= entry.bytes;
+        bytesPooled.addAndGet(-entry.bytes);
+    }
+
+    private void flushUnlocked() {
+        for (Entry entry : lru) {
+            Filterable image = entry.get();
             if (image != null) {
                 image.flush();
             }
         }
+        lru.clear();
         unlocked.clear();
+        bytesPooled.addAndGet(-unlockedBytes);
+        unlockedBytes = 0;
+    }
+
+    private void pruneCache() {
+        // flush all unlocked images
+        flushUnlocked();
         // this is to help to free up space held by those images that we no
         // longer have references to
         System.gc();
@@ -262,13 +400,7 @@ public class ImagePool {
     }
 
     public synchronized void dispose() {
-        for (SoftReference<Filterable> r : unlocked) {
-            Filterable image = r.get();
-            if (image != null) {
-                image.flush();
-            }
-        }
-        unlocked.clear();
+        flushUnlocked();
         // not flushing the locked ones, just clearing references to them
         locked.clear();
     }
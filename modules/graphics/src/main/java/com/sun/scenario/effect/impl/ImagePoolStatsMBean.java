@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.scenario.effect.impl;
+
+/**
+ * The statistics of the {@link ImagePool}s of all of the renderers, as
+ * seen through JMX.
+ */
+public interface ImagePoolStatsMBean {
+    public long getImagesCreated();
+
+    public long getPixelsCreated();
+
+    // requests which were satisfied by an unused image in the pool
+    public long getHits();
+
+    // requests for which a new image had to be created
+    public long getMisses();
+
+    // unused images flushed to keep the pool under its size limit
+    public long getEvictions();
+
+    public long getBytesPooled();
+
+    public long getPurgatorySize();
+
+    // pixels held on to by caches of effect results
+    public long getPixelsRetained();
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.scenario.effect.impl.prism;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import com.sun.glass.ui.Screen;
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.prism.Graphics;
+import com.sun.prism.Texture;
+import com.sun.scenario.effect.Effect;
+import com.sun.scenario.effect.FilterContext;
+import com.sun.scenario.effect.ImageData;
+import com.sun.scenario.effect.impl.ImagePool;
+
+/**
+ * Holds on to the result of applying an effect to some content so that it
+ * can be rendered again, without reapplying the effect, for as long as the
+ * content and the effect stay the same.  The owner of the cache must call
+ * {@link #invalidate()} whenever either of them changes.
+ * <p>
+ * The cached result is computed for the whole of the content rather than
+ * just the part which is inside the clip, and it is reused as long as the
+ * transform differs from the one it was computed with only by a whole
+ * number of pixels of translation, so that moving the content around, for
+ * example by scrolling it, does not cause the effect to be recomputed.
+ * The result is only cached once the content has been rendered twice in a
+ * row without changes, so that content which changes on every frame does
+ * not pay for the unclipped effect.  The cached images count against the
+ * retained pixel budget of the {@link ImagePool}.
+ */
+public class PrEffectCache {
+
+    private static final boolean enabled = AccessController.doPrivileged(
+            new PrivilegedAction<Boolean>() {
+
+        public Boolean run() {
+            return !"false".equals(System.getProperty("decora.effectcache"));
+        }
+
+    });
+
+    private ImageData cachedData;
+    private long cachedPixels;
+
+    // The filter context and transform of the last rendering, which are
+    // also those of the cached data if there is any.
+    private FilterContext lastContext;
+    private double lastMxx, lastMxy, lastMyx, lastMyy, lastMxt, lastMyt;
+    // True if nothing has changed since the last rendering.
+    private boolean stable;
+
+    /**
+     * Renders the given effect to the given {@code Graphics} at its current
+     * transform, using the cached result if it is still valid.
+     *
+     * @param effect the effect to be rendered
+     * @param g the {@code Graphics} to which the {@code Effect} will be
+     *          rendered
+     * @param defaultInput the default input {@code Effect} for the chain
+     */
+    public void render(Effect effect, Graphics g, Effect defaultInput) {
+        BaseTransform xform = g.getTransformNoClone();
+        Screen screen = g.getAssociatedScreen();
+        if (!enabled || screen == null || !xform.is2D()) {
+            invalidate();
+            renderEffect(effect, g, defaultInput);
+            return;
+        }
+        render(effect, g, xform, PrFilterContext.getInstance(screen), defaultInput);
+    }
+
+    void render(Effect effect, Graphics g, BaseTransform xform,
+                FilterContext fctx, Effect defaultInput)
+    {
+        if (!matches(fctx, xform)) {
+            invalidate();
+        }
+        if (cachedData != null) {
+            if (cachedData.validate(fctx)) {
+                drawResult(g, cachedData,
+                           xform.getMxt() - lastMxt,
+                           xform.getMyt() - lastMyt);
+                return;
+            }
+            invalidate();
+        }
+        if (!stable || !filterAndCache(effect, g, xform, fctx, defaultInput)) {
+            renderEffect(effect, g, defaultInput);
+        }
+        lastContext = fctx;
+        lastMxx = xform.getMxx();
+        lastMxy = xform.getMxy();
+        lastMyx = xform.getMyx();
+        lastMyy = xform.getMyy();
+        lastMxt = xform.getMxt();
+        lastMyt = xform.getMyt();
+        stable = true;
+    }
+
+    /**
+     * Releases the cached result, if any, so that the effect is applied
+     * again the next time it is rendered.
+     */
+    public void invalidate() {
+        if (cachedData != null) {
+            cachedData.unref();
+            cachedData = null;
+            ImagePool.release(cachedPixels);
+            cachedPixels = 0;
+        }
+        stable = false;
+    }
+
+    private boolean matches(FilterContext fctx, BaseTransform xform) {
+        if (fctx != lastContext ||
+            xform.getMxx() != lastMxx || xform.getMxy() != lastMxy ||
+            xform.getMyx() != lastMyx || xform.getMyy() != lastMyy)
+        {
+            return false;
+        }
+        // Only whole pixel moves can reuse the same pixels exactly
+        double dx = xform.getMxt() - lastMxt;
+        double dy = xform.getMyt() - lastMyt;
+        return dx == Math.rint(dx) && dy == Math.rint(dy);
+    }
+
+    private boolean filterAndCache(Effect effect, Graphics g, BaseTransform xform,
+                                   FilterContext fctx, Effect defaultInput)
+    {
+        BaseTransform transform = xform.copy();
+        Rectangle bounds = new Rectangle(effect.getBounds(transform, defaultInput));
+        long pixels = ((long) bounds.width) * bounds.height;
+        if (pixels <= 0 || !ImagePool.retain(pixels)) {
+            return false;
+        }
+        ImagePool.numEffects++;
+        ImageData res = effect.filter(fctx, transform, null, null, defaultInput);
+        if (res == null || !res.validate(fctx)) {
+            if (res != null) {
+                res.unref();
+            }
+            ImagePool.release(pixels);
+            return false;
+        }
+        cachedData = res;
+        cachedPixels = pixels;
+        drawResult(g, res, 0, 0);
+        return true;
+    }
+
+    // applies the effect without caching its result
+    void renderEffect(Effect effect, Graphics g, Effect defaultInput) {
+        PrEffectHelper.render(effect, g, 0, 0, defaultInput);
+    }
+
+    void drawResult(Graphics g, ImageData res, double dx, double dy) {
+        BaseTransform origtx = g.getTransformNoClone().copy();
+        Rectangle r = res.getUntransformedBounds();
+        Texture tex = ((PrTexture) res.getUntransformedImage()).getTextureObject();
+        // the result was produced in device space, so it only needs to be
+        // moved by however far the content has moved since then
+        g.setTransform(null);
+        g.translate((float) dx, (float) dy);
+        g.transform(res.getTransform());
+        g.drawTexture(tex, r.x, r.y, r.width, r.height);
+        g.setTransform(origtx);
+    }
+}
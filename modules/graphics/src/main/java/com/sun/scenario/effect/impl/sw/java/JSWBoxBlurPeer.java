@@ -117,14 +117,42 @@ public class JSWBoxBlurPeer extends JSWEffectPeer {
         return new ImageData(getFilterContext(), cur, resBounds);
     }
 
-    protected void filterHorizontal(int dstPixels[], int dstw, int dsth, int dstscan,
-                                    int srcPixels[], int srcw, int srch, int srcscan)
+    protected void filterHorizontal(final int dstPixels[], final int dstw, final int dsth, final int dstscan,
+                                    final int srcPixels[], final int srcw, final int srch, final int srcscan)
+    {
+        filterLines(dsth, dstw, new LineFilter() {
+            public void filterLines(int y0, int y1) {
+                filterHorizontal(dstPixels, dstw, dstscan,
+                                 srcPixels, srcw, srcscan,
+                                 y0, y1);
+            }
+        });
+    }
+
+    protected void filterVertical(final int dstPixels[], final int dstw, final int dsth, final int dstscan,
+                                  final int srcPixels[], final int srcw, final int srch, final int srcscan)
+    {
+        filterLines(dstw, dsth, new LineFilter() {
+            public void filterLines(int x0, int x1) {
+                filterVertical(dstPixels, dsth, dstscan,
+                               srcPixels, srch, srcscan,
+                               x0, x1);
+            }
+        });
+    }
+
+    /**
+     * Filters the rows from y0 to y1 of the horizontal pass.
+     */
+    private static void filterHorizontal(int dstPixels[], int dstw, int dstscan,
+                                         int srcPixels[], int srcw, int srcscan,
+                                         int y0, int y1)
     {
         int hsize = dstw - srcw + 1;
         int kscale = 0x7fffffff / (hsize * 255);
-        int srcoff = 0;
-        int dstoff = 0;
-        for (int y = 0; y < dsth; y++) {
+        int srcoff = y0 * srcscan;
+        int dstoff = y0 * dstscan;
+        for (int y = y0; y < y1; y++) {
             int suma = 0;
             int sumr = 0;
             int sumg = 0;
@@ -154,41 +182,53 @@ public class JSWBoxBlurPeer extends JSWEffectPeer {
         }
     }
 
-    protected void filterVertical(int dstPixels[], int dstw, int dsth, int dstscan,
-                                  int srcPixels[], int srcw, int srch, int srcscan)
+    /**
+     * Filters the columns from x0 to x1 of the vertical pass.
+     * The columns are walked a row at a time, keeping the running sums
+     * of every column in an array, so that both the source and the
+     * destination are read and written sequentially.
+     */
+    private static void filterVertical(int dstPixels[], int dsth, int dstscan,
+                                       int srcPixels[], int srch, int srcscan,
+                                       int x0, int x1)
     {
         int vsize = dsth - srch + 1;
         int kscale = 0x7fffffff / (vsize * 255);
-        int voff = vsize * srcscan;
-        for (int x = 0; x < dstw; x++) {
-            int suma = 0;
-            int sumr = 0;
-            int sumg = 0;
-            int sumb = 0;
-            int srcoff = x;
-            int dstoff = x;
-            for (int y = 0; y < dsth; y++) {
-                int rgb;
-                // Un-accumulate the data for row-vsize location into the sums.
-                rgb = (srcoff >= voff) ? srcPixels[srcoff - voff] : 0;
-                suma -= (rgb >>> 24);
-                sumr -= (rgb >>  16) & 0xff;
-                sumg -= (rgb >>   8) & 0xff;
-                sumb -= (rgb       ) & 0xff;
-                // Accumulate the data for this row location into the sums.
-                rgb = (y < srch) ? srcPixels[srcoff] : 0;
-                suma += (rgb >>> 24);
-                sumr += (rgb >>  16) & 0xff;
-                sumg += (rgb >>   8) & 0xff;
-                sumb += (rgb       ) & 0xff;
-                dstPixels[dstoff] =
-                    (((suma * kscale) >> 23) << 24) +
-                    (((sumr * kscale) >> 23) << 16) +
-                    (((sumg * kscale) >> 23) <<  8) +
-                    (((sumb * kscale) >> 23)      );
-                srcoff += srcscan;
-                dstoff += dstscan;
+        int w = x1 - x0;
+        int sums[] = new int[w * 4];
+        int srcrow = x0;
+        int dstoff = x0;
+        for (int y = 0; y < dsth; y++) {
+            // Un-accumulate the data for row-vsize location into the sums.
+            if (y >= vsize) {
+                int srcoff = srcrow - vsize * srcscan;
+                for (int i = 0, j = 0; i < w; i++, j += 4) {
+                    int rgb = srcPixels[srcoff + i];
+                    sums[j  ] -= (rgb >>> 24);
+                    sums[j+1] -= (rgb >>  16) & 0xff;
+                    sums[j+2] -= (rgb >>   8) & 0xff;
+                    sums[j+3] -= (rgb       ) & 0xff;
+                }
+            }
+            // Accumulate the data for this row location into the sums.
+            if (y < srch) {
+                for (int i = 0, j = 0; i < w; i++, j += 4) {
+                    int rgb = srcPixels[srcrow + i];
+                    sums[j  ] += (rgb >>> 24);
+                    sums[j+1] += (rgb >>  16) & 0xff;
+                    sums[j+2] += (rgb >>   8) & 0xff;
+                    sums[j+3] += (rgb       ) & 0xff;
+                }
             }
+            for (int i = 0, j = 0; i < w; i++, j += 4) {
+                dstPixels[dstoff + i] =
+                    (((sums[j  ] * kscale) >> 23) << 24) +
+                    (((sums[j+1] * kscale) >> 23) << 16) +
+                    (((sums[j+2] * kscale) >> 23) <<  8) +
+                    (((sums[j+3] * kscale) >> 23)      );
+            }
+            srcrow += srcscan;
+            dstoff += dstscan;
         }
     }
 
@@ -146,9 +146,51 @@ public class JSWBoxShadowPeer extends JSWEffectPeer {
         return new ImageData(getFilterContext(), cur, resBounds);
     }
 
-    protected void filterHorizontalBlack(int dstPixels[], int dstw, int dsth, int dstscan,
-                                         int srcPixels[], int srcw, int srch, int srcscan,
-                                         float spread)
+    protected void filterHorizontalBlack(final int dstPixels[], final int dstw, final int dsth, final int dstscan,
+                                         final int srcPixels[], final int srcw, final int srch, final int srcscan,
+                                         final float spread)
+    {
+        filterLines(dsth, dstw, new LineFilter() {
+            public void filterLines(int y0, int y1) {
+                filterHorizontalBlack(dstPixels, dstw, dstscan,
+                                      srcPixels, srcw, srcscan,
+                                      spread, y0, y1);
+            }
+        });
+    }
+
+    protected void filterVerticalBlack(int dstPixels[], int dstw, int dsth, int dstscan,
+                                       int srcPixels[], int srcw, int srch, int srcscan,
+                                       float spread)
+    {
+        filterVertical(dstPixels, dstw, dsth, dstscan,
+                       srcPixels, srcw, srch, srcscan,
+                       spread, null);
+    }
+
+    /**
+     * Filters the vertical pass using the given premultiplied shadow
+     * color, or black if {@code shadowColor} is null.
+     */
+    protected void filterVertical(final int dstPixels[], final int dstw, final int dsth, final int dstscan,
+                                  final int srcPixels[], final int srcw, final int srch, final int srcscan,
+                                  final float spread, final float shadowColor[])
+    {
+        filterLines(dstw, dsth, new LineFilter() {
+            public void filterLines(int x0, int x1) {
+                filterVertical(dstPixels, dsth, dstscan,
+                               srcPixels, srch, srcscan,
+                               spread, shadowColor, x0, x1);
+            }
+        });
+    }
+
+    /**
+     * Filters the rows from y0 to y1 of the horizontal pass.
+     */
+    private static void filterHorizontalBlack(int dstPixels[], int dstw, int dstscan,
+                                              int srcPixels[], int srcw, int srcscan,
+                                              float spread, int y0, int y1)
     {
         int hsize = dstw - srcw + 1;
         // amax goes from hsize*255 to 255 as spread goes from 0 to 1
@@ -156,9 +198,9 @@ public class JSWBoxShadowPeer extends JSWEffectPeer {
         amax += (255 - amax) * spread;
         int kscale = 0x7fffffff / amax;
         int amin = (amax / 255);
-        int srcoff = 0;
-        int dstoff = 0;
-        for (int y = 0; y < dsth; y++) {
+        int srcoff = y0 * srcscan;
+        int dstoff = y0 * dstscan;
+        for (int y = y0; y < y1; y++) {
             int suma = 0;
             for (int x = 0; x < dstw; x++) {
                 int rgb;
@@ -179,83 +221,68 @@ public class JSWBoxShadowPeer extends JSWEffectPeer {
         }
     }
 
-    protected void filterVerticalBlack(int dstPixels[], int dstw, int dsth, int dstscan,
-                                       int srcPixels[], int srcw, int srch, int srcscan,
-                                       float spread)
-    {
-        int vsize = dsth - srch + 1;
-        // amax goes from hsize*255 to 255 as spread goes from 0 to 1
-        int amax = vsize * 255;
-        amax += (255 - amax) * spread;
-        int kscale = 0x7fffffff / amax;
-        int amin = (amax / 255);
-        int voff = vsize * srcscan;
-        for (int x = 0; x < dstw; x++) {
-            int suma = 0;
-            int srcoff = x;
-            int dstoff = x;
-            for (int y = 0; y < dsth; y++) {
-                int rgb;
-                // Un-accumulate the data for row-vsize location into the sums.
-                rgb = (srcoff >= voff) ? srcPixels[srcoff - voff] : 0;
-                suma -= (rgb >>> 24);
-                // Accumulate the data for this row location into the sums.
-                rgb = (y < srch) ? srcPixels[srcoff] : 0;
-                suma += (rgb >>> 24);
-                // Clamp, scale and convert the sum into a color.
-                dstPixels[dstoff] =
-                    ((suma < amin) ? 0
-                     : ((suma >= amax) ? 0xff000000
-                        : (((suma * kscale) >> 23) << 24)));
-                srcoff += srcscan;
-                dstoff += dstscan;
-            }
-        }
-    }
-
-    protected void filterVertical(int dstPixels[], int dstw, int dsth, int dstscan,
-                                  int srcPixels[], int srcw, int srch, int srcscan,
-                                  float spread, float shadowColor[])
+    /**
+     * Filters the columns from x0 to x1 of the vertical pass, a row at
+     * a time, keeping the running alpha sum of every column in an array.
+     */
+    private static void filterVertical(int dstPixels[], int dsth, int dstscan,
+                                       int srcPixels[], int srch, int srcscan,
+                                       float spread, float shadowColor[],
+                                       int x0, int x1)
     {
         int vsize = dsth - srch + 1;
         // amax goes from hsize*255 to 255 as spread goes from 0 to 1
         int amax = vsize * 255;
         amax += (255 - amax) * spread;
         int kscalea = 0x7fffffff / amax;
-        int kscaler = (int) (kscalea * shadowColor[0]);
-        int kscaleg = (int) (kscalea * shadowColor[1]);
-        int kscaleb = (int) (kscalea * shadowColor[2]);
-        kscalea *= shadowColor[3];
         int amin = (amax / 255);
-        int voff = vsize * srcscan;
-        int shadowRGB =
-            (((int) (shadowColor[0] * 255)) << 16) |
-            (((int) (shadowColor[1] * 255)) <<  8) |
-            (((int) (shadowColor[2] * 255))      ) |
-            (((int) (shadowColor[3] * 255)) << 24);
-        for (int x = 0; x < dstw; x++) {
-            int suma = 0;
-            int srcoff = x;
-            int dstoff = x;
-            for (int y = 0; y < dsth; y++) {
-                int rgb;
-                // Un-accumulate the data for row-vsize location into the sums.
-                rgb = (srcoff >= voff) ? srcPixels[srcoff - voff] : 0;
-                suma -= (rgb >>> 24);
-                // Accumulate the data for this row location into the sums.
-                rgb = (y < srch) ? srcPixels[srcoff] : 0;
-                suma += (rgb >>> 24);
-                // Clamp, scale and convert the sum into a color.
-                dstPixels[dstoff] =
+        int shadowRGB;
+        int kscaler, kscaleg, kscaleb;
+        if (shadowColor == null) {
+            shadowRGB = 0xff000000;
+            kscaler = kscaleg = kscaleb = 0;
+        } else {
+            kscaler = (int) (kscalea * shadowColor[0]);
+            kscaleg = (int) (kscalea * shadowColor[1]);
+            kscaleb = (int) (kscalea * shadowColor[2]);
+            kscalea *= shadowColor[3];
+            shadowRGB =
+                (((int) (shadowColor[0] * 255)) << 16) |
+                (((int) (shadowColor[1] * 255)) <<  8) |
+                (((int) (shadowColor[2] * 255))      ) |
+                (((int) (shadowColor[3] * 255)) << 24);
+        }
+        int w = x1 - x0;
+        int sums[] = new int[w];
+        int srcrow = x0;
+        int dstoff = x0;
+        for (int y = 0; y < dsth; y++) {
+            // Un-accumulate the data for row-vsize location into the sums.
+            if (y >= vsize) {
+                int srcoff = srcrow - vsize * srcscan;
+                for (int i = 0; i < w; i++) {
+                    sums[i] -= (srcPixels[srcoff + i] >>> 24);
+                }
+            }
+            // Accumulate the data for this row location into the sums.
+            if (y < srch) {
+                for (int i = 0; i < w; i++) {
+                    sums[i] += (srcPixels[srcrow + i] >>> 24);
+                }
+            }
+            // Clamp, scale and convert the sums into colors.
+            for (int i = 0; i < w; i++) {
+                int suma = sums[i];
+                dstPixels[dstoff + i] =
                     ((suma < amin) ? 0
                      : ((suma >= amax) ? shadowRGB
                         : ((((suma * kscalea) >> 23) << 24) |
                            (((suma * kscaler) >> 23) << 16) |
                            (((suma * kscaleg) >> 23) <<  8) |
                            (((suma * kscaleb) >> 23)      ))));
-                srcoff += srcscan;
-                dstoff += dstscan;
             }
+            srcrow += srcscan;
+            dstoff += dstscan;
         }
     }
 
@@ -25,16 +25,97 @@
 
 package com.sun.scenario.effect.impl.sw.java;
 
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.RecursiveAction;
+import com.sun.javafx.runtime.async.BackgroundExecutor;
 import com.sun.scenario.effect.FilterContext;
 import com.sun.scenario.effect.impl.EffectPeer;
 import com.sun.scenario.effect.impl.Renderer;
 
 public abstract class JSWEffectPeer extends EffectPeer {
 
+    /**
+     * If true, the filters that can work on independent rows or columns
+     * of their output split large images across the fork-join pool.
+     */
+    protected static final boolean parallel = AccessController.doPrivileged(
+            new PrivilegedAction<Boolean>() {
+
+        public Boolean run() {
+            return Boolean.getBoolean("decora.parallel");
+        }
+
+    });
+
+    // Images with fewer pixels, or ranges with fewer lines, than these
+    // are not worth splitting up.
+    private static final int PARALLEL_MIN_PIXELS = 128 * 128;
+    private static final int PARALLEL_MIN_LINES = 16;
+
     protected JSWEffectPeer(FilterContext fctx, Renderer r, String uniqueName) {
         super(fctx, r, uniqueName);
     }
 
+    /**
+     * A part of a filter operation which computes the output lines
+     * (rows or columns) from {@code from} (inclusive) to {@code to}
+     * (exclusive) independently of all other lines.
+     */
+    protected interface LineFilter {
+        public void filterLines(int from, int to);
+    }
+
+    /**
+     * Runs the given filter over all of the lines from 0 to {@code count},
+     * either directly on the calling thread, or, when the parallel filters
+     * are enabled and the image is large enough, in ranges of lines on the
+     * fork-join pool.  Either way, all of the lines are done when this
+     * method returns.  The results do not depend on how the lines are
+     * split up.
+     *
+     * @param count the number of lines
+     * @param length the number of pixels in each line
+     * @param filter the filter to apply to the lines
+     */
+    protected void filterLines(int count, int length, LineFilter filter) {
+        if (!parallel ||
+            count < 2 * PARALLEL_MIN_LINES ||
+            (long) count * length < PARALLEL_MIN_PIXELS)
+        {
+            filter.filterLines(0, count);
+        } else {
+            BackgroundExecutor.getForkJoinPool().invoke(
+                    new LineTask(filter, 0, count, PARALLEL_MIN_LINES));
+        }
+    }
+
+    static class LineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final LineFilter filter;
+        private final int from, to;
+        private final int minLines;
+
+        LineTask(LineFilter filter, int from, int to, int minLines) {
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+            this.minLines = minLines;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 * minLines) {
+                filter.filterLines(from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new LineTask(filter, from, mid, minLines),
+                          new LineTask(filter, mid, to, minLines));
+            }
+        }
+    }
+
     protected final static int FVALS_A = 3;
     protected final static int FVALS_R = 0;
     protected final static int FVALS_G = 1;
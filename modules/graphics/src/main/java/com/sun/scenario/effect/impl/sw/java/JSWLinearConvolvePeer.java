@@ -102,15 +102,15 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
         Rectangle dstBounds = new Rectangle(dstRawBounds);
         dstBounds.intersectWith(outputClip);
         setDestBounds(dstBounds);
-        int dstw = dstBounds.width;
-        int dsth = dstBounds.height;
+        final int dstw = dstBounds.width;
+        final int dsth = dstBounds.height;
 
         // NOTE: for now, all input images must be TYPE_INT_ARGB_PRE
         HeapImage src = (HeapImage)inputs[0].getUntransformedImage();
-        int srcw = src.getPhysicalWidth();
-        int srch = src.getPhysicalHeight();
-        int srcscan = src.getScanlineStride();
-        int[] srcPixels = src.getPixelArray();
+        final int srcw = src.getPhysicalWidth();
+        final int srch = src.getPhysicalHeight();
+        final int srcscan = src.getScanlineStride();
+        final int[] srcPixels = src.getPixelArray();
 
         Rectangle src0Bounds = inputs[0].getUntransformedBounds();
         BaseTransform src0Transform = inputs[0].getTransform();
@@ -122,10 +122,10 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
 
         HeapImage dst = (HeapImage)getRenderer().getCompatibleImage(dstw, dsth);
         setDestNativeBounds(dst.getPhysicalWidth(), dst.getPhysicalHeight());
-        int dstscan = dst.getScanlineStride();
-        int[] dstPixels = dst.getPixelArray();
+        final int dstscan = dst.getScanlineStride();
+        final int[] dstPixels = dst.getPixelArray();
 
-        int count = getCount();
+        final int count = getCount();
         FloatBuffer weights_buf = getWeights();
 
         PassType type = getKernel().getPassType(getPass());
@@ -139,23 +139,31 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
         }
         type = PassType.GENERAL_VECTOR;
         if (type == PassType.HORIZONTAL_CENTERED) {
-            float[] weights_arr = new float[count * 2];
+            final float[] weights_arr = new float[count * 2];
             weights_buf.get(weights_arr, 0, count);
             weights_buf.rewind();
             weights_buf.get(weights_arr, count, count);
-            filterHV(dstPixels, dstw, dsth, 1, dstscan,
-                     srcPixels, srcw, srch, 1, srcscan,
-                     weights_arr);
+            filterLines(dsth, dstw, new LineFilter() {
+                public void filterLines(int r0, int r1) {
+                    filterHV(dstPixels, dstw, r0, r1, 1, dstscan,
+                             srcPixels, srcw, srch, 1, srcscan,
+                             weights_arr);
+                }
+            });
         } else if (type == PassType.VERTICAL_CENTERED) {
-            float[] weights_arr = new float[count * 2];
+            final float[] weights_arr = new float[count * 2];
             weights_buf.get(weights_arr, 0, count);
             weights_buf.rewind();
             weights_buf.get(weights_arr, count, count);
-            filterHV(dstPixels, dsth, dstw, dstscan, 1,
-                     srcPixels, srch, srcw, srcscan, 1,
-                     weights_arr);
+            filterLines(dstw, dsth, new LineFilter() {
+                public void filterLines(int r0, int r1) {
+                    filterHV(dstPixels, dsth, r0, r1, dstscan, 1,
+                             srcPixels, srch, srcw, srcscan, 1,
+                             weights_arr);
+                }
+            });
         } else {
-            float[] weights_arr = new float[count];
+            final float[] weights_arr = new float[count];
             weights_buf.get(weights_arr, 0, count);
 
             float[] srcRect = new float[8];
@@ -164,9 +172,9 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
                                                 src0NativeBounds.width,
                                                 src0NativeBounds.height,
                                                 dstBounds, src0Transform);
-            float srcx0 = srcRect[0] * srcw;
-            float srcy0 = srcRect[1] * srch;
-            float dxcol, dycol, dxrow, dyrow;
+            final float srcx0 = srcRect[0] * srcw;
+            final float srcy0 = srcRect[1] * srch;
+            final float dxcol, dycol, dxrow, dyrow;
             if (nCoords < 8) {
                 dxcol = (srcRect[2] - srcRect[0]) * srcw / dstBounds.width;
                 dycol = 0f;
@@ -180,18 +188,22 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
             }
 
             float[] offset_arr = getOffset();
-            float deltax = offset_arr[0] * srcw;
-            float deltay = offset_arr[1] * srch;
-            float offsetx = offset_arr[2] * srcw;
-            float offsety = offset_arr[3] * srch;
+            final float deltax = offset_arr[0] * srcw;
+            final float deltay = offset_arr[1] * srch;
+            final float offsetx = offset_arr[2] * srcw;
+            final float offsety = offset_arr[3] * srch;
 
-            filterVector(dstPixels, dstw, dsth, dstscan,
-                         srcPixels, srcw, srch, srcscan,
-                         weights_arr, count,
-                         srcx0, srcy0,
-                         offsetx, offsety,
-                         deltax, deltay,
-                         dxcol, dycol, dxrow, dyrow);
+            filterLines(dsth, dstw, new LineFilter() {
+                public void filterLines(int y0, int y1) {
+                    filterVector(dstPixels, dstw, y0, y1, dstscan,
+                                 srcPixels, srcw, srch, srcscan,
+                                 weights_arr, count,
+                                 srcx0, srcy0,
+                                 offsetx, offsety,
+                                 deltax, deltay,
+                                 dxcol, dycol, dxrow, dyrow);
+                }
+            });
         }
 
         return new ImageData(getFilterContext(), dst, dstBounds);
@@ -200,7 +212,12 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
     private static final float cmin = 1f;
     private static final float cmax = 254f + 15f/16f;
 
-    protected void filterVector(int dstPixels[], int dstw, int dsth, int dstscan,
+    /**
+     * Filters the destination rows from y0 to y1.  The source location of
+     * each row is computed from the origin rather than accumulated so that
+     * the results do not depend on how the rows are split up.
+     */
+    protected void filterVector(int dstPixels[], int dstw, int y0, int y1, int dstscan,
                                 int srcPixels[], int srcw, int srch, int srcscan,
                                 float weights[], int count,
                                 float srcx0, float srcy0,
@@ -208,14 +225,14 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
                                 float deltax, float deltay,
                                 float dxcol, float dycol, float dxrow, float dyrow)
     {
-        int dstrow = 0;
+        int dstrow = y0 * dstscan;
         float fvals[] = new float[4];
         // srcxy0 point at UL corner, shift them to center of 1st dest pixel:
         srcx0 += (dxrow + dxcol) * 0.5f;
         srcy0 += (dyrow + dycol) * 0.5f;
-        for (int dy = 0; dy < dsth; dy++) {
-            float srcx = srcx0;
-            float srcy = srcy0;
+        for (int dy = y0; dy < y1; dy++) {
+            float srcx = srcx0 + dy * dxrow;
+            float srcy = srcy0 + dy * dyrow;
             for (int dx = 0; dx < dstw; dx++) {
                 fvals[0] = fvals[1] = fvals[2] = fvals[3] = 0.0f;
                 float sampx = srcx + offsetx;
@@ -235,8 +252,6 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
                 srcx += dxcol;
                 srcy += dycol;
             }
-            srcx0 += dxrow;
-            srcy0 += dyrow;
             dstrow += dstscan;
         }
     }
@@ -248,8 +263,9 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
      * the other coordinate that increments along the row.
      * Rows are horizontal in the first pass and vertical in the second pass.
      * Cols are vice versa.
+     * Only the rows from r0 to r1 are filtered.
      */
-    protected void filterHV(int dstPixels[], int dstcols, int dstrows, int dcolinc, int drowinc,
+    protected void filterHV(int dstPixels[], int dstcols, int r0, int r1, int dcolinc, int drowinc,
                             int srcPixels[], int srccols, int srcrows, int scolinc, int srowinc,
                             float weights[])
     {
@@ -257,9 +273,9 @@ public class JSWLinearConvolvePeer extends JSWEffectPeer implements LinearConvol
         // from x-r to x+r
         int kernelSize = weights.length / 2;
         float cvals[] = new float[kernelSize * 4];
-        int dstrow = 0;
-        int srcrow = 0;
-        for (int r = 0; r < dstrows; r++) {
+        int dstrow = r0 * drowinc;
+        int srcrow = r0 * srowinc;
+        for (int r = r0; r < r1; r++) {
             int dstoff = dstrow;
             int srcoff = srcrow;
             // Must clear out the array at the start of every line
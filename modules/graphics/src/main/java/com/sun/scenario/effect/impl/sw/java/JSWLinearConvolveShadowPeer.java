@@ -43,7 +43,7 @@ public class JSWLinearConvolveShadowPeer extends JSWLinearConvolvePeer {
     }
 
     @Override
-    protected void filterVector(int dstPixels[], int dstw, int dsth, int dstscan,
+    protected void filterVector(int dstPixels[], int dstw, int y0, int y1, int dstscan,
                                 int srcPixels[], int srcw, int srch, int srcscan,
                                 float weights[], int count,
                                 float srcx0, float srcy0,
@@ -53,13 +53,13 @@ public class JSWLinearConvolveShadowPeer extends JSWLinearConvolvePeer {
     {
         float shadowColor[] = getShadowColor();
 
-        int dstrow = 0;
+        int dstrow = y0 * dstscan;
         // srcxy0 point at UL corner, shift them to center of 1st dest pixel:
         srcx0 += (dxrow + dxcol) * 0.5f;
         srcy0 += (dyrow + dycol) * 0.5f;
-        for (int dy = 0; dy < dsth; dy++) {
-            float srcx = srcx0;
-            float srcy = srcy0;
+        for (int dy = y0; dy < y1; dy++) {
+            float srcx = srcx0 + dy * dxrow;
+            float srcy = srcy0 + dy * dyrow;
             for (int dx = 0; dx < dstw; dx++) {
                 float sum = 0.0f;
                 float sampx = srcx + offsetx;
@@ -85,8 +85,6 @@ public class JSWLinearConvolveShadowPeer extends JSWLinearConvolvePeer {
                 srcx += dxcol;
                 srcy += dycol;
             }
-            srcx0 += dxrow;
-            srcy0 += dyrow;
             dstrow += dstscan;
         }
     }
@@ -98,9 +96,10 @@ public class JSWLinearConvolveShadowPeer extends JSWLinearConvolvePeer {
      * the other coordinate that increments along the row.
      * Rows are horizontal in the first pass and vertical in the second pass.
      * Cols are vice versa.
+     * Only the rows from r0 to r1 are filtered.
      */
     @Override
-    protected void filterHV(int dstPixels[], int dstcols, int dstrows, int dcolinc, int drowinc,
+    protected void filterHV(int dstPixels[], int dstcols, int r0, int r1, int dcolinc, int drowinc,
                             int srcPixels[], int srccols, int srcrows, int scolinc, int srowinc,
                             float weights[])
     {
@@ -110,8 +109,8 @@ public class JSWLinearConvolveShadowPeer extends JSWLinearConvolvePeer {
         // from x-r to x+r
         int kernelSize = weights.length / 2;
         float avals[] = new float[kernelSize];
-        int dstrow = 0;
-        int srcrow = 0;
+        int dstrow = r0 * drowinc;
+        int srcrow = r0 * srowinc;
         int shadowRGBs[] = new int[256];
         for (int i = 0; i < shadowRGBs.length; i++) {
             shadowRGBs[i] = ((int) (shadowColor[0] * i) << 16) |
@@ -119,7 +118,7 @@ public class JSWLinearConvolveShadowPeer extends JSWLinearConvolvePeer {
                             ((int) (shadowColor[2] * i)      ) |
                             ((int) (shadowColor[3] * i) << 24);
         }
-        for (int r = 0; r < dstrows; r++) {
+        for (int r = r0; r < r1; r++) {
             int dstoff = dstrow;
             int srcoff = srcrow;
             // Must clear out the array at the start of every line
@@ -24,10 +24,13 @@
  */
 package javafx.scene;
 
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -57,6 +60,7 @@ import com.sun.javafx.Utils;
 import com.sun.javafx.css.CalculatedValue;
 import com.sun.javafx.css.CascadingStyle;
 import com.sun.javafx.css.CssError;
+import com.sun.javafx.css.CssProfiler;
 import com.sun.javafx.css.ParsedValueImpl;
 import com.sun.javafx.css.PseudoClassState;
 import com.sun.javafx.css.Rule;
@@ -85,19 +89,136 @@ final class CssStyleHelper {
     }
 
     /**
-     * Creates a new StyleHelper.
+     * If true, the selectors of a large subtree whose css is reapplied are
+     * matched concurrently before any styles are applied to the subtree.
+     * Not final so that tests can compare both ways of matching.
      */
-    static CssStyleHelper createStyleHelper(final Node node, WritableValue<Boolean> clearCacheOnReuse, ObservableMap<StyleableProperty<?>, List<Style>> styleObserver) {
+    static boolean parallelMatching = AccessController.doPrivileged(
+            new PrivilegedAction<Boolean>() {
+
+        public Boolean run() {
+            return Boolean.getBoolean("javafx.css.parallel");
+        }
+
+    });
+
+    // Subtrees of fewer nodes than this are matched as they are styled.
+    static final int PARALLEL_MIN_NODES = 256;
+
+    // The matches made by matchSubtree for nodes which have yet to be styled.
+    // Only used on the FX application thread.
+    static Map<Node, StyleManager.SelectorMatch> pendingMatches = null;
+
+    /**
+     * Matches the selectors of the nodes in the subtree, so that styling them
+     * in createStyleHelper only needs to look up the styles. Returns true if
+     * the subtree was matched, in which case the caller must call
+     * endSubtree once the subtree has been styled.
+     */
+    static boolean matchSubtree(final Parent root) {
+
+        if (parallelMatching == false || pendingMatches != null) {
+            return false;
+        }
+
+        // RT-24621 - css will be applied from the top-most parent being reapplied
+        for (Parent parent = root.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent.cssFlag == CssFlags.REAPPLY) return false;
+        }
+
+        boolean followsParents = true;
+        for (Node node = root.getParent(); node != null && followsParents; node = node.getParent()) {
+            followsParents = node.getStyleableParent() == node.getParent();
+        }
+
+        final List<Node> nodes = new ArrayList<Node>();
+        addNodes(root, followsParents, nodes);
+        final int nNodes = nodes.size();
+        if (nNodes < PARALLEL_MIN_NODES) {
+            return false;
+        }
+
+        final StyleManager styleManager = StyleManager.getInstance();
+        final List<StyleManager.SelectorMatch> matches = new ArrayList<StyleManager.SelectorMatch>(nNodes);
+        for (int n=0; n<nNodes; n++) {
+            final Node node = nodes.get(n);
+            final StyleManager.SelectorMatch match =
+                    styleManager.prepareMatch(node, new PseudoClassState[getDepth(node)]);
+            if (match != null) matches.add(match);
+        }
+
+        styleManager.matchSelectors(matches);
+
+        final int nMatches = matches.size();
+        pendingMatches = new IdentityHashMap<Node, StyleManager.SelectorMatch>(nMatches);
+        for (int n=0; n<nMatches; n++) {
+            final StyleManager.SelectorMatch match = matches.get(n);
+            pendingMatches.put(match.getNode(), match);
+        }
+        return true;
+    }
+
+    static void endSubtree() {
+        pendingMatches = null;
+    }
 
-        // need to know how far we are to root in order to init arrays.
-        // TODO: should we hang onto depth to avoid this nonsense later?
-        // TODO: is there some other way of knowing how far from the root a node is?
-        Styleable parent = node;
+    /**
+     * Called when css is reapplied to a node. The change that caused it may
+     * have changed which selectors apply to the node and its descendants, so
+     * any of them which have yet to be styled are matched again.
+     */
+    static void discardPendingMatches(final Node node) {
+        if (pendingMatches != null && pendingMatches.isEmpty() == false) {
+            removePendingMatches(node);
+        }
+    }
+
+    private static void removePendingMatches(final Node node) {
+        pendingMatches.remove(node);
+        if (node instanceof Parent) {
+            final List<Node> children = ((Parent)node).getChildren();
+            for (int n=0, nMax=children.size(); n<nMax; n++) {
+                removePendingMatches(children.get(n));
+            }
+        }
+    }
+
+    //
+    // Adds the nodes of the subtree to the list. Nodes with a styleable parent
+    // other than their parent are left to be matched as they are styled, as
+    // are their descendants, since selectors which apply to them depend on
+    // Styleables that might not be Nodes and might not be in this subtree.
+    //
+    private static void addNodes(final Node node, boolean followsParents, final List<Node> nodes) {
+        followsParents = followsParents && node.getStyleableParent() == node.getParent();
+        if (followsParents) nodes.add(node);
+        if (node instanceof Parent) {
+            final List<Node> children = ((Parent)node).getChildren();
+            for (int n=0, nMax=children.size(); n<nMax; n++) {
+                addNodes(children.get(n), followsParents, nodes);
+            }
+        }
+    }
+
+    // need to know how far we are to root in order to init arrays.
+    // TODO: should we hang onto depth to avoid this nonsense later?
+    // TODO: is there some other way of knowing how far from the root a node is?
+    private static int getDepth(final Styleable styleable) {
+        Styleable parent = styleable;
         int depth = 0;
         while(parent != null) {
             depth++;
             parent = parent.getStyleableParent();
         }
+        return depth;
+    }
+
+    /**
+     * Creates a new StyleHelper.
+     */
+    static CssStyleHelper createStyleHelper(final Node node, WritableValue<Boolean> clearCacheOnReuse, ObservableMap<StyleableProperty<?>, List<Style>> styleObserver) {
+
+        final int depth = getDepth(node);
 
         // The List<CacheEntry> should only contain entries for those
         // pseudo-class states that have styles. The StyleHelper's
@@ -108,10 +229,20 @@ final class CssStyleHelper {
         // are gotten. By comparing the actual pseudo-class state to the
         // pseudo-class states that apply, a CacheEntry can be created or
         // fetched using only those pseudoclasses that matter.
-        final PseudoClassState[] triggerStates = new PseudoClassState[depth];
+        final PseudoClassState[] triggerStates;
+
+        final StyleMap styleMap;
 
-        final StyleMap styleMap =
-                StyleManager.getInstance().findMatchingStyles(node, triggerStates);
+        final StyleManager.SelectorMatch match =
+                pendingMatches != null ? pendingMatches.remove(node) : null;
+        if (match != null && match.getTriggerStates().length == depth) {
+            // the selectors were matched ahead of time by matchSubtree
+            triggerStates = (PseudoClassState[])match.getTriggerStates();
+            styleMap = StyleManager.getInstance().findMatchingStyles(match);
+        } else {
+            triggerStates = new PseudoClassState[depth];
+            styleMap = StyleManager.getInstance().findMatchingStyles(node, triggerStates);
+        }
 
         //
         // reuse the existing styleHelper if possible.
@@ -186,7 +317,7 @@ final class CssStyleHelper {
 
         // make sure parent's transition states include the pseudo-classes
         // found when matching selectors
-        parent = node.getStyleableParent();
+        Styleable parent = node.getStyleableParent();
         for(int n=1; n<depth; n++) {
 
             // TODO: this means that a style like .menu-item:hover won't work. Need to separate CssStyleHelper tree from scene-graph tree
@@ -418,6 +549,11 @@ final class CssStyleHelper {
         // here so the property can be reset without expanding properties that
         // were not set by css.
         private Map<CssMetaData, CalculatedValue> cssSetProperties;
+
+        // The transition states and font of the last transition, which an
+        // UPDATE compares against to find the properties that might change.
+        private Set<PseudoClass>[] lastTransitionStates;
+        private Font lastFont;
     }
 
     private void resetToInitialValues(final Styleable styleable) {
@@ -630,6 +766,28 @@ final class CssStyleHelper {
             sharedCache.addStyleCacheEntry(cacheEntryKey, cacheEntry);
         }
 
+        //
+        // If the node is only being updated because pseudo-classes changed,
+        // then only the properties whose styles have one of those
+        // pseudo-classes need to be looked up, plus the properties whose
+        // values depend on other styles. The rest keep the value they got
+        // in the last transition. This is only done on the fastpath since
+        // a new cache entry needs a value for every property. Nor is it done
+        // if the font changed, since values in em units would change too.
+        //
+        final Set<String> changedProperties =
+                (fastpath && cssFlag == CssFlags.UPDATE && observableStyleMap == null
+                        && fontForRelativeSizes.equals(cacheContainer.lastFont))
+                ? getChangedProperties(styleMap, cacheContainer.lastTransitionStates, transitionStates)
+                : null;
+
+        // an inherited value might change if the state of a parent changed
+        final boolean parentStatesChanged =
+                changedProperties != null && haveParentStatesChanged(cacheContainer.lastTransitionStates, transitionStates);
+
+        cacheContainer.lastTransitionStates = transitionStates;
+        cacheContainer.lastFont = fontForRelativeSizes;
+
         final List<CssMetaData<? extends Styleable,  ?>> styleables = node.getCssMetaData();
 
         // Used in the for loop below, and a convenient place to stop when debugging.
@@ -638,6 +796,8 @@ final class CssStyleHelper {
         // RT-20643
         CssError.setCurrentScene(node.getScene());
 
+        final boolean profiling = CssProfiler.isProfiling();
+
         // For each property that is settable, we need to do a lookup and
         // transition to that value.
         for(int n=0; n<max; n++) {
@@ -646,6 +806,14 @@ final class CssStyleHelper {
             final CssMetaData<Styleable,Object> cssMetaData =
                     (CssMetaData<Styleable,Object>)styleables.get(n);
 
+            final String property = cssMetaData.getProperty();
+
+            if (changedProperties != null
+                    && isChanged(cssMetaData, changedProperties) == false
+                    && (parentStatesChanged == false || cssMetaData.isInherits() == false)) {
+                continue;
+            }
+
             if (observableStyleMap != null) {
                 final StyleableProperty styleableProperty = cssMetaData.getStyleableProperty(node);
                 if (styleableProperty != null && observableStyleMap.containsKey(styleableProperty)) {
@@ -662,8 +830,6 @@ final class CssStyleHelper {
             // to be set (usually due to a "bind").
             if (!cssMetaData.isSettable(node)) continue;
 
-            final String property = cssMetaData.getProperty();
-
             CalculatedValue calculatedValue = cacheEntry.get(property);
 
             // If there is no calculatedValue and we're on the fast path,
@@ -676,6 +842,8 @@ final class CssStyleHelper {
 
             if (fastpath && !forceSlowpath) {
 
+                if (profiling) CssProfiler.styleCacheLookup(true);
+
                 // calculatedValue may be null,
                 // but we should never put SKIP in cache.
                 if (calculatedValue == SKIP) {
@@ -686,9 +854,16 @@ final class CssStyleHelper {
             } else if (calculatedValue == null) {
 
                 // slowpath!
+                final long t0 = profiling ? System.nanoTime() : 0;
+
                 calculatedValue = lookup(node, cssMetaData, styleMap, transitionStates[0],
                         node, cachedFont);
 
+                if (profiling) {
+                    CssProfiler.styleCacheLookup(false);
+                    CssProfiler.propertyLookedUp(property, System.nanoTime() - t0);
+                }
+
                 // lookup is not supposed to return null.
                 if (calculatedValue == null) {
                     assert false : "lookup returned null for " + property;
@@ -824,6 +999,81 @@ final class CssStyleHelper {
 
     }
 
+    //
+    // Returns the properties whose values might differ between the previous
+    // and the current transition states, or null if the states are not
+    // comparable and every property has to be looked up.
+    //
+    private static Set<String> getChangedProperties(final StyleMap styleMap,
+            final Set<PseudoClass>[] previousStates, final Set<PseudoClass>[] states) {
+
+        if (previousStates == null || previousStates.length != states.length) {
+            return null;
+        }
+
+        final Set<String> changedProperties = new HashSet<>();
+        boolean changed = false;
+
+        for (int n=0; n<states.length; n++) {
+
+            final Set<PseudoClass> previous = previousStates[n];
+            final Set<PseudoClass> current = states[n];
+
+            for (PseudoClass pseudoClass : previous) {
+                if (current.contains(pseudoClass) == false) {
+                    changedProperties.addAll(styleMap.getPropertiesWithPseudoClass(pseudoClass));
+                    changed = true;
+                }
+            }
+
+            for (PseudoClass pseudoClass : current) {
+                if (previous.contains(pseudoClass) == false) {
+                    changedProperties.addAll(styleMap.getPropertiesWithPseudoClass(pseudoClass));
+                    changed = true;
+                }
+            }
+        }
+
+        if (changed) {
+            changedProperties.addAll(styleMap.getPropertiesWithLookups());
+        }
+
+        return changedProperties;
+    }
+
+    //
+    // The styles in the StyleMap are for the properties that are declared,
+    // so the value of a property such as -fx-font or -fx-region-background
+    // changes if any of its sub-properties does.
+    //
+    private static boolean isChanged(final CssMetaData<? extends Styleable, ?> cssMetaData,
+            final Set<String> changedProperties) {
+
+        if (changedProperties.contains(cssMetaData.getProperty())) {
+            return true;
+        }
+
+        final List<CssMetaData<? extends Styleable, ?>> subProperties = cssMetaData.getSubProperties();
+        for (int n=0, nMax=subProperties != null ? subProperties.size() : 0; n<nMax; n++) {
+            if (isChanged(subProperties.get(n), changedProperties)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean haveParentStatesChanged(final Set<PseudoClass>[] previousStates,
+            final Set<PseudoClass>[] states) {
+
+        // states[0] is the state of the node itself
+        for (int n=1; n<states.length; n++) {
+            if (states[n].equals(previousStates[n]) == false) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Gets the CSS CascadingStyle for the property of this node in these pseudo-class
      * states. A null style may be returned if there is no style information
@@ -1178,6 +1428,14 @@ final class CssStyleHelper {
                         resolves.add(parsedValue);
                     }
 
+                    // resolves holds the chain of lookups that led here,
+                    // which is recorded once, where the chain ends
+                    if (CssProfiler.isProfiling()
+                            && !resolved.getParsedValueImpl().isLookup()
+                            && !resolved.getParsedValueImpl().isContainsLookups()) {
+                        CssProfiler.lookupResolved(resolves.size());
+                    }
+
                     // The origin of this parsed value is the greatest of
                     // any of the resolved reference. If a resolved reference
                     // comes from an inline style, for example, then the value
@@ -1776,6 +1776,11 @@ public abstract class Node implements EventTarget, Styleable {
     }
 
     private WritableImage doSnapshot(SnapshotParameters params, WritableImage img) {
+        Scene.PendingSnapshot pending = prepareSnapshot(params, img);
+        return pending.finish(Toolkit.getToolkit().renderToImage(pending.context));
+    }
+
+    private Scene.PendingSnapshot prepareSnapshot(SnapshotParameters params, WritableImage img) {
         if (getScene() != null) {
             getScene().doCSSLayoutSyncForSnapshot(this);
         } else {
@@ -1809,11 +1814,9 @@ public abstract class Node implements EventTarget, Styleable {
             w = tempBounds.getWidth();
             h = tempBounds.getHeight();
         }
-        WritableImage result = Scene.doSnapshot(getScene(), x, y, w, h,
+        return Scene.prepareSnapshot(getScene(), x, y, w, h,
                 this, transform, params.isDepthBufferInternal(),
                 params.getFill(), params.getEffectiveCamera(), img);
-
-        return result;
     }
 
     /**
@@ -1987,25 +1990,27 @@ public abstract class Node implements EventTarget, Styleable {
         final Callback<SnapshotResult, Void> theCallback = callback;
         final WritableImage theImage = image;
 
-        // Create a deferred runnable that will be run from a pulse listener
+        // Create a deferred snapshot that will be run from a pulse listener
         // that is called after all of the scenes have been synced but before
         // any of them have been rendered.
-        final Runnable snapshotRunnable = new Runnable() {
-            @Override public void run() {
-                WritableImage img = doSnapshot(theParams, theImage);
-                SnapshotResult result = new SnapshotResult(img, Node.this, theParams);
-//                System.err.println("Calling snapshot callback");
-                try {
-                    Void v = theCallback.call(result);
-                } catch (Throwable th) {
-                    System.err.println("Exception in snapshot callback");
-                    th.printStackTrace(System.err);
-                }
+        Scene.addDeferredSnapshot(new Scene.DeferredSnapshot() {
+            @Override Camera getCamera() {
+                return theParams.getEffectiveCamera();
             }
-        };
 
-//        System.err.println("Schedule a snapshot in the future");
-        Scene.addSnapshotRunnable(snapshotRunnable);
+            @Override WritableImage getImage() {
+                return theImage;
+            }
+
+            @Override Scene.PendingSnapshot prepare() {
+                return prepareSnapshot(theParams, theImage);
+            }
+
+            @Override void done(WritableImage img) {
+                SnapshotResult result = new SnapshotResult(img, Node.this, theParams);
+                theCallback.call(result);
+            }
+        });
     }
 
     /* ************************************************************************
@@ -8694,6 +8699,8 @@ public abstract class Node implements EventTarget, Styleable {
         // If there is no scene, then we cannot make it dirty, so we'll leave
         // the flag alone
         if (getScene() == null) return;
+        // Selectors matched ahead of time may no longer apply
+        CssStyleHelper.discardPendingMatches(this);
         // If the css flag is already "REAPPLY", then do nothing
         if (cssFlag == CssFlags.REAPPLY) return;
         // Update the flag
@@ -1246,39 +1246,47 @@ public abstract class Parent extends Node {
         final WritableValue<Boolean> hintForCssStyleHelper =
                 (cssFlag == CssFlags.REAPPLY && cacheHint == null) ? new SimpleBooleanProperty(false) : cacheHint;
 
-        // Let the super implementation handle CSS for this node
-        super.impl_processCSS(hintForCssStyleHelper);
+        // If a large subtree is being reapplied, match the selectors of all
+        // of its nodes up front so that the matching can be done in parallel.
+        final boolean subtreeMatched = (flag == CssFlags.REAPPLY) && CssStyleHelper.matchSubtree(this);
 
-        // avoid the following call to children.toArray if there are no children
-        if (children.isEmpty()) return;
+        try {
+            // Let the super implementation handle CSS for this node
+            super.impl_processCSS(hintForCssStyleHelper);
 
-        //
-        // RT-33103
-        //
-        // It is possible for a child to be removed from children in the middle of
-        // the following loop. Iterating over the children may result in an IndexOutOfBoundsException.
-        // So a copy is made and the copy is iterated over.
-        //
-        // Note that we don't want the fail-fast feature of an iterator, not to mention the general iterator overhead.
-        //
-        final Node[] childArray = children.toArray(new Node[children.size()]);
+            // avoid the following call to children.toArray if there are no children
+            if (children.isEmpty()) return;
+
+            //
+            // RT-33103
+            //
+            // It is possible for a child to be removed from children in the middle of
+            // the following loop. Iterating over the children may result in an IndexOutOfBoundsException.
+            // So a copy is made and the copy is iterated over.
+            //
+            // Note that we don't want the fail-fast feature of an iterator, not to mention the general iterator overhead.
+            //
+            final Node[] childArray = children.toArray(new Node[children.size()]);
 
-        // For each child, process CSS
-        for (int i=0; i<childArray.length; i++) {
+            // For each child, process CSS
+            for (int i=0; i<childArray.length; i++) {
 
-            final Node child = childArray[i];
+                final Node child = childArray[i];
 
-            //  If a child no longer has this as its parent, then it is skipped.
-            final Parent childParent = child.getParent();
-            if (childParent == null || childParent != this) continue;
+                //  If a child no longer has this as its parent, then it is skipped.
+                final Parent childParent = child.getParent();
+                if (childParent == null || childParent != this) continue;
 
-            // If the parent styles are being updated, recalculated or
-            // reapplied, then make sure the children get the same treatment.
-            // Unless the child is already more dirty than this parent (RT-29074).
-            if(flag.compareTo(child.cssFlag) > 0) {
-                child.cssFlag = flag;
+                // If the parent styles are being updated, recalculated or
+                // reapplied, then make sure the children get the same treatment.
+                // Unless the child is already more dirty than this parent (RT-29074).
+                if(flag.compareTo(child.cssFlag) > 0) {
+                    child.cssFlag = flag;
+                }
+                child.impl_processCSS(hintForCssStyleHelper);
             }
-            child.impl_processCSS(hintForCssStyleHelper);
+        } finally {
+            if (subtreeMatched) CssStyleHelper.endSubtree();
         }
     }
 
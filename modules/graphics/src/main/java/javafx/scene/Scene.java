@@ -1188,6 +1188,18 @@ public class Scene implements EventTarget {
             Node root, BaseTransform transform, boolean depthBuffer,
             Paint fill, Camera camera, WritableImage wimg) {
 
+        PendingSnapshot pending = prepareSnapshot(scene, x, y, w, h,
+                root, transform, depthBuffer, fill, camera, wimg);
+        return pending.finish(Toolkit.getToolkit().renderToImage(pending.context));
+    }
+
+    // Sets up the rendering context of a snapshot, which the toolkit can
+    // then render on its own or in a batch with other snapshots
+    static PendingSnapshot prepareSnapshot(Scene scene,
+            double x, double y, double w, double h,
+            Node root, BaseTransform transform, boolean depthBuffer,
+            Paint fill, Camera camera, WritableImage wimg) {
+
         Toolkit tk = Toolkit.getToolkit();
         Toolkit.ImageRenderingContext context = new Toolkit.ImageRenderingContext();
 
@@ -1239,31 +1251,67 @@ public class Scene implements EventTarget {
         Toolkit.WritableImageAccessor accessor = Toolkit.getWritableImageAccessor();
         context.platformImage = accessor.getTkImageLoader(wimg);
         impl_setAllowPGAccess(false);
-        Object tkImage = tk.renderToImage(context);
-        accessor.loadTkImage(wimg, tkImage);
 
-        if (camera != null) {
-            impl_setAllowPGAccess(true);
-            camera.setViewWidth(cameraViewWidth);
-            camera.setViewHeight(cameraViewHeight);
-            camera.impl_updatePeer();
-            impl_setAllowPGAccess(false);
+        return new PendingSnapshot(scene, context, wimg,
+                                   camera, cameraViewWidth, cameraViewHeight);
+    }
+
+    // A snapshot whose rendering context has been set up, but which the
+    // toolkit has not rendered yet
+    static final class PendingSnapshot {
+        final Toolkit.ImageRenderingContext context;
+        private final Scene scene;
+        private final WritableImage wimg;
+        private final Camera camera;
+        private final double cameraViewWidth;
+        private final double cameraViewHeight;
+
+        PendingSnapshot(Scene scene, Toolkit.ImageRenderingContext context,
+                        WritableImage wimg, Camera camera,
+                        double cameraViewWidth, double cameraViewHeight) {
+            this.scene = scene;
+            this.context = context;
+            this.wimg = wimg;
+            this.camera = camera;
+            this.cameraViewWidth = cameraViewWidth;
+            this.cameraViewHeight = cameraViewHeight;
         }
 
-        // if this scene belongs to some stage
-        // we need to mark the entire scene as dirty
-        // because dirty logic is buggy
-        if (scene != null && scene.impl_peer != null) {
-            scene.setNeedsRepaint();
+        // Loads the image rendered by the toolkit into the WritableImage
+        WritableImage finish(Object tkImage) {
+            Toolkit.getWritableImageAccessor().loadTkImage(wimg, tkImage);
+            restore();
+            return wimg;
         }
 
-        return wimg;
+        // Undoes the changes made to the scene graph for the rendering
+        void restore() {
+            if (camera != null) {
+                impl_setAllowPGAccess(true);
+                camera.setViewWidth(cameraViewWidth);
+                camera.setViewHeight(cameraViewHeight);
+                camera.impl_updatePeer();
+                impl_setAllowPGAccess(false);
+            }
+
+            // if this scene belongs to some stage
+            // we need to mark the entire scene as dirty
+            // because dirty logic is buggy
+            if (scene != null && scene.impl_peer != null) {
+                scene.setNeedsRepaint();
+            }
+        }
     }
 
     /**
      * Implementation method for snapshot
      */
     private WritableImage doSnapshot(WritableImage img) {
+        PendingSnapshot pending = prepareSnapshot(img);
+        return pending.finish(Toolkit.getToolkit().renderToImage(pending.context));
+    }
+
+    private PendingSnapshot prepareSnapshot(WritableImage img) {
         // TODO: no need to do CSS, layout or sync in the deferred case,
         // if this scene is attached to a visible stage
         doCSSLayoutSyncForSnapshot(getRoot());
@@ -1272,44 +1320,68 @@ public class Scene implements EventTarget {
         double h = getHeight();
         BaseTransform transform = BaseTransform.IDENTITY_TRANSFORM;
 
-        return doSnapshot(this, 0, 0, w, h,
+        return prepareSnapshot(this, 0, 0, w, h,
                 getRoot(), transform, isDepthBufferInternal(),
                 getFill(), getEffectiveCamera(), img);
     }
 
+    /*
+     * A snapshot which is taken in the next pulse and passed to a callback.
+     * The deferred snapshots of a pulse are set up one after the other and
+     * handed to the toolkit to be rendered together; only a snapshot which
+     * uses the same camera or the same image as one that is already waiting
+     * to be rendered makes the waiting ones be rendered first.
+     */
+    static abstract class DeferredSnapshot {
+        private AccessControlContext acc;
+        private PendingSnapshot pending;
+
+        // The camera adjusted by prepare, or null
+        abstract Camera getCamera();
+
+        // The image passed in by the application, or null
+        abstract WritableImage getImage();
+
+        // Processes CSS and layout and sets up the rendering context
+        abstract PendingSnapshot prepare();
+
+        // Passes the rendered image to the callback
+        abstract void done(WritableImage img);
+
+        private boolean conflictsWith(DeferredSnapshot other) {
+            Camera camera = getCamera();
+            WritableImage img = getImage();
+            return (camera != null && camera == other.getCamera()) ||
+                   (img != null && img == other.getImage());
+        }
+    }
+
     // Pulse listener used to run all deferred (async) snapshot requests
     private static TKPulseListener snapshotPulseListener = null;
 
-    private static List<Runnable> snapshotRunnableListA;
-    private static List<Runnable> snapshotRunnableListB;
-    private static List<Runnable> snapshotRunnableList;
+    private static List<DeferredSnapshot> snapshotListA;
+    private static List<DeferredSnapshot> snapshotListB;
+    private static List<DeferredSnapshot> snapshotList;
 
-    static void addSnapshotRunnable(final Runnable runnable) {
+    static void addDeferredSnapshot(DeferredSnapshot snapshot) {
         Toolkit.getToolkit().checkFxUserThread();
 
         if (snapshotPulseListener == null) {
-            snapshotRunnableListA = new ArrayList<Runnable>();
-            snapshotRunnableListB = new ArrayList<Runnable>();
-            snapshotRunnableList = snapshotRunnableListA;
+            snapshotListA = new ArrayList<DeferredSnapshot>();
+            snapshotListB = new ArrayList<DeferredSnapshot>();
+            snapshotList = snapshotListA;
 
             snapshotPulseListener = new TKPulseListener() {
                 @Override public void pulse() {
-                    if (snapshotRunnableList.size() > 0) {
-                        List<Runnable> runnables = snapshotRunnableList;
-                        if (snapshotRunnableList == snapshotRunnableListA) {
-                            snapshotRunnableList = snapshotRunnableListB;
+                    if (snapshotList.size() > 0) {
+                        List<DeferredSnapshot> snapshots = snapshotList;
+                        if (snapshotList == snapshotListA) {
+                            snapshotList = snapshotListB;
                         } else {
-                            snapshotRunnableList = snapshotRunnableListA;
-                        }
-                        for (Runnable r : runnables) {
-                            try {
-                                r.run();
-                            } catch (Throwable th) {
-                                System.err.println("Exception in snapshot runnable");
-                                th.printStackTrace(System.err);
-                            }
+                            snapshotList = snapshotListA;
                         }
-                        runnables.clear();
+                        runDeferredSnapshots(snapshots);
+                        snapshots.clear();
                     }
                 }
             };
@@ -1319,18 +1391,74 @@ public class Scene implements EventTarget {
             Toolkit.getToolkit().addPostSceneTkPulseListener(snapshotPulseListener);
         }
 
-        final AccessControlContext acc = AccessController.getContext();
-        snapshotRunnableList.add(new Runnable() {
-            @Override public void run() {
+        snapshot.acc = AccessController.getContext();
+        snapshotList.add(snapshot);
+        Toolkit.getToolkit().requestNextPulse();
+    }
+
+    private static void runDeferredSnapshots(List<DeferredSnapshot> snapshots) {
+        List<DeferredSnapshot> batch = new ArrayList<DeferredSnapshot>();
+        for (final DeferredSnapshot snapshot : snapshots) {
+            for (DeferredSnapshot waiting : batch) {
+                if (snapshot.conflictsWith(waiting)) {
+                    renderDeferredSnapshots(batch);
+                    break;
+                }
+            }
+            try {
+                snapshot.pending = AccessController.doPrivileged(
+                        new PrivilegedAction<PendingSnapshot>() {
+                    @Override public PendingSnapshot run() {
+                        return snapshot.prepare();
+                    }
+                }, snapshot.acc);
+                batch.add(snapshot);
+            } catch (Throwable th) {
+                System.err.println("Exception in snapshot runnable");
+                th.printStackTrace(System.err);
+            }
+        }
+        renderDeferredSnapshots(batch);
+    }
+
+    private static void renderDeferredSnapshots(List<DeferredSnapshot> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Toolkit.ImageRenderingContext contexts[] =
+            new Toolkit.ImageRenderingContext[batch.size()];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = batch.get(i).pending.context;
+        }
+        Object tkImages[] = null;
+        try {
+            tkImages = Toolkit.getToolkit().renderToImages(contexts);
+        } catch (Throwable th) {
+            System.err.println("Exception in snapshot runnable");
+            th.printStackTrace(System.err);
+        }
+        for (int i = 0; i < contexts.length; i++) {
+            final DeferredSnapshot snapshot = batch.get(i);
+            PendingSnapshot pending = snapshot.pending;
+            snapshot.pending = null;
+            if (tkImages == null) {
+                pending.restore();
+                continue;
+            }
+            final WritableImage img = pending.finish(tkImages[i]);
+            try {
                 AccessController.doPrivileged(new PrivilegedAction<Void>() {
                     @Override public Void run() {
-                        runnable.run();
+                        snapshot.done(img);
                         return null;
                     }
-                }, acc);
+                }, snapshot.acc);
+            } catch (Throwable th) {
+                System.err.println("Exception in snapshot callback");
+                th.printStackTrace(System.err);
             }
-        });
-        Toolkit.getToolkit().requestNextPulse();
+        }
+        batch.clear();
     }
 
     /**
@@ -1427,24 +1555,27 @@ public class Scene implements EventTarget {
         final Callback<SnapshotResult, Void> theCallback = callback;
         final WritableImage theImage = image;
 
-        // Create a deferred runnable that will be run from a pulse listener
+        // Create a deferred snapshot that will be run from a pulse listener
         // that is called after all of the scenes have been synced but before
         // any of them have been rendered.
-        final Runnable snapshotRunnable = new Runnable() {
-            @Override public void run() {
-                WritableImage img = doSnapshot(theImage);
-//                System.err.println("Calling snapshot callback");
+        addDeferredSnapshot(new DeferredSnapshot() {
+            @Override Camera getCamera() {
+                return getEffectiveCamera();
+            }
+
+            @Override WritableImage getImage() {
+                return theImage;
+            }
+
+            @Override PendingSnapshot prepare() {
+                return prepareSnapshot(theImage);
+            }
+
+            @Override void done(WritableImage img) {
                 SnapshotResult result = new SnapshotResult(img, Scene.this, null);
-                try {
-                    Void v = theCallback.call(result);
-                } catch (Throwable th) {
-                    System.err.println("Exception in snapshot callback");
-                    th.printStackTrace(System.err);
-                }
+                theCallback.call(result);
             }
-        };
-//        System.err.println("Schedule a snapshot in the future");
-        addSnapshotRunnable(snapshotRunnable);
+        });
     }
 
     /**
@@ -77,6 +77,9 @@ public class Canvas extends Node {
     private static final int SIZE_HISTORY = 5;
 
     private GrowableDataBuffer current;
+    // The part of the canvas touched by the rendering operations in the
+    // current buffer, or null if they may have touched all of it
+    private RectBounds currentBounds;
     private boolean rendererBehind;
     private int recentvalsizes[];
     private int recentobjsizes[];
@@ -118,11 +121,24 @@ public class Canvas extends Node {
             int vsize = max(recentvalsizes, DEFAULT_VAL_BUF_SIZE);
             int osize = max(recentobjsizes, DEFAULT_OBJ_BUF_SIZE);
             current = GrowableDataBuffer.getBuffer(vsize, osize);
+            currentBounds = new RectBounds();
             theContext.updateDimensions();
         }
         return current;
     }
 
+    void addDirtyBounds(RectBounds bounds) {
+        getBuffer();
+        if (currentBounds != null) {
+            currentBounds.unionWith(bounds);
+        }
+    }
+
+    void markAllDirty() {
+        getBuffer();
+        currentBounds = null;
+    }
+
     boolean isRendererFallingBehind() {
         return rendererBehind;
     }
@@ -173,6 +189,7 @@ public class Canvas extends Node {
                     super.set(newValue);
                     if (theContext != null) {
                         theContext.updateDimensions();
+                        markAllDirty();
                     }
                 }
 
@@ -221,6 +238,7 @@ public class Canvas extends Node {
                     super.set(newValue);
                     if (theContext != null) {
                         theContext.updateDimensions();
+                        markAllDirty();
                     }
                 }
 
@@ -263,8 +281,9 @@ public class Canvas extends Node {
                 }
                 recentvalsizes[lastsizeindex] = current.writeValuePosition();
                 recentobjsizes[lastsizeindex] = current.writeObjectPosition();
-                rendererBehind = peer.updateRendering(current);
+                rendererBehind = peer.updateRendering(current, currentBounds);
                 current = null;
+                currentBounds = null;
             }
         }
     }
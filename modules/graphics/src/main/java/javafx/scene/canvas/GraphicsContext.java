@@ -28,6 +28,7 @@ package javafx.scene.canvas;
 import com.sun.javafx.geom.Arc2D;
 import com.sun.javafx.geom.Path2D;
 import com.sun.javafx.geom.PathIterator;
+import com.sun.javafx.geom.RectBounds;
 import com.sun.javafx.geom.transform.Affine2D;
 import com.sun.javafx.geom.transform.NoninvertibleTransformException;
 import com.sun.javafx.image.*;
@@ -250,8 +251,60 @@ public final class GraphicsContext {
         pathDirty = true;
     }
 
+    private static final double SQRT_2 = Math.sqrt(2.0);
+    private final RectBounds opBounds = new RectBounds();
+
+    // The distance by which stroking can extend a shape, in user space
+    private float getStrokePadding() {
+        double pad = curState.linewidth / 2.0;
+        if (curState.linejoin == StrokeLineJoin.MITER) {
+            pad *= Math.max(curState.miterlimit, SQRT_2);
+        } else {
+            pad *= SQRT_2;
+        }
+        return (float) pad;
+    }
+
+    // Adds the bounds of an operation drawn over the given canvas space
+    // bounds to the region of the canvas which needs to be repainted,
+    // allowing a pixel of anti-aliasing on all sides.
+    private void markDirty(RectBounds bounds) {
+        if (curState.effect != null ||
+            Float.isNaN(bounds.getWidth()) || Float.isNaN(bounds.getHeight()))
+        {
+            // effects can spread the results of an operation, and
+            // non-finite coordinates leave us with no usable bounds
+            theCanvas.markAllDirty();
+        } else {
+            bounds.grow(1, 1);
+            theCanvas.addDirtyBounds(bounds);
+        }
+    }
+
+    private void markDirty(double x0, double y0, double x1, double y1,
+                           boolean stroke)
+    {
+        opBounds.setBoundsAndSort((float) x0, (float) y0, (float) x1, (float) y1);
+        if (stroke) {
+            float pad = getStrokePadding();
+            opBounds.grow(pad, pad);
+        }
+        curState.transform.transform(opBounds, opBounds);
+        markDirty(opBounds);
+    }
+
     private void writePath(byte command) {
         updateTransform();
+        opBounds.setBounds(path.getBounds());
+        if (command == NGCanvas.STROKE_PATH) {
+            // the path is already in canvas space but the stroke is not
+            Affine2D tx = curState.transform;
+            float pad = getStrokePadding() *
+                (float) Math.max(Math.hypot(tx.getMxx(), tx.getMyx()),
+                                 Math.hypot(tx.getMxy(), tx.getMyy()));
+            opBounds.grow(pad, pad);
+        }
+        markDirty(opBounds);
         GrowableDataBuffer buf = getBuffer();
         if (pathDirty) {
             buf.putByte(NGCanvas.PATHSTART);
@@ -300,6 +353,14 @@ public final class GraphicsContext {
 
     private void writeOp4(double x, double y, double w, double h, byte command) {
         updateTransform();
+        if (command == NGCanvas.STROKE_LINE) {
+            // the parameters are the end points of the line
+            markDirty(x, y, w, h, true);
+        } else {
+            markDirty(x, y, x + w, y + h,
+                      command == NGCanvas.STROKE_RECT ||
+                      command == NGCanvas.STROKE_OVAL);
+        }
         writeRectParams(getBuffer(), x, y, w, h, command);
     }
 
@@ -307,6 +368,9 @@ public final class GraphicsContext {
                           double v1, double v2, byte command)
     {
         updateTransform();
+        markDirty(x, y, x + w, y + h,
+                  command == NGCanvas.STROKE_ARC ||
+                  command == NGCanvas.STROKE_ROUND_RECT);
         GrowableDataBuffer buf = getBuffer();
         buf.putByte(command);
         buf.putFloat((float) x);
@@ -332,6 +396,17 @@ public final class GraphicsContext {
     private void writePoly(double xPoints[], double yPoints[], int nPoints,
                            boolean close, byte command)
     {
+        if (nPoints > 0) {
+            double minx = xPoints[0], miny = yPoints[0];
+            double maxx = minx, maxy = miny;
+            for (int i = 1; i < nPoints; i++) {
+                minx = Math.min(minx, xPoints[i]);
+                miny = Math.min(miny, yPoints[i]);
+                maxx = Math.max(maxx, xPoints[i]);
+                maxy = Math.max(maxy, yPoints[i]);
+            }
+            markDirty(minx, miny, maxx, maxy, command == NGCanvas.STROKE_PATH);
+        }
         GrowableDataBuffer buf = getBuffer();
         buf.putByte(NGCanvas.PATHSTART);
         int pos = 0;
@@ -362,6 +437,7 @@ public final class GraphicsContext {
         Object platformImg = img.impl_getPlatformImage();
         if (platformImg == null) return;
         updateTransform();
+        markDirty(dx, dy, dx + dw, dy + dh, false);
         GrowableDataBuffer buf = getBuffer();
         writeRectParams(buf, dx, dy, dw, dh, NGCanvas.DRAW_IMAGE);
         buf.putObject(platformImg);
@@ -375,6 +451,7 @@ public final class GraphicsContext {
         Object platformImg = img.impl_getPlatformImage();
         if (platformImg == null) return;
         updateTransform();
+        markDirty(dx, dy, dx + dw, dy + dh, false);
         GrowableDataBuffer buf = getBuffer();
         writeRectParams(buf, dx, dy, dw, dh, NGCanvas.DRAW_SUBIMAGE);
         buf.putFloat((float) sx);
@@ -389,6 +466,8 @@ public final class GraphicsContext {
     {
         updateTransform();
         GrowableDataBuffer buf = getBuffer();
+        // the bounds of the text are only known once it has been laid out
+        theCanvas.markAllDirty();
         buf.putByte(command);
         buf.putFloat((float) x);
         buf.putFloat((float) y);
@@ -444,6 +523,7 @@ public final class GraphicsContext {
         {
             buf.reset();
             buf.putByte(NGCanvas.RESET);
+            theCanvas.markAllDirty();
             updateDimensions();
             txdirty = true;
             pathDirty = true;
@@ -1774,6 +1854,7 @@ public final class GraphicsContext {
                 @Override
                 public void setArgb(int x, int y, int argb) {
                     GrowableDataBuffer buf = getBuffer();
+                    theCanvas.addDirtyBounds(new RectBounds(x, y, x + 1, y + 1));
                     buf.putByte(NGCanvas.PUT_ARGB);
                     buf.putInt(x);
                     buf.putInt(y);
@@ -1793,6 +1874,7 @@ public final class GraphicsContext {
                                               byte[] pixels)
                 {
                     GrowableDataBuffer buf = getBuffer();
+                    theCanvas.addDirtyBounds(new RectBounds(x, y, x + w, y + h));
                     buf.putByte(NGCanvas.PUT_ARGBPRE_BUF);
                     buf.putInt(x);
                     buf.putInt(y);
@@ -2002,6 +2084,7 @@ public final class GraphicsContext {
      */
     public void applyEffect(Effect e) {
         GrowableDataBuffer buf = getBuffer();
+        theCanvas.markAllDirty();
         buf.putByte(NGCanvas.FX_APPLY_EFFECT);
         Effect effect = e.impl_copy();
         effect.impl_sync();
@@ -31,9 +31,8 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.concurrent.CancellationException;
 import java.util.regex.Pattern;
 import javafx.animation.KeyFrame;
@@ -52,6 +51,7 @@ import javafx.event.EventHandler;
 import javafx.scene.paint.Color;
 import javafx.util.Duration;
 import com.sun.javafx.runtime.async.AsyncOperation;
+import com.sun.javafx.runtime.async.AsyncOperationScheduler;
 import com.sun.javafx.runtime.async.AsyncOperationListener;
 import com.sun.javafx.tk.ImageLoader;
 import com.sun.javafx.tk.PlatformImage;
@@ -722,6 +722,71 @@ public class Image {
         initialize(Toolkit.getToolkit().createPlatformImage(width, height));
     }
 
+    /**
+     * Package private internal constructor used only by {@link WritableImage}
+     * for images which store their pixels in an application supplied buffer.
+     * 
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param pixelformat the format of the pixels in the buffer
+     * @param buffer the buffer holding the pixels, from its position onwards
+     * @param scanlineStride the distance between rows in elements of the buffer
+     * @throws IllegalArgumentException if either dimension is negative or
+     *         zero, or the format, buffer or stride is not usable.
+     */
+    Image(int width, int height, WritablePixelFormat<?> pixelformat,
+          Buffer buffer, int scanlineStride)
+    {
+        this(null, null, width, height, false, false, false);
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image dimensions must be positive (w,h > 0)");
+        }
+        Buffer pixels = slicePixelBuffer(width, height, pixelformat,
+                                         buffer, scanlineStride);
+        initialize(Toolkit.getToolkit().createPlatformImage(width, height,
+                                                            pixelformat, pixels,
+                                                            scanlineStride));
+    }
+
+    private static Buffer slicePixelBuffer(int width, int height,
+                                           WritablePixelFormat<?> pixelformat,
+                                           Buffer buffer, int scanlineStride)
+    {
+        int pixelElems;
+        Buffer pixels;
+        switch (pixelformat.getType()) {
+            case INT_ARGB_PRE:
+                if (!(buffer instanceof IntBuffer)) {
+                    throw new IllegalArgumentException("INT_ARGB_PRE pixels require an IntBuffer");
+                }
+                // the pixels of a direct buffer are read by native code
+                if (buffer.isDirect() &&
+                    ((IntBuffer) buffer).order() != ByteOrder.nativeOrder())
+                {
+                    throw new IllegalArgumentException("Direct IntBuffer must use the native byte order");
+                }
+                pixels = ((IntBuffer) buffer).slice();
+                pixelElems = 1;
+                break;
+            case BYTE_BGRA_PRE:
+                if (!(buffer instanceof ByteBuffer)) {
+                    throw new IllegalArgumentException("BYTE_BGRA_PRE pixels require a ByteBuffer");
+                }
+                pixels = ((ByteBuffer) buffer).slice();
+                pixelElems = 4;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported pixel format: " + pixelformat.getType());
+        }
+        if (scanlineStride < width * pixelElems) {
+            throw new IllegalArgumentException("Scanline stride is too small");
+        }
+        if (pixels.capacity() < (long) (height - 1) * scanlineStride + width * pixelElems) {
+            throw new IllegalArgumentException("Buffer is too small for the image");
+        }
+        return pixels;
+    }
+
     private Image(Object externalImage) {
         this(null, null, 0, 0, false, false, false);
         initialize(externalImage);
@@ -818,18 +883,14 @@ public class Image {
     private Animation animation;
     // We keep the animation frames associated with the Image rather than with
     // the animation, so most of the data can be garbage collected while
-    // the animation is still running.
-    private PlatformImage[] animFrames;
+    // the animation is still running. The frames are requested from the
+    // loader as they are shown, so that loaders can decode them on demand.
+    private ImageLoader animFrameLoader;
 
     // Generates the animation Timeline for multiframe images.
     private void initializeAnimatedImage(ImageLoader loader) {
-        final int frameCount = loader.getFrameCount();
-        animFrames = new PlatformImage[frameCount];
+        animFrameLoader = loader;
 
-        for (int i = 0; i < frameCount; ++i) {
-            animFrames[i] = loader.getFrame(i);
-        }
-        
         PlatformImage zeroFrame = loader.getFrame(0);
 
         double w = loader.getWidth() / zeroFrame.getPixelScale();
@@ -874,7 +935,7 @@ public class Image {
             final Image image = imageRef.get();
             if (image != null) {
                 image.platformImagePropertyImpl().set(
-                        image.animFrames[frameIndex]);
+                        image.animFrameLoader.getFrame(frameIndex));
             } else {
                 timeline.stop();
             }
@@ -893,36 +954,15 @@ public class Image {
         }
     }
 
-    private void cycleTasks() {
-        synchronized (pendingTasks) {
-            runningTasks--;
-            // do we have any pending tasks to run ?
-            // we can assume we are under the throttle limit because
-            // one task just completed.
-            final ImageTask nextTask = pendingTasks.poll();
-            if (nextTask != null) {
-                runningTasks++;
-                nextTask.start();
-            }
-        }
-    }
-
     private void loadInBackground() {
         backgroundTask = new ImageTask();
         // This is an artificial throttle on background image loading tasks.
         // It has been shown that with large images, we can quickly use up the
         // heap loading images, even if they result in thumbnails.
-        // The limit of MAX_RUNNING_TASKS is arbitrary, and was based on initial
-        // testing with
-        // about 60 2-6 megapixel images.
-        synchronized (pendingTasks) {
-            if (runningTasks >= MAX_RUNNING_TASKS) {
-                pendingTasks.offer(backgroundTask);
-            } else {
-                runningTasks++;
-                backgroundTask.start();
-            }
-        }
+        // The default limit of 4 running tasks is arbitrary, and was based on
+        // initial testing with about 60 2-6 megapixel images.
+        // Queued tasks of images which get garbage collected are dropped.
+        backgroundTask.start();
     }
 
     // Used by SwingUtils.toFXImage
@@ -978,10 +1018,8 @@ public class Image {
         platformImage.set(newPlatformImage);
     }
 
-    private static final int MAX_RUNNING_TASKS = 4;
-    private static int runningTasks = 0;
-    private static final Queue<ImageTask> pendingTasks =
-            new LinkedList<ImageTask>();
+    private static final AsyncOperationScheduler loadingScheduler =
+            AsyncOperationScheduler.getImageLoadingScheduler();
 
     private final class ImageTask
             implements AsyncOperationListener<ImageLoader> {
@@ -995,19 +1033,19 @@ public class Image {
         @Override
         public void onCancel() {
             finishImage(new CancellationException("Loading cancelled"));
-            cycleTasks();
+            loadingScheduler.finished(peer);
         }
 
         @Override
         public void onException(Exception exception) {
             finishImage(exception);
-            cycleTasks();
+            loadingScheduler.finished(peer);
         }
 
         @Override
         public void onCompletion(ImageLoader value) {
             finishImage(value);
-            cycleTasks();
+            loadingScheduler.finished(peer);
         }
 
         @Override
@@ -1021,10 +1059,11 @@ public class Image {
         }
 
         public void start() {
-            peer.start();
+            loadingScheduler.submit(peer);
         }
 
         public void cancel() {
+            loadingScheduler.remove(peer);
             peer.cancel();
         }
 
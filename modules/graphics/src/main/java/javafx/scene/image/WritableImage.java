@@ -132,6 +132,67 @@ public class WritableImage extends Image {
         getPixelWriter().setPixels(0, 0, width, height, reader, x, y);
     }
 
+    /**
+     * Construct an image of the specified dimensions which stores its
+     * pixels in the indicated buffer, without copying them.
+     * The buffer is shared with the image from its current position
+     * onwards: the pixel at {@code (x, y)} starts at element
+     * {@code y * scanlineStride + x} of an {@code IntBuffer} holding
+     * {@link PixelFormat#getIntArgbPreInstance() INT_ARGB_PRE} pixels, or at
+     * element {@code y * scanlineStride + x * 4} of a {@code ByteBuffer}
+     * holding {@link PixelFormat#getByteBgraPreInstance() BYTE_BGRA_PRE}
+     * pixels, which are the only two formats supported.
+     * A direct {@code IntBuffer} must use the native byte order.
+     * <p>
+     * The application may change the pixels in the buffer at any time on
+     * the JavaFX Application Thread, after which it must call
+     * {@link #bufferUpdated(int, int, int, int) bufferUpdated} with the
+     * region that it changed so that the new pixels are displayed.
+     * Only that region is then transferred to the graphics hardware.
+     * The {@code PixelReader} and {@code PixelWriter} of the image
+     * read and write the buffer directly.
+     * The dimensions must both be positive numbers <code>(&gt;&nbsp;0)</code>.
+     * 
+     * @param width the desired width of the writable image
+     * @param height the desired height of the desired image
+     * @param pixelformat the format of the pixels stored in the buffer
+     * @param buffer the buffer which stores the pixels of the image
+     * @param scanlineStride the distance between the start of one row of
+     *        pixels and the next, in elements of the buffer
+     * @throws IllegalArgumentException if either dimension is negative or
+     *         zero, if the format is not supported or does not match the
+     *         type of buffer, or if the buffer is too small to hold the
+     *         pixels of the image with the given stride
+     * @throws NullPointerException if the format or buffer is null
+     * @since JavaFX 8u20
+     */
+    public <T extends Buffer> WritableImage(@NamedArg("width") int width, @NamedArg("height") int height,
+                                            @NamedArg("pixelformat") WritablePixelFormat<T> pixelformat,
+                                            @NamedArg("buffer") T buffer,
+                                            @NamedArg("scanlineStride") int scanlineStride)
+    {
+        super(width, height, pixelformat, buffer, scanlineStride);
+    }
+
+    /**
+     * Indicates that the application has changed the pixels in the given
+     * region of the buffer which this image was constructed with, so that
+     * the image is redrawn with the new pixels.
+     * Changing the pixels through the {@code PixelWriter} of the image
+     * does not require a call to this method.
+     * This method must be called on the JavaFX Application Thread.
+     * 
+     * @param x the X coordinate of the upper left corner of the region
+     * @param y the Y coordinate of the upper left corner of the region
+     * @param width the width of the region
+     * @param height the height of the region
+     * @since JavaFX 8u20
+     */
+    public final void bufferUpdated(int x, int y, int width, int height) {
+        acc_platformImageProperty().get().markDirty(x, y, width, height);
+        pixelsDirty();
+    }
+
     @Override
     boolean isAnimation() {
         return true;
@@ -32,6 +32,7 @@
 #include "jni.h"
 
 #include "com_sun_javafx_iio_jpeg_JPEGImageLoader.h"
+#include "com_sun_javafx_iio_jpeg_JPEGImageWriter.h"
 
 /* headers from libjpeg */
 #include <jpeglib.h>
@@ -91,6 +92,7 @@ static jmethodID JPEGImageLoader_setInputAttributesID;
 static jmethodID JPEGImageLoader_setOutputAttributesID;
 static jmethodID JPEGImageLoader_updateImageProgressID;
 static jmethodID JPEGImageLoader_emitWarningID;
+static jmethodID OutputStream_writeID;
 
 /* Initialize the Java VM instance variable when the library is
    first loaded */
@@ -1481,9 +1483,9 @@ JNIEXPORT jint JNICALL Java_com_sun_javafx_iio_jpeg_JPEGImageLoader_startDecompr
     struct jpeg_source_mgr *src = cinfo->src;
     sun_jpeg_error_ptr jerr;
 
-    jfloat x_scale;
-    jfloat y_scale;
-    jfloat max_scale;
+    jlong num_x;
+    jlong num_y;
+    jlong num;
 
     if (GET_ARRAYS(env, data, &cinfo->src->next_input_byte) == NOT_OK) {
         ThrowByName(env,
@@ -1518,29 +1520,28 @@ JNIEXPORT jint JNICALL Java_com_sun_javafx_iio_jpeg_JPEGImageLoader_startDecompr
      *     unsigned int scale_num, scale_denom
      *
      *     Scale the image by the fraction scale_num/scale_denom.  Default is
-     *     1/1, or no scaling.  Currently, the only supported scaling ratios
-     *     are 1/1, 1/2, 1/4, and 1/8.  (The library design allows for arbitrary
-     *     scaling ratios but this is not likely to be implemented any time soon.)
-     *     Smaller scaling ratios permit significantly faster decoding since
-     *     fewer pixels need be processed and a simpler IDCT method can be used.
+     *     1/1, or no scaling.
+     *
+     * libjpeg 7 implements every ratio N/8 for N in 1..16 directly in the
+     * IDCT.  Pick the smallest N/8 which still produces at least the
+     * requested number of pixels along both axes, so that the Java side
+     * only ever has to minify the remainder with the smooth scaler.
+     * Smaller scaling ratios permit significantly faster decoding since
+     * fewer pixels need be processed.
      */
 
-    cinfo->scale_num = 1;
-
-    x_scale = (jfloat) dest_width / (jfloat) cinfo->image_width;
-    y_scale = (jfloat) dest_height / (jfloat) cinfo->image_height;
-    max_scale = x_scale > y_scale ? x_scale : y_scale;
-
-    if (max_scale > 0.5) {
-        cinfo->scale_denom = 1;
-    } else if (max_scale > 0.25) {
-        cinfo->scale_denom = 2;
-    } else if (max_scale > 0.125) {
-        cinfo->scale_denom = 4;
-    } else {
-        cinfo->scale_denom = 8;
+    num_x = ((jlong) dest_width * 8 + cinfo->image_width - 1) / cinfo->image_width;
+    num_y = ((jlong) dest_height * 8 + cinfo->image_height - 1) / cinfo->image_height;
+    num = num_x > num_y ? num_x : num_y;
+    if (num < 1) {
+        num = 1;
+    } else if (num > 8) {
+        num = 8;
     }
 
+    cinfo->scale_num = (unsigned int) num;
+    cinfo->scale_denom = 8;
+
     jpeg_start_decompress(cinfo);
 
     RELEASE_ARRAYS(env, data, cinfo->src->next_input_byte);
@@ -1706,3 +1707,136 @@ JNIEXPORT jobject JNICALL Java_com_sun_javafx_iio_jpeg_JPEGImageLoader_decompres
     return (*env)->NewDirectByteBuffer(env, buf, len);
 }
 #endif
+
+/********************* Writer JNI calls ***********************/
+
+#define WRITER_BUFFER_SIZE 4096
+
+/*
+ * A libjpeg destination manager which writes the compressed data to a
+ * Java OutputStream through a Java byte array.
+ */
+typedef struct {
+    struct jpeg_destination_mgr pub;
+    JNIEnv *env;
+    jobject stream;
+    jbyteArray javaBuffer;
+    JOCTET buffer[WRITER_BUFFER_SIZE];
+} streamDestination;
+
+typedef streamDestination * streamDestinationPtr;
+
+static void imageio_write_buffer(j_compress_ptr cinfo, size_t length) {
+    streamDestinationPtr dest = (streamDestinationPtr) cinfo->dest;
+    JNIEnv *env = dest->env;
+
+    if (length > 0) {
+        (*env)->SetByteArrayRegion(env, dest->javaBuffer, 0, (jsize) length,
+                (jbyte *) dest->buffer);
+        (*env)->CallVoidMethod(env, dest->stream, OutputStream_writeID,
+                dest->javaBuffer, 0, (jint) length);
+        if ((*env)->ExceptionCheck(env)) {
+            // Abandon the compression, the exception is thrown on return
+            sun_jpeg_error_ptr err = (sun_jpeg_error_ptr) cinfo->err;
+            longjmp(err->setjmp_buffer, 1);
+        }
+    }
+    dest->pub.next_output_byte = dest->buffer;
+    dest->pub.free_in_buffer = WRITER_BUFFER_SIZE;
+}
+
+METHODDEF(void)
+imageio_init_destination(j_compress_ptr cinfo) {
+    streamDestinationPtr dest = (streamDestinationPtr) cinfo->dest;
+    dest->pub.next_output_byte = dest->buffer;
+    dest->pub.free_in_buffer = WRITER_BUFFER_SIZE;
+}
+
+METHODDEF(boolean)
+imageio_empty_output_buffer(j_compress_ptr cinfo) {
+    imageio_write_buffer(cinfo, WRITER_BUFFER_SIZE);
+    return TRUE;
+}
+
+METHODDEF(void)
+imageio_term_destination(j_compress_ptr cinfo) {
+    streamDestinationPtr dest = (streamDestinationPtr) cinfo->dest;
+    imageio_write_buffer(cinfo, WRITER_BUFFER_SIZE - dest->pub.free_in_buffer);
+}
+
+JNIEXPORT void JNICALL Java_com_sun_javafx_iio_jpeg_JPEGImageWriter_initJPEGWriterMethodIDs
+(JNIEnv *env, jclass cls, jclass OutputStreamClass) {
+    OutputStream_writeID = (*env)->GetMethodID(env,
+            OutputStreamClass,
+            "write",
+            "([BII)V");
+}
+
+JNIEXPORT void JNICALL Java_com_sun_javafx_iio_jpeg_JPEGImageWriter_compress
+(JNIEnv *env, jclass cls, jobject stream, jbyteArray pixels,
+        jint width, jint height, jint numComponents, jint quality) {
+    struct jpeg_compress_struct cinfo;
+    struct sun_jpeg_error_mgr jerr;
+    streamDestination dest;
+    JSAMPROW row;
+    jsize stride = width * numComponents;
+
+    dest.env = env;
+    dest.stream = stream;
+    dest.javaBuffer = (*env)->NewByteArray(env, WRITER_BUFFER_SIZE);
+    if (dest.javaBuffer == NULL) {
+        return;
+    }
+    row = (JSAMPROW) malloc(stride);
+    if (row == NULL) {
+        ThrowByName(env, "java/lang/OutOfMemoryError",
+                "Writing JPEG Stream");
+        return;
+    }
+
+    memset(&cinfo, 0, sizeof (cinfo));
+    cinfo.err = jpeg_std_error(&jerr.pub);
+    jerr.pub.error_exit = sun_jpeg_error_exit;
+
+    if (setjmp(jerr.setjmp_buffer)) {
+        /* If we get here, the JPEG code has signaled an error
+           while writing, or the OutputStream threw an exception. */
+        if (!(*env)->ExceptionCheck(env)) {
+            char buffer[JMSG_LENGTH_MAX];
+            (*cinfo.err->format_message) ((j_common_ptr) &cinfo, buffer);
+            ThrowByName(env, "java/io/IOException", buffer);
+        }
+        jpeg_destroy_compress(&cinfo);
+        free(row);
+        return;
+    }
+
+    jpeg_create_compress(&cinfo);
+    cinfo.dest = &dest.pub;
+    dest.pub.init_destination = imageio_init_destination;
+    dest.pub.empty_output_buffer = imageio_empty_output_buffer;
+    dest.pub.term_destination = imageio_term_destination;
+
+    cinfo.image_width = width;
+    cinfo.image_height = height;
+    cinfo.input_components = numComponents;
+    cinfo.in_color_space = (numComponents == 1) ? JCS_GRAYSCALE : JCS_RGB;
+    jpeg_set_defaults(&cinfo);
+    jpeg_set_quality(&cinfo, quality, TRUE);
+
+    jpeg_start_compress(&cinfo, TRUE);
+    while (cinfo.next_scanline < cinfo.image_height) {
+        (*env)->GetByteArrayRegion(env, pixels,
+                (jsize) cinfo.next_scanline * stride, stride, (jbyte *) row);
+        if ((*env)->ExceptionCheck(env)) {
+            jpeg_destroy_compress(&cinfo);
+            free(row);
+            return;
+        }
+        jpeg_write_scanlines(&cinfo, &row, 1);
+    }
+    jpeg_finish_compress(&cinfo);
+
+    jpeg_destroy_compress(&cinfo);
+    free(row);
+}
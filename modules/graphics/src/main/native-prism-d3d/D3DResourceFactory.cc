@@ -285,7 +285,7 @@ typedef D3DResource* PD3DResource;
  */
 JNIEXPORT jint JNICALL Java_com_sun_prism_d3d_D3DResourceFactory_nUpdateTextureI
   (JNIEnv *env, jclass, jlong ctx, jlong resource,
-   jobject buf, jintArray pixelArray,
+   jobject buf, jintArray pixelArray, jint arrayOffset,
    jint dstx, jint dsty,
    jint srcx, jint srcy,
    jint srcw, jint srch, jint srcscan)
@@ -294,21 +294,24 @@ JNIEXPORT jint JNICALL Java_com_sun_prism_d3d_D3DResourceFactory_nUpdateTextureI
     RETURN_STATUS_IF_NULL(resource, E_FAIL);
 
     jint size = pixelArray ?
-        env->GetArrayLength(pixelArray) * sizeof(jint) :
+        (env->GetArrayLength(pixelArray) - arrayOffset) * sizeof(jint) :
         jint(env->GetDirectBufferCapacity(buf));
 
-    PBYTE pixels = PBYTE((pixelArray != NULL) ?
+    PBYTE array = PBYTE((pixelArray != NULL) ?
         env->GetPrimitiveArrayCritical(pixelArray, NULL) :
         env->GetDirectBufferAddress(buf));
 
-    RETURN_STATUS_IF_NULL(pixels, E_OUTOFMEMORY);
+    RETURN_STATUS_IF_NULL(array, E_OUTOFMEMORY);
+
+    // the buffer may be a slice starting within its array
+    PBYTE pixels = (pixelArray != NULL) ? array + arrayOffset * sizeof(jint) : array;
 
     HRESULT res = updateTexture(
         PD3DContext(ctx), PD3DResource(resource), pixels, size, PFORMAT_INT_ARGB_PRE,
         dstx, dsty, srcx, srcy, srcw, srch, srcscan);
 
     if (pixelArray != NULL) {
-        env->ReleasePrimitiveArrayCritical(pixelArray, pixels, JNI_ABORT);
+        env->ReleasePrimitiveArrayCritical(pixelArray, array, JNI_ABORT);
     }
 
     return res;
@@ -320,7 +323,7 @@ JNIEXPORT jint JNICALL Java_com_sun_prism_d3d_D3DResourceFactory_nUpdateTextureI
  */
 JNIEXPORT jint JNICALL Java_com_sun_prism_d3d_D3DResourceFactory_nUpdateTextureB
   (JNIEnv *env, jclass, jlong ctx, jlong resource,
-   jobject buf, jbyteArray pixelArray, jint formatHint,
+   jobject buf, jbyteArray pixelArray, jint arrayOffset, jint formatHint,
    jint dstx, jint dsty,
    jint srcx, jint srcy,
    jint srcw, jint srch, jint srcscan)
@@ -329,21 +332,24 @@ JNIEXPORT jint JNICALL Java_com_sun_prism_d3d_D3DResourceFactory_nUpdateTextureB
     RETURN_STATUS_IF_NULL(resource, E_FAIL);
 
     jint size = pixelArray ?
-        env->GetArrayLength(pixelArray) * sizeof(jbyte) :
+        (env->GetArrayLength(pixelArray) - arrayOffset) * sizeof(jbyte) :
         jint(env->GetDirectBufferCapacity(buf));
 
-    PBYTE pixels = PBYTE((pixelArray != NULL) ?
+    PBYTE array = PBYTE((pixelArray != NULL) ?
         env->GetPrimitiveArrayCritical(pixelArray, NULL) :
         env->GetDirectBufferAddress(buf));
 
-    RETURN_STATUS_IF_NULL(pixels, E_OUTOFMEMORY);
+    RETURN_STATUS_IF_NULL(array, E_OUTOFMEMORY);
+
+    // the buffer may be a slice starting within its array
+    PBYTE pixels = (pixelArray != NULL) ? array + arrayOffset * sizeof(jbyte) : array;
 
     HRESULT res = updateTexture(
         PD3DContext(ctx), PD3DResource(resource), pixels, size, formatHint,
         dstx, dsty, srcx, srcy, srcw, srch, srcscan);
 
     if (pixelArray != NULL) {
-        env->ReleasePrimitiveArrayCritical(pixelArray, pixels, JNI_ABORT);
+        env->ReleasePrimitiveArrayCritical(pixelArray, array, JNI_ABORT);
     }
 
     return res;
@@ -355,7 +361,7 @@ JNIEXPORT jint JNICALL Java_com_sun_prism_d3d_D3DResourceFactory_nUpdateTextureB
  */
 JNIEXPORT jint JNICALL Java_com_sun_prism_d3d_D3DResourceFactory_nUpdateTextureF
   (JNIEnv *env, jclass, jlong ctx, jlong resource,
-   jobject buf, jfloatArray pixelArray,
+   jobject buf, jfloatArray pixelArray, jint arrayOffset,
    jint dstx, jint dsty,
    jint srcx, jint srcy,
    jint srcw, jint srch, jint srcscan)
@@ -364,21 +370,24 @@ JNIEXPORT jint JNICALL Java_com_sun_prism_d3d_D3DResourceFactory_nUpdateTextureF
     RETURN_STATUS_IF_NULL(resource, E_FAIL);
 
     jint size = pixelArray ?
-        env->GetArrayLength(pixelArray) * sizeof(jfloat) :
+        (env->GetArrayLength(pixelArray) - arrayOffset) * sizeof(jfloat) :
         jint(env->GetDirectBufferCapacity(buf));
 
-    PBYTE pixels = PBYTE((pixelArray != NULL) ?
+    PBYTE array = PBYTE((pixelArray != NULL) ?
         env->GetPrimitiveArrayCritical(pixelArray, NULL) :
         env->GetDirectBufferAddress(buf));
 
-    RETURN_STATUS_IF_NULL(pixels, E_OUTOFMEMORY);
+    RETURN_STATUS_IF_NULL(array, E_OUTOFMEMORY);
+
+    // the buffer may be a slice starting within its array
+    PBYTE pixels = (pixelArray != NULL) ? array + arrayOffset * sizeof(jfloat) : array;
 
     HRESULT res = updateTexture(
         PD3DContext(ctx), PD3DResource(resource), pixels, size, PFORMAT_FLOAT_XYZW,
         dstx, dsty, srcx, srcy, srcw, srch, srcscan);
 
     if (pixelArray != NULL) {
-        env->ReleasePrimitiveArrayCritical(pixelArray, pixels, JNI_ABORT);
+        env->ReleasePrimitiveArrayCritical(pixelArray, array, JNI_ABORT);
     }
 
     return res;
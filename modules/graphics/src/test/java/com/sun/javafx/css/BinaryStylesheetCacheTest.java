@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.css;
+
+import com.sun.javafx.css.parser.CSSParser;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.file.Files;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryStylesheetCacheTest {
+
+    private File directory;
+    private File cssFile;
+    private URL cssURL;
+    private BinaryStylesheetCache cache;
+
+    public BinaryStylesheetCacheTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("BinaryStylesheetCacheTest").toFile();
+        cssFile = new File(directory, "test.css");
+        cssURL = cssFile.toURI().toURL();
+        cache = new BinaryStylesheetCache(new File(directory, "cache"), "1.0/5");
+    }
+
+    @After
+    public void tearDown() {
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) delete(f);
+        }
+        file.delete();
+    }
+
+    private void writeCss(String css) throws IOException {
+        final FileOutputStream fos = new FileOutputStream(cssFile);
+        try {
+            fos.write(css.getBytes());
+        } finally {
+            fos.close();
+        }
+    }
+
+    private byte[] digest(String css) {
+        return BinaryStylesheetCache.digest(css.getBytes());
+    }
+
+    private static void assertSameRules(Stylesheet expected, Stylesheet actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getUrl(), actual.getUrl());
+        assertEquals(expected.getRules().size(), actual.getRules().size());
+        for (int n=0; n<expected.getRules().size(); n++) {
+            final Rule expectedRule = expected.getRules().get(n);
+            final Rule actualRule = actual.getRules().get(n);
+            assertEquals(expectedRule.getSelectors().toString(), actualRule.getSelectors().toString());
+            // binary rules read their declarations lazily
+            assertEquals(expectedRule.getDeclarations().toString(), actualRule.getDeclarations().toString());
+        }
+    }
+
+    private static final String CSS =
+            ".rect { -fx-fill: red; -fx-stroke: yellow; -fx-stroke-width: 3px; }\n" +
+            ".rect:hover .label { -fx-text-fill: derive(#336699, 20%); }\n" +
+            "#id > .button { -fx-background-image: url(\"image.png\"); }\n";
+
+    @Test
+    public void testParseAddsStylesheetToCache() throws IOException {
+        writeCss(CSS);
+
+        final File cacheFile = cache.getCacheFile(cssURL.toExternalForm());
+        assertFalse(cacheFile.exists());
+
+        final Stylesheet stylesheet = cache.parse(cssURL);
+        assertSameRules(CSSParser.getInstance().parse(cssURL), stylesheet);
+        assertTrue(cacheFile.isFile());
+
+        final Stylesheet cached = cache.read(cssURL.toExternalForm(), digest(CSS));
+        assertSameRules(stylesheet, cached);
+    }
+
+    @Test
+    public void testParseReadsCachedStylesheet() throws IOException {
+        writeCss(CSS);
+        cache.parse(cssURL);
+
+        final File cacheFile = cache.getCacheFile(cssURL.toExternalForm());
+        final long lastModified = cacheFile.lastModified();
+        final long length = cacheFile.length();
+
+        final Stylesheet stylesheet = cache.parse(cssURL);
+        assertSameRules(CSSParser.getInstance().parse(cssURL), stylesheet);
+        assertEquals(lastModified, cacheFile.lastModified());
+        assertEquals(length, cacheFile.length());
+        assertEquals(1, cacheFile.getParentFile().list().length);
+    }
+
+    @Test
+    public void testChangedStylesheetIsParsedAgain() throws IOException {
+        writeCss(CSS);
+        cache.parse(cssURL);
+
+        final String changedCss = CSS + ".text { -fx-font-size: 2em; }\n";
+        writeCss(changedCss);
+
+        final Stylesheet stylesheet = cache.parse(cssURL);
+        assertEquals(4, stylesheet.getRules().size());
+        assertNull(cache.read(cssURL.toExternalForm(), digest(CSS)));
+        assertSameRules(stylesheet, cache.read(cssURL.toExternalForm(), digest(changedCss)));
+    }
+
+    @Test
+    public void testStylesheetCachedByOtherVersionIsNotRead() throws IOException {
+        writeCss(CSS);
+        cache.parse(cssURL);
+
+        final BinaryStylesheetCache otherCache =
+                new BinaryStylesheetCache(new File(directory, "cache"), "2.0/5");
+        assertNull(otherCache.read(cssURL.toExternalForm(), digest(CSS)));
+
+        assertSameRules(CSSParser.getInstance().parse(cssURL), otherCache.parse(cssURL));
+        assertNotNull(otherCache.read(cssURL.toExternalForm(), digest(CSS)));
+        assertNull(cache.read(cssURL.toExternalForm(), digest(CSS)));
+    }
+
+    @Test
+    public void testTruncatedCacheFileIsReplaced() throws IOException {
+        writeCss(CSS);
+        cache.parse(cssURL);
+
+        final File cacheFile = cache.getCacheFile(cssURL.toExternalForm());
+        final RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw");
+        try {
+            raf.setLength(raf.length() / 2);
+        } finally {
+            raf.close();
+        }
+        assertNull(cache.read(cssURL.toExternalForm(), digest(CSS)));
+
+        assertSameRules(CSSParser.getInstance().parse(cssURL), cache.parse(cssURL));
+        assertNotNull(cache.read(cssURL.toExternalForm(), digest(CSS)));
+    }
+}
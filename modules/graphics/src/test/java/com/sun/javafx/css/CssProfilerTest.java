@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.css;
+
+import com.sun.javafx.css.parser.CSSParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Stage;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CssProfilerTest {
+
+    private CssProfiler profiler;
+
+    public CssProfilerTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+
+        // Note: the name of the UA stylesheet must differ from the current one
+        // since StyleManager is a singleton.
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(
+                CSSParser.getInstance().parse("CssProfilerTest.setUp",
+                ".root { -base: red; -derived: -base; }" +
+                ".rect { -fx-fill: -derived; }" +
+                ".rect:hover { -fx-stroke: -base; }"
+        ));
+
+        profiler = CssProfiler.getDefaultBean();
+        profiler.reset();
+    }
+
+    @After
+    public void tearDown() {
+        profiler.setEnabled(false);
+        profiler.reset();
+    }
+
+    private void showScene() {
+        final Group root = new Group();
+        root.getStyleClass().add("root");
+        for (int n=0; n<10; n++) {
+            final Rectangle rect = new Rectangle(10, 10);
+            rect.getStyleClass().add("rect");
+            root.getChildren().add(rect);
+        }
+
+        Stage stage = new Stage();
+        stage.setScene(new Scene(root));
+        stage.show();
+    }
+
+    @Test
+    public void testNothingIsRecordedUnlessEnabled() {
+
+        profiler.setEnabled(false);
+        showScene();
+
+        assertEquals(0, profiler.getSelectorMatches());
+        assertEquals(0, profiler.getCacheHits() + profiler.getCacheMisses());
+        assertEquals(0, profiler.getStyleCacheHits() + profiler.getStyleCacheMisses());
+        assertEquals(0, profiler.getLookupsResolved());
+        assertEquals(0, profiler.getSlowestSelectors().length);
+    }
+
+    @Test
+    public void testRecordsMatchesCachesAndLookups() {
+
+        profiler.setEnabled(true);
+        assertTrue(CssProfiler.isProfiling());
+        showScene();
+
+        assertTrue(profiler.getSelectorMatches() > 0);
+        assertTrue(profiler.getSelectorsApplied() > 0);
+        assertTrue(profiler.getSelectorsApplied() <= profiler.getSelectorMatches());
+
+        // the rectangles are styled alike, so all but the first find
+        // their selectors and their style map in the caches
+        assertTrue(profiler.getCacheMisses() > 0);
+        assertTrue(profiler.getCacheHits() >= 9);
+        assertTrue(profiler.getStyleMapHits() >= 9);
+        assertTrue(profiler.getStyleCacheMisses() > 0);
+        assertTrue(profiler.getStyleCacheHits() > 0);
+
+        // -fx-fill: -derived resolves -derived, and then -base, which is
+        // recorded once as a chain of two
+        assertTrue(profiler.getLookupsResolved() > 0);
+        assertEquals(2, profiler.getMaxLookupDepth());
+        assertEquals(2, profiler.getAverageLookupDepth(), 0);
+
+        final String[] selectors = profiler.getSlowestSelectors();
+        assertTrue(selectors.length > 0);
+        boolean found = false;
+        for (String selector : selectors) {
+            if (selector.startsWith("*.rect ")) found = true;
+        }
+        assertTrue(found);
+        assertTrue(profiler.getSlowestProperties().length > 0);
+    }
+
+    @Test
+    public void testLookupDepths() {
+
+        CssProfiler.lookupResolved(3);
+        CssProfiler.lookupResolved(1);
+        assertEquals(2, profiler.getLookupsResolved());
+        assertEquals(3, profiler.getMaxLookupDepth());
+        assertEquals(2, profiler.getAverageLookupDepth(), 0);
+    }
+
+    @Test
+    public void testReset() {
+
+        profiler.setEnabled(true);
+        showScene();
+        assertTrue(profiler.getSelectorMatches() > 0);
+
+        profiler.reset();
+        assertEquals(0, profiler.getSelectorMatches());
+        assertEquals(0, profiler.getCacheHits() + profiler.getCacheMisses());
+        assertEquals(0, profiler.getMaxLookupDepth());
+        assertEquals(0, profiler.getSlowestSelectors().length);
+        assertEquals(0, profiler.getSlowestProperties().length);
+    }
+
+    @Test
+    public void testDump() throws IOException {
+
+        profiler.setEnabled(true);
+        showScene();
+
+        final File file = File.createTempFile("CssProfilerTest", ".txt");
+        try {
+            profiler.dump(file.getPath());
+            final String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            assertTrue(text, text.contains("selector matches: " + profiler.getSelectorMatches()));
+            assertTrue(text, text.contains("\t*.rect:hover"));
+            assertTrue(text, text.contains("\t-fx-fill"));
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -45,6 +45,7 @@ import javafx.css.StyleOrigin;
 import javafx.css.Styleable;
 import javafx.css.StyleableProperty;
 import javafx.scene.Group;
+import javafx.scene.layout.Region;
 import javafx.scene.Scene;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
@@ -207,4 +208,218 @@ public class Node_cssStateTransition_Test {
 
     }
 
+    @Test
+    public void testOnlyPropertiesWithChangedPseudoClassAreLookedUp() {
+
+        Stylesheet stylesheet = null;
+        try {
+            stylesheet = CSSParser.getInstance().parse(
+                "testOnlyPropertiesWithChangedPseudoClassAreLookedUp",
+                ".rect { -fx-fill: blue; -fx-stroke: black; -fx-stroke-width: 2px; }" +
+                ".rect:hover { -fx-fill: red; }" +
+                ".rect:focused { -fx-stroke: green; }"
+            );
+        } catch(IOException ioe) {
+            fail();
+        }
+
+        Rectangle rect1 = new Rectangle(50,50);
+        rect1.getStyleClass().add("rect");
+        Rectangle rect2 = new Rectangle(50,50);
+        rect2.getStyleClass().add("rect");
+
+        Group root = new Group();
+        root.getChildren().addAll(rect1, rect2);
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(stylesheet);
+
+        Scene scene = new Scene(root);
+        Stage stage = new Stage();
+        stage.setScene(scene);
+        stage.show();
+
+        // the first transition to hover looks up all of the properties
+        rect1.pseudoClassStateChanged(PseudoClass.getPseudoClass("hover"), true);
+        Toolkit.getToolkit().firePulse();
+        assertEquals(Color.RED, rect1.getFill());
+
+        final CssProfiler profiler = CssProfiler.getDefaultBean();
+        profiler.reset();
+        profiler.setEnabled(true);
+        try {
+            rect2.pseudoClassStateChanged(PseudoClass.getPseudoClass("hover"), true);
+            Toolkit.getToolkit().firePulse();
+
+            // only -fx-fill has a style with hover
+            assertEquals(1, profiler.getStyleCacheHits());
+            assertEquals(0, profiler.getStyleCacheMisses());
+        } finally {
+            profiler.setEnabled(false);
+            profiler.reset();
+        }
+
+        assertEquals(Color.RED, rect2.getFill());
+        assertEquals(Color.BLACK, rect2.getStroke());
+        assertEquals(2d, rect2.getStrokeWidth(), 1e-6);
+
+        rect2.pseudoClassStateChanged(PseudoClass.getPseudoClass("hover"), false);
+        Toolkit.getToolkit().firePulse();
+
+        assertEquals(Color.BLUE, rect2.getFill());
+        assertEquals(Color.BLACK, rect2.getStroke());
+        assertEquals(2d, rect2.getStrokeWidth(), 1e-6);
+    }
+
+    @Test
+    public void testLookupsFollowParentPseudoClassState() {
+
+        Stylesheet stylesheet = null;
+        try {
+            stylesheet = CSSParser.getInstance().parse(
+                "testLookupsFollowParentPseudoClassState",
+                ".group { -color: blue; }" +
+                ".group:hover { -color: red; }" +
+                ".rect { -fx-fill: -color; -fx-stroke: black; }"
+            );
+        } catch(IOException ioe) {
+            fail();
+        }
+
+        Rectangle rect = new Rectangle(50,50);
+        rect.getStyleClass().add("rect");
+
+        Group group = new Group();
+        group.getStyleClass().add("group");
+        group.getChildren().add(rect);
+
+        Group root = new Group();
+        root.getChildren().add(group);
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(stylesheet);
+
+        Scene scene = new Scene(root);
+        Stage stage = new Stage();
+        stage.setScene(scene);
+        stage.show();
+
+        assertEquals(Color.BLUE, rect.getFill());
+
+        // The first time through, each state is new. After that, the
+        // transitions only look up the properties which might change.
+        for (int n=0; n<2; n++) {
+
+            group.pseudoClassStateChanged(PseudoClass.getPseudoClass("hover"), true);
+            Toolkit.getToolkit().firePulse();
+
+            assertEquals(Color.RED, rect.getFill());
+            assertEquals(Color.BLACK, rect.getStroke());
+
+            group.pseudoClassStateChanged(PseudoClass.getPseudoClass("hover"), false);
+            Toolkit.getToolkit().firePulse();
+
+            assertEquals(Color.BLUE, rect.getFill());
+            assertEquals(Color.BLACK, rect.getStroke());
+        }
+    }
+
+    private static Paint getBackgroundFill(Region region) {
+        return region.getBackground().getFills().get(0).getFill();
+    }
+
+    @Test
+    public void testSubPropertiesFollowPseudoClassState() {
+
+        Stylesheet stylesheet = null;
+        try {
+            stylesheet = CSSParser.getInstance().parse(
+                "testSubPropertiesFollowPseudoClassState",
+                ".region { -fx-background-color: blue; }" +
+                ".region:hover { -fx-background-color: red; }" +
+                ".text { -fx-font-size: 10px; }" +
+                ".text:hover { -fx-font-size: 20px; }"
+            );
+        } catch(IOException ioe) {
+            fail();
+        }
+
+        // two of each, so that the second one's transitions take the fastpath
+        Region[] regions = new Region[2];
+        Text[] texts = new Text[2];
+        Group root = new Group();
+        for (int n=0; n<2; n++) {
+            regions[n] = new Region();
+            regions[n].getStyleClass().add("region");
+            texts[n] = new Text("text");
+            texts[n].getStyleClass().add("text");
+            root.getChildren().addAll(regions[n], texts[n]);
+        }
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(stylesheet);
+
+        Scene scene = new Scene(root);
+        Stage stage = new Stage();
+        stage.setScene(scene);
+        stage.show();
+
+        final PseudoClass hover = PseudoClass.getPseudoClass("hover");
+        for (int n=0; n<2; n++) {
+            for (int i=0; i<2; i++) {
+
+                regions[n].pseudoClassStateChanged(hover, true);
+                texts[n].pseudoClassStateChanged(hover, true);
+                Toolkit.getToolkit().firePulse();
+
+                assertEquals(Color.RED, getBackgroundFill(regions[n]));
+                assertEquals(20, texts[n].getFont().getSize(), 1e-6);
+
+                regions[n].pseudoClassStateChanged(hover, false);
+                texts[n].pseudoClassStateChanged(hover, false);
+                Toolkit.getToolkit().firePulse();
+
+                assertEquals(Color.BLUE, getBackgroundFill(regions[n]));
+                assertEquals(10, texts[n].getFont().getSize(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testRelativeSizesFollowFontChange() {
+
+        Stylesheet stylesheet = null;
+        try {
+            stylesheet = CSSParser.getInstance().parse(
+                "testRelativeSizesFollowFontChange",
+                ".text { -fx-font-size: 10px; -fx-stroke-width: 1em; }" +
+                ".text:hover { -fx-font-size: 20px; }"
+            );
+        } catch(IOException ioe) {
+            fail();
+        }
+
+        Text[] texts = new Text[2];
+        Group root = new Group();
+        for (int n=0; n<2; n++) {
+            texts[n] = new Text("text");
+            texts[n].getStyleClass().add("text");
+            root.getChildren().add(texts[n]);
+        }
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(stylesheet);
+
+        Scene scene = new Scene(root);
+        Stage stage = new Stage();
+        stage.setScene(scene);
+        stage.show();
+
+        final PseudoClass hover = PseudoClass.getPseudoClass("hover");
+        for (int n=0; n<2; n++) {
+            for (int i=0; i<2; i++) {
+
+                texts[n].pseudoClassStateChanged(hover, true);
+                Toolkit.getToolkit().firePulse();
+                assertEquals(20, texts[n].getStrokeWidth(), 1e-6);
+
+                texts[n].pseudoClassStateChanged(hover, false);
+                Toolkit.getToolkit().firePulse();
+                assertEquals(10, texts[n].getStrokeWidth(), 1e-6);
+            }
+        }
+    }
+
 }
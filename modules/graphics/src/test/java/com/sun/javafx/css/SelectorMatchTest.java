@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.css;
+
+import com.sun.javafx.css.parser.CSSParser;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableSet;
+import javafx.css.CssMetaData;
+import javafx.css.PseudoClass;
+import javafx.css.Styleable;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Stage;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SelectorMatchTest {
+
+    private Group root;
+    private List<Node> nodes;
+
+    public SelectorMatchTest() {
+    }
+
+    private static Stylesheet parse(String name, String css) {
+        try {
+            return CSSParser.getInstance().parse(name, css);
+        } catch (IOException ioe) {
+            fail(ioe.toString());
+            return null;
+        }
+    }
+
+    private static void addNodes(Node node, List<Node> nodes) {
+        nodes.add(node);
+        if (node instanceof Parent) {
+            for (Node child : ((Parent)node).getChildrenUnmodifiable()) {
+                addNodes(child, nodes);
+            }
+        }
+    }
+
+    private static PseudoClassState[] createTriggerStates(Styleable styleable) {
+        int depth = 0;
+        while (styleable != null) {
+            depth++;
+            styleable = styleable.getStyleableParent();
+        }
+        return new PseudoClassState[depth];
+    }
+
+    @Before
+    public void setUp() {
+
+        // Note: the name of the UA stylesheet must differ from the current one
+        // since StyleManager is a singleton.
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(parse(
+                "SelectorMatchTest.setUp",
+                ".rect { -fx-fill: red; }" +
+                ".a .rect:hover { -fx-stroke: yellow; }" +
+                ".a > .rect.odd:focused { -fx-stroke-width: 3px; }" +
+                ".b:pressed .rect { -fx-stroke: green; }" +
+                "#rect7 { -fx-fill: blue; }" +
+                "Rectangle.odd { -fx-arc-width: 4px; }"
+        ));
+
+        root = new Group();
+        root.getStyleClass().add("root");
+        for (int g=0; g<8; g++) {
+            final Group group = new Group();
+            group.getStyleClass().add(g % 2 == 0 ? "a" : "b");
+            for (int r=0; r<48; r++) {
+                final Rectangle rect = new Rectangle(10, 10);
+                rect.getStyleClass().add("rect");
+                if (r % 2 == 1) rect.getStyleClass().add("odd");
+                if (r % 16 == 7) rect.setId("rect7");
+                if (r % 12 == 5) rect.setStyle("-fx-stroke-width: 2px;");
+                group.getChildren().add(rect);
+            }
+            root.getChildren().add(group);
+        }
+
+        Scene scene = new Scene(root);
+        Stage stage = new Stage();
+        stage.setScene(scene);
+        stage.show();
+
+        nodes = new ArrayList<>();
+        addNodes(root, nodes);
+    }
+
+    private void assertMatchesLikeFindMatchingStyles(List<StyleManager.SelectorMatch> matches) {
+
+        final StyleManager styleManager = StyleManager.getInstance();
+        for (StyleManager.SelectorMatch match : matches) {
+            final Node node = match.getNode();
+            final StyleMap styleMap = styleManager.findMatchingStyles(match);
+
+            final PseudoClassState[] triggerStates = createTriggerStates(node);
+            final StyleMap expected = styleManager.findMatchingStyles(node, triggerStates);
+
+            assertSame(node.toString(), expected, styleMap);
+            assertEquals(triggerStates.length, match.getTriggerStates().length);
+            for (int n=0; n<triggerStates.length; n++) {
+                assertEquals(node.toString(), triggerStates[n], match.getTriggerStates()[n]);
+            }
+        }
+    }
+
+    private List<StyleManager.SelectorMatch> prepareMatches() {
+
+        final List<StyleManager.SelectorMatch> matches = new ArrayList<>();
+        for (Node node : nodes) {
+            final StyleManager.SelectorMatch match =
+                    StyleManager.getInstance().prepareMatch(node, createTriggerStates(node));
+            assertNotNull(node.toString(), match);
+            matches.add(match);
+        }
+        return matches;
+    }
+
+    @Test
+    public void testMatchSelectorsMatchesLikeFindMatchingStyles() {
+
+        final List<StyleManager.SelectorMatch> matches = prepareMatches();
+        assertTrue(matches.size() >= 2 * StyleManager.PARALLEL_MIN_MATCHES);
+
+        StyleManager.getInstance().matchSelectors(matches);
+        assertMatchesLikeFindMatchingStyles(matches);
+    }
+
+    @Test
+    public void testMatchSelectorsMatchesFewNodes() {
+
+        final List<StyleManager.SelectorMatch> matches = prepareMatches().subList(0, 10);
+
+        StyleManager.getInstance().matchSelectors(matches);
+        assertMatchesLikeFindMatchingStyles(matches);
+    }
+
+    @Test
+    public void testMatchSelectorsWithStyleableParentThatIsNotANode() {
+
+        final Group group = (Group)root.getChildren().get(0);
+        final Styleable styleableParent = new Styleable() {
+            private final ObservableList<String> styleClass =
+                    FXCollections.observableArrayList("b");
+            @Override public String getTypeSelector() { return "Styleable"; }
+            @Override public String getId() { return null; }
+            @Override public ObservableList<String> getStyleClass() { return styleClass; }
+            @Override public String getStyle() { return null; }
+            @Override public List<CssMetaData<? extends Styleable, ?>> getCssMetaData() {
+                return Collections.emptyList();
+            }
+            @Override public Styleable getStyleableParent() { return root; }
+            @Override public ObservableSet<PseudoClass> getPseudoClassStates() {
+                return FXCollections.emptyObservableSet();
+            }
+        };
+        final Rectangle rect = new Rectangle(10, 10) {
+            @Override public Styleable getStyleableParent() { return styleableParent; }
+        };
+        rect.getStyleClass().add("rect");
+        group.getChildren().add(rect);
+        nodes.add(rect);
+
+        final List<StyleManager.SelectorMatch> matches = prepareMatches();
+        StyleManager.getInstance().matchSelectors(matches);
+        assertMatchesLikeFindMatchingStyles(matches);
+
+        // .b:pressed .rect applies through the styleable parent, not the group
+        final Set<PseudoClass>[] triggerStates = matches.get(matches.size()-1).getTriggerStates();
+        assertTrue(triggerStates[1].contains(PseudoClass.getPseudoClass("pressed")));
+    }
+
+    @Test
+    public void testMatchIsMatchedAgainIfCacheIsCleared() {
+
+        final List<StyleManager.SelectorMatch> matches = prepareMatches();
+        StyleManager.getInstance().matchSelectors(matches);
+
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(parse(
+                "SelectorMatchTest.testMatchIsMatchedAgainIfCacheIsCleared",
+                ".odd { -fx-fill: red; }" +
+                ".b .rect:hover { -fx-stroke: yellow; }"
+        ));
+
+        assertMatchesLikeFindMatchingStyles(matches);
+    }
+}
@@ -25,10 +25,13 @@
 
 package com.sun.javafx.css;
 
+import com.sun.javafx.css.parser.CSSParser;
 import com.sun.javafx.pgstub.StubToolkit;
 import com.sun.javafx.tk.Toolkit;
+import java.io.IOException;
 import javafx.scene.Group;
 import javafx.scene.Scene;
+import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.stage.Popup;
@@ -81,5 +84,70 @@ public class StyleManagerTest {
         StyleManager sm = StyleManager.getInstance();
         assertNotNull(sm);
     }
-        
+
+    private static Group showInlineStyles(String... styles) throws IOException {
+
+        // Note: the name of the UA stylesheet must differ from the current one
+        // since StyleManager is a singleton.
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(
+                CSSParser.getInstance().parse("StyleManagerTest.showInlineStyles",
+                ".rect { -fx-fill: blue; }"));
+
+        Group root = new Group();
+        for (String style : styles) {
+            Rectangle rect = new Rectangle(10, 10);
+            rect.getStyleClass().add("rect");
+            rect.setStyle(style);
+            root.getChildren().add(rect);
+        }
+
+        Stage stage = new Stage();
+        stage.setScene(new Scene(root));
+        stage.show();
+        return root;
+    }
+
+    private static StyleMap findMatchingStyles(Group root, int index) {
+        return StyleManager.getInstance().findMatchingStyles(
+                root.getChildren().get(index), new PseudoClassState[2]);
+    }
+
+    @Test
+    public void testInlineStylesWithSameDeclarationsShareStyleMap() throws IOException {
+
+        Group root = showInlineStyles("-fx-fill:red", " -fx-fill: red; ", "-fx-fill: green;", "");
+
+        StyleMap styleMap = findMatchingStyles(root, 0);
+        assertSame(styleMap, findMatchingStyles(root, 1));
+        assertNotSame(styleMap, findMatchingStyles(root, 2));
+        assertNotSame(styleMap, findMatchingStyles(root, 3));
+
+        assertEquals(Color.RED, ((Rectangle)root.getChildren().get(0)).getFill());
+        assertEquals(Color.RED, ((Rectangle)root.getChildren().get(1)).getFill());
+        assertEquals(Color.GREEN, ((Rectangle)root.getChildren().get(2)).getFill());
+        assertEquals(Color.BLUE, ((Rectangle)root.getChildren().get(3)).getFill());
+    }
+
+    @Test
+    public void testStyleMapIsSharedAfterInlineStyleIsEvicted() throws IOException {
+
+        // more distinct inline styles than the inline styles cache holds
+        String[] styles = new String[2000];
+        for (int n=0; n<styles.length; n++) {
+            styles[n] = "-fx-fill: rgb(" + (n % 256) + "," + (n / 256) + ",0);";
+        }
+        Group root = showInlineStyles(styles);
+
+        for (int n=0; n<styles.length; n++) {
+            assertEquals(Color.rgb(n % 256, n / 256, 0),
+                    ((Rectangle)root.getChildren().get(n)).getFill());
+        }
+
+        // the first style was evicted, and is parsed again
+        StyleMap styleMap = findMatchingStyles(root, 0);
+        assertFalse(styleMap.isEmpty());
+        root.getChildren().get(1).setStyle(styles[0]);
+        assertSame(styleMap, findMatchingStyles(root, 1));
+    }
+
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.iio;
+
+import com.sun.javafx.iio.ImageStorage.ImageType;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.imageio.ImageIO;
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class JPEGWriterTest {
+
+    // JPEG is lossy, so the images are smooth and compared with a tolerance
+    private static final int TOLERANCE = 8;
+
+    @BeforeClass
+    public static void checkNativeLibrary() throws IOException {
+        // the JPEG writer uses the native iio library, which is not on the
+        // library path of every test run
+        try {
+            write(createFrame(ImageType.RGB, 1, 1, 255), 1f);
+        } catch (LinkageError e) {
+            Assume.assumeNoException(e);
+        }
+    }
+
+    private static int sample(int x, int y, int band) {
+        return (x * 3 + y * 2 + band * 40) & 0xff;
+    }
+
+    private static ImageFrame createFrame(ImageType type, int w, int h, int alpha) {
+        int bpp = ImageStorage.getNumBands(type);
+        boolean hasAlpha = (bpp == 2 || bpp == 4);
+        int stride = w * bpp + 3;
+        byte data[] = new byte[stride * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                for (int b = 0; b < bpp; b++) {
+                    boolean isAlpha = hasAlpha && b == bpp - 1;
+                    data[y * stride + x * bpp + b] =
+                        (byte) (isAlpha ? alpha : sample(x, y, b));
+                }
+            }
+        }
+        return new ImageFrame(type, ByteBuffer.wrap(data), w, h, stride, null, null);
+    }
+
+    private static byte[] write(ImageFrame frame, float quality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageStorage.writeImage(frame, "JPEG", quality, out);
+        return out.toByteArray();
+    }
+
+    private static Raster read(byte data[]) throws IOException {
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(data));
+        assertNotNull(img);
+        return img.getRaster();
+    }
+
+    private static void checkRoundTrip(ImageType type, int numBands,
+                                       int w, int h, int alpha) throws IOException
+    {
+        ImageFrame src = createFrame(type, w, h, alpha);
+        Raster dst = read(write(src, 0.95f));
+        assertEquals(w, dst.getWidth());
+        assertEquals(h, dst.getHeight());
+        assertEquals(numBands, dst.getNumBands());
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                for (int b = 0; b < numBands; b++) {
+                    int expected = sample(x, y, b) * alpha / 255;
+                    assertEquals("pixel (" + x + ", " + y + ") band " + b,
+                                 expected, dst.getSample(x, y, b), TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRGB() throws IOException {
+        checkRoundTrip(ImageType.RGB, 3, 37, 23, 255);
+    }
+
+    @Test
+    public void testGray() throws IOException {
+        checkRoundTrip(ImageType.GRAY, 1, 37, 23, 255);
+    }
+
+    @Test
+    public void testOpaqueRGBA() throws IOException {
+        checkRoundTrip(ImageType.RGBA, 3, 37, 23, 255);
+    }
+
+    @Test
+    public void testTranslucentRGBA() throws IOException {
+        // alpha is dropped after the colors are premultiplied
+        checkRoundTrip(ImageType.RGBA, 3, 37, 23, 128);
+    }
+
+    @Test
+    public void testGrayAlpha() throws IOException {
+        checkRoundTrip(ImageType.GRAY_ALPHA, 1, 37, 23, 128);
+    }
+
+    @Test
+    public void testQuality() throws IOException {
+        ImageFrame src = createFrame(ImageType.RGB, 64, 64, 255);
+        assertTrue(write(src, 0.1f).length < write(src, 1f).length);
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.iio;
+
+import com.sun.javafx.iio.png.PNGImageLoader2;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class PNGLoaderTest {
+
+    private static final int W = 37, H = 23;
+
+    // smooth gradients with some noise, so that the encoder picks a mix
+    // of all the PNG row filters
+    private static int sample(int x, int y, int band, int max) {
+        int v = (x * 7 + y * 5 + band * 31) + ((x * 131 + y * 71 + band * 13) % 11);
+        return v % (max + 1);
+    }
+
+    private static BufferedImage createImage(int type) {
+        BufferedImage img;
+        if (type == BufferedImage.TYPE_BYTE_INDEXED) {
+            byte r[] = new byte[256], g[] = new byte[256], b[] = new byte[256];
+            for (int i = 0; i < 256; i++) {
+                r[i] = (byte) i;
+                g[i] = (byte) (255 - i);
+                b[i] = (byte) (i * 3);
+            }
+            img = new BufferedImage(W, H, type, new IndexColorModel(8, 256, r, g, b));
+        } else {
+            img = new BufferedImage(W, H, type);
+        }
+        WritableRaster raster = img.getRaster();
+        int max = (1 << raster.getSampleModel().getSampleSize(0)) - 1;
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                for (int b = 0; b < raster.getNumBands(); b++) {
+                    raster.setSample(x, y, b, sample(x, y, b, max));
+                }
+            }
+        }
+        return img;
+    }
+
+    private static byte[] encode(BufferedImage img, boolean interlaced) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(interlaced
+                ? ImageWriteParam.MODE_DEFAULT
+                : ImageWriteParam.MODE_DISABLED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageOutputStream ios = ImageIO.createImageOutputStream(out);
+        writer.setOutput(ios);
+        writer.write(null, new IIOImage(img, null, null), param);
+        ios.close();
+        writer.dispose();
+        return out.toByteArray();
+    }
+
+    private static ImageFrame decode(byte data[], ImageLoadListener listener) throws IOException {
+        PNGImageLoader2 loader = new PNGImageLoader2(new ByteArrayInputStream(data));
+        if (listener != null) {
+            loader.addListener(listener);
+        }
+        ImageFrame frame = loader.load(0, 0, 0, true, false);
+        loader.dispose();
+        return frame;
+    }
+
+    private static void checkImage(int type, boolean interlaced) throws IOException {
+        BufferedImage img = createImage(type);
+        ImageFrame frame = decode(encode(img, interlaced), null);
+        assertEquals(W, frame.getWidth());
+        assertEquals(H, frame.getHeight());
+
+        byte data[] = ((ByteBuffer) frame.getImageData()).array();
+        int stride = frame.getStride();
+        int bpp = ImageStorage.getNumBands(frame.getImageType());
+        int shift = img.getRaster().getSampleModel().getSampleSize(0) - 8;
+        int pixel[] = new int[4];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                int expected[];
+                if (type == BufferedImage.TYPE_BYTE_INDEXED) {
+                    int argb = img.getRGB(x, y);
+                    expected = new int[] { (argb >> 16) & 0xff, (argb >> 8) & 0xff, argb & 0xff };
+                } else {
+                    expected = img.getRaster().getPixel(x, y, pixel);
+                }
+                for (int b = 0; b < bpp; b++) {
+                    int e = shift > 0 ? expected[b] >> shift : expected[b];
+                    assertEquals("pixel (" + x + ", " + y + ") band " + b,
+                                 e, data[y * stride + x * bpp + b] & 0xff);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRGB() throws IOException {
+        checkImage(BufferedImage.TYPE_3BYTE_BGR, false);
+    }
+
+    @Test
+    public void testRGBInterlaced() throws IOException {
+        checkImage(BufferedImage.TYPE_3BYTE_BGR, true);
+    }
+
+    @Test
+    public void testRGBA() throws IOException {
+        checkImage(BufferedImage.TYPE_4BYTE_ABGR, false);
+    }
+
+    @Test
+    public void testRGBAInterlaced() throws IOException {
+        checkImage(BufferedImage.TYPE_4BYTE_ABGR, true);
+    }
+
+    @Test
+    public void testGray() throws IOException {
+        checkImage(BufferedImage.TYPE_BYTE_GRAY, false);
+    }
+
+    @Test
+    public void testGray16Interlaced() throws IOException {
+        checkImage(BufferedImage.TYPE_USHORT_GRAY, true);
+    }
+
+    @Test
+    public void testPalette() throws IOException {
+        checkImage(BufferedImage.TYPE_BYTE_INDEXED, false);
+    }
+
+    @Test
+    public void testPaletteInterlaced() throws IOException {
+        checkImage(BufferedImage.TYPE_BYTE_INDEXED, true);
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+        return (pa <= pb && pa <= pc) ? a : (pb <= pc) ? b : c;
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte data[]) throws IOException {
+        byte t[] = type.getBytes("US-ASCII");
+        CRC32 crc = new CRC32();
+        crc.update(t);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(t);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    // Encodes 8 bit RGBA rows, cycling through all five row filters
+    private static byte[] encodeAllFilters(byte rows[][]) throws IOException {
+        int bpp = 4;
+        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        DeflaterOutputStream zout = new DeflaterOutputStream(idat);
+        byte prior[] = new byte[rows[0].length];
+        for (int y = 0; y < rows.length; y++) {
+            byte row[] = rows[y];
+            int filter = y % 5;
+            zout.write(filter);
+            for (int i = 0; i < row.length; i++) {
+                int x = row[i] & 0xff;
+                int a = i >= bpp ? row[i - bpp] & 0xff : 0;
+                int b = prior[i] & 0xff;
+                int c = i >= bpp ? prior[i - bpp] & 0xff : 0;
+                int pred = filter == 1 ? a
+                         : filter == 2 ? b
+                         : filter == 3 ? (a + b) / 2
+                         : filter == 4 ? paeth(a, b, c)
+                         : 0;
+                zout.write(x - pred);
+            }
+            prior = row;
+        }
+        zout.close();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[] {(byte) 137, 80, 78, 71, 13, 10, 26, 10});
+        ByteArrayOutputStream hdr = new ByteArrayOutputStream();
+        DataOutputStream hout = new DataOutputStream(hdr);
+        hout.writeInt(rows[0].length / bpp);
+        hout.writeInt(rows.length);
+        hout.write(new byte[] {8, 6, 0, 0, 0});
+        writeChunk(out, "IHDR", hdr.toByteArray());
+        writeChunk(out, "IDAT", idat.toByteArray());
+        writeChunk(out, "IEND", new byte[0]);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testAllFilters() throws IOException {
+        byte rows[][] = new byte[H][W * 4];
+        Random r = new Random(17);
+        for (int y = 0; y < H; y++) {
+            r.nextBytes(rows[y]);
+        }
+        ImageFrame frame = decode(encodeAllFilters(rows), null);
+        byte data[] = ((ByteBuffer) frame.getImageData()).array();
+        for (int y = 0; y < H; y++) {
+            for (int i = 0; i < W * 4; i++) {
+                assertEquals("row " + y + " byte " + i,
+                             rows[y][i], data[y * frame.getStride() + i]);
+            }
+        }
+    }
+
+    @Test
+    public void testProgressReported() throws IOException {
+        final float last[] = { -1f };
+        ImageLoadListener listener = new ImageLoadListener() {
+            @Override
+            public void imageLoadProgress(ImageLoader loader, float percentageComplete) {
+                assertTrue(percentageComplete > last[0]);
+                last[0] = percentageComplete;
+            }
+
+            @Override
+            public void imageLoadWarning(ImageLoader loader, String message) {
+            }
+
+            @Override
+            public void imageLoadMetaData(ImageLoader loader, ImageMetadata metadata) {
+            }
+        };
+        decode(encode(createImage(BufferedImage.TYPE_3BYTE_BGR), true), listener);
+        assertEquals(100f, last[0], 0f);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.iio;
+
+import com.sun.javafx.iio.ImageStorage.ImageType;
+import com.sun.javafx.iio.png.PNGImageLoader2;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.imageio.ImageIO;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class PNGWriterTest {
+
+    private static int sample(int x, int y, int band) {
+        return ((x * 7 + y * 5 + band * 31) + ((x * 131 + y * 71 + band * 13) % 11)) & 0xff;
+    }
+
+    private static ImageFrame createFrame(ImageType type, int w, int h) {
+        int bpp = ImageStorage.getNumBands(type);
+        int stride = w * bpp + 3;
+        byte data[] = new byte[stride * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                for (int b = 0; b < bpp; b++) {
+                    data[y * stride + x * bpp + b] = (byte) sample(x, y, b);
+                }
+            }
+        }
+        return new ImageFrame(type, ByteBuffer.wrap(data), w, h, stride, null, null);
+    }
+
+    private static byte[] write(ImageFrame frame, float quality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageStorage.writeImage(frame, "PNG", quality, out);
+        return out.toByteArray();
+    }
+
+    private static ImageFrame read(byte data[]) throws IOException {
+        PNGImageLoader2 loader = new PNGImageLoader2(new ByteArrayInputStream(data));
+        ImageFrame frame = loader.load(0, 0, 0, true, false);
+        loader.dispose();
+        return frame;
+    }
+
+    private static int getPixel(ImageFrame frame, int x, int y, int band) {
+        byte data[] = ((ByteBuffer) frame.getImageData()).array();
+        int bpp = ImageStorage.getNumBands(frame.getImageType());
+        return data[y * frame.getStride() + x * bpp + band] & 0xff;
+    }
+
+    private static void checkRoundTrip(ImageType type, ImageType expectedType,
+                                       int w, int h) throws IOException
+    {
+        ImageFrame src = createFrame(type, w, h);
+        byte png[] = write(src, 0.5f);
+        ImageFrame dst = read(png);
+        assertEquals(expectedType, dst.getImageType());
+        assertEquals(w, dst.getWidth());
+        assertEquals(h, dst.getHeight());
+        int bpp = ImageStorage.getNumBands(type);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                for (int b = 0; b < bpp; b++) {
+                    assertEquals("pixel (" + x + ", " + y + ") band " + b,
+                                 getPixel(src, x, y, b), getPixel(dst, x, y, b));
+                }
+            }
+        }
+
+        // the JDK decoder verifies the zlib stream and its checksum
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(png));
+        assertNotNull(img);
+        assertEquals(w, img.getWidth());
+        assertEquals(h, img.getHeight());
+    }
+
+    @Test
+    public void testRGB() throws IOException {
+        checkRoundTrip(ImageType.RGB, ImageType.RGB, 37, 23);
+    }
+
+    @Test
+    public void testRGBA() throws IOException {
+        checkRoundTrip(ImageType.RGBA, ImageType.RGBA, 37, 23);
+    }
+
+    @Test
+    public void testGray() throws IOException {
+        checkRoundTrip(ImageType.GRAY, ImageType.GRAY, 37, 23);
+    }
+
+    @Test
+    public void testGrayAlpha() throws IOException {
+        checkRoundTrip(ImageType.GRAY_ALPHA, ImageType.GRAY_ALPHA, 37, 23);
+    }
+
+    @Test
+    public void testManyStrips() throws IOException {
+        // several strips, compressed in parallel and joined in one zlib stream
+        checkRoundTrip(ImageType.RGBA, ImageType.RGBA, 700, 500);
+    }
+
+    @Test
+    public void testPremultiplied() throws IOException {
+        int w = 4, h = 1;
+        byte data[] = {
+            0, 0, 0, 0,
+            (byte) 128, 64, 32, (byte) 128,
+            (byte) 255, (byte) 255, (byte) 255, (byte) 255,
+            10, 20, 30, 40,
+        };
+        ImageFrame src = new ImageFrame(ImageType.RGBA_PRE, ByteBuffer.wrap(data),
+                                        w, h, w * 4, null, null);
+        ImageFrame dst = read(write(src, 1f));
+        assertEquals(ImageType.RGBA, dst.getImageType());
+        for (int x = 0; x < w; x++) {
+            int a = data[x * 4 + 3] & 0xff;
+            assertEquals(a, getPixel(dst, x, 0, 3));
+            for (int b = 0; b < 3; b++) {
+                int pre = data[x * 4 + b] & 0xff;
+                int expected = a == 0 ? 0 : Math.min(255, (pre * 255 + a / 2) / a);
+                assertEquals(expected, getPixel(dst, x, 0, b), 1);
+            }
+        }
+    }
+
+    @Test(expected = ImageStorageException.class)
+    public void testUnknownFormat() throws IOException {
+        write(createFrame(ImageType.RGB, 2, 2), 0.5f);
+        ImageStorage.writeImage(createFrame(ImageType.RGB, 2, 2), "nosuchformat",
+                                0.5f, new ByteArrayOutputStream());
+    }
+}
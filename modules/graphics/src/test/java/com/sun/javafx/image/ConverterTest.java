@@ -37,8 +37,10 @@ import com.sun.javafx.image.impl.IntArgb;
 import com.sun.javafx.image.impl.IntArgbPre;
 import static junit.framework.Assert.*;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.util.Random;
 import javafx.scene.paint.Color;
 import org.junit.Test;
 
@@ -925,4 +927,84 @@ public class ConverterTest {
             }
         }
     }
+
+    @Test
+    public void testPremultiplyTables() {
+        for (int a = 0; a < 256; a++) {
+            for (int c = 0; c < 256; c++) {
+                int pre = (a == 0) ? 0 : (c * a + 0x7f) / 0xff;
+                int nonpre = (a == 0 || a == 0xff) ? c
+                             : (c >= a) ? 0xff : (c * 0xff + (a >> 1)) / a;
+                assertEquals(pre, PixelUtils.NonPretoPre(c, a));
+                assertEquals(nonpre, PixelUtils.PreToNonPre(c, a));
+                int c2 = 0xff - c;
+                int c3 = c >> 1;
+                int argb = (a << 24) | (c << 16) | (c2 << 8) | c3;
+                int argbpre = (a == 0) ? 0
+                    : ((a << 24) |
+                       (PixelUtils.NonPretoPre(c,  a) << 16) |
+                       (PixelUtils.NonPretoPre(c2, a) <<  8) |
+                       (PixelUtils.NonPretoPre(c3, a)      ));
+                int argbnonpre =
+                    ((a << 24) |
+                     (PixelUtils.PreToNonPre(c,  a) << 16) |
+                     (PixelUtils.PreToNonPre(c2, a) <<  8) |
+                     (PixelUtils.PreToNonPre(c3, a)      ));
+                assertEquals(argbpre, PixelUtils.NonPretoPre(argb));
+                assertEquals(argbnonpre, PixelUtils.PretoNonPre(argb));
+            }
+        }
+    }
+
+    // Large enough to be split up when javafx.image.parallel is set
+    static final int BIG_W = 700;
+    static final int BIG_H = 400;
+
+    static ByteBuffer bigByteBuffer(int nelems, Random r) {
+        byte arr[] = new byte[(BIG_W + 3) * BIG_H * nelems];
+        if (r != null) r.nextBytes(arr);
+        return ByteBuffer.wrap(arr);
+    }
+
+    static IntBuffer bigIntBuffer(Random r) {
+        int arr[] = new int[(BIG_W + 3) * BIG_H];
+        if (r != null) {
+            for (int i = 0; i < arr.length; i++) {
+                arr[i] = r.nextInt();
+            }
+        }
+        return IntBuffer.wrap(arr);
+    }
+
+    private static <T extends Buffer, U extends Buffer>
+        void checkBigConversion(PixelConverter<T, U> pc,
+                                T src, int srcelems,
+                                U dst, U ref, int dstelems, int pad)
+    {
+        int srcscan = (BIG_W + pad) * srcelems;
+        int dstscan = (BIG_W + pad) * dstelems;
+        pc.convert(src, 0, srcscan, dst, 0, dstscan, BIG_W, BIG_H);
+        for (int y = 0; y < BIG_H; y++) {
+            pc.convert(src, y * srcscan, srcscan,
+                       ref, y * dstscan, dstscan, BIG_W, 1);
+        }
+        assertEquals(ref, dst);
+    }
+
+    @Test
+    public void testBigConversions() {
+        Random r = new Random(7);
+        ByteBuffer bsrc = bigByteBuffer(4, r);
+        IntBuffer isrc = bigIntBuffer(r);
+        for (int pad = 0; pad < 4; pad += 3) {
+            checkBigConversion(PixelUtils.getConverter(ByteBgra.getter, ByteBgraPre.setter),
+                               bsrc, 4, bigByteBuffer(4, null), bigByteBuffer(4, null), 4, pad);
+            checkBigConversion(PixelUtils.getConverter(ByteBgraPre.getter, IntArgb.setter),
+                               bsrc, 4, bigIntBuffer(null), bigIntBuffer(null), 1, pad);
+            checkBigConversion(PixelUtils.getConverter(IntArgb.getter, ByteBgraPre.setter),
+                               isrc, 1, bigByteBuffer(4, null), bigByteBuffer(4, null), 4, pad);
+            checkBigConversion(PixelUtils.getConverter(IntArgbPre.getter, IntArgb.setter),
+                               isrc, 1, bigIntBuffer(null), bigIntBuffer(null), 1, pad);
+        }
+    }
 }
@@ -144,6 +144,11 @@ public final class StubPlatformImage implements PlatformImage {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    @Override
+    public void markDirty(int x, int y, int w, int h) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
@@ -50,6 +50,7 @@ import com.sun.scenario.effect.Filterable;
 import javafx.application.ConditionalFeature;
 import javafx.geometry.Dimension2D;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.input.*;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.ImagePattern;
@@ -64,6 +65,7 @@ import javafx.util.Pair;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.Buffer;
 import java.security.AccessControlContext;
 import java.util.*;
 import java.util.concurrent.Future;
@@ -595,6 +597,13 @@ public class StubToolkit extends Toolkit {
         return image;
     }
 
+    @Override
+    public PlatformImage createPlatformImage(int w, int h,
+                                             PixelFormat<?> format,
+                                             Buffer pixels, int scanlineStride) {
+        return createPlatformImage(w, h);
+    }
+
     @Override
     public void waitFor(Task t) {
         throw new UnsupportedOperationException();
@@ -702,9 +711,22 @@ public class StubToolkit extends Toolkit {
         this.charToKeyCodeMap = charToKeyCodeMap;
     }
 
+    private List<Integer> renderedBatchSizes = new ArrayList<Integer>();
+
+    public List<Integer> getRenderedBatchSizes() {
+        return renderedBatchSizes;
+    }
+
     @Override
     public Object renderToImage(ImageRenderingContext context) {
-        throw new UnsupportedOperationException();
+        return loadPlatformImage(createPlatformImage(context.width,
+                                                     context.height));
+    }
+
+    @Override
+    public Object[] renderToImages(ImageRenderingContext contexts[]) {
+        renderedBatchSizes.add(contexts.length);
+        return super.renderToImages(contexts);
     }
 
     @Override public Object enterNestedEventLoop(Object key) {
@@ -102,4 +102,8 @@ public class StubWritablePlatformImage implements PlatformImage {
     @Override
     public void setPixels(int dstx, int dsty, int w, int h, PixelReader reader, int srcx, int srcy) {
     }
+
+    @Override
+    public void markDirty(int x, int y, int w, int h) {
+    }
 }
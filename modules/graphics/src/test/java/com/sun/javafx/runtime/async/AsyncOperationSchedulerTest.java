@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.runtime.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class AsyncOperationSchedulerTest {
+
+    private static final class TestOperation implements AsyncOperation {
+        private final List<TestOperation> startOrder;
+        private boolean started;
+        private boolean cancelled;
+
+        TestOperation(List<TestOperation> startOrder) {
+            this.startOrder = startOrder;
+        }
+
+        @Override
+        public void start() {
+            started = true;
+            startOrder.add(this);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return cancelled;
+        }
+    }
+
+    private final List<TestOperation> startOrder = new ArrayList<TestOperation>();
+
+    private TestOperation[] submit(AsyncOperationScheduler scheduler, int count) {
+        TestOperation ops[] = new TestOperation[count];
+        for (int i = 0; i < count; i++) {
+            ops[i] = new TestOperation(startOrder);
+            scheduler.submit(ops[i]);
+        }
+        return ops;
+    }
+
+    @Test
+    public void testLimitsRunningOperations() {
+        AsyncOperationScheduler scheduler = new AsyncOperationScheduler(2, false);
+        TestOperation ops[] = submit(scheduler, 5);
+        assertTrue(ops[0].started);
+        assertTrue(ops[1].started);
+        assertFalse(ops[2].started);
+        assertEquals(2, scheduler.getRunning());
+        assertEquals(3, scheduler.getQueueDepth());
+        assertEquals(3, scheduler.getMaxQueueDepth());
+
+        scheduler.finished(ops[0]);
+        assertTrue(ops[2].started);
+        assertEquals(2, scheduler.getRunning());
+        assertEquals(2, scheduler.getQueueDepth());
+    }
+
+    @Test
+    public void testFifoOrder() {
+        AsyncOperationScheduler scheduler = new AsyncOperationScheduler(1, false);
+        TestOperation ops[] = submit(scheduler, 4);
+        for (int i = 0; i < ops.length; i++) {
+            scheduler.finished(startOrder.get(i));
+        }
+        for (int i = 0; i < ops.length; i++) {
+            assertSame(ops[i], startOrder.get(i));
+        }
+    }
+
+    @Test
+    public void testLifoOrder() {
+        AsyncOperationScheduler scheduler = new AsyncOperationScheduler(1, true);
+        TestOperation ops[] = submit(scheduler, 4);
+        for (int i = 0; i < ops.length; i++) {
+            scheduler.finished(startOrder.get(i));
+        }
+        assertSame(ops[0], startOrder.get(0));
+        assertSame(ops[3], startOrder.get(1));
+        assertSame(ops[2], startOrder.get(2));
+        assertSame(ops[1], startOrder.get(3));
+    }
+
+    @Test
+    public void testRemovedOperationIsNotStarted() {
+        AsyncOperationScheduler scheduler = new AsyncOperationScheduler(1, false);
+        TestOperation ops[] = submit(scheduler, 3);
+        assertTrue(scheduler.remove(ops[1]));
+        assertFalse(scheduler.remove(ops[0]));
+        scheduler.finished(ops[0]);
+        assertFalse(ops[1].started);
+        assertTrue(ops[2].started);
+        assertEquals(1, scheduler.getCancelled());
+    }
+
+    @Test
+    public void testCancelledOperationIsSkipped() {
+        AsyncOperationScheduler scheduler = new AsyncOperationScheduler(1, false);
+        TestOperation ops[] = submit(scheduler, 3);
+        ops[1].cancel();
+        scheduler.finished(ops[0]);
+        assertFalse(ops[1].started);
+        assertTrue(ops[2].started);
+        assertEquals(1, scheduler.getCancelled());
+    }
+
+    @Test
+    public void testFinishingQueuedOperationKeepsLimit() {
+        AsyncOperationScheduler scheduler = new AsyncOperationScheduler(1, false);
+        TestOperation ops[] = submit(scheduler, 3);
+        // a queued operation which gets cancelled reports completion too
+        scheduler.finished(ops[2]);
+        assertFalse(ops[1].started);
+        assertEquals(1, scheduler.getRunning());
+    }
+}
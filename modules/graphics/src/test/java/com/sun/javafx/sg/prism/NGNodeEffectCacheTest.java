@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.sg.prism;
+
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.prism.paint.Color;
+import com.sun.scenario.effect.GaussianBlur;
+import com.sun.scenario.effect.impl.prism.PrEffectCache;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the cached result of a node's effect is invalidated whenever
+ * the content of the node or its effect changes.
+ */
+public class NGNodeEffectCacheTest extends NGTestBase {
+
+    private static class CountingCache extends PrEffectCache {
+        int invalidations;
+
+        @Override
+        public void invalidate() {
+            invalidations++;
+            super.invalidate();
+        }
+    }
+
+    private TestNGRectangle rect;
+    private TestNGGroup group;
+    private CountingCache cache;
+
+    @Before
+    public void setup() {
+        rect = createRectangle(0, 0, 50, 50);
+        group = createGroup(rect);
+        group.setEffect(new GaussianBlur());
+        cache = new CountingCache();
+        group.getEffectFilter().cache = cache;
+        group.clearDirtyTree();
+    }
+
+    @Test
+    public void testCleanNodeKeepsItsCache() {
+        group.clearDirtyTree();
+        assertEquals(0, cache.invalidations);
+    }
+
+    @Test
+    public void testEffectChangeInvalidates() {
+        group.effectChanged();
+        assertTrue(cache.invalidations > 0);
+    }
+
+    @Test
+    public void testNewEffectDropsOldCache() {
+        group.setEffect(new GaussianBlur(5, null));
+        assertTrue(cache.invalidations > 0);
+        assertNotSame(cache, group.getEffectFilter().cache);
+    }
+
+    @Test
+    public void testContentChangeInvalidates() {
+        rect.setFillPaint(Color.RED);
+        assertTrue(cache.invalidations > 0);
+        cache.invalidations = 0;
+        group.clearDirtyTree();
+        rect.updateRectangle(0, 0, 60, 60, 0, 0);
+        assertTrue(cache.invalidations > 0);
+    }
+
+    @Test
+    public void testChildTransformChangeInvalidates() {
+        translate(rect, 10, 0);
+        assertTrue(cache.invalidations > 0);
+        cache.invalidations = 0;
+        group.clearDirtyTree();
+        transform(rect, BaseTransform.getScaleInstance(2, 2));
+        assertTrue(cache.invalidations > 0);
+    }
+
+    @Test
+    public void testOwnTranslationKeepsCache() {
+        // the cache itself checks whether the result can be drawn at the
+        // new transform
+        translate(group, 10, 20);
+        assertEquals(0, cache.invalidations);
+    }
+}
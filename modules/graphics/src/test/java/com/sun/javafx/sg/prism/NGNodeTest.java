@@ -26,9 +26,12 @@
 package com.sun.javafx.sg.prism;
 
 import com.sun.javafx.geom.BaseBounds;
+import com.sun.javafx.geom.DirtyRegionContainer;
+import com.sun.javafx.geom.DirtyRegionPool;
 import com.sun.javafx.geom.RectBounds;
 import com.sun.javafx.geom.Rectangle;
 import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.javafx.geom.transform.GeneralTransform3D;
 import com.sun.prism.Graphics;
 import com.sun.prism.paint.Color;
 import com.sun.scenario.effect.Blend;
@@ -574,6 +577,66 @@ public class NGNodeTest extends NGTestBase {
         assertNull(n.getOpaqueRegion());
     }
 
+    /**************************************************************************
+     *                                                                        *
+     * Various tests for markDirtyRegion                                      *
+     *                                                                        *
+     *************************************************************************/
+
+    private RectBounds accumulateDirtyRegion(NGNode node) {
+        DirtyRegionPool pool = new DirtyRegionPool(1);
+        DirtyRegionContainer drc = pool.checkOut();
+        node.accumulateDirtyRegions(new RectBounds(0, 0, 1000, 1000),
+                                    new RectBounds(), pool, drc,
+                                    BaseTransform.IDENTITY_TRANSFORM,
+                                    new GeneralTransform3D());
+        return drc.getDirtyRegion(0);
+    }
+
+    private void setupCleanTranslatedNode() {
+        n.setTransformMatrix(BaseTransform.getTranslateInstance(10, 20));
+        n.setTransformedBounds(new RectBounds(10, 20, 110, 120), false);
+        n.clearDirtyTree();
+    }
+
+    @Test
+    public void markDirtyRegionOnlyDirtiesTheTransformedRegion() {
+        setupCleanTranslatedNode();
+        n.markDirtyRegion(new RectBounds(5, 5, 15, 15));
+        assertFalse(n.isClean());
+        RectBounds dirty = accumulateDirtyRegion(n);
+        assertTrue(dirty.contains(15, 25) && dirty.contains(25, 35));
+        assertFalse(dirty.contains(50, 60));
+    }
+
+    @Test
+    public void markDirtyRegionAccumulatesRegions() {
+        setupCleanTranslatedNode();
+        n.markDirtyRegion(new RectBounds(5, 5, 15, 15));
+        n.markDirtyRegion(new RectBounds(50, 50, 60, 60));
+        RectBounds dirty = accumulateDirtyRegion(n);
+        assertTrue(dirty.contains(15, 25) && dirty.contains(70, 80));
+        assertFalse(dirty.contains(100, 110));
+    }
+
+    @Test
+    public void markDirtyAfterMarkDirtyRegionDirtiesTheWholeNode() {
+        setupCleanTranslatedNode();
+        n.markDirtyRegion(new RectBounds(5, 5, 15, 15));
+        n.markDirty();
+        RectBounds dirty = accumulateDirtyRegion(n);
+        assertTrue(dirty.contains(10, 20) && dirty.contains(110, 120));
+    }
+
+    @Test
+    public void markDirtyRegionOnDirtyNodeDirtiesTheWholeNode() {
+        setupCleanTranslatedNode();
+        n.markDirty();
+        n.markDirtyRegion(new RectBounds(5, 5, 15, 15));
+        RectBounds dirty = accumulateDirtyRegion(n);
+        assertTrue(dirty.contains(10, 20) && dirty.contains(110, 120));
+    }
+
     class NGNodeMock extends NGNode {
         boolean opaqueRegionRecomputed = false;
         RectBounds computedOpaqueRegion = new RectBounds(0, 0, 10, 10);
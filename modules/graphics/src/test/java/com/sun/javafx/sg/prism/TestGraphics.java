@@ -38,6 +38,7 @@ import com.sun.prism.Image;
 import com.sun.prism.MediaFrame;
 import com.sun.prism.Mesh;
 import com.sun.prism.MeshView;
+import com.sun.prism.Mipmaps;
 import com.sun.prism.PhongMaterial;
 import com.sun.prism.PixelFormat;
 import com.sun.prism.Presentable;
@@ -181,6 +182,7 @@ public class TestGraphics extends BaseGraphics {
         @Override public Texture createTexture(MediaFrame frame) { return null; }
         @Override public boolean isCompatibleTexture(Texture tex) { return true; }
         @Override public Texture getCachedTexture(Image image, WrapMode wrapMode) { return null; }
+        @Override public Texture getCachedTexture(Image image, WrapMode wrapMode, boolean mipmaps) { return null; }
         @Override public boolean isFormatSupported(PixelFormat format) { return false; }
         @Override public int getMaximumTextureSize() { return 0; }
         @Override public Texture createMaskTexture(int width, int height, Texture.WrapMode wrapMode) { return null; }
@@ -222,6 +224,8 @@ public class TestGraphics extends BaseGraphics {
                 @Override public WrapMode getWrapMode() { return null; }
                 @Override public boolean getLinearFiltering() { return false; }
                 @Override public void setLinearFiltering(boolean linear) { }
+                @Override public Mipmaps getMipmaps() { return null; }
+                @Override public void setMipmaps(Mipmaps mipmaps) { }
                 @Override public void dispose() { }
                 @Override public void lock() { }
                 @Override public void unlock() { }
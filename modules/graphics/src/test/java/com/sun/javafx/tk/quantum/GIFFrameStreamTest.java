@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.tk.quantum;
+
+import com.sun.prism.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GIFFrameStreamTest {
+
+    private static final int SIZE = 16;
+    private static final int[] COLORS = {
+        0xff0000, 0x00ff00, 0x0000ff, 0xffff00, 0x00ffff, 0xff00ff, 0xffffff
+    };
+
+    static byte[] createAnimatedGIF() throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageOutputStream ios = ImageIO.createImageOutputStream(out);
+        writer.setOutput(ios);
+        writer.prepareWriteSequence(null);
+        for (int color : COLORS) {
+            BufferedImage img =
+                new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < SIZE; y++) {
+                for (int x = 0; x < SIZE; x++) {
+                    img.setRGB(x, y, color);
+                }
+            }
+            writer.writeToSequence(new IIOImage(img, null, null), null);
+        }
+        writer.endWriteSequence();
+        ios.close();
+        writer.dispose();
+        return out.toByteArray();
+    }
+
+    private static void checkFrame(GIFFrameStream frames, int index) {
+        Image img = frames.getFrame(index);
+        assertEquals(SIZE, img.getWidth());
+        assertEquals(SIZE, img.getHeight());
+        assertEquals("frame " + index, 0xff000000 | COLORS[index],
+                     img.getArgb(SIZE / 2, SIZE / 2));
+    }
+
+    private static PrismImageLoader2 load(int size, long threshold)
+        throws IOException
+    {
+        return new PrismImageLoader2(
+                new ByteArrayInputStream(createAnimatedGIF()),
+                size, size, true, false, threshold);
+    }
+
+    @Test
+    public void testSmallAnimationIsNotStreamed() throws IOException {
+        PrismImageLoader2 loader = load(0, SIZE * SIZE * 4 * COLORS.length);
+        assertFalse(loader.isStreaming());
+        assertEquals(COLORS.length, loader.getFrameCount());
+        assertSame(loader, loader.forAnotherImage());
+    }
+
+    @Test
+    public void testThresholdUsesRequestedSize() throws IOException {
+        int half = SIZE / 2;
+        assertFalse(load(half, half * half * 4 * COLORS.length).isStreaming());
+        assertTrue(load(half, half * half * 4 * COLORS.length - 1).isStreaming());
+    }
+
+    @Test
+    public void testStreamedLoader() throws IOException {
+        PrismImageLoader2 loader = load(0, 1);
+        assertNull(loader.getException());
+        assertTrue(loader.isStreaming());
+        assertEquals(SIZE, loader.getWidth());
+        assertEquals(COLORS.length, loader.getFrameCount());
+        for (int i = 0; i < COLORS.length; i++) {
+            Image img = (Image) loader.getFrame(i);
+            assertEquals("frame " + i, 0xff000000 | COLORS[i],
+                         img.getArgb(SIZE / 2, SIZE / 2));
+        }
+    }
+
+    @Test
+    public void testFramesInOrder() throws IOException {
+        GIFFrameStream frames =
+            GIFFrameStream.create(createAnimatedGIF(), 0, 0, true, false, null);
+        assertNotNull(frames);
+        assertEquals(COLORS.length, frames.getFrameCount());
+        // play the animation through twice, so that it has to decode the
+        // frames again after looping
+        for (int loop = 0; loop < 2; loop++) {
+            for (int i = 0; i < COLORS.length; i++) {
+                checkFrame(frames, i);
+                assertTrue(frames.getFrameDelay(i) > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testFramesOutOfOrder() throws IOException {
+        GIFFrameStream frames =
+            GIFFrameStream.create(createAnimatedGIF(), 0, 0, true, false, null);
+        int[] order = { 5, 2, 6, 1, 3, 0, 4, 4 };
+        for (int i : order) {
+            checkFrame(frames, i);
+        }
+    }
+
+    @Test
+    public void testCopiesPlayOutOfPhase() throws IOException {
+        GIFFrameStream frames =
+            GIFFrameStream.create(createAnimatedGIF(), 0, 0, true, false, null);
+        GIFFrameStream copy = frames.copy();
+        assertSame(frames.getFirstFrame(), copy.getFirstFrame());
+        for (int i = 0; i < 2 * COLORS.length; i++) {
+            checkFrame(frames, i % COLORS.length);
+            checkFrame(copy, (i + 3) % COLORS.length);
+        }
+    }
+
+    @Test
+    public void testScaledFrames() throws IOException {
+        GIFFrameStream frames =
+            GIFFrameStream.create(createAnimatedGIF(), SIZE / 2, SIZE / 2,
+                                  true, false, null);
+        Image img = frames.getFrame(3);
+        assertEquals(SIZE / 2, img.getWidth());
+        assertEquals(0xff000000 | COLORS[3], img.getArgb(1, 1));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.tk.quantum;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PrismImageCacheTest {
+
+    // a 48x48 RGB image, so its pixels take 6912 bytes
+    private static final String URL =
+        PrismImageCacheTest.class.getResource("/com/sun/javafx/sg/prism/test-opaque.png").toString();
+    private static final int IMAGE_BYTES = 48 * 48 * 3;
+
+    private final AtomicInteger numDecodes = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        PrismImageCache.reset(IMAGE_BYTES * 2 + 100);
+    }
+
+    @After
+    public void tearDown() {
+        PrismImageCache.coalescedLatch = null;
+        PrismImageCache.reset(0);
+    }
+
+    // the variants decode to the same size but are cached separately
+    private PrismImageCache.Key key(int variant) {
+        return new PrismImageCache.Key(URL, 0, 0, (variant & 1) != 0,
+                                       (variant & 2) != 0, 1.0f);
+    }
+
+    private Callable<PrismImageLoader2> decoder(final String url, final int variant) {
+        return new Callable<PrismImageLoader2>() {
+            @Override
+            public PrismImageLoader2 call() {
+                numDecodes.incrementAndGet();
+                return new PrismImageLoader2(url, 0, 0, (variant & 1) != 0,
+                                             1.0f, (variant & 2) != 0);
+            }
+        };
+    }
+
+    @Test
+    public void testSecondLoadIsHit() throws Exception {
+        PrismImageLoader2 l1 = PrismImageCache.load(key(0), decoder(URL, 0));
+        PrismImageLoader2 l2 = PrismImageCache.load(key(0), decoder(URL, 0));
+        assertSame(l1, l2);
+        assertEquals(1, numDecodes.get());
+        assertEquals(1, PrismImageCache.numHits.get());
+        assertEquals(1, PrismImageCache.numMisses.get());
+        assertEquals(IMAGE_BYTES, PrismImageCache.bytesCached.get());
+    }
+
+    @Test
+    public void testDifferentParametersAreMiss() throws Exception {
+        PrismImageCache.load(key(0), decoder(URL, 0));
+        PrismImageCache.load(key(1), decoder(URL, 1));
+        assertEquals(2, numDecodes.get());
+        assertEquals(2, PrismImageCache.numMisses.get());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() throws Exception {
+        String badUrl = "file:/does/not/exist.png";
+        PrismImageCache.Key badKey =
+            new PrismImageCache.Key(badUrl, 0, 0, true, true, 1.0f);
+        PrismImageLoader2 l = PrismImageCache.load(badKey, decoder(badUrl, 0));
+        assertNotNull(l.getException());
+        PrismImageCache.load(badKey, decoder(badUrl, 0));
+        assertEquals(2, numDecodes.get());
+        assertEquals(0, PrismImageCache.bytesCached.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        // the cache holds two images
+        PrismImageCache.load(key(0), decoder(URL, 0));
+        PrismImageCache.load(key(1), decoder(URL, 1));
+        PrismImageCache.load(key(0), decoder(URL, 0));
+        PrismImageCache.load(key(2), decoder(URL, 2)); // evicts key(1)
+        assertEquals(1, PrismImageCache.numEvicted.get());
+        PrismImageCache.load(key(0), decoder(URL, 0));
+        assertEquals(2, PrismImageCache.numHits.get());
+        PrismImageCache.load(key(1), decoder(URL, 1));
+        assertEquals(4, numDecodes.get());
+    }
+
+    // returns the loaders of a load and of a second load of the same key
+    // made while the first is decoding
+    private PrismImageLoader2[] loadConcurrently(
+            final Callable<PrismImageLoader2> decoder) throws Exception
+    {
+        final CountDownLatch decoding = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<PrismImageLoader2> slow = new Callable<PrismImageLoader2>() {
+            @Override
+            public PrismImageLoader2 call() throws Exception {
+                decoding.countDown();
+                release.await();
+                return decoder.call();
+            }
+        };
+        final PrismImageLoader2 result[] = new PrismImageLoader2[2];
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result[0] = PrismImageCache.load(key(0), slow);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        t.start();
+        decoding.await();
+        Thread waiter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result[1] = PrismImageCache.load(key(0), decoder);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        final CountDownLatch coalesced = new CountDownLatch(1);
+        PrismImageCache.coalescedLatch = coalesced;
+        waiter.start();
+        coalesced.await();
+        release.countDown();
+        t.join();
+        waiter.join();
+        return result;
+    }
+
+    @Test
+    public void testConcurrentLoadsShareOneDecode() throws Exception {
+        PrismImageLoader2[] result = loadConcurrently(decoder(URL, 0));
+        assertEquals(1, numDecodes.get());
+        assertEquals(1, PrismImageCache.numMisses.get());
+        assertEquals(1, PrismImageCache.numCoalesced.get());
+        assertSame(result[0], result[1]);
+        assertSame(result[0], PrismImageCache.load(key(0), decoder(URL, 0)));
+    }
+
+    @Test
+    public void testConcurrentLoadsDoNotShareStreamedFrames() throws Exception {
+        final byte[] gif = GIFFrameStreamTest.createAnimatedGIF();
+        PrismImageLoader2[] result = loadConcurrently(new Callable<PrismImageLoader2>() {
+            @Override
+            public PrismImageLoader2 call() {
+                numDecodes.incrementAndGet();
+                return new PrismImageLoader2(new ByteArrayInputStream(gif),
+                                             0, 0, true, false, 1);
+            }
+        });
+        assertEquals(1, numDecodes.get());
+        assertEquals(1, PrismImageCache.numCoalesced.get());
+        assertTrue(result[0].isStreaming());
+        assertTrue(result[1].isStreaming());
+        assertNotSame(result[0], result[1]);
+        assertEquals(result[0].getFrameCount(), result[1].getFrameCount());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.openpisces;
+
+import com.sun.javafx.geom.PathConsumer2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DasherTest {
+
+    static class RecordingConsumer implements PathConsumer2D {
+        final List<String> ops = new ArrayList<String>();
+
+        @Override public void moveTo(float x, float y) { ops.add("M" + x + "," + y); }
+        @Override public void lineTo(float x, float y) { ops.add("L" + x + "," + y); }
+        @Override public void quadTo(float x1, float y1, float x2, float y2) { ops.add("Q"); }
+        @Override public void curveTo(float x1, float y1, float x2, float y2,
+                                      float x3, float y3) { ops.add("C"); }
+        @Override public void closePath() { ops.add("Z"); }
+        @Override public void pathDone() { ops.add("."); }
+    }
+
+    private static List<String> dashCorner(float[] dash, float phase) {
+        RecordingConsumer rc = new RecordingConsumer();
+        Dasher d = new Dasher(rc, dash, phase);
+        d.moveTo(0, 0);
+        d.lineTo(10, 0);
+        d.lineTo(10, 10);
+        d.pathDone();
+        return rc.ops;
+    }
+
+    @Test
+    public void testDashedPolyline() {
+        // the first dash is emitted last so that it can be joined to the
+        // end of the path if the path is closed
+        assertEquals(Arrays.asList("M6.0,0.0", "L10.0,0.0",
+                                   "M10.0,2.0", "L10.0,6.0",
+                                   "M10.0,8.0", "L10.0,10.0",
+                                   "M0.0,0.0", "L4.0,0.0", "."),
+                     dashCorner(new float[] {4, 2}, 0));
+    }
+
+    @Test
+    public void testDashEndingOnVertex() {
+        assertEquals(Arrays.asList("M10.0,0.0", "L10.0,5.0",
+                                   "M0.0,0.0", "L5.0,0.0", "."),
+                     dashCorner(new float[] {5, 5}, 0));
+    }
+
+    @Test
+    public void testDashAcrossVertex() {
+        assertEquals(Arrays.asList("M0.0,0.0", "L10.0,0.0", "L10.0,2.0", "."),
+                     dashCorner(new float[] {12, 100}, 0));
+    }
+
+    @Test
+    public void testDashPhase() {
+        RecordingConsumer rc = new RecordingConsumer();
+        Dasher d = new Dasher(rc, new float[] {4, 2}, 5);
+        d.moveTo(0, 0);
+        d.lineTo(10, 0);
+        d.pathDone();
+        assertEquals(Arrays.asList("M1.0,0.0", "L5.0,0.0",
+                                   "M7.0,0.0", "L10.0,0.0", "."),
+                     rc.ops);
+    }
+
+    @Test
+    public void testClosedPathJoinsFirstDash() {
+        RecordingConsumer rc = new RecordingConsumer();
+        Dasher d = new Dasher(rc, new float[] {6, 2}, 0);
+        d.moveTo(0, 0);
+        d.lineTo(4, 0);
+        d.lineTo(4, 4);
+        d.lineTo(0, 4);
+        d.closePath();
+        d.pathDone();
+        assertEquals(Arrays.asList("M4.0,4.0", "L0.0,4.0", "L0.0,2.0",
+                                   "M0.0,0.0", "L4.0,0.0", "L4.0,2.0", "."),
+                     rc.ops);
+    }
+}
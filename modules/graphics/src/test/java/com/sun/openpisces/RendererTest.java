@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.openpisces;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RendererTest {
+    static final int X = 3, Y = 5, W = 100, H = 90;
+
+    static class TestConsumer implements AlphaConsumer {
+        final int coverage[] = new int[W * H];
+        final boolean rowSet[] = new boolean[H];
+        int maxalpha;
+
+        @Override public int getOriginX() { return X; }
+        @Override public int getOriginY() { return Y; }
+        @Override public int getWidth() { return W; }
+        @Override public int getHeight() { return H; }
+
+        @Override
+        public void setMaxAlpha(int maxalpha) {
+            this.maxalpha = maxalpha;
+        }
+
+        @Override
+        public void setAndClearRelativeAlphas(int[] alphaDeltas, int pix_y,
+                                              int firstdelta, int lastdelta)
+        {
+            int off = (pix_y - Y) * W;
+            assertFalse("row emitted twice", rowSet[pix_y - Y]);
+            rowSet[pix_y - Y] = true;
+            int a = 0;
+            for (int i = 0; i < W; i++) {
+                a += alphaDeltas[i];
+                alphaDeltas[i] = 0;
+                coverage[off + i] = a;
+            }
+        }
+    }
+
+    static Renderer setup(int windingRule) {
+        Renderer r = new Renderer(3, 3, X, Y, W, H, windingRule);
+        r.moveTo(10.3f, 8.1f);
+        r.curveTo(120f, -20f, 60f, 140f, 4.5f, 90.7f);
+        r.quadTo(50f, 50f, 95.2f, 12.9f);
+        r.lineTo(40.6f, 60.6f);
+        r.closePath();
+        r.moveTo(30f, 30f);
+        r.lineTo(70f, 32.5f);
+        r.lineTo(50f, 80.25f);
+        r.pathDone();
+        return r;
+    }
+
+    private void checkBands(int windingRule, int bandHeight) {
+        Renderer r = setup(windingRule);
+        TestConsumer serial = new TestConsumer();
+        r.produceAlphas(serial);
+
+        r = setup(windingRule);
+        TestConsumer banded = new TestConsumer();
+        banded.setMaxAlpha(r.getMaxAlpha());
+        int ymin = r.getOutpixMinY();
+        int ymax = r.getOutpixMaxY();
+        for (int y = ymin; y < ymax; y += bandHeight) {
+            r.produceAlphas(banded, y, Math.min(y + bandHeight, ymax));
+        }
+
+        assertEquals(serial.maxalpha, banded.maxalpha);
+        for (int y = ymin; y < ymax; y++) {
+            assertTrue("missing row "+y, banded.rowSet[y - Y]);
+        }
+        for (int i = 0; i < W * H; i++) {
+            // Edges active at the start of a band have their crossings
+            // computed directly rather than accumulated row by row, which
+            // may round to an adjacent sub-pixel sample.
+            int diff = Math.abs(serial.coverage[i] - banded.coverage[i]);
+            assertTrue("pixel "+(i % W)+", "+(i / W)+" differs by "+diff,
+                       diff <= 2);
+        }
+    }
+
+    @Test
+    public void testBandsMatchSerialNonZero() {
+        checkBands(Renderer.WIND_NON_ZERO, 7);
+    }
+
+    @Test
+    public void testBandsMatchSerialEvenOdd() {
+        checkBands(Renderer.WIND_EVEN_ODD, 16);
+    }
+
+    @Test
+    public void testSingleRowBands() {
+        checkBands(Renderer.WIND_NON_ZERO, 1);
+    }
+
+    @Test
+    public void testBandOutsideShapeIsEmpty() {
+        Renderer r = setup(Renderer.WIND_NON_ZERO);
+        TestConsumer tc = new TestConsumer();
+        tc.setMaxAlpha(r.getMaxAlpha());
+        r.produceAlphas(tc, r.getOutpixMaxY(), r.getOutpixMaxY() + 10);
+        for (boolean set : tc.rowSet) {
+            assertFalse(set);
+        }
+    }
+}
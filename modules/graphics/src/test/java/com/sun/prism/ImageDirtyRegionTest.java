@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism;
+
+import com.sun.javafx.geom.Rectangle;
+import java.nio.IntBuffer;
+import javafx.scene.image.PixelFormat;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ImageDirtyRegionTest {
+
+    Image image;
+
+    @Before
+    public void setUp() {
+        image = Image.fromIntArgbPreData(IntBuffer.allocate(100 * 50), 100, 50);
+    }
+
+    @Test
+    public void setArgbMarksPixel() {
+        int serial = image.getSerial();
+        image.setArgb(10, 20, 0xff000000);
+        assertTrue(image.getSerial() != serial);
+        assertEquals(new Rectangle(10, 20, 1, 1), image.getDirtyRegion(serial));
+    }
+
+    @Test
+    public void setPixelsRegionsAccumulate() {
+        int serial = image.getSerial();
+        int pixels[] = new int[4 * 4];
+        image.setPixels(5, 5, 4, 4, PixelFormat.getIntArgbPreInstance(), pixels, 0, 4);
+        image.setPixels(20, 30, 4, 4, PixelFormat.getIntArgbPreInstance(), pixels, 0, 4);
+        assertEquals(new Rectangle(5, 5, 19, 29), image.getDirtyRegion(serial));
+    }
+
+    @Test
+    public void markDirtyClipsToImage() {
+        int serial = image.getSerial();
+        image.markDirty(90, -10, 50, 20);
+        assertEquals(new Rectangle(90, 0, 10, 10), image.getDirtyRegion(serial));
+    }
+
+    @Test
+    public void resetDirtyRegionStartsFromCurrentSerial() {
+        int serial = image.getSerial();
+        image.setArgb(10, 20, 0xff000000);
+        image.resetDirtyRegion();
+        assertNull(image.getDirtyRegion(serial));
+        assertTrue(image.getDirtyRegion(image.getSerial()).isEmpty());
+        int serial2 = image.getSerial();
+        image.setArgb(1, 2, 0xff000000);
+        assertEquals(new Rectangle(1, 2, 1, 1), image.getDirtyRegion(serial2));
+    }
+
+    @Test
+    public void unknownSerialHasNoRegion() {
+        image.setArgb(10, 20, 0xff000000);
+        assertNull(image.getDirtyRegion(image.getSerial() + 1));
+    }
+
+    @Test
+    public void subImageSharesRegion() {
+        Image sub = image.createSubImage(10, 10, 20, 20);
+        int serial = image.getSerial();
+        image.markDirty(0, 0, 15, 15);
+        assertEquals(serial + 1, sub.getSerial());
+        assertEquals(new Rectangle(0, 0, 5, 5), sub.getDirtyRegion(serial));
+        sub.markDirty(19, 19, 1, 1);
+        assertEquals(new Rectangle(0, 0, 30, 30), image.getDirtyRegion(serial));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism;
+
+import com.sun.javafx.geom.transform.Affine2D;
+import com.sun.javafx.geom.transform.BaseTransform;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MipmapsTest {
+
+    private static int level(BaseTransform tx, float dw, float dh, float sw, float sh) {
+        return Mipmaps.getLevel(tx, 10, 10, 10 + dw, 10 + dh, 0, 0, sw, sh);
+    }
+
+    @Test
+    public void noMipmapAboveHalfScale() {
+        assertEquals(0, level(BaseTransform.IDENTITY_TRANSFORM, 100, 100, 100, 100));
+        assertEquals(0, level(BaseTransform.IDENTITY_TRANSFORM, 51, 51, 100, 100));
+        assertEquals(0, level(BaseTransform.IDENTITY_TRANSFORM, 400, 400, 100, 100));
+    }
+
+    @Test
+    public void levelFollowsScale() {
+        assertEquals(1, level(BaseTransform.IDENTITY_TRANSFORM, 50, 50, 100, 100));
+        assertEquals(1, level(BaseTransform.IDENTITY_TRANSFORM, 26, 26, 100, 100));
+        assertEquals(2, level(BaseTransform.IDENTITY_TRANSFORM, 25, 25, 100, 100));
+        assertEquals(6, level(BaseTransform.IDENTITY_TRANSFORM, 10, 10, 1000, 1000));
+    }
+
+    @Test
+    public void levelUsesLeastMinifiedAxis() {
+        assertEquals(1, level(BaseTransform.IDENTITY_TRANSFORM, 10, 50, 100, 100));
+        assertEquals(1, level(BaseTransform.IDENTITY_TRANSFORM, 50, 10, 100, 100));
+    }
+
+    @Test
+    public void levelIncludesTransform() {
+        Affine2D tx = new Affine2D();
+        tx.scale(0.25, 0.25);
+        assertEquals(2, level(tx, 100, 100, 100, 100));
+        tx.rotate(Math.PI / 3);
+        assertEquals(2, level(tx, 100, 100, 100, 100));
+        tx.scale(8, 8);
+        assertEquals(0, level(tx, 100, 100, 100, 100));
+    }
+
+    @Test
+    public void levelIsBounded() {
+        assertEquals(Mipmaps.MAX_LEVELS,
+                     level(BaseTransform.IDENTITY_TRANSFORM, 1, 1, 1e6f, 1e6f));
+        assertEquals(0, level(BaseTransform.IDENTITY_TRANSFORM, 0, 0, 100, 100));
+        assertEquals(0, level(BaseTransform.IDENTITY_TRANSFORM, 10, 10, 0, 0));
+    }
+
+    @Test
+    public void downsampleAveragesBlocks() {
+        byte src[] = new byte[4 * 2 * 4];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = (byte) (i * 8);
+        }
+        byte dst[] = Mipmaps.downsample(src, 4, 2, 2, 1);
+        assertEquals(2 * 4, dst.length);
+        for (int x = 0; x < 2; x++) {
+            for (int c = 0; c < 4; c++) {
+                int sum = (src[x * 8 + c] & 0xff) + (src[x * 8 + 4 + c] & 0xff) +
+                          (src[16 + x * 8 + c] & 0xff) + (src[16 + x * 8 + 4 + c] & 0xff);
+                assertEquals((sum + 2) / 4, dst[x * 4 + c] & 0xff);
+            }
+        }
+    }
+
+    @Test
+    public void downsampleRepeatsLastRowAndColumn() {
+        // a 3x1 image halves to 1x1 from its first 2 pixels, and a 1x3
+        // image repeats its only column
+        byte src[] = { 0, 0, 0, 0, (byte) 200, (byte) 200, (byte) 200, (byte) 200, 9, 9, 9, 9 };
+        byte dst[] = Mipmaps.downsample(src, 3, 1, 1, 1);
+        assertEquals(100, dst[0] & 0xff);
+        dst = Mipmaps.downsample(src, 1, 3, 1, 1);
+        assertEquals(100, dst[3] & 0xff);
+    }
+}
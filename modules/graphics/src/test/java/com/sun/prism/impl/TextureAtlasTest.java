@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl;
+
+import com.sun.prism.Image;
+import com.sun.prism.PixelFormat;
+import com.sun.prism.Texture;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TextureAtlasTest {
+
+    private static final int PAGE_SIZE = 256;
+
+    // A page texture which records the regions it is updated with
+    private static class PageHandler implements InvocationHandler {
+        final PixelFormat format;
+        final List<List<Integer>> updates = new ArrayList<List<Integer>>();
+        boolean surfaceLost;
+
+        PageHandler(PixelFormat format) {
+            this.format = format;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) {
+            String name = m.getName();
+            if (name.equals("getPixelFormat")) return format;
+            if (name.equals("getPhysicalWidth") || name.equals("getPhysicalHeight") ||
+                name.equals("getContentWidth") || name.equals("getContentHeight"))
+            {
+                return PAGE_SIZE;
+            }
+            if (name.equals("getContentX") || name.equals("getContentY")) return 0;
+            if (name.equals("isSurfaceLost")) return surfaceLost;
+            if (name.equals("getLinearFiltering")) return true;
+            if (name.equals("update") && args.length == 10) {
+                // dstx, dsty, srcx, srcy, srcw, srch
+                updates.add(Arrays.asList((Integer) args[2], (Integer) args[3],
+                                          (Integer) args[4], (Integer) args[5],
+                                          (Integer) args[6], (Integer) args[7]));
+                return null;
+            }
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("toString")) return "page";
+            return null;
+        }
+    }
+
+    private final List<PageHandler> pages = new ArrayList<PageHandler>();
+
+    private TextureAtlas createAtlas(int maxPages) {
+        return new TextureAtlas(null, PAGE_SIZE, 64, maxPages) {
+            @Override
+            boolean isFormatSupported(PixelFormat format) {
+                return true;
+            }
+
+            @Override
+            Texture createPageTexture(PixelFormat format, int size) {
+                PageHandler handler = new PageHandler(format);
+                pages.add(handler);
+                return (Texture) Proxy.newProxyInstance(
+                    Texture.class.getClassLoader(),
+                    new Class[] { Texture.class }, handler);
+            }
+        };
+    }
+
+    // the images stay reachable, so that only the tests collect them
+    private final List<Image> images = new ArrayList<Image>();
+
+    private Image image(int w, int h) {
+        Image image = Image.fromByteBgraPreData(new byte[w * h * 4], w, h);
+        images.add(image);
+        return image;
+    }
+
+    private static Set<List<Integer>> set(List<List<Integer>> updates) {
+        return new HashSet<List<Integer>>(updates);
+    }
+
+    @Test
+    public void acceptsSmallImagesOnly() {
+        TextureAtlas atlas = createAtlas(4);
+        assertTrue(atlas.accepts(image(64, 64)));
+        assertFalse(atlas.accepts(image(65, 10)));
+        assertFalse(atlas.accepts(image(10, 65)));
+        assertFalse(atlas.accepts(Image.fromByteAlphaData(new byte[16], 4, 4)));
+    }
+
+    @Test
+    public void imagesShareAPage() {
+        TextureAtlas atlas = createAtlas(4);
+        AtlasTexture t1 = atlas.allocate(image(10, 8));
+        AtlasTexture t2 = atlas.allocate(image(20, 8));
+        assertEquals(1, pages.size());
+        assertSame(t1.getAtlasTexture(), t2.getAtlasTexture());
+        assertTrue(t1.isLocked());
+        assertEquals(1, t1.getContentX());
+        assertEquals(1, t1.getContentY());
+        assertEquals(10, t1.getContentWidth());
+        assertEquals(8, t1.getContentHeight());
+        assertEquals(PAGE_SIZE, t1.getPhysicalWidth());
+        assertEquals(Texture.WrapMode.CLAMP_TO_EDGE, t1.getWrapMode());
+        // the second image is beside the first one and its border
+        assertTrue(t2.getContentX() >= 1 + 10 + 2);
+        assertFalse(t1.isSurfaceLost());
+    }
+
+    @Test
+    public void updateRepeatsEdgesInBorder() {
+        TextureAtlas atlas = createAtlas(4);
+        atlas.allocate(image(10, 8));
+        Set<List<Integer>> expected = new HashSet<List<Integer>>();
+        expected.add(Arrays.asList(1, 1, 0, 0, 10, 8));   // content
+        expected.add(Arrays.asList(1, 0, 0, 0, 10, 1));   // top
+        expected.add(Arrays.asList(1, 9, 0, 7, 10, 1));   // bottom
+        expected.add(Arrays.asList(0, 1, 0, 0, 1, 8));    // left
+        expected.add(Arrays.asList(11, 1, 9, 0, 1, 8));   // right
+        expected.add(Arrays.asList(0, 0, 0, 0, 1, 1));    // corners
+        expected.add(Arrays.asList(0, 9, 0, 7, 1, 1));
+        expected.add(Arrays.asList(11, 0, 9, 0, 1, 1));
+        expected.add(Arrays.asList(11, 9, 9, 7, 1, 1));
+        assertEquals(expected, set(pages.get(0).updates));
+        assertEquals(9, pages.get(0).updates.size());
+    }
+
+    @Test
+    public void interiorUpdateLeavesBorder() {
+        TextureAtlas atlas = createAtlas(4);
+        AtlasTexture tex = atlas.allocate(image(10, 8));
+        pages.get(0).updates.clear();
+        tex.update(ByteBuffer.allocate(16 * 4), PixelFormat.BYTE_BGRA_PRE,
+                   2, 2, 0, 0, 4, 4, 16, false);
+        assertEquals(1, pages.get(0).updates.size());
+        assertEquals(Arrays.asList(3, 3, 0, 0, 4, 4), pages.get(0).updates.get(0));
+    }
+
+    @Test
+    public void noSharingWithOtherWrapModes() {
+        TextureAtlas atlas = createAtlas(4);
+        AtlasTexture tex = atlas.allocate(image(10, 8));
+        assertNull(tex.getSharedTexture(Texture.WrapMode.REPEAT));
+        assertSame(tex, tex.getSharedTexture(Texture.WrapMode.CLAMP_TO_EDGE));
+        assertEquals(2, tex.getLockCount());
+    }
+
+    private List<AtlasTexture> fillPage(TextureAtlas atlas) {
+        // 66x66 cells, 3 rows of 3 fit in a 256x256 page
+        List<AtlasTexture> list = new ArrayList<AtlasTexture>();
+        for (int i = 0; i < 9; i++) {
+            AtlasTexture tex = atlas.allocate(image(64, 64));
+            assertNotNull(tex);
+            list.add(tex);
+        }
+        return list;
+    }
+
+    @Test
+    public void fullAtlasEvictsUnlockedPage() {
+        TextureAtlas atlas = createAtlas(1);
+        List<AtlasTexture> old = fillPage(atlas);
+        for (AtlasTexture tex : old) {
+            tex.unlock();
+        }
+        AtlasTexture tex = atlas.allocate(image(64, 64));
+        assertNotNull(tex);
+        assertEquals(1, pages.size());
+        assertFalse(tex.isSurfaceLost());
+        for (AtlasTexture t : old) {
+            assertTrue(t.isSurfaceLost());
+        }
+    }
+
+    @Test
+    public void lockedPagesAreNotEvicted() {
+        TextureAtlas atlas = createAtlas(1);
+        List<AtlasTexture> old = fillPage(atlas);
+        for (int i = 1; i < old.size(); i++) {
+            old.get(i).unlock();
+        }
+        assertNull(atlas.allocate(image(64, 64)));
+        for (AtlasTexture t : old) {
+            assertFalse(t.isSurfaceLost());
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedPageIsEvicted() {
+        TextureAtlas atlas = createAtlas(2);
+        List<AtlasTexture> first = fillPage(atlas);
+        List<AtlasTexture> second = fillPage(atlas);
+        for (AtlasTexture tex : second) {
+            tex.unlock();
+        }
+        for (AtlasTexture tex : first) {
+            tex.unlock();
+        }
+        // draw an image of the second page again
+        second.get(0).lock();
+        second.get(0).unlock();
+        atlas.allocate(image(64, 64));
+        assertEquals(2, pages.size());
+        assertTrue(first.get(0).isSurfaceLost());
+        assertFalse(second.get(0).isSurfaceLost());
+    }
+
+    @Test
+    public void lostPagesAreDropped() {
+        TextureAtlas atlas = createAtlas(1);
+        AtlasTexture tex = atlas.allocate(image(10, 10));
+        pages.get(0).surfaceLost = true;
+        assertTrue(tex.isSurfaceLost());
+        assertNotNull(atlas.allocate(image(10, 10)));
+        assertEquals(2, pages.size());
+    }
+
+    @Test
+    public void disposedImagesReleaseTheirPage() {
+        TextureAtlas atlas = createAtlas(1);
+        List<AtlasTexture> old = fillPage(atlas);
+        for (AtlasTexture tex : old) {
+            tex.unlock();
+            tex.dispose();
+        }
+        List<AtlasTexture> again = fillPage(atlas);
+        assertEquals(1, pages.size());
+        for (AtlasTexture tex : again) {
+            assertFalse(tex.isSurfaceLost());
+        }
+    }
+
+    @Test
+    public void collectedImagesReleaseTheirSpace() throws InterruptedException {
+        TextureAtlas atlas = createAtlas(1);
+        List<AtlasTexture> old = fillPage(atlas);
+        for (AtlasTexture tex : old) {
+            tex.unlock();
+        }
+        images.clear();
+        for (int i = 0; i < 10 && !old.get(0).isReclaimable(false); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertTrue(old.get(0).isReclaimable(false));
+        assertNotNull(atlas.allocate(image(64, 64)));
+        assertEquals(1, pages.size());
+    }
+
+    @Test
+    public void notUsefulImagesAreReleasedBeforeLiveOnes() {
+        TextureAtlas atlas = createAtlas(2);
+        List<AtlasTexture> live = fillPage(atlas);
+        List<AtlasTexture> temporary = fillPage(atlas);
+        for (AtlasTexture tex : live) {
+            tex.unlock();
+        }
+        // the live page is the least recently used one
+        for (AtlasTexture tex : temporary) {
+            tex.contentsNotUseful();
+            tex.unlock();
+        }
+        assertNotNull(atlas.allocate(image(64, 64)));
+        assertEquals(2, pages.size());
+        for (AtlasTexture tex : live) {
+            assertFalse(tex.isSurfaceLost());
+        }
+        for (AtlasTexture tex : temporary) {
+            assertTrue(tex.isSurfaceLost());
+        }
+    }
+
+    @Test
+    public void lockedImagesAreNotReleased() {
+        TextureAtlas atlas = createAtlas(1);
+        List<AtlasTexture> old = fillPage(atlas);
+        for (AtlasTexture tex : old) {
+            tex.contentsNotUseful();
+        }
+        assertNull(atlas.allocate(image(64, 64)));
+        for (AtlasTexture tex : old) {
+            assertFalse(tex.isSurfaceLost());
+        }
+    }
+
+    @Test
+    public void usefulAgainImagesAreKept() {
+        TextureAtlas atlas = createAtlas(1);
+        List<AtlasTexture> old = fillPage(atlas);
+        for (AtlasTexture tex : old) {
+            tex.contentsNotUseful();
+            tex.contentsUseful();
+        }
+        old.get(0).unlock();
+        assertNull(atlas.allocate(image(64, 64)));
+        assertFalse(old.get(0).isSurfaceLost());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl.ps;
+
+import com.sun.javafx.geom.RectBounds;
+import com.sun.javafx.geom.RoundRectangle2D;
+import com.sun.javafx.geom.Shape;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.prism.PixelFormat;
+import com.sun.prism.ResourceFactory;
+import com.sun.prism.Texture;
+import com.sun.prism.impl.ps.CachingShapeRepState.MaskCache;
+import com.sun.prism.impl.ps.CachingShapeRepState.MaskTexData;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MaskCacheTest {
+
+    // mask textures which record whether they were disposed
+    private final Set<Texture> disposed = new HashSet<Texture>();
+    private final Set<Texture> lost = new HashSet<Texture>();
+
+    private MaskCache createCache(long maxSize) {
+        return new MaskCache(maxSize) {
+            @Override
+            Texture createMaskTexture(ResourceFactory factory, int w, int h) {
+                return createTexture();
+            }
+        };
+    }
+
+    private Texture createTexture() {
+        return (Texture) Proxy.newProxyInstance(
+            Texture.class.getClassLoader(),
+            new Class[] { Texture.class },
+            new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method m, Object[] args) {
+                    String name = m.getName();
+                    if (name.equals("getPixelFormat")) return PixelFormat.BYTE_ALPHA;
+                    if (name.equals("isSurfaceLost")) return lost.contains(proxy);
+                    if (name.equals("dispose")) disposed.add((Texture) proxy);
+                    if (name.equals("hashCode")) return System.identityHashCode(proxy);
+                    if (name.equals("equals")) return proxy == args[0];
+                    return null;
+                }
+            });
+    }
+
+    private static Shape rect(float size) {
+        return new RoundRectangle2D(0, 0, size, size, 0, 0);
+    }
+
+    private static MaskTexData get(MaskCache cache, Shape shape, BaseTransform xform)
+    {
+        RectBounds bounds = new RectBounds();
+        bounds = (RectBounds) xform.transform(shape.getBounds(), bounds);
+        MaskTexData texData = new MaskTexData();
+        cache.get(null, texData, shape, null, xform, bounds, true);
+        return texData;
+    }
+
+    private MaskTexData get(MaskCache cache, Shape shape) {
+        return get(cache, shape, BaseTransform.IDENTITY_TRANSFORM);
+    }
+
+    @Test
+    public void testEqualShapeHits() {
+        MaskCache cache = createCache(1024 * 1024);
+        MaskTexData first = get(cache, rect(10));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        // another shape object with the same geometry, translated
+        MaskTexData second = get(cache, rect(10),
+                                 BaseTransform.getTranslateInstance(100, 50));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertSame(first.maskTex, second.maskTex);
+        assertEquals(first.maskX + 100, second.maskX, 0f);
+        assertEquals(first.maskY + 50, second.maskY, 0f);
+    }
+
+    @Test
+    public void testDifferentShapeOrScaleMisses() {
+        MaskCache cache = createCache(1024 * 1024);
+        MaskTexData first = get(cache, rect(10));
+        MaskTexData other = get(cache, rect(12));
+        MaskTexData scaled = get(cache, rect(10),
+                                 BaseTransform.getScaleInstance(2, 2));
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertNotSame(first.maskTex, other.maskTex);
+        assertNotSame(first.maskTex, scaled.maskTex);
+    }
+
+    @Test
+    public void testUnusedMaskIsKeptForReuse() {
+        MaskCache cache = createCache(1024 * 1024);
+        MaskTexData first = get(cache, rect(10));
+        Texture tex = first.maskTex;
+        cache.unref(first);
+        assertTrue(disposed.isEmpty());
+        assertSame(tex, get(cache, rect(10)).maskTex);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedUnusedMaskIsEvicted() {
+        MaskCache probe = createCache(1024 * 1024);
+        get(probe, rect(10));
+        long size = probe.getTotalPixels();
+        // room for two masks
+        MaskCache cache = createCache(size * 2 + size / 2);
+        MaskTexData a = get(cache, rect(10));
+        MaskTexData b = get(cache, new RoundRectangle2D(0, 0, 10, 10, 2, 2));
+        Texture texA = a.maskTex;
+        Texture texB = b.maskTex;
+        cache.unref(b);
+        cache.unref(a);
+        // use a again, so that b is the least recently used one
+        cache.unref(get(cache, rect(10)));
+        get(cache, new RoundRectangle2D(0, 0, 10, 10, 4, 4));
+        assertTrue(disposed.contains(texB));
+        assertFalse(disposed.contains(texA));
+        assertEquals(size * 2, cache.getTotalPixels());
+        assertSame(texA, get(cache, rect(10)).maskTex);
+    }
+
+    @Test
+    public void testMasksInUseBoundTheCache() {
+        MaskCache probe = createCache(1024 * 1024);
+        get(probe, rect(10));
+        long size = probe.getTotalPixels();
+        MaskCache cache = createCache(size * 2 + size / 2);
+        RectBounds bounds = new RectBounds(0, 0, 10, 10);
+        assertTrue(cache.hasRoom(bounds));
+        MaskTexData a = get(cache, rect(10));
+        get(cache, new RoundRectangle2D(0, 0, 10, 10, 2, 2));
+        // both masks are in use, none can be evicted for a third one
+        assertFalse(cache.hasRoom(bounds));
+        cache.unref(a);
+        assertTrue(cache.hasRoom(bounds));
+        assertFalse(cache.hasRoom(new RectBounds(0, 0, 513, 1)));
+        get(cache, new RoundRectangle2D(0, 0, 10, 10, 4, 4));
+        assertTrue(cache.getTotalPixels() <= size * 2 + size / 2);
+    }
+
+    @Test
+    public void testLostMaskIsDropped() {
+        MaskCache cache = createCache(1024 * 1024);
+        MaskTexData first = get(cache, rect(10));
+        Texture tex = first.maskTex;
+        cache.unref(first);
+        lost.add(tex);
+        MaskTexData second = get(cache, rect(10));
+        assertTrue(disposed.contains(tex));
+        assertNotSame(tex, second.maskTex);
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+}
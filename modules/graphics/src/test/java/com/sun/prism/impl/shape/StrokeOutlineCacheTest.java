@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl.shape;
+
+import com.sun.javafx.geom.Path2D;
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.openpisces.AlphaConsumer;
+import com.sun.openpisces.Renderer;
+import com.sun.prism.BasicStroke;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StrokeOutlineCacheTest {
+
+    static final BasicStroke DASHED =
+        new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10,
+                        new float[] {4, 2}, 0);
+
+    static Path2D gridLines(float offset) {
+        Path2D p = new Path2D();
+        for (int i = 0; i < 5; i++) {
+            p.moveTo(offset, 10 + i * 10);
+            p.lineTo(offset + 80, 10 + i * 10);
+        }
+        return p;
+    }
+
+    static Path2D outline() {
+        Path2D p = new Path2D();
+        p.moveTo(0, 0);
+        p.lineTo(1, 1);
+        return p;
+    }
+
+    @Test
+    public void testCachedOnSecondUse() {
+        StrokeOutlineCache cache = new StrokeOutlineCache(1024);
+        Path2D path = gridLines(0);
+        assertNull(cache.get(path, DASHED));
+        assertFalse(cache.isWanted());
+        assertNull(cache.get(path, DASHED));
+        assertTrue(cache.isWanted());
+        Path2D outline = outline();
+        cache.put(outline);
+        assertSame(outline, cache.get(path, DASHED));
+        // equal geometry in another path object also matches
+        assertSame(outline, cache.get(gridLines(0), DASHED.copy()));
+    }
+
+    @Test
+    public void testGeometryChangeMisses() {
+        StrokeOutlineCache cache = new StrokeOutlineCache(1024);
+        Path2D path = gridLines(0);
+        cache.get(path, DASHED);
+        cache.get(path, DASHED);
+        cache.put(outline());
+        path.lineTo(0, 0);
+        assertNull(cache.get(path, DASHED));
+        assertFalse(cache.isWanted());
+    }
+
+    @Test
+    public void testStrokeChangeMisses() {
+        StrokeOutlineCache cache = new StrokeOutlineCache(1024);
+        Path2D path = gridLines(0);
+        BasicStroke stroke = DASHED.copy();
+        cache.get(path, stroke);
+        cache.get(path, stroke);
+        cache.put(outline());
+        stroke.set(new float[] {3, 3}, 0);
+        assertNull(cache.get(path, stroke));
+    }
+
+    private static void cache(StrokeOutlineCache cache, Path2D path) {
+        cache.get(path, DASHED);
+        cache.get(path, DASHED);
+        assertTrue(cache.isWanted());
+        cache.put(outline());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        // room for the geometry and outlines of two paths only
+        int size = new Path2D(gridLines(0)).getFloatCoordsNoClone().length +
+                   outline().getFloatCoordsNoClone().length;
+        StrokeOutlineCache cache = new StrokeOutlineCache(size * 2 + size / 2);
+        cache(cache, gridLines(0));
+        cache(cache, gridLines(1));
+        assertNotNull(cache.get(gridLines(0), DASHED));
+        cache(cache, gridLines(2));
+        assertNotNull(cache.get(gridLines(0), DASHED));
+        assertNotNull(cache.get(gridLines(2), DASHED));
+        assertNull(cache.get(gridLines(1), DASHED));
+    }
+
+    @Test
+    public void testFirstUseIsNotCopied() {
+        StrokeOutlineCache cache = new StrokeOutlineCache(1024);
+        Path2D path = gridLines(0);
+        cache.get(path, DASHED);
+        // a path changed since its first use is seen for the first time
+        path.lineTo(0, 0);
+        assertNull(cache.get(path, DASHED));
+        assertFalse(cache.isWanted());
+        // paths seen once do not take room from the cached outlines
+        int size = new Path2D(gridLines(0)).getFloatCoordsNoClone().length +
+                   outline().getFloatCoordsNoClone().length;
+        cache = new StrokeOutlineCache(size);
+        cache(cache, gridLines(0));
+        for (int i = 1; i < 1000; i++) {
+            assertNull(cache.get(gridLines(i), DASHED));
+            assertFalse(cache.isWanted());
+        }
+        assertNotNull(cache.get(gridLines(0), DASHED));
+    }
+
+    static class CoverageConsumer implements AlphaConsumer {
+        final int x, y, w, h;
+        final int coverage[];
+
+        CoverageConsumer(Renderer r) {
+            x = r.getOutpixMinX();
+            y = r.getOutpixMinY();
+            w = r.getOutpixMaxX() - x;
+            h = r.getOutpixMaxY() - y;
+            coverage = new int[w * h];
+        }
+
+        @Override public int getOriginX() { return x; }
+        @Override public int getOriginY() { return y; }
+        @Override public int getWidth() { return w; }
+        @Override public int getHeight() { return h; }
+        @Override public void setMaxAlpha(int maxalpha) { }
+
+        @Override
+        public void setAndClearRelativeAlphas(int[] alphaDeltas, int pix_y,
+                                              int firstdelta, int lastdelta)
+        {
+            int a = 0;
+            for (int i = 0; i < w; i++) {
+                a += alphaDeltas[i];
+                alphaDeltas[i] = 0;
+                coverage[(pix_y - y) * w + i] = a;
+            }
+        }
+    }
+
+    private static int[] render(Path2D path) {
+        Renderer r = OpenPiscesPrismUtils.setupRenderer(path, DASHED,
+                                                        BaseTransform.IDENTITY_TRANSFORM,
+                                                        new Rectangle(0, 0, 100, 100));
+        CoverageConsumer c = new CoverageConsumer(r);
+        r.produceAlphas(c);
+        return c.coverage;
+    }
+
+    @Test
+    public void testCachedOutlineRendersSameCoverage() {
+        Path2D path = gridLines(0.25f);
+        int[] stroked = render(path);
+        // the second time the outline is built for the cache,
+        // the third time it comes from the cache
+        assertArrayEquals(stroked, render(path));
+        assertArrayEquals(stroked, render(path));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.sw;
+
+import com.sun.javafx.geom.Ellipse2D;
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.geom.RoundRectangle2D;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.prism.BasicStroke;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SWContextTest {
+
+    // the default prism.parallelraster.threshold is 256x256 pixels
+    private static final Rectangle CLIP = new Rectangle(0, 0, 1000, 1000);
+
+    private SWContext.JavaShapeRenderer renderer;
+
+    @Before
+    public void setUp() {
+        renderer = new SWContext(null).new JavaShapeRenderer();
+    }
+
+    @Test
+    public void smallShapesAreStreamed() {
+        assertFalse(renderer.isLargeShape(new Ellipse2D(0, 0, 100, 100), null,
+                                          BaseTransform.IDENTITY_TRANSFORM, CLIP));
+    }
+
+    @Test
+    public void largeShapesAreRasterizedInBands() {
+        assertTrue(renderer.isLargeShape(new Ellipse2D(0, 0, 300, 300), null,
+                                         BaseTransform.IDENTITY_TRANSFORM, CLIP));
+    }
+
+    @Test
+    public void transformedSizeIsUsed() {
+        BaseTransform scale = BaseTransform.getScaleInstance(3, 3);
+        assertTrue(renderer.isLargeShape(new Ellipse2D(0, 0, 100, 100), null, scale, CLIP));
+        BaseTransform shrink = BaseTransform.getScaleInstance(0.5, 0.5);
+        assertFalse(renderer.isLargeShape(new Ellipse2D(0, 0, 300, 300), null, shrink, CLIP));
+    }
+
+    @Test
+    public void clippedSizeIsUsed() {
+        Rectangle clip = new Rectangle(0, 0, 100, 100);
+        assertFalse(renderer.isLargeShape(new Ellipse2D(0, 0, 300, 300), null,
+                                          BaseTransform.IDENTITY_TRANSFORM, clip));
+        BaseTransform away = BaseTransform.getTranslateInstance(2000, 0);
+        assertFalse(renderer.isLargeShape(new Ellipse2D(0, 0, 300, 300), null, away, CLIP));
+    }
+
+    @Test
+    public void strokeWidthIsIncluded() {
+        RoundRectangle2D shape = new RoundRectangle2D(0, 0, 250, 250, 10, 10);
+        assertFalse(renderer.isLargeShape(shape, null, BaseTransform.IDENTITY_TRANSFORM, CLIP));
+        BasicStroke stroke = new BasicStroke(10, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER, 10);
+        assertTrue(renderer.isLargeShape(shape, stroke, BaseTransform.IDENTITY_TRANSFORM, CLIP));
+    }
+
+    @Test
+    public void disposeWithoutLargeShapes() {
+        renderer.dispose();
+        renderer.dispose();
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.scenario.effect.impl;
+
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.scenario.effect.Effect.AccelType;
+import com.sun.scenario.effect.FilterContext;
+import com.sun.scenario.effect.Filterable;
+import com.sun.scenario.effect.ImageData;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ImagePoolTest {
+
+    @Test
+    public void testSizeClass() {
+        assertEquals(32, ImagePool.sizeClass(1));
+        assertEquals(32, ImagePool.sizeClass(32));
+        assertEquals(64, ImagePool.sizeClass(33));
+        assertEquals(128, ImagePool.sizeClass(128));
+        assertEquals(160, ImagePool.sizeClass(129));
+        assertEquals(256, ImagePool.sizeClass(256));
+        assertEquals(320, ImagePool.sizeClass(257));
+        assertEquals(640, ImagePool.sizeClass(600));
+        assertEquals(1280, ImagePool.sizeClass(1025));
+    }
+
+    @Test
+    public void testReuseWithinSizeClass() {
+        ImagePool pool = new ImagePool();
+        StubRenderer r = new StubRenderer();
+        Filterable a = pool.checkOut(r, 100, 50);
+        assertEquals(128, a.getPhysicalWidth());
+        assertEquals(64, a.getPhysicalHeight());
+        pool.checkIn(a);
+        Filterable b = pool.checkOut(r, 120, 40);
+        assertSame(a, b);
+        assertEquals(1, r.created);
+        Filterable c = pool.checkOut(r, 100, 50);
+        assertNotSame(a, c);
+        assertEquals(2, r.created);
+    }
+
+    @Test
+    public void testDifferentSizeClassNotReused() {
+        ImagePool pool = new ImagePool();
+        StubRenderer r = new StubRenderer();
+        Filterable a = pool.checkOut(r, 300, 300);
+        pool.checkIn(a);
+        Filterable b = pool.checkOut(r, 100, 100);
+        assertNotSame(a, b);
+        assertEquals(2, r.created);
+    }
+
+    @Test
+    public void testCheckInAnyOrder() {
+        ImagePool pool = new ImagePool();
+        StubRenderer r = new StubRenderer();
+        Filterable imgs[] = new Filterable[50];
+        for (int i = 0; i < imgs.length; i++) {
+            imgs[i] = pool.checkOut(r, 10, 10);
+        }
+        for (int i = 0; i < imgs.length; i++) {
+            pool.checkIn(imgs[(i * 7) % imgs.length]);
+        }
+        for (int i = 0; i < imgs.length; i++) {
+            pool.checkOut(r, 10, 10);
+        }
+        assertEquals(imgs.length, r.created);
+    }
+
+    @Test
+    public void testLostImageNotReused() {
+        ImagePool pool = new ImagePool();
+        StubRenderer r = new StubRenderer();
+        StubImage a = (StubImage) pool.checkOut(r, 10, 10);
+        pool.checkIn(a);
+        a.lost = true;
+        assertNotSame(a, pool.checkOut(r, 10, 10));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        ImagePool pool = new ImagePool();
+        StubRenderer r = new StubRenderer();
+        // each of these takes up the whole default pool size
+        StubImage a = (StubImage) pool.checkOut(r, 4096, 4096);
+        StubImage b = (StubImage) pool.checkOut(r, 4096, 4000);
+        pool.checkIn(a);
+        assertFalse(a.flushed);
+        pool.checkIn(b);
+        assertTrue(a.flushed);
+        assertFalse(b.flushed);
+        assertSame(b, pool.checkOut(r, 4096, 4000));
+        assertNotSame(a, pool.checkOut(r, 4096, 4096));
+    }
+
+    @Test
+    public void testStatsCountEveryCheckOut() throws InterruptedException {
+        final int numThreads = 4;
+        final int numCheckOuts = 10000;
+        ImagePoolStats stats = ImagePoolStats.getDefaultBean();
+        long accesses = stats.getHits() + stats.getMisses();
+        long created = stats.getImagesCreated();
+        Thread threads[] = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            // each thread uses its own pool, as each renderer does
+            threads[t] = new Thread() {
+                @Override public void run() {
+                    ImagePool pool = new ImagePool();
+                    StubRenderer r = new StubRenderer();
+                    for (int i = 0; i < numCheckOuts; i++) {
+                        pool.checkIn(pool.checkOut(r, 10, 10));
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(accesses + numThreads * numCheckOuts,
+                     stats.getHits() + stats.getMisses());
+        assertEquals(created + numThreads, stats.getImagesCreated());
+    }
+
+    static class StubImage implements Filterable {
+        final int w, h;
+        boolean lost;
+        boolean flushed;
+
+        StubImage(int w, int h) {
+            this.w = w;
+            this.h = h;
+        }
+
+        @Override public Object getData() { return this; }
+        @Override public int getContentWidth() { return w; }
+        @Override public int getContentHeight() { return h; }
+        @Override public void setContentWidth(int contentW) { }
+        @Override public void setContentHeight(int contentH) { }
+        @Override public int getMaxContentWidth() { return w; }
+        @Override public int getMaxContentHeight() { return h; }
+        @Override public int getPhysicalWidth() { return w; }
+        @Override public int getPhysicalHeight() { return h; }
+        @Override public float getPixelScale() { return 1f; }
+        @Override public void flush() { flushed = true; }
+        @Override public void lock() { }
+        @Override public void unlock() { }
+        @Override public boolean isLost() { return lost; }
+    }
+
+    static class StubRenderer extends Renderer {
+        int created;
+
+        @Override public AccelType getAccelType() { return AccelType.NONE; }
+        @Override public int getCompatibleWidth(int w) { return w; }
+        @Override public int getCompatibleHeight(int h) { return h; }
+        @Override public Filterable createCompatibleImage(int w, int h) {
+            created++;
+            return new StubImage(w, h);
+        }
+        @Override public void clearImage(Filterable image) { }
+        @Override public ImageData createImageData(FilterContext fctx, Filterable src) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public Filterable transform(FilterContext fctx, Filterable original,
+                                              BaseTransform transform,
+                                              Rectangle origBounds, Rectangle xformBounds) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public ImageData transform(FilterContext fctx, ImageData original,
+                                             BaseTransform transform,
+                                             Rectangle origBounds, Rectangle xformBounds) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public RendererState getRendererState() { return RendererState.OK; }
+        @Override protected EffectPeer createPeer(FilterContext fctx, String name, int unrollCount) {
+            return null;
+        }
+        @Override protected Renderer getBackupRenderer() { return this; }
+        @Override public boolean isImageDataCompatible(ImageData id) { return true; }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.scenario.effect.impl.prism;
+
+import com.sun.javafx.geom.BaseBounds;
+import com.sun.javafx.geom.RectBounds;
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.prism.Graphics;
+import com.sun.scenario.effect.Effect;
+import com.sun.scenario.effect.FilterContext;
+import com.sun.scenario.effect.ImageData;
+import com.sun.scenario.effect.impl.ImagePoolStats;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PrEffectCacheTest {
+
+    private final FilterContext fctx = new FilterContext(new Object()) { };
+    private final List<TestCache> caches = new ArrayList<TestCache>();
+
+    // an effect of the given size which counts how often it is applied
+    private static class TestEffect extends Effect {
+        final int size;
+        int filtered;
+
+        TestEffect(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public ImageData filter(FilterContext fctx, BaseTransform transform,
+                                Rectangle outputClip, Object renderHelper,
+                                Effect defaultInput)
+        {
+            filtered++;
+            return new TestImageData(new Rectangle(0, 0, size, size));
+        }
+
+        @Override
+        public BaseBounds getBounds(BaseTransform transform, Effect defaultInput) {
+            return transformBounds(transform, new RectBounds(0, 0, size, size));
+        }
+
+        @Override
+        public boolean reducesOpaquePixels() {
+            return false;
+        }
+
+        @Override
+        public AccelType getAccelType(FilterContext fctx) {
+            return AccelType.NONE;
+        }
+    }
+
+    private static class TestImageData extends ImageData {
+        boolean lost;
+
+        TestImageData(Rectangle bounds) {
+            super(null, null, bounds);
+        }
+
+        @Override
+        public boolean validate(FilterContext fctx) {
+            return !lost;
+        }
+    }
+
+    // records how the effect was rendered instead of rendering it
+    private static class TestCache extends PrEffectCache {
+        int uncached;
+        int drawn;
+        ImageData lastDrawn;
+        double lastDx, lastDy;
+
+        @Override
+        void renderEffect(Effect effect, Graphics g, Effect defaultInput) {
+            uncached++;
+        }
+
+        @Override
+        void drawResult(Graphics g, ImageData res, double dx, double dy) {
+            drawn++;
+            lastDrawn = res;
+            lastDx = dx;
+            lastDy = dy;
+        }
+    }
+
+    private TestCache createCache() {
+        TestCache cache = new TestCache();
+        caches.add(cache);
+        return cache;
+    }
+
+    private void render(TestCache cache, Effect effect, BaseTransform xform) {
+        cache.render(effect, null, xform, fctx, null);
+    }
+
+    private static BaseTransform translate(double tx, double ty) {
+        return BaseTransform.getTranslateInstance(tx, ty);
+    }
+
+    @After
+    public void tearDown() {
+        // return the pixels to the budget shared by all of the tests
+        for (TestCache cache : caches) {
+            cache.invalidate();
+        }
+    }
+
+    @Test
+    public void testUnchangedContentIsCachedOnSecondRendering() {
+        TestCache cache = createCache();
+        TestEffect effect = new TestEffect(100);
+        render(cache, effect, translate(0, 0));
+        assertEquals(1, cache.uncached);
+        assertEquals(0, effect.filtered);
+        render(cache, effect, translate(0, 0));
+        assertEquals(1, effect.filtered);
+        assertEquals(1, cache.drawn);
+        render(cache, effect, translate(0, 0));
+        render(cache, effect, translate(0, 0));
+        // drawn again from the cache without filtering
+        assertEquals(1, effect.filtered);
+        assertEquals(3, cache.drawn);
+        assertEquals(1, cache.uncached);
+    }
+
+    @Test
+    public void testWholePixelTranslationHits() {
+        TestCache cache = createCache();
+        TestEffect effect = new TestEffect(100);
+        render(cache, effect, translate(5, 5));
+        render(cache, effect, translate(5, 5));
+        ImageData cached = cache.lastDrawn;
+        render(cache, effect, translate(15, -3));
+        assertEquals(1, effect.filtered);
+        assertSame(cached, cache.lastDrawn);
+        assertEquals(10, cache.lastDx, 0);
+        assertEquals(-8, cache.lastDy, 0);
+    }
+
+    @Test
+    public void testTransformChangeInvalidates() {
+        TestCache cache = createCache();
+        TestEffect effect = new TestEffect(100);
+        render(cache, effect, translate(0, 0));
+        render(cache, effect, translate(0, 0));
+        // a sub-pixel move cannot reuse the pixels
+        render(cache, effect, translate(0.5, 0));
+        assertEquals(2, cache.uncached);
+        assertEquals(1, effect.filtered);
+        // it is cached again once the transform stays put
+        render(cache, effect, translate(0.5, 0));
+        assertEquals(2, effect.filtered);
+        render(cache, effect, BaseTransform.getScaleInstance(2, 2));
+        assertEquals(3, cache.uncached);
+        assertEquals(2, effect.filtered);
+    }
+
+    @Test
+    public void testInvalidateDropsResult() {
+        TestCache cache = createCache();
+        TestEffect effect = new TestEffect(100);
+        long retained = ImagePoolStats.getDefaultBean().getPixelsRetained();
+        render(cache, effect, translate(0, 0));
+        render(cache, effect, translate(0, 0));
+        assertEquals(retained + 100 * 100,
+                     ImagePoolStats.getDefaultBean().getPixelsRetained());
+        // the owner calls this when the content or the effect changes
+        cache.invalidate();
+        assertEquals(retained, ImagePoolStats.getDefaultBean().getPixelsRetained());
+        render(cache, effect, translate(0, 0));
+        assertEquals(2, cache.uncached);
+        assertEquals(1, effect.filtered);
+    }
+
+    @Test
+    public void testLostResultIsFilteredAgain() {
+        TestCache cache = createCache();
+        TestEffect effect = new TestEffect(100);
+        render(cache, effect, translate(0, 0));
+        render(cache, effect, translate(0, 0));
+        ((TestImageData) cache.lastDrawn).lost = true;
+        render(cache, effect, translate(0, 0));
+        assertEquals(2, cache.uncached);
+        render(cache, effect, translate(0, 0));
+        assertEquals(2, effect.filtered);
+    }
+
+    @Test
+    public void testRetainedPixelsAreBounded() {
+        // the default budget is 4M pixels, two of these do not fit
+        TestEffect effect = new TestEffect(1500);
+        TestCache first = createCache();
+        render(first, effect, translate(0, 0));
+        render(first, effect, translate(0, 0));
+        assertEquals(1, effect.filtered);
+        TestCache second = createCache();
+        render(second, effect, translate(0, 0));
+        render(second, effect, translate(0, 0));
+        render(second, effect, translate(0, 0));
+        assertEquals(1, effect.filtered);
+        assertEquals(3, second.uncached);
+        // once the first result is released, the second one fits
+        first.invalidate();
+        render(second, effect, translate(0, 0));
+        assertEquals(2, effect.filtered);
+        assertEquals(3, second.uncached);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.scenario.effect.impl.sw.java;
+
+import com.sun.javafx.runtime.async.BackgroundExecutor;
+import com.sun.scenario.effect.FilterContext;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the filters which are split into ranges of lines produce
+ * the same pixels however the lines are split up.
+ */
+public class JSWEffectPeerBandTest {
+
+    private static final int SRCW = 37, SRCH = 29;
+    // the scanlines are padded, to catch writes outside of the lines
+    private static final int PAD = 3;
+
+    private final FilterContext fctx = new FilterContext(new Object()) { };
+
+    private int[] src;
+    private JSWEffectPeer.LineFilter filter;
+    private int count;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        src = new int[(SRCW + PAD) * SRCH];
+        for (int i = 0; i < src.length; i++) {
+            // premultiplied pixels, the components do not exceed alpha
+            int a = random.nextInt(256);
+            int r = random.nextInt(a + 1);
+            int g = random.nextInt(a + 1);
+            int b = random.nextInt(a + 1);
+            src[i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    // the peer methods hand their line filter to the test rather than run it
+    private void capture(JSWEffectPeer.LineFilter filter, int count) {
+        this.filter = filter;
+        this.count = count;
+    }
+
+    private void checkBands(int[] dst, int dstw, int dsth, int dstscan) {
+        assertNotNull(filter);
+        Arrays.fill(dst, 0x12345678);
+        filter.filterLines(0, count);
+        int[] expected = dst.clone();
+
+        // bands of a single line on the fork-join pool
+        Arrays.fill(dst, 0xdeadbeef);
+        BackgroundExecutor.getForkJoinPool().invoke(
+                new JSWEffectPeer.LineTask(filter, 0, count, 1));
+        checkPixels(expected, dst, dstw, dsth, dstscan);
+
+        // the first and last lines on their own
+        Arrays.fill(dst, 0xdeadbeef);
+        filter.filterLines(count - 1, count);
+        filter.filterLines(1, count - 1);
+        filter.filterLines(0, 1);
+        checkPixels(expected, dst, dstw, dsth, dstscan);
+
+        // uneven bands, last one first
+        Arrays.fill(dst, 0xdeadbeef);
+        for (int to = count; to > 0; to -= 7) {
+            filter.filterLines(Math.max(0, to - 7), to);
+        }
+        checkPixels(expected, dst, dstw, dsth, dstscan);
+    }
+
+    private static void checkPixels(int[] expected, int[] dst,
+                                    int dstw, int dsth, int dstscan)
+    {
+        for (int y = 0; y < dsth; y++) {
+            for (int x = 0; x < dstw; x++) {
+                int i = y * dstscan + x;
+                if (expected[i] != dst[i]) {
+                    fail("pixel (" + x + ", " + y + ") is " +
+                         Integer.toHexString(dst[i]) + " instead of " +
+                         Integer.toHexString(expected[i]));
+                }
+            }
+        }
+    }
+
+    private JSWBoxBlurPeer createBoxBlurPeer() {
+        return new JSWBoxBlurPeer(fctx, null, "BoxBlur") {
+            @Override
+            protected void filterLines(int count, int length, LineFilter filter) {
+                capture(filter, count);
+            }
+        };
+    }
+
+    private JSWBoxShadowPeer createBoxShadowPeer() {
+        return new JSWBoxShadowPeer(fctx, null, "BoxShadow") {
+            @Override
+            protected void filterLines(int count, int length, LineFilter filter) {
+                capture(filter, count);
+            }
+        };
+    }
+
+    @Test
+    public void testBoxBlurHorizontal() {
+        int dstw = SRCW + 4, dstscan = dstw + PAD;
+        int[] dst = new int[dstscan * SRCH];
+        createBoxBlurPeer().filterHorizontal(dst, dstw, SRCH, dstscan,
+                                             src, SRCW, SRCH, SRCW + PAD);
+        assertEquals(SRCH, count);
+        checkBands(dst, dstw, SRCH, dstscan);
+    }
+
+    @Test
+    public void testBoxBlurVertical() {
+        int dsth = SRCH + 4, dstscan = SRCW + PAD;
+        int[] dst = new int[dstscan * dsth];
+        createBoxBlurPeer().filterVertical(dst, SRCW, dsth, dstscan,
+                                           src, SRCW, SRCH, SRCW + PAD);
+        assertEquals(SRCW, count);
+        checkBands(dst, SRCW, dsth, dstscan);
+    }
+
+    @Test
+    public void testBoxShadowHorizontal() {
+        int dstw = SRCW + 6, dstscan = dstw + PAD;
+        int[] dst = new int[dstscan * SRCH];
+        createBoxShadowPeer().filterHorizontalBlack(dst, dstw, SRCH, dstscan,
+                                                    src, SRCW, SRCH, SRCW + PAD,
+                                                    0.3f);
+        checkBands(dst, dstw, SRCH, dstscan);
+    }
+
+    @Test
+    public void testBoxShadowVertical() {
+        int dsth = SRCH + 6, dstscan = SRCW + PAD;
+        int[] dst = new int[dstscan * dsth];
+        createBoxShadowPeer().filterVerticalBlack(dst, SRCW, dsth, dstscan,
+                                                  src, SRCW, SRCH, SRCW + PAD,
+                                                  0.3f);
+        checkBands(dst, SRCW, dsth, dstscan);
+        createBoxShadowPeer().filterVertical(dst, SRCW, dsth, dstscan,
+                                             src, SRCW, SRCH, SRCW + PAD,
+                                             0.5f, new float[] { 0.2f, 0.4f, 0.6f, 0.8f });
+        checkBands(dst, SRCW, dsth, dstscan);
+    }
+
+    @Test
+    public void testLinearConvolveRowsAndColumns() {
+        final JSWLinearConvolvePeer peer = new JSWLinearConvolvePeer(fctx, null, "LinearConvolve");
+        final float[] weights = { 0.1f, 0.2f, 0.4f, 0.2f, 0.1f,
+                                  0.1f, 0.2f, 0.4f, 0.2f, 0.1f };
+        final int dstw = SRCW + 4, dstscan = dstw + PAD;
+        final int[] dst = new int[dstscan * SRCH];
+        capture(new JSWEffectPeer.LineFilter() {
+            public void filterLines(int r0, int r1) {
+                peer.filterHV(dst, dstw, r0, r1, 1, dstscan,
+                              src, SRCW, SRCH, 1, SRCW + PAD,
+                              weights);
+            }
+        }, SRCH);
+        checkBands(dst, dstw, SRCH, dstscan);
+
+        final int dsth = SRCH + 4, vscan = SRCW + PAD;
+        final int[] vdst = new int[vscan * dsth];
+        capture(new JSWEffectPeer.LineFilter() {
+            public void filterLines(int r0, int r1) {
+                peer.filterHV(vdst, dsth, r0, r1, vscan, 1,
+                              src, SRCH, SRCW, SRCW + PAD, 1,
+                              weights);
+            }
+        }, SRCW);
+        checkBands(vdst, SRCW, dsth, vscan);
+    }
+
+    @Test
+    public void testLinearConvolveVector() {
+        final JSWLinearConvolvePeer peer = new JSWLinearConvolvePeer(fctx, null, "LinearConvolve");
+        final float[] weights = { 0.1f, 0.2f, 0.4f, 0.2f, 0.1f };
+        final int dstw = SRCW + 4, dstscan = dstw + PAD;
+        final int[] dst = new int[dstscan * SRCH];
+        // a slightly rotated and scaled sampling, whose source origin
+        // would drift if it were accumulated from band to band
+        capture(new JSWEffectPeer.LineFilter() {
+            public void filterLines(int y0, int y1) {
+                peer.filterVector(dst, dstw, y0, y1, dstscan,
+                                  src, SRCW, SRCH, SRCW + PAD,
+                                  weights, weights.length,
+                                  -2f, 0.5f,
+                                  -2.1f, 0f,
+                                  1.05f, 0f,
+                                  0.93f, 0.07f, -0.07f, 0.93f);
+            }
+        }, SRCH);
+        checkBands(dst, dstw, SRCH, dstscan);
+    }
+}
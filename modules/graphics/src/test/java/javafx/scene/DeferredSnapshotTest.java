@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javafx.scene.image.WritableImage;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Callback;
+import com.sun.javafx.pgstub.StubToolkit;
+import com.sun.javafx.tk.Toolkit;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DeferredSnapshotTest {
+    private StubToolkit toolkit;
+    private Group root;
+    private Scene scene;
+    private List<Object> results;
+    private List<Integer> widths;
+
+    @Before
+    public void setUp() {
+        toolkit = (StubToolkit) Toolkit.getToolkit();
+        toolkit.getRenderedBatchSizes().clear();
+        root = new Group();
+        scene = new Scene(root, 100, 100);
+        results = new ArrayList<Object>();
+        widths = new ArrayList<Integer>();
+    }
+
+    private Rectangle addRect(int size) {
+        Rectangle r = new Rectangle(size, size);
+        root.getChildren().add(r);
+        return r;
+    }
+
+    private Callback<SnapshotResult, Void> collector() {
+        return new Callback<SnapshotResult, Void>() {
+            @Override public Void call(SnapshotResult result) {
+                // errors thrown here are caught by the scene, so the
+                // results are checked after the pulse
+                results.add(result.getSource());
+                widths.add((int) result.getImage().getWidth());
+                return null;
+            }
+        };
+    }
+
+    private void checkWidths() {
+        assertEquals(results.size(), widths.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(results.get(i) instanceof Scene ? 100 : 10,
+                         (int) widths.get(i));
+        }
+    }
+
+    @Test
+    public void snapshotsOfOnePulseAreRenderedTogether() {
+        Rectangle r1 = addRect(10);
+        Rectangle r2 = addRect(10);
+        Rectangle r3 = addRect(10);
+        r1.snapshot(collector(), new SnapshotParameters(), null);
+        r2.snapshot(collector(), new SnapshotParameters(), null);
+        scene.snapshot(collector(), null);
+        r3.snapshot(collector(), new SnapshotParameters(), null);
+        assertEquals(0, results.size());
+
+        toolkit.firePulse();
+
+        assertEquals(Arrays.asList(4), toolkit.getRenderedBatchSizes());
+        assertEquals(Arrays.<Object>asList(r1, r2, scene, r3), results);
+        checkWidths();
+    }
+
+    @Test
+    public void snapshotsSharingACameraAreRenderedSeparately() {
+        Rectangle r1 = addRect(10);
+        scene.snapshot(collector(), null);
+        r1.snapshot(collector(), new SnapshotParameters(), null);
+        scene.snapshot(collector(), null);
+
+        toolkit.firePulse();
+
+        assertEquals(Arrays.asList(2, 1), toolkit.getRenderedBatchSizes());
+        assertEquals(Arrays.<Object>asList(scene, r1, scene), results);
+        checkWidths();
+    }
+
+    @Test
+    public void snapshotsSharingAnImageAreRenderedSeparately() {
+        Rectangle r1 = addRect(10);
+        Rectangle r2 = addRect(10);
+        WritableImage img = new WritableImage(10, 10);
+        r1.snapshot(collector(), new SnapshotParameters(), img);
+        r2.snapshot(collector(), new SnapshotParameters(), img);
+
+        toolkit.firePulse();
+
+        assertEquals(Arrays.asList(1, 1), toolkit.getRenderedBatchSizes());
+        assertEquals(Arrays.<Object>asList(r1, r2), results);
+        checkWidths();
+    }
+
+    @Test
+    public void synchronousSnapshotIsNotBatched() {
+        Rectangle r1 = addRect(10);
+        WritableImage img = r1.snapshot(new SnapshotParameters(), null);
+
+        assertEquals(10, (int) img.getWidth());
+        assertTrue(toolkit.getRenderedBatchSizes().isEmpty());
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.scene;
+
+import com.sun.javafx.css.StyleManager;
+import com.sun.javafx.css.parser.CSSParser;
+import com.sun.javafx.tk.Toolkit;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.beans.value.WritableValue;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Stage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class Parent_parallelCss_Test {
+
+    private static final int ROWS = 40;
+    private static final int CELLS = 8;
+    private static final int RESTYLED_ROW = 30;
+
+    private boolean parallelMatching;
+
+    @Before
+    public void setUp() throws IOException {
+        parallelMatching = CssStyleHelper.parallelMatching;
+
+        // Note: the name of the UA stylesheet must differ from the current one
+        // since StyleManager is a singleton.
+        StyleManager.getInstance().setDefaultUserAgentStylesheet(
+                CSSParser.getInstance().parse("Parent_parallelCss_Test",
+                ".root { -base: red; }" +
+                ".cell { -fx-fill: -base; }" +
+                ".row .cell { -fx-stroke: blue; }" +
+                ".odd > .cell { -fx-stroke-width: 3; }" +
+                ".row > #first { -fx-stroke: green; }" +
+                ".special .cell { -fx-fill: yellow; }"));
+    }
+
+    @After
+    public void tearDown() {
+        CssStyleHelper.parallelMatching = parallelMatching;
+    }
+
+    // The first cell restyles a later row while the subtree is being styled,
+    // after its selectors were matched.
+    private static class RestylingCell extends Rectangle {
+        private final Parent row;
+        boolean hadPendingMatches;
+
+        RestylingCell(Parent row) {
+            super(10, 10);
+            this.row = row;
+        }
+
+        @Override
+        protected void impl_processCSS(WritableValue<Boolean> cacheHint) {
+            if (row.getStyleClass().contains("special") == false) {
+                hadPendingMatches = CssStyleHelper.pendingMatches != null;
+                row.getStyleClass().add("special");
+            }
+            super.impl_processCSS(cacheHint);
+        }
+    }
+
+    private List<String> styleTree(boolean parallel) {
+        CssStyleHelper.parallelMatching = parallel;
+
+        Group root = new Group();
+        root.getStyleClass().add("root");
+        List<Group> rows = new ArrayList<Group>();
+        for (int r = 0; r < ROWS; r++) {
+            Group row = new Group();
+            row.getStyleClass().add("row");
+            if (r % 2 == 1) row.getStyleClass().add("odd");
+            rows.add(row);
+            root.getChildren().add(row);
+        }
+        RestylingCell restyler = new RestylingCell(rows.get(RESTYLED_ROW));
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < CELLS; c++) {
+                Rectangle cell = (r == 0 && c == 0) ? restyler : new Rectangle(10, 10);
+                cell.getStyleClass().add("cell");
+                if (c == 0) cell.setId("first");
+                rows.get(r).getChildren().add(cell);
+            }
+        }
+
+        Stage stage = new Stage();
+        stage.setScene(new Scene(root));
+        stage.show();
+        Toolkit.getToolkit().firePulse();
+
+        assertEquals(parallel, restyler.hadPendingMatches);
+        assertNull(CssStyleHelper.pendingMatches);
+
+        List<String> styles = new ArrayList<String>();
+        for (Group row : rows) {
+            for (Node node : row.getChildren()) {
+                Rectangle cell = (Rectangle) node;
+                styles.add(cell.getFill() + " " + cell.getStroke() + " " + cell.getStrokeWidth());
+            }
+        }
+        stage.hide();
+        return styles;
+    }
+
+    @Test
+    public void testParallelMatchingStylesLikeSequentialMatching() {
+        List<String> sequential = styleTree(false);
+        List<String> parallel = styleTree(true);
+        assertEquals(ROWS * CELLS, parallel.size());
+        for (int n = 0; n < parallel.size(); n++) {
+            assertEquals("cell " + n, sequential.get(n), parallel.get(n));
+        }
+    }
+
+    @Test
+    public void testRowRestyledMidPassIsMatchedAgain() {
+        List<String> styles = styleTree(true);
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < CELLS; c++) {
+                String style = styles.get(r * CELLS + c);
+                String fill = (r == RESTYLED_ROW) ? "0xffff00ff" : "0xff0000ff";
+                String stroke = (c == 0) ? "0x008000ff" : "0x0000ffff";
+                String width = (r % 2 == 1) ? "3.0" : "1.0";
+                assertEquals("row " + r + " cell " + c,
+                             fill + " " + stroke + " " + width, style);
+            }
+        }
+    }
+}
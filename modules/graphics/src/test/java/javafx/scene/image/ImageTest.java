@@ -35,6 +35,8 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.LinkedList;
 import java.util.Queue;
 
@@ -505,4 +507,32 @@ public final class ImageTest {
     public void createImageAsyncFromUnsupportedUrlTest() {
         new Image("unsupported:image.png", true);
     }
+
+    @Test
+    public void createWritableImageFromIntBufferTest() {
+        final WritableImage image =
+                new WritableImage(20, 10, PixelFormat.getIntArgbPreInstance(),
+                                  IntBuffer.allocate(30 * 10), 30);
+        assertEquals(20, image.getWidth(), 0);
+        assertEquals(10, image.getHeight(), 0);
+        assertNotNull(image.getPixelWriter());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void createWritableImageWithSmallStrideTest() {
+        new WritableImage(20, 10, PixelFormat.getByteBgraPreInstance(),
+                          ByteBuffer.allocate(20 * 10 * 4), 20);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void createWritableImageWithSmallBufferTest() {
+        new WritableImage(20, 10, PixelFormat.getIntArgbPreInstance(),
+                          IntBuffer.allocate(20 * 10 - 1), 20);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void createWritableImageWithUnsupportedFormatTest() {
+        new WritableImage(20, 10, PixelFormat.getIntArgbInstance(),
+                          IntBuffer.allocate(20 * 10), 20);
+    }
 }
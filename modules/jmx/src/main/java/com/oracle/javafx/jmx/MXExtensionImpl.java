@@ -25,8 +25,13 @@
 
 package com.oracle.javafx.jmx;
 
+import com.sun.javafx.css.CssProfiler;
 import com.sun.javafx.jmx.MXExtension;
+import com.sun.javafx.runtime.async.AsyncOperationScheduler;
+import com.sun.javafx.tk.quantum.ImageCacheStats;
+import com.sun.prism.impl.ps.ShapeMaskCacheStats;
 import com.sun.scenario.animation.AnimationPulse;
+import com.sun.scenario.effect.impl.ImagePoolStats;
 import java.lang.management.ManagementFactory;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
@@ -44,5 +49,25 @@ public final class MXExtensionImpl extends MXExtension {
         mbeanServer.registerMBean(
                 AnimationPulse.getDefaultBean(),
                 new ObjectName(":type=AnimationPulse"));
+
+        mbeanServer.registerMBean(
+                ImagePoolStats.getDefaultBean(),
+                new ObjectName(":type=ImagePool"));
+
+        mbeanServer.registerMBean(
+                ImageCacheStats.getDefaultBean(),
+                new ObjectName(":type=ImageCache"));
+
+        mbeanServer.registerMBean(
+                ShapeMaskCacheStats.getDefaultBean(),
+                new ObjectName(":type=ShapeMaskCache"));
+
+        mbeanServer.registerMBean(
+                AsyncOperationScheduler.getImageLoadingScheduler(),
+                new ObjectName(":type=ImageLoading"));
+
+        mbeanServer.registerMBean(
+                CssProfiler.getDefaultBean(),
+                new ObjectName(":type=CssProfiler"));
     }
 }